@@ -0,0 +1,58 @@
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+/**
+ * Represents one message of the conversation, either typed by the user or replied by FengWei.
+ * Messages are plain data shown by recycled cells, so a message takes no scene graph nodes of its own.
+ * A reply may start out pending and be filled in later, which must happen on the JavaFX application thread.
+ */
+public class ChatMessage {
+    private static final String PENDING_TEXT = "Working on it...";
+
+    private final boolean isFromUser;
+    private final ReadOnlyStringWrapper text;
+    private final ReadOnlyBooleanWrapper pending;
+
+    private ChatMessage(boolean isFromUser, String text, boolean isPending) {
+        this.isFromUser = isFromUser;
+        this.text = new ReadOnlyStringWrapper(text);
+        this.pending = new ReadOnlyBooleanWrapper(isPending);
+    }
+
+    public static ChatMessage fromUser(String text) {
+        return new ChatMessage(true, text, false);
+    }
+
+    public static ChatMessage fromFengWei(String text) {
+        return new ChatMessage(false, text, false);
+    }
+
+    /**
+     * Creates a reply from FengWei that is still being worked out, until {@code showReply} is called.
+     */
+    public static ChatMessage pendingReply() {
+        return new ChatMessage(false, PENDING_TEXT, true);
+    }
+
+    /**
+     * Fills in the text of a pending reply.
+     */
+    public void showReply(String replyText) {
+        text.set(replyText);
+        pending.set(false);
+    }
+
+    public boolean isFromUser() {
+        return isFromUser;
+    }
+
+    public ReadOnlyStringProperty textProperty() {
+        return text.getReadOnlyProperty();
+    }
+
+    public ReadOnlyBooleanProperty pendingProperty() {
+        return pending.getReadOnlyProperty();
+    }
+}
@@ -0,0 +1,36 @@
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+
+/**
+ * A cell of the conversation list, showing one message at a time in a dialog box that it keeps.
+ * The list only creates cells for the rows in view and reuses them as it scrolls, so the number of
+ * dialog boxes depends on the height of the window rather than on the length of the conversation.
+ */
+public class ConversationCell extends ListCell<ChatMessage> {
+    private static final String CELL_STYLE = "-fx-background-color: transparent; -fx-padding: 0;";
+
+    private final DialogBox dialogBox;
+
+    /**
+     * Creates a cell for a conversation list.
+     */
+    public ConversationCell(ListView<ChatMessage> conversation, Image userImage, Image fengWeiImage) {
+        this.dialogBox = new DialogBox(userImage, fengWeiImage, conversation.widthProperty());
+        setStyle(CELL_STYLE);
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+    }
+
+    @Override
+    protected void updateItem(ChatMessage message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        if (isEmpty || message == null) {
+            dialogBox.clear();
+            setGraphic(null);
+        } else {
+            dialogBox.show(message);
+            setGraphic(dialogBox);
+        }
+    }
+}
@@ -1,58 +1,81 @@
-import java.io.IOException;
-import java.util.Collections;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.beans.binding.Bindings;
+import javafx.beans.value.ObservableDoubleValue;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's face
  * and a label containing text from the speaker.
+ * The box is built in code instead of from FXML, and is reused by a cell to show one message after
+ * another as the conversation scrolls.
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
+    static final double PICTURE_SIZE = 99.0;
+    private static final double PENDING_INDICATOR_SIZE = 16;
+    private static final Insets PADDING = new Insets(15.0, 5.0, 15.0, 5.0);
+    // Room taken beside the text by the picture, the padding and the scroll bar
+    private static final double TEXT_WIDTH_MARGIN = PICTURE_SIZE + 40.0;
 
-    private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        dialog.setText(text);
-        displayPicture.setImage(img);
-    }
+    private final Label dialog = new Label();
+    private final ImageView displayPicture = new ImageView();
+    private final ProgressIndicator pendingIndicator = new ProgressIndicator();
+    private final Image userImage;
+    private final Image fengWeiImage;
+    private ChatMessage message;
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the right.
+     * Creates an empty dialog box whose text wraps to fit the given width.
      */
-    private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
+    public DialogBox(Image userImage, Image fengWeiImage, ObservableDoubleValue width) {
+        this.userImage = userImage;
+        this.fengWeiImage = fengWeiImage;
+        dialog.setWrapText(true);
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+        dialog.maxWidthProperty().bind(Bindings.subtract(width, TEXT_WIDTH_MARGIN));
+        displayPicture.setFitHeight(PICTURE_SIZE);
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
+        pendingIndicator.setPrefSize(PENDING_INDICATOR_SIZE, PENDING_INDICATOR_SIZE);
+        setPadding(PADDING);
     }
 
-    public static DialogBox getUserDialog(String text, Image img) {
-        return new DialogBox(text, img);
+    /**
+     * Shows a message, with the user's messages on the right and FengWei's replies on the left,
+     * following changes to its text until another message is shown.
+     */
+    public void show(ChatMessage newMessage) {
+        clear();
+        message = newMessage;
+        dialog.textProperty().bind(message.textProperty());
+        dialog.graphicProperty().bind(Bindings.when(message.pendingProperty())
+                .then((Node) pendingIndicator).otherwise((Node) null));
+        if (message.isFromUser()) {
+            displayPicture.setImage(userImage);
+            getChildren().setAll(dialog, displayPicture);
+            setAlignment(Pos.TOP_RIGHT);
+        } else {
+            displayPicture.setImage(fengWeiImage);
+            getChildren().setAll(displayPicture, dialog);
+            setAlignment(Pos.TOP_LEFT);
+        }
     }
 
-    public static DialogBox getFengWeiDialog(String text, Image img) {
-        var db = new DialogBox(text, img);
-        db.flip();
-        return db;
+    /**
+     * Stops following the message shown, so that a dropped message is not kept alive by the box.
+     */
+    public void clear() {
+        if (message != null) {
+            dialog.textProperty().unbind();
+            dialog.graphicProperty().unbind();
+            message = null;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,19 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import parser.CommandExecutor;
 import parser.Parser;
 import storage.TasksStorage;
+import tasks.ColumnarTaskStore;
+import tasks.ObjectTaskStore;
+import tasks.Task;
+import tasks.TaskChangeListener;
 import tasks.TaskList;
+import tasks.TaskOrder;
+import tasks.TaskStore;
+import tasks.UndoHistory;
 import ui.Ui;
 
 /**
@@ -13,10 +26,16 @@ public class FengWei {
     private static final String ERROR_INVALID_COMMAND = "OOPS!!! Invalid command!";
     private static final String ERROR_GENERAL = "OOPS!!! An error occurred: ";
     private static final String MESSAGE_BYE = "Bye. Hope to see you again soon!";
+    private static final String COLUMNAR_TASKS_PROPERTY = "fengwei.tasks.columnar";
+    private static final String TASK_METRICS_PROPERTY = "fengwei.tasks.metrics";
+    private static final long BYTES_PER_KILOBYTE = 1024;
+    private static final String UNDO_MAX_BYTES_PROPERTY = "fengwei.undo.maxBytes";
 
     private final Ui ui;
     private final TasksStorage storage;
     private final TaskList taskList;
+    private final UndoHistory history;
+    private final CommandExecutor commandExecutor;
 
     /**
      * Constructs a new FengWei application instance.
@@ -28,6 +47,8 @@ public class FengWei {
 
         this.storage = initializeStorage();
         this.taskList = initializeTaskList();
+        this.history = new UndoHistory(Long.getLong(UNDO_MAX_BYTES_PROPERTY, UndoHistory.DEFAULT_MAX_BYTES));
+        this.commandExecutor = new CommandExecutor(taskList, storage, history);
     }
 
     /**
@@ -49,14 +70,21 @@ public class FengWei {
 
     /**
      * Initializes the task list with tasks from storage.
-     * Falls back to empty list if loading fails.
+     * Falls back to empty list if loading fails. Prints the memory taken by the search indexes if the
+     * {@code fengwei.tasks.metrics} system property is set.
      *
      * @return TaskList instance
      */
     private TaskList initializeTaskList() {
         try {
-            TaskList taskList = new TaskList(storage.loadTasks());
+            List<Task> tasks = storage.loadTasks();
+            TaskList taskList = new TaskList(tasks, createTaskStore(tasks.size()));
+            taskList.skipIdsUpTo(storage.getLastId()); // IDs of tasks deleted before are not given out again
             assert taskList != null : "TaskList should be successfully initialized";
+            if (Boolean.getBoolean(TASK_METRICS_PROPERTY)) {
+                System.out.println("Search indexes of " + taskList.size() + " tasks take about "
+                        + taskList.estimateIndexBytes() / BYTES_PER_KILOBYTE + " KB");
+            }
             return taskList;
         } catch (Exception e) {
             System.err.println("Error loading tasks: " + e.getMessage());
@@ -67,6 +95,20 @@ public class FengWei {
         }
     }
 
+    /**
+     * Creates the store for the tasks, holding them in columns if the {@code fengwei.tasks.columnar}
+     * system property is set to true, and as objects otherwise.
+     *
+     * @param capacity the number of tasks to make room for
+     * @return an empty task store
+     */
+    private static TaskStore createTaskStore(int capacity) {
+        if (Boolean.getBoolean(COLUMNAR_TASKS_PROPERTY)) {
+            return new ColumnarTaskStore(capacity);
+        }
+        return new ObjectTaskStore(capacity);
+    }
+
     /**
      * Entry point for the application.
      *
@@ -89,6 +131,7 @@ public class FengWei {
     public void run() {
         ui.showWelcome();
         processUserCommands();
+        flushTasks();
         ui.showBye();
     }
 
@@ -107,7 +150,8 @@ public class FengWei {
                 }
 
                 if (isValidCommand(command)) {
-                    Parser.executeCommand(command, arguments, taskList, storage, ui);
+                    commandExecutor.run(() ->
+                            Parser.executeCommand(command, arguments, taskList, storage, history, ui));
                 } else {
                     ui.showError("Invalid command!");
                 }
@@ -139,13 +183,14 @@ public class FengWei {
 
     /**
      * Processes user input and returns a response for the GUI.
+     * Safe to call from any thread: read-only commands run on the calling thread against the latest
+     * snapshot of the task list, while other commands are queued for the writer thread and waited for.
      * @param input the user's input command
      * @return the response string to display in the GUI
      */
     public String getResponse(String input) {
         assert input != null : "Input should not be null";
-        assert storage != null : "Storage should be initialized before processing commands";
-        assert taskList != null : "TaskList should be initialized before processing commands";
+        assert commandExecutor != null : "Executor should be initialized before processing commands";
 
         try {
             String command = Parser.getCommand(input);
@@ -159,10 +204,11 @@ public class FengWei {
             }
 
             if (isExitCommand(command)) {
+                flushTasks();
                 return MESSAGE_BYE;
             }
 
-            String response = Parser.executeCommandForGui(command, arguments, taskList, storage);
+            String response = commandExecutor.execute(command, arguments);
             assert response != null : "Parser should never return null response";
             return response;
         } catch (Exception e) {
@@ -170,6 +216,79 @@ public class FengWei {
         }
     }
 
+    /**
+     * Writes any task changes still pending in the background to disk.
+     * Called before the application exits so that no change is lost. Runs on the writer thread, which
+     * owns the task list, so that the whole list can be saved if the journal cannot be written.
+     */
+    public void flushTasks() {
+        assert storage != null : "Storage should be initialized before flushing tasks";
+        commandExecutor.run(() -> storage.flush(taskList));
+    }
+
+    /**
+     * Completes what the user has typed so far, for the GUI.
+     * The first word is completed from the command names, and the argument of a search command
+     * from the task descriptions. The descriptions are looked up on the latest snapshot of the task
+     * list, so the call does not wait for the commands queued on the writer thread, but it may wait
+     * for other queries on the snapshot and should be made off the JavaFX application thread.
+     *
+     * @param input the text typed so far
+     * @param limit the maximum number of completions
+     * @return the completed inputs, empty if there is nothing to complete
+     */
+    public List<String> getCompletions(String input, int limit) {
+        assert input != null : "Input should not be null";
+        String trimmedInput = input.stripLeading();
+        int separator = trimmedInput.indexOf(' ');
+        if (separator < 0) {
+            return trimmedInput.isEmpty() ? new ArrayList<>() : Parser.completeCommand(trimmedInput, limit);
+        }
+
+        String command = trimmedInput.substring(0, separator);
+        String argument = trimmedInput.substring(separator + 1).stripLeading();
+        if (!Parser.isSearchCommand(command.toLowerCase()) || argument.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> completions = new ArrayList<>();
+        List<String> descriptions = commandExecutor.getSnapshot()
+                .read(list -> list.completeDescription(argument, limit));
+        for (String description : descriptions) {
+            completions.add(command + " " + description);
+        }
+        return completions;
+    }
+
+    /**
+     * Adds a listener told of every later change to the task list, after first telling it of the tasks
+     * already in the list as if they had just been added. The listener is called on the writer thread,
+     * in the order of the commands making the changes.
+     *
+     * @param listener the listener
+     */
+    public void watchTasks(TaskChangeListener listener) {
+        commandExecutor.submit(() -> {
+            taskList.addChangeListener(listener);
+            listener.tasksInserted(taskList, IntStream.range(0, taskList.size()).toArray());
+            return null;
+        });
+    }
+
+    /**
+     * Finds the IDs of the tasks in an order, from the indexes of the task list, once every command sent
+     * before has run. The IDs are passed to the consumer on the writer thread, after the changes made by
+     * those commands have been passed to the listeners.
+     *
+     * @param order the order
+     * @param onOrdered the consumer of the IDs in the order
+     */
+    public void orderTasks(TaskOrder order, Consumer<int[]> onOrdered) {
+        commandExecutor.submit(() -> {
+            onOrdered.accept(taskList.idsInOrder(order));
+            return null;
+        });
+    }
+
     /**
      * Gets the welcome message for GUI display.
      * @return the welcome message string
@@ -8,10 +8,12 @@ import javafx.stage.Stage;
 
 /**
  * A GUI for FengWei using FXML.
+ * The window is shown before the tasks are read, which happens in the background, so it appears as
+ * quickly however many tasks there are.
  */
 public class Main extends Application {
 
-    private FengWei fengWei = new FengWei();
+    private MainWindow mainWindow;
 
     @Override
     public void start(Stage stage) {
@@ -20,10 +22,18 @@ public class Main extends Application {
             AnchorPane ap = fxmlLoader.load();
             Scene scene = new Scene(ap);
             stage.setScene(scene);
-            fxmlLoader.<MainWindow>getController().setFengWei(fengWei);  // inject the FengWei instance
+            mainWindow = fxmlLoader.getController();
             stage.show();
+            mainWindow.loadFengWei(FengWei::new); // Read the tasks once the window is up
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void stop() {
+        if (mainWindow != null) {
+            mainWindow.flushTasks(); // Save pending changes when the window is closed
+        }
+    }
 }
@@ -1,71 +1,301 @@
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
+import javafx.geometry.Side;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 import javafx.application.Platform;
+import tasks.Task;
+import tasks.TaskOrder;
+import ui.Ui;
 
 /**
  * Controller for the main GUI.
  */
 public class MainWindow extends AnchorPane {
+    private static final int MAX_COMPLETIONS = 8;
+    private static final String COMPLETION_THREAD_NAME = "autocomplete";
+    private static final String COMMAND_THREAD_NAME = "gui-commands";
+    private static final long BYE_DELAY_MILLIS = 1500;
+    private static final String MAX_MESSAGES_PROPERTY = "fengwei.gui.maxMessages";
+    private static final int DEFAULT_MAX_MESSAGES = 1000;
+    private static final DateTimeFormatter TABLE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+    private static final double TABLE_ROW_HEIGHT = 24;
+    private static final double LOADING_INDICATOR_SIZE = 24;
+    private static final String ERROR_NOT_LOADED = "OOPS!!! Your tasks could not be loaded: ";
+
     @FXML
-    private ScrollPane scrollPane;
+    private ListView<ChatMessage> conversation;
     @FXML
-    private VBox dialogContainer;
+    private TableView<Task> taskTable;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
 
-    private FengWei fengWei;
+    // Set on the command thread once the tasks are loaded, and read on the JavaFX application thread
+    private volatile FengWei fengWei;
+    // Only used on the command thread
+    private String loadError;
+    private TaskTableModel taskTableModel;
+
+    private final ContextMenu completionMenu = new ContextMenu();
+    private final ExecutorService completionExecutor = createDaemonExecutor(COMPLETION_THREAD_NAME);
+    // Commands run one at a time in the order they were sent, so each sees the changes of those before it
+    private final ExecutorService commandExecutor = createDaemonExecutor(COMMAND_THREAD_NAME);
+    private long completionRequest;
+    // Older messages are dropped beyond this, so a long session does not keep growing
+    private final int maxMessages = Math.max(2, Integer.getInteger(MAX_MESSAGES_PROPERTY, DEFAULT_MAX_MESSAGES));
+
+    // Decoded in the background at the size they are shown, and drawn once ready
+    private Image userImage = loadPicture("/images/TheUser.png");
+    private Image fengWeiImage = loadPicture("/images/TheFengWei.png");
 
-    private Image userImage = new Image(this.getClass().getResourceAsStream("/images/TheUser.png"));
-    private Image fengWeiImage = new Image(this.getClass().getResourceAsStream("/images/TheFengWei.png"));
+    private static Image loadPicture(String path) {
+        String url = MainWindow.class.getResource(path).toExternalForm();
+        return new Image(url, DialogBox.PICTURE_SIZE, DialogBox.PICTURE_SIZE, true, true, true);
+    }
+
+    private static ExecutorService createDaemonExecutor(String threadName) {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        conversation.setCellFactory(list -> new ConversationCell(list, userImage, fengWeiImage));
+        conversation.setFocusTraversable(false);
+        setUpTaskTable();
+        // Show FengWei's introduction when the GUI starts, just like the CLI version, while the tasks load
+        addMessages(ChatMessage.fromFengWei(new Ui().getWelcomeMessage()));
+        userInput.textProperty().addListener((observable, oldText, newText) -> requestCompletions(newText));
+    }
+
+    /**
+     * Adds the columns of the task table. Fixed row heights let the table lay out only the rows in view
+     * without measuring the others, however many tasks there are.
+     */
+    private void setUpTaskTable() {
+        taskTable.getColumns().setAll(List.of(
+                createColumn("ID", task -> "#" + task.getId(), null),
+                createColumn("Type", task -> String.valueOf(task.getType()), TaskOrder.TYPE),
+                createColumn("Done", task -> task.isDone() ? "X" : "", TaskOrder.STATUS),
+                createColumn("Description", Task::getDescription, null),
+                createColumn("Date", MainWindow::formatTableDate, TaskOrder.DATE)));
+        taskTable.setFixedCellSize(TABLE_ROW_HEIGHT);
+        ProgressIndicator loadingIndicator = new ProgressIndicator();
+        loadingIndicator.setPrefSize(LOADING_INDICATOR_SIZE, LOADING_INDICATOR_SIZE);
+        taskTable.setPlaceholder(new Label("Loading tasks...", loadingIndicator));
+    }
+
+    /**
+     * Creates a column of the task table, sortable in the given order, if any.
+     */
+    private static TableColumn<Task, String> createColumn(String title, Function<Task, String> value,
+                                                          TaskOrder order) {
+        TableColumn<Task, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyStringWrapper(value.apply(cell.getValue())));
+        column.setSortable(order != null);
+        column.setUserData(order);
+        return column;
+    }
+
+    private static String formatTableDate(Task task) {
+        LocalDateTime date = TaskOrder.dateOf(task);
+        return date == null ? "" : date.format(TABLE_DATE_FORMAT);
+    }
+
+    /**
+     * Sorts the task table by the first column in its sort order, reading the order from the indexes of
+     * the task list instead of comparing the rows, and keeping it as tasks change.
+     */
+    private boolean sortTaskTable(TableView<Task> table) {
+        List<TableColumn<Task, ?>> sortOrder = table.getSortOrder();
+        if (sortOrder.isEmpty()) {
+            taskTableModel.sort(null, false);
+        } else {
+            TableColumn<Task, ?> column = sortOrder.get(0);
+            boolean isDescending = column.getSortType() == TableColumn.SortType.DESCENDING;
+            taskTableModel.sort((TaskOrder) column.getUserData(), isDescending);
+        }
+        return true;
+    }
+
+    /**
+     * Looks up completions for the typed text on a background thread and shows them above the input.
+     * Only the latest request is shown, so results of slower earlier lookups are dropped.
+     *
+     * @param text the text typed so far
+     */
+    private void requestCompletions(String text) {
+        long request = ++completionRequest;
+        if (fengWei == null || text.isEmpty()) {
+            completionMenu.hide();
+            return;
+        }
+        completionExecutor.execute(() -> {
+            List<String> completions = fengWei.getCompletions(text, MAX_COMPLETIONS);
+            Platform.runLater(() -> showCompletions(request, text, completions));
+        });
+    }
+
+    private void showCompletions(long request, String text, List<String> completions) {
+        if (request != completionRequest) {
+            return;
+        }
+        completionMenu.getItems().clear();
+        for (String completion : completions) {
+            if (completion.equals(text)) {
+                continue;
+            }
+            MenuItem item = new MenuItem(completion);
+            item.setOnAction(event -> {
+                userInput.setText(completion);
+                userInput.positionCaret(completion.length());
+            });
+            completionMenu.getItems().add(item);
+        }
+
+        if (completionMenu.getItems().isEmpty() || !userInput.isFocused()) {
+            completionMenu.hide();
+        } else if (!completionMenu.isShowing()) {
+            completionMenu.show(userInput, Side.TOP, 0, 0);
+        }
+    }
+
+    /**
+     * Creates the FengWei instance on the command thread, loading the tasks there while the window is
+     * already showing. Commands sent in the meantime wait behind the load, in the order they were sent.
+     *
+     * @param loader creates the FengWei instance, reading the tasks from disk
+     */
+    public void loadFengWei(Supplier<FengWei> loader) {
+        commandExecutor.execute(() -> {
+            try {
+                FengWei loaded = loader.get();
+                fengWei = loaded;
+                Platform.runLater(() -> showTasks(loaded));
+            } catch (RuntimeException e) {
+                String error = ERROR_NOT_LOADED + e.getMessage();
+                loadError = error;
+                Platform.runLater(() -> {
+                    taskTable.setPlaceholder(new Label("No tasks"));
+                    addMessages(ChatMessage.fromFengWei(error));
+                });
+            }
+        });
+    }
+
+    /**
+     * Fills the task table from a loaded FengWei instance.
+     */
+    private void showTasks(FengWei loaded) {
+        taskTableModel = new TaskTableModel(loaded);
+        taskTable.setItems(taskTableModel.getRows());
+        taskTable.setSortPolicy(this::sortTaskTable);
+        taskTable.setPlaceholder(new Label("No tasks yet"));
     }
 
-    /** Injects the FengWei instance */
-    public void setFengWei(FengWei f) {
-        fengWei = f;
-        // Show FengWei's introduction when the GUI starts, just like the CLI version
-        String welcomeMessage = fengWei.getWelcomeMessage();
-        dialogContainer.getChildren().add(
-                DialogBox.getFengWeiDialog(welcomeMessage, fengWeiImage)
-        );
+    /**
+     * Writes any task changes still pending to disk, if the tasks have been loaded.
+     */
+    public void flushTasks() {
+        FengWei loaded = fengWei;
+        if (loaded != null) {
+            loaded.flushTasks();
+        }
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing FengWei's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Appends messages to the conversation, drops the oldest ones beyond the retention limit and
+     * scrolls to the bottom.
+     */
+    private void addMessages(ChatMessage... messages) {
+        ObservableList<ChatMessage> items = conversation.getItems();
+        items.addAll(messages);
+        if (items.size() > maxMessages) {
+            items.remove(0, items.size() - maxMessages);
+        }
+        scrollToBottom();
+    }
+
+    private void scrollToBottom() {
+        conversation.scrollTo(conversation.getItems().size() - 1);
+    }
+
+    /**
+     * Appends two messages to the conversation, one echoing user input and the other showing that FengWei
+     * is working on a reply. The command then runs on a background thread, so that neither its work nor
+     * the saving of tasks holds up the window, and the reply is filled in once it is ready. Commands sent
+     * while the tasks are still loading run once they are loaded. Clears the user input straight away.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = fengWei.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getFengWeiDialog(response, fengWeiImage)
-        );
+        ChatMessage reply = ChatMessage.pendingReply();
+        addMessages(ChatMessage.fromUser(input), reply);
         userInput.clear();
+        completionMenu.hide();
 
-        // Check if the user entered a bye command and close the application
-        if (fengWei.isByeCommand(input)) {
-            // Use Platform.runLater to allow the goodbye message to be displayed first
-            Platform.runLater(() -> {
-                try {
-                    Thread.sleep(1500); // Wait 1.5 seconds to let user see the goodbye message
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-                Platform.exit(); // Close the JavaFX application
-                System.exit(0); // Ensure complete shutdown
-            });
+        commandExecutor.execute(() -> {
+            if (fengWei == null) {
+                String error = loadError;
+                Platform.runLater(() -> showReply(reply, error));
+                return;
+            }
+            String response = fengWei.getResponse(input);
+            Platform.runLater(() -> showReply(reply, response));
+            // Check if the user entered a bye command and close the application
+            if (fengWei.isByeCommand(input)) {
+                exitAfterGoodbye();
+            }
+        });
+    }
+
+    /**
+     * Fills in a pending reply, keeping the conversation scrolled to the bottom if the reply is the
+     * latest message, since its row grows with the text.
+     */
+    private void showReply(ChatMessage reply, String response) {
+        reply.showReply(response);
+        ObservableList<ChatMessage> items = conversation.getItems();
+        if (!items.isEmpty() && items.get(items.size() - 1) == reply) {
+            scrollToBottom();
+        }
+    }
+
+    /**
+     * Closes the application once the user has had time to see the goodbye message.
+     * Called on the command thread, so the window keeps responding while it waits.
+     */
+    private void exitAfterGoodbye() {
+        try {
+            Thread.sleep(BYE_DELAY_MILLIS); // Let the user see the goodbye message
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        fengWei.flushTasks(); // Make sure every change is on disk before exiting
+        Platform.exit(); // Close the JavaFX application
+        System.exit(0); // Ensure complete shutdown
     }
 }
@@ -0,0 +1,292 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import tasks.Task;
+import tasks.TaskChangeListener;
+import tasks.TaskList;
+import tasks.TaskOrder;
+
+/**
+ * Rows of the task table, kept up to date with the task list one change at a time.
+ * Changes arrive on the writer thread, where copies of the changed tasks are taken, and are applied
+ * on the JavaFX application thread in the same order, many at once if they come quickly. Each change
+ * only adds, removes or replaces the rows of the changed tasks, so only those rows are drawn again.
+ * When the table is sorted, the order of all the tasks is read once from the indexes of the task list,
+ * and each later change puts its rows in place by binary search instead of sorting the rows again.
+ */
+public class TaskTableModel implements TaskChangeListener {
+    // Beyond this many changed tasks, the rows are rebuilt in one pass instead of changed one at a time
+    private static final int BULK_CHANGE_SIZE = 64;
+
+    private final FengWei fengWei;
+    private final List<Task> tasks = new ArrayList<>();
+    private final ObservableList<Task> rows = FXCollections.observableArrayList();
+    private final Queue<Runnable> pendingChanges = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isApplyScheduled = new AtomicBoolean();
+    private TaskOrder order;
+    private Comparator<Task> comparator;
+    private TaskOrder requestedOrder;
+    private boolean isRequestedDescending;
+
+    /**
+     * Creates the rows for the task list of an application and starts following its changes.
+     */
+    public TaskTableModel(FengWei fengWei) {
+        this.fengWei = fengWei;
+        fengWei.watchTasks(this);
+    }
+
+    /**
+     * Returns the rows shown by the table, in list order or in the order sorted by.
+     */
+    public ObservableList<Task> getRows() {
+        return rows;
+    }
+
+    /**
+     * Sorts the rows in an order, or puts them back in list order. The order is read from the indexes
+     * of the task list on the writer thread, and the rows are rearranged once it arrives.
+     * Must be called on the JavaFX application thread.
+     *
+     * @param newOrder the order, or null for list order
+     * @param isNewDescending whether the order is reversed
+     */
+    public void sort(TaskOrder newOrder, boolean isNewDescending) {
+        if (newOrder == requestedOrder && (newOrder == null || isNewDescending == isRequestedDescending)) {
+            return;
+        }
+        requestedOrder = newOrder;
+        isRequestedDescending = isNewDescending;
+        if (newOrder == null) {
+            order = null;
+            comparator = null;
+            rows.setAll(tasks);
+            return;
+        }
+        fengWei.orderTasks(newOrder, ids -> post(() -> applyOrder(newOrder, isNewDescending, ids)));
+    }
+
+    @Override
+    public void tasksInserted(TaskList taskList, int[] indices) {
+        List<Task> inserted = copyTasks(taskList, indices);
+        post(() -> insertRows(indices, inserted));
+    }
+
+    @Override
+    public void tasksRemoved(TaskList taskList, int[] indices) {
+        post(() -> removeRows(indices));
+    }
+
+    @Override
+    public void tasksMarked(TaskList taskList, int[] indices, boolean isDone) {
+        List<Task> marked = copyTasks(taskList, indices);
+        post(() -> replaceRows(indices, marked));
+    }
+
+    private static List<Task> copyTasks(TaskList taskList, int[] indices) {
+        List<Task> copies = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            copies.add(taskList.get(index).copy());
+        }
+        return copies;
+    }
+
+    /**
+     * Queues a change for the JavaFX application thread, where the queued changes are applied together.
+     */
+    private void post(Runnable change) {
+        pendingChanges.add(change);
+        if (isApplyScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::applyPendingChanges);
+        }
+    }
+
+    private void applyPendingChanges() {
+        isApplyScheduled.set(false);
+        Runnable change;
+        while ((change = pendingChanges.poll()) != null) {
+            change.run();
+        }
+    }
+
+    private void insertRows(int[] indices, List<Task> inserted) {
+        if (indices.length > BULK_CHANGE_SIZE) {
+            // The positions are those the tasks end up at, so the list is rebuilt in one pass
+            List<Task> merged = new ArrayList<>(tasks.size() + indices.length);
+            int next = 0;
+            for (Task task : tasks) {
+                while (next < indices.length && indices[next] == merged.size()) {
+                    merged.add(inserted.get(next++));
+                }
+                merged.add(task);
+            }
+            merged.addAll(inserted.subList(next, inserted.size()));
+            tasks.clear();
+            tasks.addAll(merged);
+        } else {
+            for (int i = 0; i < indices.length; i++) {
+                tasks.add(indices[i], inserted.get(i));
+            }
+        }
+        if (comparator == null) {
+            if (indices.length > BULK_CHANGE_SIZE) {
+                rows.setAll(tasks);
+            } else {
+                for (int i = 0; i < indices.length; i++) {
+                    rows.add(indices[i], inserted.get(i));
+                }
+            }
+        } else if (indices.length > BULK_CHANGE_SIZE) {
+            rows.setAll(mergeIntoRows(rows, inserted));
+        } else {
+            for (Task task : inserted) {
+                rows.add(-Collections.binarySearch(rows, task, comparator) - 1, task);
+            }
+        }
+    }
+
+    private void removeRows(int[] indices) {
+        if (indices.length > BULK_CHANGE_SIZE) {
+            // Each task is moved once, instead of once for every removed task before it
+            List<Task> removed = new ArrayList<>(indices.length);
+            List<Task> kept = new ArrayList<>(tasks.size() - indices.length);
+            int next = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                if (next < indices.length && indices[next] == i) {
+                    removed.add(tasks.get(i));
+                    next++;
+                } else {
+                    kept.add(tasks.get(i));
+                }
+            }
+            tasks.clear();
+            tasks.addAll(kept);
+            rows.setAll(comparator == null ? tasks : withoutTasks(rows, removed));
+            return;
+        }
+        List<Task> removed = new ArrayList<>(indices.length);
+        for (int i = indices.length - 1; i >= 0; i--) {
+            removed.add(tasks.remove(indices[i]));
+        }
+        if (comparator == null) {
+            for (int i = indices.length - 1; i >= 0; i--) {
+                rows.remove(indices[i]);
+            }
+        } else {
+            for (Task task : removed) {
+                rows.remove(Collections.binarySearch(rows, task, comparator));
+            }
+        }
+    }
+
+    private void replaceRows(int[] indices, List<Task> replacements) {
+        List<Task> replaced = new ArrayList<>(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            replaced.add(tasks.set(indices[i], replacements.get(i)));
+        }
+        if (comparator == null) {
+            if (indices.length > BULK_CHANGE_SIZE) {
+                rows.setAll(tasks);
+            } else {
+                for (int i = 0; i < indices.length; i++) {
+                    rows.set(indices[i], replacements.get(i));
+                }
+            }
+        } else if (order != TaskOrder.STATUS) {
+            // The key sorted by has not changed, so each row stays where it is
+            List<Task> target = indices.length > BULK_CHANGE_SIZE ? new ArrayList<>(rows) : rows;
+            for (int i = 0; i < indices.length; i++) {
+                target.set(Collections.binarySearch(target, replaced.get(i), comparator), replacements.get(i));
+            }
+            if (target != rows) {
+                rows.setAll(target);
+            }
+        } else if (indices.length > BULK_CHANGE_SIZE) {
+            rows.setAll(mergeIntoRows(withoutTasks(rows, replaced), replacements));
+        } else {
+            for (int i = 0; i < indices.length; i++) {
+                rows.remove(Collections.binarySearch(rows, replaced.get(i), comparator));
+                Task task = replacements.get(i);
+                rows.add(-Collections.binarySearch(rows, task, comparator) - 1, task);
+            }
+        }
+    }
+
+    /**
+     * Merges tasks into sorted rows in one pass, after sorting only the tasks.
+     */
+    private List<Task> mergeIntoRows(List<Task> sortedRows, List<Task> added) {
+        List<Task> sortedAdded = new ArrayList<>(added);
+        sortedAdded.sort(comparator);
+        List<Task> merged = new ArrayList<>(sortedRows.size() + sortedAdded.size());
+        int next = 0;
+        for (Task row : sortedRows) {
+            while (next < sortedAdded.size() && comparator.compare(sortedAdded.get(next), row) < 0) {
+                merged.add(sortedAdded.get(next++));
+            }
+            merged.add(row);
+        }
+        merged.addAll(sortedAdded.subList(next, sortedAdded.size()));
+        return merged;
+    }
+
+    private static List<Task> withoutTasks(List<Task> rowsToFilter, List<Task> dropped) {
+        Set<Integer> droppedIds = new HashSet<>();
+        for (Task task : dropped) {
+            droppedIds.add(task.getId());
+        }
+        List<Task> kept = new ArrayList<>(rowsToFilter.size());
+        for (Task row : rowsToFilter) {
+            if (!droppedIds.contains(row.getId())) {
+                kept.add(row);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Rearranges the rows in an order given by IDs, finding each task by binary search on the rows in
+     * list order, whose IDs increase.
+     */
+    private void applyOrder(TaskOrder newOrder, boolean isNewDescending, int[] ids) {
+        if (newOrder != requestedOrder || isNewDescending != isRequestedDescending) {
+            return; // Another order was asked for since
+        }
+        assert ids.length == tasks.size() : "Order should hold every task";
+        Task[] sorted = new Task[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            Task task = tasks.get(binarySearchId(ids[i]));
+            sorted[isNewDescending ? ids.length - 1 - i : i] = task;
+        }
+        order = newOrder;
+        comparator = isNewDescending ? newOrder.comparator().reversed() : newOrder.comparator();
+        rows.setAll(sorted);
+    }
+
+    private int binarySearchId(int id) {
+        int low = 0;
+        int high = tasks.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = tasks.get(middle).getId();
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        throw new IllegalStateException("Ordered task should be in the table: #" + id);
+    }
+}
@@ -0,0 +1,184 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+import storage.TasksStorage;
+import tasks.TaskList;
+import tasks.TaskListReplica;
+import tasks.TaskListSnapshot;
+import tasks.UndoHistory;
+
+/**
+ * Runs commands against a task list from any number of threads without locking the list.
+ * Commands that may change the list are queued and run one at a time on a single writer thread,
+ * which is the only thread that touches the task list, the storage and the undo history.
+ * After each batch of queued commands, the writer publishes the changes of the batch as a snapshot
+ * through a volatile reference, which takes O(1) time plus the changes. Read-only commands run at once
+ * on the calling thread against the latest snapshot, answered by a replica of the task list with its
+ * own indexes, so reads never wait for writes. A command finishes only after the snapshot holding its
+ * changes is published, so a thread always reads its own changes.
+ */
+public class CommandExecutor {
+    private static final String WRITER_THREAD_NAME = "fengwei-writer";
+    private static final int MAX_BATCH_SIZE = 64;
+
+    private final BlockingQueue<Write<?>> writes = new LinkedBlockingQueue<>();
+    private final TaskList taskList;
+    private final TasksStorage storage;
+    private final UndoHistory history;
+    private final TaskListReplica replica;
+    private final Thread writer;
+    private volatile TaskListSnapshot snapshot;
+
+    /**
+     * Constructs an executor for a task list and starts its writer thread.
+     * The task list must not be used by any other thread from then on.
+     *
+     * @param taskList the task list to run commands against
+     * @param storage the storage to save changes to
+     * @param history the undo history to record changes in
+     */
+    public CommandExecutor(TaskList taskList, TasksStorage storage, UndoHistory history) {
+        assert taskList != null : "TaskList should not be null";
+        assert storage != null : "Storage should not be null";
+        this.taskList = taskList;
+        this.storage = storage;
+        this.history = history;
+        this.replica = new TaskListReplica(taskList);
+        this.snapshot = replica.publish();
+        this.writer = new Thread(this::runWrites, WRITER_THREAD_NAME);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Runs a command and returns its response for GUI display, waiting for it if it is queued.
+     *
+     * @param command the command word
+     * @param arguments the arguments for the command
+     * @return the response string for GUI display
+     */
+    public String execute(String command, String arguments) {
+        if (Parser.isReadOnlyCommand(command)) {
+            return Parser.executeQueryForGui(command, arguments, snapshot);
+        }
+        return join(submit(command, arguments));
+    }
+
+    /**
+     * Queues a command that may change the task list, to run on the writer thread.
+     *
+     * @param command the command word
+     * @param arguments the arguments for the command
+     * @return the response string for GUI display, once the command has run
+     */
+    public CompletableFuture<String> submit(String command, String arguments) {
+        return submit(() -> Parser.executeCommandForGui(command, arguments, taskList, storage, history));
+    }
+
+    /**
+     * Queues an action to run on the writer thread, such as a command printing to the console or a
+     * flush of the storage, ordered with the commands queued before it.
+     *
+     * @param action the action, which may use the task list, the storage and the undo history
+     * @param <T> the type of the result of the action
+     * @return the result of the action, once it has run
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> action) {
+        Write<T> write = new Write<>(action);
+        writes.add(write);
+        return write.result;
+    }
+
+    /**
+     * Runs an action on the writer thread and waits for it.
+     *
+     * @param action the action, which may use the task list, the storage and the undo history
+     */
+    public void run(Runnable action) {
+        join(submit(() -> {
+            action.run();
+            return null;
+        }));
+    }
+
+    /**
+     * Returns the latest published snapshot of the task list. Never blocks.
+     *
+     * @return the snapshot holding the changes of every command that has finished
+     */
+    public TaskListSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Takes queued writes in batches until the thread is interrupted, publishing a snapshot after
+     * each batch and only then completing the writes of the batch.
+     */
+    private void runWrites() {
+        List<Write<?>> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (true) {
+            try {
+                batch.add(writes.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            writes.drainTo(batch, MAX_BATCH_SIZE - 1);
+            for (Write<?> write : batch) {
+                write.run();
+            }
+            snapshot = replica.publish();
+            for (Write<?> write : batch) {
+                write.complete();
+            }
+            batch.clear();
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A queued action, with its outcome kept until the snapshot holding its changes is published.
+     */
+    private static class Write<T> {
+        private final Supplier<T> action;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+        private Throwable failure;
+
+        Write(Supplier<T> action) {
+            this.action = action;
+        }
+
+        void run() {
+            try {
+                value = action.get();
+            } catch (RuntimeException | Error e) {
+                failure = e;
+            }
+        }
+
+        void complete() {
+            if (failure == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        }
+    }
+}
@@ -1,17 +1,26 @@
 package parser;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 import exceptions.FengWeiException;
 import storage.TasksStorage;
+import tasks.DateTimeCodec;
 import tasks.DeadlineTask;
 import tasks.EventTask;
+import tasks.PrefixTrie;
 import tasks.Task;
+import tasks.TaskChangeListener;
 import tasks.TaskList;
+import tasks.TaskListSnapshot;
 import tasks.TodoTask;
+import tasks.UndoHistory;
+import ui.TaskPageWriter;
 import ui.Ui;
 
 /**
@@ -21,22 +30,32 @@ public class Parser {
     // Command constants
     private static final String COMMAND_LIST = "list";
     private static final String COMMAND_FIND = "find";
+    private static final String COMMAND_FUZZY = "fuzzy";
     private static final String COMMAND_TODO = "todo";
     private static final String COMMAND_DEADLINE = "deadline";
+    private static final String COMMAND_DUE = "due";
+    private static final String COMMAND_OVERDUE = "overdue";
+    private static final String COMMAND_UPCOMING = "upcoming";
     private static final String COMMAND_EVENT = "event";
+    private static final String COMMAND_DURING = "during";
     private static final String COMMAND_MARK = "mark";
     private static final String COMMAND_UNMARK = "unmark";
     private static final String COMMAND_DELETE = "delete";
+    private static final String COMMAND_UNDO = "undo";
+    private static final String COMMAND_REDO = "redo";
     private static final String COMMAND_HELP = "help";
     private static final String COMMAND_BYE = "bye";
 
+    private static final PrefixTrie COMMAND_TRIE = createCommandTrie();
+
+    // Fuzzy search constants
+    private static final String FUZZY_PREFIX = "~";
+    private static final String MAX_DISTANCE_DELIMITER = " /max ";
+    private static final int MAX_FUZZY_DISTANCE = 3;
+
     // Split limits
     private static final int COMMAND_SPLIT_LIMIT = 2;
 
-    // Date format constants
-    private static final String DATE_TIME_PATTERN = "yyyy-MM-dd HHmm";
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern(DATE_TIME_PATTERN);
-
     // Error messages
     private static final String ERROR_INVALID_COMMAND = "OOPS!!! Invalid command!";
     private static final String ERROR_EMPTY_TODO = "OOPS!!! The description of a todo cannot be empty.";
@@ -44,14 +63,63 @@ public class Parser {
     private static final String ERROR_EVENT_FORMAT = "OOPS!!! The event command must be in the format: event <description> /from <start> /to <end>";
     private static final String ERROR_EMPTY_DEADLINE = "OOPS!!! The description of a deadline cannot be empty.";
     private static final String ERROR_EMPTY_EVENT = "OOPS!!! The description of an event cannot be empty.";
+    private static final String ERROR_DURING_FORMAT =
+            "OOPS!!! The during command must be in the format: during <start> /to <end>";
+    private static final String ERROR_PERIOD_ORDER = "OOPS!!! The end of the period cannot be before its start.";
+    private static final String ERROR_DUE_FORMAT = "OOPS!!! The due command must be in the format: due <date>";
+    private static final String ERROR_INVALID_DUE_DATE =
+            "OOPS!!! The date format is invalid, use YYYY-MM-DD or YYYY-MM-DD HHMM";
+    private static final String ERROR_INVALID_COUNT = "OOPS!!! The number of deadlines must be a positive number.";
+    private static final String ERROR_LIST_FILTER =
+            "OOPS!!! The list filters are /done, /pending and /type followed by T, D or E.";
     private static final String ERROR_INVALID_DATE = "OOPS!!! The date format is invalid, use YYYY-MM-DD HHMM";
     private static final String ERROR_SPECIFY_TASK_NUMBER = "OOPS!!! Please specify the task number";
-    private static final String ERROR_SINGLE_TASK_NUMBER = "OOPS!!! Please specify only one task number";
     private static final String ERROR_INVALID_TASK_NUMBER = "OOPS!!! Please enter a valid task number!";
+    private static final String ERROR_UNKNOWN_TASK_ID = "OOPS!!! There is no task with the ID ";
+    private static final String ERROR_TASK_RANGE_ORDER =
+            "OOPS!!! A range of task numbers must start with the lower one.";
+    private static final String ERROR_NOTHING_TO_UNDO = "OOPS!!! There is nothing to undo.";
+    private static final String ERROR_NOTHING_TO_REDO = "OOPS!!! There is nothing to redo.";
+    private static final String ERROR_EMPTY_FUZZY = "OOPS!!! Please specify the words to search for.";
+    private static final String ERROR_INVALID_MAX_DISTANCE = "OOPS!!! The maximum distance must be a number from 0 to "
+            + MAX_FUZZY_DISTANCE + ".";
 
     // Delimiter constants
     private static final String DEADLINE_DELIMITER = " /by ";
     private static final String EVENT_DELIMITER_PATTERN = " /from | /to ";
+    private static final String PERIOD_DELIMITER = " /to ";
+
+    // List filter constants
+    private static final String FILTER_DONE = "/done";
+    private static final String FILTER_PENDING = "/pending";
+    private static final String FILTER_TYPE = "/type";
+    private static final String FILTER_TYPES = "TDE";
+    private static final String FILTER_PREFIX = "/";
+    private static final String NO_FILTER_MATCH = "No tasks match that filter!";
+
+    // List paging constants
+    private static final String OPTION_PAGE = "/page";
+    private static final String OPTION_PAGE_SIZE = "/size";
+    private static final String ERROR_PAGE = "OOPS!!! Pages are given as /page <number> /size <number>, "
+            + "with at most " + TaskPageWriter.MAX_PAGE_SIZE + " tasks on a page.";
+    private static final String ERROR_NO_SUCH_PAGE = "OOPS!!! There is no page %d, the list has %d.";
+
+    // Task ID constants
+    private static final String TASK_ID_PREFIX = "#";
+
+    // Bulk task selection constants
+    private static final String TASK_SEPARATOR_PATTERN = "\\s*,\\s*|\\s+";
+    private static final String RANGE_DELIMITER = "-";
+
+    // Due-date query constants
+    private static final int DATE_ONLY_LENGTH = "yyyy-MM-dd".length();
+    private static final String END_OF_DAY = " 2359";
+    private static final int DEFAULT_UPCOMING_COUNT = 5;
+    private static final String HEADING_DUE = "Here are the deadlines due by then:";
+    private static final String HEADING_OVERDUE = "Here are your overdue deadlines:";
+    private static final String HEADING_UPCOMING = "Here are your upcoming deadlines:";
+    private static final String HEADING_UNDONE = "Undone! Here is what changed:";
+    private static final String HEADING_REDONE = "Redone! Here is what changed:";
 
     /**
      * Extracts the command word from user input.
@@ -68,6 +136,59 @@ public class Parser {
         return parts[0].toLowerCase();
     }
 
+    private static PrefixTrie createCommandTrie() {
+        PrefixTrie trie = new PrefixTrie();
+        for (String command : new String[] {COMMAND_LIST, COMMAND_FIND, COMMAND_FUZZY, COMMAND_TODO,
+            COMMAND_DEADLINE, COMMAND_DUE, COMMAND_OVERDUE, COMMAND_UPCOMING, COMMAND_EVENT, COMMAND_DURING,
+            COMMAND_MARK, COMMAND_UNMARK, COMMAND_DELETE, COMMAND_UNDO, COMMAND_REDO, COMMAND_HELP, COMMAND_BYE}) {
+            trie.add(command);
+        }
+        return trie;
+    }
+
+    /**
+     * Completes a command name from its first characters.
+     *
+     * @param prefix the start of the command name
+     * @param limit the maximum number of completions
+     * @return the command names starting with the prefix
+     */
+    public static List<String> completeCommand(String prefix, int limit) {
+        return COMMAND_TRIE.complete(prefix, limit);
+    }
+
+    /**
+     * Checks if a command searches task descriptions, so that its argument can be completed
+     * from the descriptions.
+     *
+     * @param command the command name
+     * @return true if the command takes a description to search for
+     */
+    public static boolean isSearchCommand(String command) {
+        return COMMAND_FIND.equals(command) || COMMAND_FUZZY.equals(command);
+    }
+
+    /**
+     * Checks whether a command only reads the task list, so that it can run on a snapshot of the list.
+     * @param command the command word
+     * @return true if the command never changes the task list, the storage or the undo history
+     */
+    public static boolean isReadOnlyCommand(String command) {
+        switch (command) {
+        case COMMAND_LIST:
+        case COMMAND_FIND:
+        case COMMAND_FUZZY:
+        case COMMAND_DURING:
+        case COMMAND_DUE:
+        case COMMAND_OVERDUE:
+        case COMMAND_UPCOMING:
+        case COMMAND_HELP:
+            return true;
+        default:
+            return false;
+        }
+    }
+
     /**
      * Extracts the arguments from user input.
      * @param input the full user input string
@@ -93,7 +214,7 @@ public class Parser {
      * @param ui the user interface for output
      */
     public static void executeCommand(String command, String arguments, TaskList taskList,
-                                    TasksStorage storage, Ui ui) {
+                                    TasksStorage storage, UndoHistory history, Ui ui) {
         assert command != null : "Command should not be null";
         assert arguments != null : "Arguments should not be null";
         assert taskList != null : "TaskList should not be null";
@@ -102,58 +223,231 @@ public class Parser {
 
         switch (command) {
         case COMMAND_LIST:
-            handleListCommand(taskList, ui);
+            handleListCommand(arguments, taskList, ui);
             break;
         case COMMAND_FIND:
             handleFindCommand(arguments, taskList, ui);
             break;
+        case COMMAND_FUZZY:
+            handleFuzzyCommand(arguments, taskList, ui);
+            break;
         case COMMAND_TODO:
-            handleTodoCommand(arguments, taskList, ui, storage);
+            handleTodoCommand(arguments, taskList, ui, storage, history);
             break;
         case COMMAND_DEADLINE:
-            handleDeadlineCommand(arguments, taskList, ui, storage);
+            handleDeadlineCommand(arguments, taskList, ui, storage, history);
             break;
         case COMMAND_EVENT:
-            handleEventCommand(arguments, taskList, ui, storage);
+            handleEventCommand(arguments, taskList, ui, storage, history);
+            break;
+        case COMMAND_DURING:
+            handleDuringCommand(arguments, taskList, ui);
+            break;
+        case COMMAND_DUE:
+            handleDueCommand(arguments, taskList, ui);
+            break;
+        case COMMAND_OVERDUE:
+            ui.showDeadlines(HEADING_OVERDUE, taskList.findOverdueDeadlines(LocalDateTime.now()));
+            break;
+        case COMMAND_UPCOMING:
+            handleUpcomingCommand(arguments, taskList, ui);
             break;
         case COMMAND_MARK:
-            handleMarkCommand(arguments, taskList, storage, ui);
+            handleMarkCommand(arguments, taskList, storage, history, ui);
             break;
         case COMMAND_UNMARK:
-            handleUnmarkCommand(arguments, taskList, storage, ui);
+            handleUnmarkCommand(arguments, taskList, storage, history, ui);
             break;
         case COMMAND_DELETE:
-            handleDeleteCommand(arguments, taskList, storage, ui);
+            handleDeleteCommand(arguments, taskList, storage, history, ui);
+            break;
+        case COMMAND_UNDO:
+        case COMMAND_REDO:
+            handleHistoryCommand(command, taskList, storage, history, ui);
             break;
         case COMMAND_HELP:
             handleHelpCommand(ui);
             break;
         default:
-            handleInvalidCommand(command, taskList, ui);
+            handleInvalidCommand(command, taskList, storage, ui);
         }
     }
 
-    private static void handleListCommand(TaskList taskList, Ui ui) {
-        ui.showTaskList(taskList.getAll());
+    private static void handleListCommand(String arguments, TaskList taskList, Ui ui) {
+        try {
+            ListRequest request = new ListRequest(arguments);
+            if (request.filters.isEmpty()) {
+                List<Task> tasks = taskList.snapshot();
+                request.checkPage(tasks.size());
+                ui.showTaskList(tasks, request.pageWriter);
+                return;
+            }
+            int[] indices = filterTasks(request.filters, taskList);
+            request.checkPage(indices.length);
+            ui.showFilteredTasks(taskList, indices, request.pageWriter);
+        } catch (FengWeiException e) {
+            ui.showError(e.getMessage());
+        }
+    }
+
+    /**
+     * Arguments of a list command, split into the filters and the page to show.
+     */
+    private static class ListRequest {
+        private final String filters;
+        private final TaskPageWriter pageWriter;
+
+        /**
+         * Parses the arguments of a list command, such as {@code /pending /page 3 /size 50}.
+         *
+         * @param arguments the arguments of the command
+         * @throws FengWeiException if a page or page size is not a positive number, or the size is too large
+         */
+        ListRequest(String arguments) throws FengWeiException {
+            StringBuilder filters = new StringBuilder();
+            int page = 1;
+            int pageSize = TaskPageWriter.DEFAULT_PAGE_SIZE;
+            String[] parts = arguments.trim().split("\\s+");
+            for (int i = 0; i < parts.length; i++) {
+                String part = parts[i].toLowerCase();
+                if (part.equals(OPTION_PAGE) || part.equals(OPTION_PAGE_SIZE)) {
+                    int value = parsePageNumber(i + 1 < parts.length ? parts[++i] : "");
+                    if (part.equals(OPTION_PAGE)) {
+                        page = value;
+                    } else {
+                        pageSize = value;
+                    }
+                } else if (!part.isEmpty()) {
+                    filters.append(parts[i]).append(' ');
+                }
+            }
+            if (pageSize > TaskPageWriter.MAX_PAGE_SIZE) {
+                throw new FengWeiException(ERROR_PAGE);
+            }
+            this.filters = filters.toString().trim();
+            this.pageWriter = new TaskPageWriter(page, pageSize);
+        }
+
+        /**
+         * Checks that the page to show exists for a number of tasks.
+         *
+         * @param total the number of tasks to page through
+         * @throws FengWeiException if the page is past the last one
+         */
+        void checkPage(int total) throws FengWeiException {
+            int pageCount = pageWriter.pageCount(total);
+            if (pageWriter.getPage() > pageCount) {
+                throw new FengWeiException(String.format(ERROR_NO_SUCH_PAGE, pageWriter.getPage(), pageCount));
+            }
+        }
+
+        private static int parsePageNumber(String text) throws FengWeiException {
+            try {
+                int value = Integer.parseInt(text);
+                if (value < 1) {
+                    throw new FengWeiException(ERROR_PAGE);
+                }
+                return value;
+            } catch (NumberFormatException e) {
+                throw new FengWeiException(ERROR_PAGE);
+            }
+        }
+    }
+
+    /**
+     * Finds the tasks passing the filters of a list command.
+     * Status filters and type filters each match any of the given values, and a task has to pass both.
+     *
+     * @param arguments the filters, such as {@code /pending /type D /type E}
+     * @param taskList the task list to filter
+     * @return the positions of the matching tasks
+     * @throws FengWeiException if a filter is not recognised
+     */
+    private static int[] filterTasks(String arguments, TaskList taskList) throws FengWeiException {
+        boolean isDoneIncluded = false;
+        boolean isPendingIncluded = false;
+        List<Character> types = new ArrayList<>();
+        String[] parts = arguments.trim().split("\\s+");
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i].toLowerCase();
+            if (part.equals(FILTER_DONE)) {
+                isDoneIncluded = true;
+            } else if (part.equals(FILTER_PENDING)) {
+                isPendingIncluded = true;
+            } else if (part.equals(FILTER_TYPE) && i + 1 < parts.length && parts[i + 1].length() == 1
+                    && FILTER_TYPES.indexOf(Character.toUpperCase(parts[i + 1].charAt(0))) >= 0) {
+                types.add(Character.toUpperCase(parts[++i].charAt(0)));
+            } else {
+                throw new FengWeiException(ERROR_LIST_FILTER);
+            }
+        }
+        Boolean isDone = isDoneIncluded == isPendingIncluded ? null : isDoneIncluded;
+        return taskList.filterIndices(isDone, types);
     }
 
     private static void handleFindCommand(String arguments, TaskList taskList, Ui ui) {
+        if (arguments.startsWith(FUZZY_PREFIX)) {
+            handleFuzzyCommand(arguments.substring(FUZZY_PREFIX.length()), taskList, ui);
+            return;
+        }
         List<Task> found = taskList.findTasks(arguments);
         ui.showFoundTasks(found);
     }
 
-    private static void handleTodoCommand(String arguments, TaskList taskList, Ui ui, TasksStorage storage) {
+    private static void handleFuzzyCommand(String arguments, TaskList taskList, Ui ui) {
+        try {
+            ui.showFoundTasks(findSimilarTasks(arguments, taskList));
+        } catch (FengWeiException e) {
+            ui.showError(e.getMessage());
+        }
+    }
+
+    /**
+     * Finds tasks with words close to the given ones, for a fuzzy search.
+     * An optional {@code /max <distance>} at the end sets the number of typos allowed per word.
+     *
+     * @param arguments the words to search for, optionally followed by the maximum distance
+     * @param taskList the task list to search
+     * @return the matching tasks, nearest first
+     * @throws FengWeiException if no words are given or the maximum distance is invalid
+     */
+    private static List<Task> findSimilarTasks(String arguments, TaskList taskList) throws FengWeiException {
+        String term = arguments;
+        int maxDistance = -1;
+        int delimiterIndex = arguments.lastIndexOf(MAX_DISTANCE_DELIMITER);
+        if (delimiterIndex >= 0) {
+            term = arguments.substring(0, delimiterIndex);
+            try {
+                maxDistance = Integer.parseInt(arguments.substring(delimiterIndex + MAX_DISTANCE_DELIMITER.length())
+                        .trim());
+            } catch (NumberFormatException e) {
+                throw new FengWeiException(ERROR_INVALID_MAX_DISTANCE);
+            }
+            if (maxDistance < 0 || maxDistance > MAX_FUZZY_DISTANCE) {
+                throw new FengWeiException(ERROR_INVALID_MAX_DISTANCE);
+            }
+        }
+        if (term.trim().isEmpty()) {
+            throw new FengWeiException(ERROR_EMPTY_FUZZY);
+        }
+        return taskList.findSimilarTasks(term, maxDistance);
+    }
+
+    private static void handleTodoCommand(String arguments, TaskList taskList,
+                                          Ui ui, TasksStorage storage, UndoHistory history) {
         try {
             Task t = new TodoTask(arguments);
             taskList.add(t);
-            storage.saveTasks(taskList.getAll());
+            storage.recordAdd(taskList, t);
+            history.recordAdd(t);
             ui.showTaskAdded(t, taskList.size());
         } catch (FengWeiException e) {
             ui.showError(e.getMessage());
         }
     }
 
-    private static void handleDeadlineCommand(String arguments, TaskList taskList, Ui ui, TasksStorage storage) {
+    private static void handleDeadlineCommand(String arguments, TaskList taskList,
+                                              Ui ui, TasksStorage storage, UndoHistory history) {
         try {
             String[] parts = arguments.split(DEADLINE_DELIMITER, 2);
             if (parts.length < 2) {
@@ -168,7 +462,8 @@ public class Parser {
 
             Task d = new DeadlineTask(deadlineDesc, by);
             taskList.add(d);
-            storage.saveTasks(taskList.getAll());
+            storage.recordAdd(taskList, d);
+            history.recordAdd(d);
             ui.showTaskAdded(d, taskList.size());
         } catch (FengWeiException e) {
             ui.showError(e.getMessage());
@@ -177,7 +472,8 @@ public class Parser {
         }
     }
 
-    private static void handleEventCommand(String arguments, TaskList taskList, Ui ui, TasksStorage storage) {
+    private static void handleEventCommand(String arguments, TaskList taskList,
+                                           Ui ui, TasksStorage storage, UndoHistory history) {
         try {
             String[] eventParts = arguments.split(EVENT_DELIMITER_PATTERN);
             if (eventParts.length < 3) {
@@ -191,12 +487,85 @@ public class Parser {
                 throw new FengWeiException(ERROR_EMPTY_EVENT);
             }
 
-            LocalDateTime fromDateTime = LocalDateTime.parse(from, DATE_TIME_FORMATTER);
-            LocalDateTime toDateTime = LocalDateTime.parse(to, DATE_TIME_FORMATTER);
+            LocalDateTime fromDateTime = DateTimeCodec.parse(from);
+            LocalDateTime toDateTime = DateTimeCodec.parse(to);
             Task e = new EventTask(eventDesc, fromDateTime, toDateTime);
+            List<Task> conflicts = taskList.findEventsDuring(fromDateTime, toDateTime);
             taskList.add(e);
-            storage.saveTasks(taskList.getAll());
+            storage.recordAdd(taskList, e);
+            history.recordAdd(e);
             ui.showTaskAdded(e, taskList.size());
+            if (!conflicts.isEmpty()) {
+                ui.showEventConflicts(conflicts);
+            }
+        } catch (FengWeiException e) {
+            ui.showError(e.getMessage());
+        } catch (DateTimeParseException e) {
+            ui.showError(ERROR_INVALID_DATE);
+        }
+    }
+
+    private static void handleDueCommand(String arguments, TaskList taskList, Ui ui) {
+        try {
+            ui.showDeadlines(HEADING_DUE, taskList.findDeadlinesDueBy(parseDueDate(arguments)));
+        } catch (FengWeiException e) {
+            ui.showError(e.getMessage());
+        }
+    }
+
+    private static void handleUpcomingCommand(String arguments, TaskList taskList, Ui ui) {
+        try {
+            ui.showDeadlines(HEADING_UPCOMING,
+                    taskList.findUpcomingDeadlines(LocalDateTime.now(), parseUpcomingCount(arguments)));
+        } catch (FengWeiException e) {
+            ui.showError(e.getMessage());
+        }
+    }
+
+    /**
+     * Parses the date of a due command. A date without a time means the end of that day.
+     *
+     * @param arguments the date, in "yyyy-MM-dd" or "yyyy-MM-dd HHmm" format
+     * @return the latest deadline to include
+     * @throws FengWeiException if the date is missing or invalid
+     */
+    private static LocalDateTime parseDueDate(String arguments) throws FengWeiException {
+        String date = arguments.trim();
+        if (date.isEmpty()) {
+            throw new FengWeiException(ERROR_DUE_FORMAT);
+        }
+        try {
+            return DateTimeCodec.parse(date.length() == DATE_ONLY_LENGTH ? date + END_OF_DAY : date);
+        } catch (DateTimeParseException e) {
+            throw new FengWeiException(ERROR_INVALID_DUE_DATE);
+        }
+    }
+
+    /**
+     * Parses the number of deadlines to show for an upcoming command.
+     *
+     * @param arguments the number of deadlines, or nothing for the default number
+     * @return the number of deadlines to show
+     * @throws FengWeiException if the number is not positive
+     */
+    private static int parseUpcomingCount(String arguments) throws FengWeiException {
+        if (arguments.trim().isEmpty()) {
+            return DEFAULT_UPCOMING_COUNT;
+        }
+        try {
+            int count = Integer.parseInt(arguments.trim());
+            if (count <= 0) {
+                throw new FengWeiException(ERROR_INVALID_COUNT);
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new FengWeiException(ERROR_INVALID_COUNT);
+        }
+    }
+
+    private static void handleDuringCommand(String arguments, TaskList taskList, Ui ui) {
+        try {
+            ui.showEventsDuring(findEventsDuring(arguments, taskList));
         } catch (FengWeiException e) {
             ui.showError(e.getMessage());
         } catch (DateTimeParseException e) {
@@ -204,26 +573,50 @@ public class Parser {
         }
     }
 
+    /**
+     * Finds the events overlapping the period given as {@code <start> /to <end>}.
+     *
+     * @param arguments the start and end of the period
+     * @param taskList the task list to search
+     * @return the overlapping events, by start time
+     * @throws FengWeiException if the period is missing or ends before it starts
+     * @throws DateTimeParseException if a date-time is not in "yyyy-MM-dd HHmm" format
+     */
+    private static List<Task> findEventsDuring(String arguments, TaskList taskList)
+            throws FengWeiException, DateTimeParseException {
+        String[] parts = arguments.split(PERIOD_DELIMITER, 2);
+        if (parts.length < 2) {
+            throw new FengWeiException(ERROR_DURING_FORMAT);
+        }
+        LocalDateTime from = DateTimeCodec.parse(parts[0].trim());
+        LocalDateTime to = DateTimeCodec.parse(parts[1].trim());
+        if (to.isBefore(from)) {
+            throw new FengWeiException(ERROR_PERIOD_ORDER);
+        }
+        return taskList.findEventsDuring(from, to);
+    }
+
     private static void handleMarkCommand(String arguments, TaskList taskList,
-                                        TasksStorage storage, Ui ui) {
+                                        TasksStorage storage, UndoHistory history, Ui ui) {
         try {
             if (arguments.trim().isEmpty()) {
                 throw new FengWeiException(ERROR_SPECIFY_TASK_NUMBER);
             }
 
-            String[] parts = arguments.trim().split("\\s+");
-            if (parts.length != 1) {
-                throw new FengWeiException(ERROR_SINGLE_TASK_NUMBER);
+            int[] indices = parseTaskIndices(arguments, taskList);
+            if (indices.length == 0) {
+                ui.showFilteredTasks(taskList, indices);
+            } else if (indices.length == 1) {
+                history.recordStatus(taskList, indices);
+                taskList.markAsDone(indices[0]);
+                storage.recordMark(taskList, indices[0]);
+                ui.showTaskMarked(taskList.get(indices[0]));
+            } else {
+                history.recordStatus(taskList, indices);
+                taskList.markAllAsDone(indices);
+                storage.recordMark(taskList, indices);
+                ui.showTasksMarked(tasksAt(taskList, indices));
             }
-
-            int markNumber = Integer.parseInt(parts[0]) - 1;
-            if (markNumber < 0 || markNumber >= taskList.size()) {
-                throw new IndexOutOfBoundsException("Task number out of range.");
-            }
-
-            taskList.markAsDone(markNumber);
-            storage.saveTasks(taskList.getAll());
-            ui.showTaskMarked(taskList.get(markNumber));
         } catch (FengWeiException e) {
             ui.showError(e.getMessage());
         } catch (NumberFormatException e) {
@@ -234,25 +627,26 @@ public class Parser {
     }
 
     private static void handleUnmarkCommand(String arguments, TaskList taskList,
-                                          TasksStorage storage, Ui ui) {
+                                          TasksStorage storage, UndoHistory history, Ui ui) {
         try {
             if (arguments.trim().isEmpty()) {
                 throw new FengWeiException(ERROR_SPECIFY_TASK_NUMBER);
             }
 
-            String[] parts = arguments.trim().split("\\s+");
-            if (parts.length != 1) {
-                throw new FengWeiException(ERROR_SINGLE_TASK_NUMBER);
-            }
-
-            int unmarkNumber = Integer.parseInt(parts[0]) - 1;
-            if (unmarkNumber < 0 || unmarkNumber >= taskList.size()) {
-                throw new IndexOutOfBoundsException("Task number out of range.");
+            int[] indices = parseTaskIndices(arguments, taskList);
+            if (indices.length == 0) {
+                ui.showFilteredTasks(taskList, indices);
+            } else if (indices.length == 1) {
+                history.recordStatus(taskList, indices);
+                taskList.markAsNotDone(indices[0]);
+                storage.recordUnmark(taskList, indices[0]);
+                ui.showTaskUnmarked(taskList.get(indices[0]));
+            } else {
+                history.recordStatus(taskList, indices);
+                taskList.markAllAsNotDone(indices);
+                storage.recordUnmark(taskList, indices);
+                ui.showTasksUnmarked(tasksAt(taskList, indices));
             }
-
-            taskList.markAsNotDone(unmarkNumber);
-            storage.saveTasks(taskList.getAll());
-            ui.showTaskUnmarked(taskList.get(unmarkNumber));
         } catch (FengWeiException e) {
             ui.showError(e.getMessage());
         } catch (NumberFormatException e) {
@@ -263,25 +657,26 @@ public class Parser {
     }
 
     private static void handleDeleteCommand(String arguments, TaskList taskList,
-                                          TasksStorage storage, Ui ui) {
+                                          TasksStorage storage, UndoHistory history, Ui ui) {
         try {
             if (arguments.trim().isEmpty()) {
                 throw new FengWeiException("Please specify the task number to delete.");
             }
 
-            String[] parts = arguments.trim().split("\\s+");
-            if (parts.length != 1) {
-                throw new FengWeiException("Please specify only one task number to delete.");
-            }
-
-            int deleteNumber = Integer.parseInt(parts[0]) - 1;
-            if (deleteNumber < 0 || deleteNumber >= taskList.size()) {
-                throw new IndexOutOfBoundsException("Task number out of range.");
+            int[] indices = parseTaskIndices(arguments, taskList);
+            if (indices.length == 0) {
+                ui.showFilteredTasks(taskList, indices);
+            } else if (indices.length == 1) {
+                Task removedTask = taskList.remove(indices[0]);
+                history.recordRemove(indices, List.of(removedTask));
+                storage.recordDelete(taskList, indices[0]);
+                ui.showTaskDeleted(removedTask, taskList.size());
+            } else {
+                List<Task> removedTasks = taskList.removeAll(indices);
+                history.recordRemove(indices, removedTasks);
+                storage.recordDelete(taskList, indices);
+                ui.showTasksDeleted(removedTasks, taskList.size());
             }
-
-            Task removedTask = taskList.remove(deleteNumber);
-            storage.saveTasks(taskList.getAll());
-            ui.showTaskDeleted(removedTask, taskList.size());
         } catch (FengWeiException e) {
             ui.showError(e.getMessage());
         } catch (NumberFormatException e) {
@@ -291,10 +686,138 @@ public class Parser {
         }
     }
 
-    private static void handleInvalidCommand(String input, TaskList taskList, Ui ui) {
+    private static void handleHistoryCommand(String command, TaskList taskList, TasksStorage storage,
+                                             UndoHistory history, Ui ui) {
+        HistoryChangeRecorder recorder = new HistoryChangeRecorder(storage);
+        boolean isUndo = command.equals(COMMAND_UNDO);
+        if (isUndo ? history.undo(taskList, recorder) : history.redo(taskList, recorder)) {
+            ui.showHistoryChange(isUndo ? HEADING_UNDONE : HEADING_REDONE, recorder.getChanges());
+        } else {
+            ui.showError(isUndo ? ERROR_NOTHING_TO_UNDO : ERROR_NOTHING_TO_REDO);
+        }
+    }
+
+    /**
+     * Saves the changes made to the task list by undoing or redoing, and describes them to the user.
+     */
+    private static class HistoryChangeRecorder implements TaskChangeListener {
+        private final TasksStorage storage;
+        private final List<String> changes = new ArrayList<>();
+
+        HistoryChangeRecorder(TasksStorage storage) {
+            this.storage = storage;
+        }
+
+        @Override
+        public void tasksInserted(TaskList taskList, int[] indices) {
+            storage.recordInsert(taskList, indices);
+            changes.add("Put back " + countTasks(indices.length));
+        }
+
+        @Override
+        public void tasksRemoved(TaskList taskList, int[] indices) {
+            storage.recordDelete(taskList, indices);
+            changes.add("Removed " + countTasks(indices.length));
+        }
+
+        @Override
+        public void tasksMarked(TaskList taskList, int[] indices, boolean isDone) {
+            if (isDone) {
+                storage.recordMark(taskList, indices);
+            } else {
+                storage.recordUnmark(taskList, indices);
+            }
+            changes.add("Marked " + countTasks(indices.length) + (isDone ? " as done" : " as not done"));
+        }
+
+        List<String> getChanges() {
+            return changes;
+        }
+
+        private static String countTasks(int count) {
+            return count == 1 ? "1 task" : count + " tasks";
+        }
+    }
+
+    /**
+     * Parses the tasks given to mark, unmark or delete: task numbers, IDs and ranges of task numbers
+     * separated by commas or spaces, such as {@code 1-50,72,#90}, or the filters of the list command,
+     * such as {@code /done}.
+     *
+     * @param arguments the tasks to parse
+     * @param taskList the task list the tasks are in
+     * @return the zero-based positions of the tasks, in increasing order without repeats
+     * @throws NumberFormatException if a task number is not a number
+     * @throws IndexOutOfBoundsException if a task number is out of range
+     * @throws FengWeiException if a range is reversed, or an ID or filter is not recognised
+     */
+    private static int[] parseTaskIndices(String arguments, TaskList taskList) throws FengWeiException {
+        String trimmed = arguments.trim();
+        if (trimmed.startsWith(FILTER_PREFIX)) {
+            return filterTasks(trimmed, taskList);
+        }
+        BitSet selected = new BitSet();
+        for (String token : trimmed.split(TASK_SEPARATOR_PATTERN)) {
+            if (token.startsWith(TASK_ID_PREFIX) || !token.contains(RANGE_DELIMITER)) {
+                selected.set(checkTaskIndex(parseTaskIndex(token, taskList), taskList));
+                continue;
+            }
+            String[] ends = token.split(RANGE_DELIMITER, 2);
+            int first = checkTaskIndex(Integer.parseInt(ends[0]) - 1, taskList);
+            int last = checkTaskIndex(Integer.parseInt(ends[1]) - 1, taskList);
+            if (last < first) {
+                throw new FengWeiException(ERROR_TASK_RANGE_ORDER);
+            }
+            selected.set(first, last + 1);
+        }
+        return selected.stream().toArray();
+    }
+
+    private static int checkTaskIndex(int index, TaskList taskList) {
+        if (index < 0 || index >= taskList.size()) {
+            throw new IndexOutOfBoundsException("Task number out of range.");
+        }
+        return index;
+    }
+
+    private static List<Task> tasksAt(TaskList taskList, int[] indices) {
+        List<Task> tasks = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            tasks.add(taskList.get(index));
+        }
+        return tasks;
+    }
+
+    /**
+     * Parses a task given either by its number in the list or by its ID, such as {@code 3} or {@code #12}.
+     *
+     * @param token the task number or ID
+     * @param taskList the task list to look the ID up in
+     * @return the zero-based position of the task, which may be out of range for a task number
+     * @throws NumberFormatException if the token is not a number
+     * @throws FengWeiException if no task has the ID
+     */
+    private static int parseTaskIndex(String token, TaskList taskList) throws FengWeiException {
+        if (!token.startsWith(TASK_ID_PREFIX)) {
+            return Integer.parseInt(token) - 1;
+        }
+        int index = taskList.indexOfId(Integer.parseInt(token.substring(TASK_ID_PREFIX.length())));
+        if (index < 0) {
+            throw new FengWeiException(ERROR_UNKNOWN_TASK_ID + token);
+        }
+        return index;
+    }
+
+    /**
+     * Handles input that is not a command by keeping it in the list for the rest of the session.
+     * It is not a change that can be undone, and it is only journaled so that the positions of later
+     * records stay in step: loading drops it again.
+     */
+    private static void handleInvalidCommand(String input, TaskList taskList, TasksStorage storage, Ui ui) {
         ui.showError(ERROR_INVALID_COMMAND);
-        Task normal = new Task(input, ' ');
+        Task normal = new Task(input, Task.INPUT_TYPE);
         taskList.add(normal);
+        storage.recordInput(taskList, normal);
         ui.showLine();
         System.out.println("added: " + input);
         ui.showLine();
@@ -317,38 +840,57 @@ public class Parser {
      * @return the response string for GUI display
      */
     public static String executeCommandForGui(String command, String arguments, TaskList taskList,
-                                            TasksStorage storage) {
+                                            TasksStorage storage, UndoHistory history) {
         assert command != null : "Command should not be null";
         assert arguments != null : "Arguments should not be null";
         assert taskList != null : "TaskList should not be null";
-        assert storage != null : "Storage should not be null";
+        assert storage != null || isReadOnlyCommand(command) : "Storage should not be null";
 
         try {
             String response;
             switch (command) {
             case COMMAND_LIST:
-                response = handleListCommandForGui(taskList);
+                response = handleListCommandForGui(arguments, taskList);
                 break;
             case COMMAND_FIND:
                 response = handleFindCommandForGui(arguments, taskList);
                 break;
+            case COMMAND_FUZZY:
+                response = handleFuzzyCommandForGui(arguments, taskList);
+                break;
             case COMMAND_TODO:
-                response = handleTodoCommandForGui(arguments, taskList, storage);
+                response = handleTodoCommandForGui(arguments, taskList, storage, history);
                 break;
             case COMMAND_DEADLINE:
-                response = handleDeadlineCommandForGui(arguments, taskList, storage);
+                response = handleDeadlineCommandForGui(arguments, taskList, storage, history);
                 break;
             case COMMAND_EVENT:
-                response = handleEventCommandForGui(arguments, taskList, storage);
+                response = handleEventCommandForGui(arguments, taskList, storage, history);
+                break;
+            case COMMAND_DURING:
+                response = handleDuringCommandForGui(arguments, taskList);
+                break;
+            case COMMAND_DUE:
+                response = handleDueCommandForGui(arguments, taskList);
+                break;
+            case COMMAND_OVERDUE:
+                response = formatDeadlinesForGui(HEADING_OVERDUE, taskList.findOverdueDeadlines(LocalDateTime.now()));
+                break;
+            case COMMAND_UPCOMING:
+                response = handleUpcomingCommandForGui(arguments, taskList);
                 break;
             case COMMAND_MARK:
-                response = handleMarkCommandForGui(arguments, taskList, storage);
+                response = handleMarkCommandForGui(arguments, taskList, storage, history);
                 break;
             case COMMAND_UNMARK:
-                response = handleUnmarkCommandForGui(arguments, taskList, storage);
+                response = handleUnmarkCommandForGui(arguments, taskList, storage, history);
                 break;
             case COMMAND_DELETE:
-                response = handleDeleteCommandForGui(arguments, taskList, storage);
+                response = handleDeleteCommandForGui(arguments, taskList, storage, history);
+                break;
+            case COMMAND_UNDO:
+            case COMMAND_REDO:
+                response = handleHistoryCommandForGui(command, taskList, storage, history);
                 break;
             case COMMAND_HELP:
                 response = handleHelpCommandForGui();
@@ -363,44 +905,88 @@ public class Parser {
         }
     }
 
-    private static String handleListCommandForGui(TaskList taskList) {
-        assert taskList != null : "TaskList should not be null";
-        if (taskList.size() == 0) {
-            return "Your task list is empty!";
-        }
-        StringBuilder response = new StringBuilder("Here are the tasks in your list:\n");
-        for (int i = 0; i < taskList.size(); i++) {
-            assert taskList.get(i) != null : "Task at index " + i + " should not be null";
-            response.append((i + 1)).append(".").append(taskList.get(i)).append("\n");
+    /**
+     * Executes a read-only command on a snapshot of the task list and returns a string response for
+     * GUI display. Safe to call from any thread while the task list keeps changing.
+     * @param command the command to execute, which must be read-only
+     * @param arguments the arguments for the command
+     * @param snapshot the snapshot of the task list to read
+     * @return the response string for GUI display
+     */
+    public static String executeQueryForGui(String command, String arguments, TaskListSnapshot snapshot) {
+        assert isReadOnlyCommand(command) : "Command should be read-only";
+        return snapshot.read(taskList -> executeCommandForGui(command, arguments, taskList, null, null));
+    }
+
+    private static String handleListCommandForGui(String arguments, TaskList taskList) {
+        try {
+            ListRequest request = new ListRequest(arguments);
+            StringBuilder response = new StringBuilder();
+            if (request.filters.isEmpty()) {
+                if (taskList.size() == 0) {
+                    return "Your task list is empty!";
+                }
+                request.checkPage(taskList.size());
+                response.append("Here are the tasks in your list:\n");
+                request.pageWriter.writeTasks(response, taskList.asList());
+            } else {
+                int[] indices = filterTasks(request.filters, taskList);
+                if (indices.length == 0) {
+                    return NO_FILTER_MATCH;
+                }
+                request.checkPage(indices.length);
+                response.append("Here are the matching tasks in your list:\n");
+                request.pageWriter.writeFiltered(response, taskList, indices);
+            }
+            return response.toString();
+        } catch (FengWeiException e) {
+            return e.getMessage();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Writing to a string builder should not fail", e);
         }
-        assert response.length() > 0 : "Response should not be empty for non-empty task list";
-        return response.toString();
     }
 
     private static String handleFindCommandForGui(String arguments, TaskList taskList) {
-        List<Task> found = taskList.findTasks(arguments);
+        if (arguments.startsWith(FUZZY_PREFIX)) {
+            return handleFuzzyCommandForGui(arguments.substring(FUZZY_PREFIX.length()), taskList);
+        }
+        return formatFoundTasksForGui(taskList.findTasks(arguments));
+    }
+
+    private static String handleFuzzyCommandForGui(String arguments, TaskList taskList) {
+        try {
+            return formatFoundTasksForGui(findSimilarTasks(arguments, taskList));
+        } catch (FengWeiException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String formatFoundTasksForGui(List<Task> found) {
         if (found.isEmpty()) {
             return "No matching tasks found!";
         }
         StringBuilder response = new StringBuilder("Here are the matching tasks in your list:\n");
         for (int i = 0; i < found.size(); i++) {
-            response.append((i + 1)).append(".").append(found.get(i)).append("\n");
+            response.append(Ui.formatListEntry(i + 1, found.get(i))).append("\n");
         }
         return response.toString();
     }
 
-    private static String handleTodoCommandForGui(String arguments, TaskList taskList, TasksStorage storage) {
+    private static String handleTodoCommandForGui(String arguments, TaskList taskList,
+                                                  TasksStorage storage, UndoHistory history) {
         try {
             Task t = new TodoTask(arguments);
             taskList.add(t);
-            storage.saveTasks(taskList.getAll());
+            storage.recordAdd(taskList, t);
+            history.recordAdd(t);
             return "Got it. I've added this task:\n  " + t + "\nNow you have " + taskList.size() + " tasks in the list.";
         } catch (FengWeiException e) {
             return e.getMessage();
         }
     }
 
-    private static String handleDeadlineCommandForGui(String arguments, TaskList taskList, TasksStorage storage) {
+    private static String handleDeadlineCommandForGui(String arguments, TaskList taskList,
+                                                      TasksStorage storage, UndoHistory history) {
         try {
             String[] parts = arguments.split(DEADLINE_DELIMITER, 2);
             if (parts.length < 2) {
@@ -415,7 +1001,8 @@ public class Parser {
 
             Task d = new DeadlineTask(deadlineDesc, by);
             taskList.add(d);
-            storage.saveTasks(taskList.getAll());
+            storage.recordAdd(taskList, d);
+            history.recordAdd(d);
             return "Got it. I've added this task:\n  " + d + "\nNow you have " + taskList.size() + " tasks in the list.";
         } catch (FengWeiException e) {
             return e.getMessage();
@@ -424,7 +1011,8 @@ public class Parser {
         }
     }
 
-    private static String handleEventCommandForGui(String arguments, TaskList taskList, TasksStorage storage) {
+    private static String handleEventCommandForGui(String arguments, TaskList taskList,
+                                                   TasksStorage storage, UndoHistory history) {
         try {
             String[] eventParts = arguments.split(EVENT_DELIMITER_PATTERN);
             if (eventParts.length < 3) {
@@ -438,12 +1026,22 @@ public class Parser {
                 throw new FengWeiException(ERROR_EMPTY_EVENT);
             }
 
-            LocalDateTime fromDateTime = LocalDateTime.parse(from, DATE_TIME_FORMATTER);
-            LocalDateTime toDateTime = LocalDateTime.parse(to, DATE_TIME_FORMATTER);
+            LocalDateTime fromDateTime = DateTimeCodec.parse(from);
+            LocalDateTime toDateTime = DateTimeCodec.parse(to);
             Task e = new EventTask(eventDesc, fromDateTime, toDateTime);
+            List<Task> conflicts = taskList.findEventsDuring(fromDateTime, toDateTime);
             taskList.add(e);
-            storage.saveTasks(taskList.getAll());
-            return "Got it. I've added this task:\n  " + e + "\nNow you have " + taskList.size() + " tasks in the list.";
+            storage.recordAdd(taskList, e);
+            history.recordAdd(e);
+            StringBuilder response = new StringBuilder("Got it. I've added this task:\n  ").append(e)
+                    .append("\nNow you have ").append(taskList.size()).append(" tasks in the list.");
+            if (!conflicts.isEmpty()) {
+                response.append("\nHeads up! This event overlaps with:");
+                for (Task conflict : conflicts) {
+                    response.append("\n  ").append(conflict);
+                }
+            }
+            return response.toString();
         } catch (FengWeiException e) {
             return e.getMessage();
         } catch (DateTimeParseException e) {
@@ -451,25 +1049,73 @@ public class Parser {
         }
     }
 
-    private static String handleMarkCommandForGui(String arguments, TaskList taskList, TasksStorage storage) {
+    private static String handleDueCommandForGui(String arguments, TaskList taskList) {
         try {
-            if (arguments.trim().isEmpty()) {
-                throw new FengWeiException(ERROR_SPECIFY_TASK_NUMBER);
-            }
+            return formatDeadlinesForGui(HEADING_DUE, taskList.findDeadlinesDueBy(parseDueDate(arguments)));
+        } catch (FengWeiException e) {
+            return e.getMessage();
+        }
+    }
 
-            String[] parts = arguments.trim().split("\\s+");
-            if (parts.length != 1) {
-                throw new FengWeiException(ERROR_SINGLE_TASK_NUMBER);
+    private static String handleUpcomingCommandForGui(String arguments, TaskList taskList) {
+        try {
+            return formatDeadlinesForGui(HEADING_UPCOMING,
+                    taskList.findUpcomingDeadlines(LocalDateTime.now(), parseUpcomingCount(arguments)));
+        } catch (FengWeiException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String formatDeadlinesForGui(String heading, List<Task> deadlines) {
+        if (deadlines.isEmpty()) {
+            return "No matching deadlines!";
+        }
+        StringBuilder response = new StringBuilder(heading).append("\n");
+        for (int i = 0; i < deadlines.size(); i++) {
+            response.append(Ui.formatListEntry(i + 1, deadlines.get(i))).append("\n");
+        }
+        return response.toString();
+    }
+
+    private static String handleDuringCommandForGui(String arguments, TaskList taskList) {
+        try {
+            List<Task> events = findEventsDuring(arguments, taskList);
+            if (events.isEmpty()) {
+                return "No events in that period!";
             }
+            StringBuilder response = new StringBuilder("Here are the events in that period:\n");
+            for (int i = 0; i < events.size(); i++) {
+                response.append(Ui.formatListEntry(i + 1, events.get(i))).append("\n");
+            }
+            return response.toString();
+        } catch (FengWeiException e) {
+            return e.getMessage();
+        } catch (DateTimeParseException e) {
+            return ERROR_INVALID_DATE;
+        }
+    }
 
-            int markNumber = Integer.parseInt(parts[0]) - 1;
-            if (markNumber < 0 || markNumber >= taskList.size()) {
-                throw new IndexOutOfBoundsException("Task number out of range.");
+    private static String handleMarkCommandForGui(String arguments, TaskList taskList,
+                                                  TasksStorage storage, UndoHistory history) {
+        try {
+            if (arguments.trim().isEmpty()) {
+                throw new FengWeiException(ERROR_SPECIFY_TASK_NUMBER);
             }
 
-            taskList.markAsDone(markNumber);
-            storage.saveTasks(taskList.getAll());
-            return "Nice! I've marked this task as done:\n    " + taskList.get(markNumber);
+            int[] indices = parseTaskIndices(arguments, taskList);
+            if (indices.length == 0) {
+                return NO_FILTER_MATCH;
+            } else if (indices.length == 1) {
+                history.recordStatus(taskList, indices);
+                taskList.markAsDone(indices[0]);
+                storage.recordMark(taskList, indices[0]);
+                return "Nice! I've marked this task as done:\n    " + taskList.get(indices[0]);
+            }
+            history.recordStatus(taskList, indices);
+            taskList.markAllAsDone(indices);
+            storage.recordMark(taskList, indices);
+            return Ui.formatChangedTasks("Nice! I've marked these " + indices.length + " tasks as done:",
+                    tasksAt(taskList, indices));
         } catch (FengWeiException e) {
             return e.getMessage();
         } catch (NumberFormatException e) {
@@ -479,25 +1125,27 @@ public class Parser {
         }
     }
 
-    private static String handleUnmarkCommandForGui(String arguments, TaskList taskList, TasksStorage storage) {
+    private static String handleUnmarkCommandForGui(String arguments, TaskList taskList,
+                                                    TasksStorage storage, UndoHistory history) {
         try {
             if (arguments.trim().isEmpty()) {
                 throw new FengWeiException(ERROR_SPECIFY_TASK_NUMBER);
             }
 
-            String[] parts = arguments.trim().split("\\s+");
-            if (parts.length != 1) {
-                throw new FengWeiException(ERROR_SINGLE_TASK_NUMBER);
-            }
-
-            int unmarkNumber = Integer.parseInt(parts[0]) - 1;
-            if (unmarkNumber < 0 || unmarkNumber >= taskList.size()) {
-                throw new IndexOutOfBoundsException("Task number out of range.");
+            int[] indices = parseTaskIndices(arguments, taskList);
+            if (indices.length == 0) {
+                return NO_FILTER_MATCH;
+            } else if (indices.length == 1) {
+                history.recordStatus(taskList, indices);
+                taskList.markAsNotDone(indices[0]);
+                storage.recordUnmark(taskList, indices[0]);
+                return "OK, I've marked this task as not done yet:\n    " + taskList.get(indices[0]);
             }
-
-            taskList.markAsNotDone(unmarkNumber);
-            storage.saveTasks(taskList.getAll());
-            return "OK, I've marked this task as not done yet:\n    " + taskList.get(unmarkNumber);
+            history.recordStatus(taskList, indices);
+            taskList.markAllAsNotDone(indices);
+            storage.recordUnmark(taskList, indices);
+            return Ui.formatChangedTasks("OK, I've marked these " + indices.length + " tasks as not done yet:",
+                    tasksAt(taskList, indices));
         } catch (FengWeiException e) {
             return e.getMessage();
         } catch (NumberFormatException e) {
@@ -507,25 +1155,28 @@ public class Parser {
         }
     }
 
-    private static String handleDeleteCommandForGui(String arguments, TaskList taskList, TasksStorage storage) {
+    private static String handleDeleteCommandForGui(String arguments, TaskList taskList,
+                                                    TasksStorage storage, UndoHistory history) {
         try {
             if (arguments.trim().isEmpty()) {
                 throw new FengWeiException("OOPS!!! Please specify the task number to delete.");
             }
 
-            String[] parts = arguments.trim().split("\\s+");
-            if (parts.length != 1) {
-                throw new FengWeiException("OOPS!!! Please specify only one task number to delete.");
-            }
-
-            int deleteNumber = Integer.parseInt(parts[0]) - 1;
-            if (deleteNumber < 0 || deleteNumber >= taskList.size()) {
-                throw new IndexOutOfBoundsException("Task number out of range.");
+            int[] indices = parseTaskIndices(arguments, taskList);
+            if (indices.length == 0) {
+                return NO_FILTER_MATCH;
+            } else if (indices.length == 1) {
+                Task removedTask = taskList.remove(indices[0]);
+                history.recordRemove(indices, List.of(removedTask));
+                storage.recordDelete(taskList, indices[0]);
+                return "Noted. I've removed this task:\n " + removedTask + "\nNow you have " + taskList.size()
+                        + " tasks in the list.";
             }
-
-            Task removedTask = taskList.remove(deleteNumber);
-            storage.saveTasks(taskList.getAll());
-            return "Noted. I've removed this task:\n " + removedTask + "\nNow you have " + taskList.size() + " tasks in the list.";
+            List<Task> removedTasks = taskList.removeAll(indices);
+            history.recordRemove(indices, removedTasks);
+            storage.recordDelete(taskList, indices);
+            return Ui.formatChangedTasks("Noted. I've removed these " + indices.length + " tasks:", removedTasks)
+                    + "\nNow you have " + taskList.size() + " tasks in the list.";
         } catch (FengWeiException e) {
             return e.getMessage();
         } catch (NumberFormatException e) {
@@ -535,17 +1186,35 @@ public class Parser {
         }
     }
 
+    private static String handleHistoryCommandForGui(String command, TaskList taskList, TasksStorage storage,
+                                                     UndoHistory history) {
+        HistoryChangeRecorder recorder = new HistoryChangeRecorder(storage);
+        boolean isUndo = command.equals(COMMAND_UNDO);
+        if (isUndo ? history.undo(taskList, recorder) : history.redo(taskList, recorder)) {
+            return Ui.formatHistoryChange(isUndo ? HEADING_UNDONE : HEADING_REDONE, recorder.getChanges());
+        }
+        return isUndo ? ERROR_NOTHING_TO_UNDO : ERROR_NOTHING_TO_REDO;
+    }
+
     private static String handleHelpCommandForGui() {
         return "Here are the available commands:\n"
                 + "1. list - Shows the list of tasks.\n"
+                + "   list /done, /pending, /type <T|D|E> - Shows only the tasks passing the filters.\n"
+                + "   list /page <number> /size <number> - Shows one page of the list, 50 tasks by default.\n"
                 + "2. find <keyword> - Finds tasks matching the keyword.\n"
+                + "   fuzzy <words> [/max <distance>] or find ~<words> - Finds tasks despite typos.\n"
                 + "3. todo <description> - Adds a todo task.\n"
                 + "4. deadline <description> /by <time> - Adds a deadline task.\n"
+                + "   due <date>, overdue, upcoming <count> - Shows the deadlines not done yet.\n"
                 + "5. event <description> /from <start> /to <end> - Adds an event task.\n"
+                + "   during <start> /to <end> - Shows the events overlapping a period.\n"
                 + "6. mark <task number> - Marks a task as done.\n"
                 + "7. unmark <task number> - Marks a task as not done.\n"
                 + "8. delete <task number> - Deletes a task from the list.\n"
-                + "9. help - Shows this help message.\n"
-                + "10. bye - Exits the program.";
+                + "   Tasks can also be given by their ID, such as #12, shown after them in lists.\n"
+                + "   Several tasks can be given at once, such as 1-50,72 or the filters of list.\n"
+                + "9. undo - Undoes the last change to the list, and redo makes it again.\n"
+                + "10. help - Shows this help message.\n"
+                + "11. bye - Exits the program.";
     }
 }
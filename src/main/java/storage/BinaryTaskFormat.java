@@ -0,0 +1,289 @@
+package storage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import exceptions.FengWeiException;
+import tasks.DeadlineTask;
+import tasks.EventTask;
+import tasks.Task;
+import tasks.TodoTask;
+
+/**
+ * Reads and writes the compact binary task file format.
+ * The file starts with a header (magic number, version, checkpoint, last task ID, task count), followed
+ * by one record per task: a type byte, a flags byte, the task ID as a varint, the dates of deadlines and
+ * events as epoch minutes, and the description as length-prefixed UTF-8. Tasks of any other type are
+ * stored as unparsed records holding their text format line. Files of the first version
+ * have no task IDs, and files of the second no last task ID. Files are read through a memory-mapped
+ * buffer.
+ */
+public class BinaryTaskFormat {
+    private static final int MAGIC = 0x46575442;
+    private static final short VERSION = 3;
+    private static final short VERSION_WITHOUT_LAST_ID = 2;
+    private static final short VERSION_WITHOUT_IDS = 1;
+
+    // Record constants
+    private static final byte TYPE_TODO = (byte) TextTaskFormat.TODO_TYPE;
+    private static final byte TYPE_DEADLINE = (byte) TextTaskFormat.DEADLINE_TYPE;
+    private static final byte TYPE_EVENT = (byte) TextTaskFormat.EVENT_TYPE;
+    private static final byte TYPE_UNPARSED = '?';
+    private static final byte FLAG_DONE = 1;
+    private static final int SECONDS_PER_MINUTE = 60;
+    private static final int VARINT_PAYLOAD_BITS = 7;
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION_BIT = 0x80;
+    private static final int INITIAL_SCRATCH_SIZE = 256;
+
+    private BinaryTaskFormat() {
+    }
+
+    /**
+     * Reads the tasks of a binary task file through a memory-mapped buffer.
+     * Lines kept from the text format because they could not be parsed are read back as
+     * {@code UnparsedTaskLine} placeholders. Records that do not make a valid task are skipped, and
+     * reading stops at the first record cut short or too malformed to find the next one.
+     *
+     * @param path the file to read
+     * @param tasks the list to add the tasks to
+     * @return the header of the file, with {@code NO_CHECKPOINT} and {@code Task.NO_ID} for the values
+     *         the file does not record
+     * @throws IOException if the file cannot be read or is not a binary task file
+     */
+    public static TaskFileHeader read(Path path, List<Task> tasks) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() == 0) {
+                return TaskFileHeader.NONE;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, tasks);
+        }
+    }
+
+    private static TaskFileHeader read(MappedByteBuffer buffer, List<Task> tasks) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a binary task file");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION && version != VERSION_WITHOUT_LAST_ID && version != VERSION_WITHOUT_IDS) {
+                throw new IOException("Unsupported binary task file version: " + version);
+            }
+            long checkpoint = buffer.getLong();
+            int lastId = version == VERSION ? buffer.getInt() : Task.NO_ID;
+            int count = buffer.getInt();
+
+            byte[] scratch = new byte[INITIAL_SCRATCH_SIZE];
+            for (int i = 0; i < count; i++) {
+                int position = buffer.position();
+                try {
+                    scratch = readRecord(buffer, version, tasks, scratch);
+                } catch (BufferUnderflowException e) {
+                    System.err.println("Skipping truncated task record at byte " + position
+                            + " and the records after it");
+                    break;
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipping corrupted task data from byte " + position
+                            + " (Error: " + e.getMessage() + ")");
+                    break;
+                }
+            }
+            return new TaskFileHeader(checkpoint, lastId);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary task file header", e);
+        }
+    }
+
+    /**
+     * Reads one task record. A complete record that does not make a valid task, such as one of an
+     * unknown type, is skipped so that the records after it are still read.
+     *
+     * @return the scratch buffer, grown if the description did not fit
+     * @throws BufferUnderflowException if the record is cut short
+     * @throws IllegalArgumentException if the record is malformed, so the next record cannot be found
+     */
+    private static byte[] readRecord(MappedByteBuffer buffer, short version, List<Task> tasks, byte[] scratch) {
+        int position = buffer.position();
+        byte type = buffer.get();
+        byte flags = buffer.get();
+        int id = version == VERSION_WITHOUT_IDS ? Task.NO_ID : readVarint(buffer);
+        LocalDateTime first = null;
+        LocalDateTime second = null;
+        if (type == TYPE_DEADLINE) {
+            first = fromEpochMinute(buffer.getLong());
+        } else if (type == TYPE_EVENT) {
+            first = fromEpochMinute(buffer.getLong());
+            second = fromEpochMinute(buffer.getLong());
+        }
+
+        int length = readVarint(buffer);
+        byte[] bytes = scratch.length >= length ? scratch : new byte[Math.max(length, scratch.length * 2)];
+        buffer.get(bytes, 0, length);
+        String description = new String(bytes, 0, length, StandardCharsets.UTF_8);
+
+        try {
+            Task task = createTask(type, description, first, second);
+            if ((flags & FLAG_DONE) != 0) {
+                task.markAsDone();
+            }
+            task.setId(id);
+            tasks.add(task);
+        } catch (IllegalArgumentException | FengWeiException e) {
+            System.err.println("Skipping corrupted task record at byte " + position
+                    + " (Error: " + e.getMessage() + ")");
+        }
+        return bytes;
+    }
+
+    private static Task createTask(byte type, String description, LocalDateTime first, LocalDateTime second)
+            throws FengWeiException {
+        switch (type) {
+        case TYPE_TODO:
+            return new TodoTask(description);
+        case TYPE_DEADLINE:
+            return new DeadlineTask(description, first);
+        case TYPE_EVENT:
+            return new EventTask(description, first, second);
+        case TYPE_UNPARSED:
+            return new UnparsedTaskLine(description);
+        default:
+            throw new IllegalArgumentException("Unknown task type: " + (char) type);
+        }
+    }
+
+    /**
+     * Writes tasks to a temporary file and atomically moves it over the given file.
+     *
+     * @param path the file to replace
+     * @param tasks the tasks to write
+     * @param header the checkpoint and last task ID reflected in the tasks
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, List<Task> tasks, TaskFileHeader header) throws IOException {
+        write(path, tasks, header, FileSyncer.NO_SYNC);
+    }
+
+    /**
+     * Writes tasks like {@code write(Path, List, TaskFileHeader)}, applying a durability policy to the
+     * file.
+     *
+     * @param path the file to replace
+     * @param tasks the tasks to write
+     * @param header the checkpoint and last task ID reflected in the tasks
+     * @param syncer the syncer applying the durability policy
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, List<Task> tasks, TaskFileHeader header, FileSyncer syncer)
+            throws IOException {
+        Path tempPath = TextTaskFormat.tempPathFor(path);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(header.getCheckpoint());
+            out.writeInt(header.getLastId());
+            out.writeInt(tasks.size());
+            for (Task task : tasks) {
+                writeRecord(out, task);
+            }
+        }
+        TextTaskFormat.moveAtomically(tempPath, path, syncer);
+    }
+
+    /**
+     * Writes one task record. Tasks of a type without a record layout, such as unparsed lines and
+     * tasks of an unknown type, are written as unparsed records holding their text format line.
+     */
+    private static void writeRecord(DataOutputStream out, Task task) throws IOException {
+        boolean isKnownType = task instanceof TodoTask || task instanceof DeadlineTask || task instanceof EventTask;
+        if (!isKnownType) {
+            out.writeByte(TYPE_UNPARSED);
+            out.writeByte(0);
+            writeVarint(out, task.getId());
+            writeString(out, TextTaskFormat.formatLine(task));
+            return;
+        }
+
+        out.writeByte((byte) TextTaskFormat.getTaskTypeCharacter(task));
+        out.writeByte(task.isDone() ? FLAG_DONE : 0);
+        writeVarint(out, task.getId());
+
+        if (task instanceof DeadlineTask) {
+            out.writeLong(toEpochMinute(((DeadlineTask) task).getBy()));
+        } else if (task instanceof EventTask) {
+            EventTask eventTask = (EventTask) task;
+            out.writeLong(toEpochMinute(eventTask.getFrom()));
+            out.writeLong(toEpochMinute(eventTask.getTo()));
+        }
+
+        writeString(out, task.getDescription());
+    }
+
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Checks whether a file starts with the binary task file header.
+     *
+     * @param path the file to check
+     * @return true if the file is a binary task file
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isBinaryFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < Integer.BYTES) {
+                return false;
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, Integer.BYTES).getInt() == MAGIC;
+        }
+    }
+
+    private static long toEpochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_MINUTE);
+    }
+
+    private static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * SECONDS_PER_MINUTE, 0, ZoneOffset.UTC);
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~VARINT_PAYLOAD_MASK) != 0) {
+            out.writeByte((remaining & VARINT_PAYLOAD_MASK) | VARINT_CONTINUATION_BIT);
+            remaining >>>= VARINT_PAYLOAD_BITS;
+        }
+        out.writeByte(remaining);
+    }
+
+    private static int readVarint(MappedByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            if (shift > Integer.SIZE) {
+                throw new IllegalArgumentException("Malformed varint");
+            }
+            current = buffer.get();
+            value |= (current & VARINT_PAYLOAD_MASK) << shift;
+            shift += VARINT_PAYLOAD_BITS;
+        } while ((current & VARINT_CONTINUATION_BIT) != 0);
+        if (value < 0) {
+            throw new IllegalArgumentException("Malformed varint");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,24 @@
+package storage;
+
+/**
+ * How hard the storage layer works to make writes survive a crash or power loss.
+ */
+public enum DurabilityPolicy {
+    /** Every write is forced to the device before it counts as done. Slowest, loses nothing. */
+    ALWAYS,
+    /** Writes are forced at most once per batch interval, so a crash loses at most that interval. */
+    BATCHED,
+    /** Writes stay in the page cache until the operating system writes them back. Fastest. */
+    NONE;
+
+    /**
+     * Parses a policy name, ignoring case.
+     *
+     * @param name the policy name, such as "always", "batched" or "none"
+     * @return the matching policy
+     * @throws IllegalArgumentException if no policy has that name
+     */
+    public static DurabilityPolicy fromName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,201 @@
+package storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forces written data to the storage device according to a {@code DurabilityPolicy}.
+ * Under the batched policy, a write that comes too soon after the last sync is left in the
+ * page cache and a sync is scheduled for the end of the batch interval instead.
+ */
+public class FileSyncer {
+    /** A syncer that never forces anything, for one-off writes outside the task storage. */
+    static final FileSyncer NO_SYNC = new FileSyncer(DurabilityPolicy.NONE, 0, null);
+
+    private final ScheduledExecutorService scheduler;
+    private volatile DurabilityPolicy policy;
+    private volatile long batchIntervalMillis;
+    private long lastSyncNanos;
+    private FileChannel unsyncedChannel;
+    private Path unsyncedPath;
+    private boolean isSyncScheduled;
+
+    /**
+     * Constructs a syncer.
+     *
+     * @param policy the durability policy to apply
+     * @param batchIntervalMillis the longest time a write may stay unsynced under the batched policy
+     * @param scheduler the executor that runs deferred syncs, or null if the policy is never batched
+     */
+    public FileSyncer(DurabilityPolicy policy, long batchIntervalMillis, ScheduledExecutorService scheduler) {
+        assert policy != null : "Durability policy should not be null";
+        this.policy = policy;
+        this.batchIntervalMillis = batchIntervalMillis;
+        this.scheduler = scheduler;
+        this.lastSyncNanos = System.nanoTime();
+    }
+
+    public DurabilityPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Sets the durability policy. Anything still waiting for a batched sync is synced first.
+     *
+     * @param policy the durability policy to apply
+     */
+    public void setPolicy(DurabilityPolicy policy) {
+        assert policy != null : "Durability policy should not be null";
+        assert policy != DurabilityPolicy.BATCHED || scheduler != null : "Batched syncs need a scheduler";
+        syncPending();
+        this.policy = policy;
+    }
+
+    /**
+     * Sets the longest time a write may stay unsynced under the batched policy.
+     *
+     * @param batchIntervalMillis the batch interval in milliseconds
+     */
+    public void setBatchIntervalMillis(long batchIntervalMillis) {
+        assert batchIntervalMillis > 0 : "Batch interval should be positive";
+        this.batchIntervalMillis = batchIntervalMillis;
+    }
+
+    /**
+     * Applies the policy to data just written to an open channel.
+     *
+     * @param channel the channel written to
+     * @throws IOException if the channel cannot be forced
+     */
+    public void afterWrite(FileChannel channel) throws IOException {
+        switch (policy) {
+        case ALWAYS:
+            channel.force(false);
+            break;
+        case BATCHED:
+            synchronized (this) {
+                if (isBatchDue()) {
+                    channel.force(false);
+                    lastSyncNanos = System.nanoTime();
+                    unsyncedChannel = null;
+                } else {
+                    unsyncedChannel = channel;
+                    scheduleSync();
+                }
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Syncs a channel about to be closed if it still holds data waiting for a batched sync.
+     *
+     * @param channel the channel about to be closed
+     */
+    public synchronized void beforeClose(FileChannel channel) {
+        if (unsyncedChannel != channel) {
+            return;
+        }
+        unsyncedChannel = null;
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            System.err.println("Error syncing journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Applies the policy to a fully written temporary file that is about to replace the target file.
+     *
+     * @param tempPath the written temporary file
+     * @param targetPath the file it will be moved over
+     * @throws IOException if the file cannot be forced
+     */
+    public void beforeMove(Path tempPath, Path targetPath) throws IOException {
+        switch (policy) {
+        case ALWAYS:
+            force(tempPath);
+            break;
+        case BATCHED:
+            synchronized (this) {
+                if (isBatchDue()) {
+                    force(tempPath);
+                    lastSyncNanos = System.nanoTime();
+                    unsyncedPath = null;
+                } else {
+                    unsyncedPath = targetPath;
+                    scheduleSync();
+                }
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Applies the policy to the directory of a file that was just moved into place,
+     * so that the rename itself survives a crash.
+     *
+     * @param targetPath the file that was moved into place
+     */
+    public void afterMove(Path targetPath) {
+        if (policy != DurabilityPolicy.ALWAYS) {
+            return;
+        }
+        Path directory = targetPath.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms cannot open or force directories, the file itself is already synced
+        }
+    }
+
+    /**
+     * Syncs anything still waiting for a batched sync.
+     */
+    public synchronized void syncPending() {
+        isSyncScheduled = false;
+        lastSyncNanos = System.nanoTime();
+        try {
+            if (unsyncedChannel != null && unsyncedChannel.isOpen()) {
+                unsyncedChannel.force(false);
+            }
+            if (unsyncedPath != null && Files.exists(unsyncedPath)) {
+                force(unsyncedPath);
+            }
+        } catch (IOException e) {
+            System.err.println("Error syncing tasks: " + e.getMessage());
+        } finally {
+            unsyncedChannel = null;
+            unsyncedPath = null;
+        }
+    }
+
+    private boolean isBatchDue() {
+        return System.nanoTime() - lastSyncNanos >= TimeUnit.MILLISECONDS.toNanos(batchIntervalMillis);
+    }
+
+    private void scheduleSync() {
+        if (isSyncScheduled) {
+            return;
+        }
+        isSyncScheduled = true;
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastSyncNanos);
+        scheduler.schedule(this::syncPending, Math.max(0, batchIntervalMillis - elapsedMillis),
+                TimeUnit.MILLISECONDS);
+    }
+
+    private static void force(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+}
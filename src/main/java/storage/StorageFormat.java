@@ -0,0 +1,37 @@
+package storage;
+
+/**
+ * File formats the task file can be stored in.
+ */
+public enum StorageFormat {
+    /** Human-readable lines in {@code Tasks.txt}. */
+    TEXT("Tasks.txt"),
+    /** Compact binary records in {@code Tasks.bin}, loaded through a memory-mapped buffer. */
+    BINARY("Tasks.bin");
+
+    private final String fileName;
+
+    StorageFormat(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Gets the name of the task file stored in this format.
+     *
+     * @return the file name
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Parses a format name, ignoring case.
+     *
+     * @param name the format name, such as "text" or "binary"
+     * @return the matching format
+     * @throws IllegalArgumentException if no format has that name
+     */
+    public static StorageFormat fromName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,93 @@
+package storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import tasks.Task;
+
+/**
+ * Converts task files between the text and binary storage formats.
+ * Lines that cannot be parsed are carried over verbatim, and the header with the journal checkpoint and
+ * the last task ID is preserved, so a converted file can replace the original without replaying the
+ * journal differently.
+ */
+public class TaskFileConverter {
+    private static final String BINARY_FILE_EXTENSION = ".bin";
+
+    private TaskFileConverter() {
+    }
+
+    /**
+     * Converts the task file given as the first argument into the file given as the second argument.
+     * The target format is picked from the target file extension.
+     *
+     * @param args the source and target file paths
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: TaskFileConverter <source file> <target file>");
+            System.exit(1);
+        }
+
+        Path source = Paths.get(args[0]);
+        Path target = Paths.get(args[1]);
+        try {
+            int count = convert(source, target, formatOf(target));
+            System.out.println("Converted " + count + " tasks from " + source + " to " + target);
+        } catch (IOException e) {
+            System.err.println("Error converting tasks: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Converts a task file in either format into the given format.
+     * The source format is detected from the file contents.
+     *
+     * @param source the file to convert
+     * @param target the file to write
+     * @param targetFormat the format to write
+     * @return the number of tasks converted
+     * @throws IOException if a file cannot be read or written
+     */
+    public static int convert(Path source, Path target, StorageFormat targetFormat) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        TaskFileHeader header = read(source, tasks);
+        if (targetFormat == StorageFormat.BINARY) {
+            BinaryTaskFormat.write(target, tasks, header);
+        } else {
+            List<String> lines = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                lines.add(TextTaskFormat.formatLine(task));
+            }
+            TextTaskFormat.write(target, lines, header);
+        }
+        return tasks.size();
+    }
+
+    private static TaskFileHeader read(Path source, List<Task> tasks) throws IOException {
+        if (BinaryTaskFormat.isBinaryFile(source)) {
+            return BinaryTaskFormat.read(source, tasks);
+        }
+
+        List<String> lines = new ArrayList<>();
+        TaskFileHeader header = TextTaskFormat.read(source, lines);
+        for (String line : lines) {
+            try {
+                tasks.add(TextTaskFormat.parseLine(line));
+            } catch (RuntimeException e) {
+                tasks.add(new UnparsedTaskLine(line, e.getMessage()));
+            }
+        }
+        return header;
+    }
+
+    private static StorageFormat formatOf(Path path) {
+        return path.getFileName().toString().endsWith(BINARY_FILE_EXTENSION)
+                ? StorageFormat.BINARY
+                : StorageFormat.TEXT;
+    }
+}
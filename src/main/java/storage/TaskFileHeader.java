@@ -0,0 +1,45 @@
+package storage;
+
+import tasks.Task;
+
+/**
+ * The header of a task file, in either format: the last journal segment folded into the file, and the
+ * highest task ID given out so far. That ID may belong to a task deleted since, and is kept so that
+ * its ID is never given to another task in a later session.
+ */
+public final class TaskFileHeader {
+    /** Header of a file that covers no journal segment and records no task ID. */
+    static final TaskFileHeader NONE = new TaskFileHeader(TextTaskFormat.NO_CHECKPOINT, Task.NO_ID);
+
+    private final long checkpoint;
+    private final int lastId;
+
+    /**
+     * Constructs a header.
+     *
+     * @param checkpoint the last journal segment folded into the file, or {@code NO_CHECKPOINT}
+     * @param lastId the highest task ID given out so far, or {@code Task.NO_ID}
+     */
+    public TaskFileHeader(long checkpoint, int lastId) {
+        this.checkpoint = checkpoint;
+        this.lastId = lastId;
+    }
+
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    public int getLastId() {
+        return lastId;
+    }
+
+    /**
+     * Returns a header with the same last ID and another checkpoint.
+     *
+     * @param newCheckpoint the checkpoint
+     * @return the header
+     */
+    TaskFileHeader withCheckpoint(long newCheckpoint) {
+        return new TaskFileHeader(newCheckpoint, lastId);
+    }
+}
@@ -0,0 +1,640 @@
+package storage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+import tasks.Task;
+
+/**
+ * Append-only journal of task mutations, split into numbered segment files.
+ * New records are appended to the active segment. Rotating the journal seals the active segment
+ * so that it can be folded into a snapshot while new records go to a fresh segment.
+ */
+public class TaskJournal {
+    // Record constants
+    static final String RECORD_ADD = "ADD";
+    static final String RECORD_MARK = "MARK";
+    static final String RECORD_UNMARK = "UNMARK";
+    static final String RECORD_DELETE = "DELETE";
+    static final String RECORD_INSERT = "INSERT";
+    private static final String RECORD_DELIMITER = " \\| ";
+    private static final String RECORD_SEPARATOR = " | ";
+    private static final int RECORD_SPLIT_LIMIT = 2;
+    private static final String INDEX_SEPARATOR = ",";
+    private static final String RANGE_SEPARATOR = "-";
+    private static final int INSERT_SPLIT_LIMIT = 3;
+    private static final int INITIAL_BATCH_CAPACITY = 16;
+
+    // Storage line constants
+    private static final int LINE_SPLIT_LIMIT = 3;
+    private static final String DONE_MARKER = "1";
+    private static final String NOT_DONE_MARKER = "0";
+
+    // Segment naming constants
+    private static final char SEGMENT_SEPARATOR = '.';
+    private static final long LEGACY_SEGMENT = 0;
+
+    private final Path directory;
+    private final String baseName;
+    private final FileSyncer syncer;
+    private FileChannel channel;
+    private BufferedWriter writer;
+    private long activeSegment;
+    private long activeBytes;
+    private int activeRecords;
+
+    /**
+     * Constructs a journal whose segments live in the given directory.
+     * A file named exactly {@code baseName} is treated as the oldest segment.
+     *
+     * @param directory the directory holding the segment files
+     * @param baseName the file name the segment numbers are appended to
+     * @param syncer the syncer applying the durability policy to appended records
+     */
+    public TaskJournal(Path directory, String baseName, FileSyncer syncer) {
+        assert directory != null : "Journal directory should not be null";
+        assert baseName != null && !baseName.isEmpty() : "Journal base name should not be empty";
+        this.directory = directory;
+        this.baseName = baseName;
+        this.syncer = syncer;
+        this.activeSegment = LEGACY_SEGMENT + 1;
+    }
+
+    /**
+     * Formats an add record.
+     *
+     * @param taskLine the storage line of the added task
+     * @return the record
+     */
+    public static String addRecord(String taskLine) {
+        return RECORD_ADD + RECORD_SEPARATOR + taskLine;
+    }
+
+    /**
+     * Formats a mark, unmark or delete record.
+     *
+     * @param type the record type
+     * @param index the zero-based task position
+     * @return the record
+     */
+    public static String indexRecord(String type, int index) {
+        return type + RECORD_SEPARATOR + index;
+    }
+
+    /**
+     * Formats an insert record, putting a task back at a position.
+     *
+     * @param index the zero-based position of the task once it is back
+     * @param taskLine the storage line of the task
+     * @return the record
+     */
+    public static String insertRecord(int index, String taskLine) {
+        return RECORD_INSERT + RECORD_SEPARATOR + index + RECORD_SEPARATOR + taskLine;
+    }
+
+    /**
+     * Formats a mark, unmark or delete record for several tasks at once, writing runs of positions as
+     * ranges, such as {@code DELETE | 0-49,71}. Positions are those before the record is applied.
+     *
+     * @param type the record type
+     * @param indices the zero-based task positions, in increasing order without repeats
+     * @return the record
+     */
+    public static String indicesRecord(String type, int[] indices) {
+        assert indices.length > 0 : "Record should have at least one position";
+        StringBuilder record = new StringBuilder(type).append(RECORD_SEPARATOR);
+        int i = 0;
+        while (i < indices.length) {
+            int runEnd = i;
+            while (runEnd + 1 < indices.length && indices[runEnd + 1] == indices[runEnd] + 1) {
+                runEnd++;
+            }
+            if (i > 0) {
+                record.append(INDEX_SEPARATOR);
+            }
+            record.append(indices[i]);
+            if (runEnd > i) {
+                record.append(RANGE_SEPARATOR).append(indices[runEnd]);
+            }
+            i = runEnd + 1;
+        }
+        return record.toString();
+    }
+
+    /**
+     * Lists the segment files on disk, ordered from oldest to newest.
+     *
+     * @return the segment numbers mapped to their files
+     * @throws IOException if the directory cannot be read
+     */
+    public TreeMap<Long, Path> listSegments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        if (Files.notExists(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, baseName + "*")) {
+            for (Path path : stream) {
+                long segment = parseSegmentNumber(path.getFileName().toString());
+                if (segment >= 0) {
+                    segments.put(segment, path);
+                }
+            }
+        }
+        return segments;
+    }
+
+    private long parseSegmentNumber(String fileName) {
+        if (fileName.equals(baseName)) {
+            return LEGACY_SEGMENT;
+        }
+        if (fileName.length() <= baseName.length() + 1
+                || fileName.charAt(baseName.length()) != SEGMENT_SEPARATOR) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(fileName.substring(baseName.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Starts writing to a segment numbered after every existing segment.
+     * Called after loading so that replayed segments are sealed and can be compacted.
+     *
+     * @param lastSegment the newest segment number seen on disk
+     */
+    public synchronized void startAfter(long lastSegment) {
+        closeWriter();
+        activeSegment = Math.max(activeSegment, lastSegment + 1);
+        activeBytes = 0;
+        activeRecords = 0;
+    }
+
+    /**
+     * Appends a record to the active segment and flushes it.
+     *
+     * @param record the record to append
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void append(String record) throws IOException {
+        openWriterIfNeeded();
+        writer.write(record);
+        writer.newLine();
+        writer.flush();
+        syncer.afterWrite(channel);
+        activeBytes += record.length() + 1;
+        activeRecords++;
+    }
+
+    /**
+     * Appends several records to the active segment and flushes them together.
+     *
+     * @param records the records to append, in order
+     * @throws IOException if the records cannot be written
+     */
+    public synchronized void appendAll(List<String> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        openWriterIfNeeded();
+        for (String record : records) {
+            writer.write(record);
+            writer.newLine();
+            activeBytes += record.length() + 1;
+            activeRecords++;
+        }
+        writer.flush();
+        syncer.afterWrite(channel);
+    }
+
+    private void openWriterIfNeeded() throws IOException {
+        if (writer != null) {
+            return;
+        }
+        channel = FileChannel.open(segmentPath(activeSegment), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Seals the active segment and starts a new one.
+     *
+     * @return the number of the sealed segment; every segment up to it is now immutable
+     */
+    public synchronized long rotate() {
+        closeWriter();
+        long sealed = activeSegment;
+        activeSegment++;
+        activeBytes = 0;
+        activeRecords = 0;
+        return sealed;
+    }
+
+    /**
+     * Deletes every segment up to and including the given segment number.
+     *
+     * @param lastSegment the newest segment to delete
+     * @throws IOException if a segment cannot be deleted
+     */
+    public void deleteSegmentsUpTo(long lastSegment) throws IOException {
+        for (Path path : listSegments().headMap(lastSegment, true).values()) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    public synchronized long getActiveBytes() {
+        return activeBytes;
+    }
+
+    public synchronized int getActiveRecords() {
+        return activeRecords;
+    }
+
+    /**
+     * Closes the active segment writer, if any.
+     */
+    public synchronized void close() {
+        closeWriter();
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        syncer.beforeClose(channel);
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Error closing journal: " + e.getMessage());
+        }
+        writer = null;
+        channel = null;
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(baseName + SEGMENT_SEPARATOR + segment);
+    }
+
+    /**
+     * Replays the records of a segment file on top of storage lines.
+     * Lines are edited as text so that replay never needs to parse tasks or dates.
+     *
+     * @param segment the segment file to replay
+     * @param lines the storage lines to apply the records to
+     * @return the number of records read
+     * @throws IOException if the segment cannot be read
+     */
+    public static int replaySegment(Path segment, List<String> lines) throws IOException {
+        return replay(segment, new LineTarget(lines));
+    }
+
+    /**
+     * Replays the records of a segment file on top of tasks.
+     * Added task lines that cannot be parsed are kept as {@code UnparsedTaskLine} placeholders.
+     *
+     * @param segment the segment file to replay
+     * @param tasks the tasks to apply the records to
+     * @return the number of records read
+     * @throws IOException if the segment cannot be read
+     */
+    public static int replaySegmentOntoTasks(Path segment, List<Task> tasks) throws IOException {
+        return replaySegmentOntoTasks(segment, tasks, id -> { });
+    }
+
+    /**
+     * Replays the records of a segment file on top of tasks like {@code replaySegmentOntoTasks(Path, List)},
+     * passing on the ID of every task the records add or put back, even if a later record deletes it.
+     *
+     * @param segment the segment file to replay
+     * @param tasks the tasks to apply the records to
+     * @param idConsumer the consumer of the task IDs, which may be {@code Task.NO_ID}
+     * @return the number of records read
+     * @throws IOException if the segment cannot be read
+     */
+    public static int replaySegmentOntoTasks(Path segment, List<Task> tasks, IntConsumer idConsumer)
+            throws IOException {
+        return replay(segment, new TaskTarget(tasks, idConsumer));
+    }
+
+    /**
+     * Replays the records of a segment file, reporting and skipping records that cannot be applied.
+     * Consecutive insert records are applied together, so that putting back many tasks moves the
+     * others only once.
+     */
+    private static int replay(Path segment, ReplayTarget target) throws IOException {
+        List<String> records = Files.readAllLines(segment, StandardCharsets.UTF_8);
+        InsertBatch inserts = new InsertBatch();
+        int count = 0;
+        for (String record : records) {
+            if (record == null || record.trim().isEmpty()) {
+                continue;
+            }
+            count++;
+            try {
+                if (record.startsWith(RECORD_INSERT + RECORD_SEPARATOR)) {
+                    inserts.add(record, target);
+                } else {
+                    inserts.applyTo(target);
+                    applyRecord(record, target);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Skipping corrupted journal record: " + record
+                        + " (Error: " + e.getMessage() + ")");
+            }
+        }
+        inserts.applyTo(target);
+        return count;
+    }
+
+    /**
+     * Applies a single record to a replay target.
+     *
+     * @param record the journal record
+     * @param target the lines or tasks to apply the record to
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    private static void applyRecord(String record, ReplayTarget target) {
+        String[] parts = record.split(RECORD_DELIMITER, RECORD_SPLIT_LIMIT);
+        if (parts.length < RECORD_SPLIT_LIMIT) {
+            throw new IllegalArgumentException("Insufficient parts in journal record");
+        }
+
+        switch (parts[0]) {
+        case RECORD_ADD:
+            target.add(parts[1]);
+            break;
+        case RECORD_MARK:
+            for (int index : parseIndices(parts[1], target)) {
+                target.setDone(index, true);
+            }
+            break;
+        case RECORD_UNMARK:
+            for (int index : parseIndices(parts[1], target)) {
+                target.setDone(index, false);
+            }
+            break;
+        case RECORD_DELETE:
+            int[] indices = parseIndices(parts[1], target);
+            if (indices.length == 1) {
+                target.remove(indices[0]);
+            } else {
+                target.removeAll(indices);
+            }
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown journal record: " + parts[0]);
+        }
+    }
+
+    /**
+     * Parses the positions of a record, written as single positions and ranges.
+     *
+     * @throws IllegalArgumentException if a position is out of range or positions are not increasing
+     */
+    private static int[] parseIndices(String value, ReplayTarget target) {
+        String[] ranges = value.trim().split(INDEX_SEPARATOR);
+        int[] indices = new int[ranges.length];
+        int count = 0;
+        for (String range : ranges) {
+            String[] ends = range.split(RANGE_SEPARATOR, RECORD_SPLIT_LIMIT);
+            int first = parseIndex(ends[0], target);
+            int last = ends.length == 1 ? first : parseIndex(ends[1], target);
+            if (last < first || (count > 0 && first <= indices[count - 1])) {
+                throw new IllegalArgumentException("Task positions out of order: " + value);
+            }
+            for (int index = first; index <= last; index++) {
+                if (count == indices.length) {
+                    indices = Arrays.copyOf(indices, Math.max(count * 2, count + last - index + 1));
+                }
+                indices[count++] = index;
+            }
+        }
+        return Arrays.copyOf(indices, count);
+    }
+
+    private static int parseIndex(String value, ReplayTarget target) {
+        int index = Integer.parseInt(value.trim());
+        if (index < 0 || index >= target.size()) {
+            throw new IllegalArgumentException("Task position out of range: " + index);
+        }
+        return index;
+    }
+
+    /**
+     * Inserts items at some positions, moving every existing item at most once.
+     *
+     * @param indices the positions of the inserted items once they are in, in increasing order
+     */
+    private static <T> void insertAll(List<T> items, int[] indices, List<T> inserted) {
+        int from = items.size() - 1;
+        for (int i = 0; i < inserted.size(); i++) {
+            items.add(null);
+        }
+        int next = indices.length - 1;
+        for (int to = items.size() - 1; next >= 0; to--) {
+            if (indices[next] == to) {
+                items.set(to, inserted.get(next--));
+            } else {
+                items.set(to, items.get(from--));
+            }
+        }
+    }
+
+    /**
+     * Removes the items at some positions, moving every remaining item at most once.
+     */
+    private static <T> void removeAll(List<T> items, int[] indices) {
+        int kept = indices[0];
+        int next = 0;
+        for (int i = indices[0]; i < items.size(); i++) {
+            if (next < indices.length && indices[next] == i) {
+                next++;
+                continue;
+            }
+            items.set(kept++, items.get(i));
+        }
+        items.subList(kept, items.size()).clear();
+    }
+
+    /**
+     * Receives the mutations replayed from the journal.
+     */
+    private interface ReplayTarget {
+        int size();
+
+        void add(String taskLine);
+
+        void setDone(int index, boolean isDone);
+
+        void remove(int index);
+
+        void removeAll(int[] indices);
+
+        void insertAll(int[] indices, List<String> taskLines);
+    }
+
+    /**
+     * Consecutive insert records with increasing positions, waiting to be applied together.
+     */
+    private static class InsertBatch {
+        private int[] indices = new int[INITIAL_BATCH_CAPACITY];
+        private final List<String> taskLines = new ArrayList<>();
+
+        /**
+         * Adds an insert record, first applying the records before it if its position does not follow theirs.
+         *
+         * @throws IllegalArgumentException if the record is malformed
+         */
+        void add(String record, ReplayTarget target) {
+            String[] parts = record.split(RECORD_DELIMITER, INSERT_SPLIT_LIMIT);
+            if (parts.length < INSERT_SPLIT_LIMIT) {
+                throw new IllegalArgumentException("Insufficient parts in journal record");
+            }
+            int index = Integer.parseInt(parts[1].trim());
+            if (!taskLines.isEmpty() && index <= indices[taskLines.size() - 1]) {
+                applyTo(target);
+            }
+            int count = taskLines.size();
+            if (index < 0 || index > target.size() + count) {
+                throw new IllegalArgumentException("Task position out of range: " + index);
+            }
+            if (count == indices.length) {
+                indices = Arrays.copyOf(indices, count * 2);
+            }
+            indices[count] = index;
+            taskLines.add(parts[2]);
+        }
+
+        void applyTo(ReplayTarget target) {
+            if (taskLines.isEmpty()) {
+                return;
+            }
+            target.insertAll(Arrays.copyOf(indices, taskLines.size()), taskLines);
+            taskLines.clear();
+        }
+    }
+
+    /**
+     * Replays records onto storage lines.
+     */
+    private static class LineTarget implements ReplayTarget {
+        private final List<String> lines;
+
+        LineTarget(List<String> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public int size() {
+            return lines.size();
+        }
+
+        @Override
+        public void add(String taskLine) {
+            lines.add(taskLine);
+        }
+
+        @Override
+        public void setDone(int index, boolean isDone) {
+            String[] parts = lines.get(index).split(RECORD_DELIMITER, LINE_SPLIT_LIMIT);
+            if (parts.length < LINE_SPLIT_LIMIT) {
+                return;
+            }
+            String marker = isDone ? DONE_MARKER : NOT_DONE_MARKER;
+            lines.set(index, parts[0] + RECORD_SEPARATOR + marker + RECORD_SEPARATOR + parts[2]);
+        }
+
+        @Override
+        public void remove(int index) {
+            lines.remove(index);
+        }
+
+        @Override
+        public void removeAll(int[] indices) {
+            TaskJournal.removeAll(lines, indices);
+        }
+
+        @Override
+        public void insertAll(int[] indices, List<String> taskLines) {
+            TaskJournal.insertAll(lines, indices, taskLines);
+        }
+    }
+
+    /**
+     * Replays records onto tasks.
+     */
+    private static class TaskTarget implements ReplayTarget {
+        private final List<Task> tasks;
+        private final IntConsumer idConsumer;
+
+        TaskTarget(List<Task> tasks, IntConsumer idConsumer) {
+            this.tasks = tasks;
+            this.idConsumer = idConsumer;
+        }
+
+        @Override
+        public int size() {
+            return tasks.size();
+        }
+
+        @Override
+        public void add(String taskLine) {
+            tasks.add(parse(taskLine));
+        }
+
+        private Task parse(String taskLine) {
+            try {
+                Task task = TextTaskFormat.parseLine(taskLine);
+                idConsumer.accept(task.getId());
+                return task;
+            } catch (RuntimeException e) {
+                return new UnparsedTaskLine(taskLine, e.getMessage());
+            }
+        }
+
+        @Override
+        public void setDone(int index, boolean isDone) {
+            Task task = tasks.get(index);
+            if (task instanceof UnparsedTaskLine) {
+                return;
+            }
+            if (isDone) {
+                task.markAsDone();
+            } else {
+                task.markAsNotDone();
+            }
+        }
+
+        @Override
+        public void remove(int index) {
+            tasks.remove(index);
+        }
+
+        @Override
+        public void removeAll(int[] indices) {
+            TaskJournal.removeAll(tasks, indices);
+        }
+
+        @Override
+        public void insertAll(int[] indices, List<String> taskLines) {
+            List<Task> inserted = new ArrayList<>(taskLines.size());
+            for (String taskLine : taskLines) {
+                inserted.add(parse(taskLine));
+            }
+            TaskJournal.insertAll(tasks, indices, inserted);
+        }
+    }
+}
@@ -4,55 +4,119 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import exceptions.FengWeiException;
-import tasks.DeadlineTask;
-import tasks.EventTask;
 import tasks.Task;
-import tasks.TodoTask;
+import tasks.TaskList;
 
 /**
- * Singleton class to manage loading and saving tasks to a text file.
+ * Singleton class to manage loading and saving tasks to a task file.
+ * The task file is stored either as text or in a compact binary format, see {@code StorageFormat}.
+ * In journal mode, each mutation is appended to a journal as a single record instead of
+ * rewriting the whole task file, and the journal is replayed on top of the task file when loading.
+ * A background compactor periodically folds sealed journal segments into a fresh task file.
+ * The highest task ID given out is kept in the header of the task file, so that the IDs of deleted
+ * tasks are not given out again after a restart.
  */
 public class TasksStorage {
     // File and directory constants
     private static final String DATA_DIRECTORY_NAME = "data";
-    private static final String TASKS_FILE_NAME = "Tasks.txt";
+    private static final String JOURNAL_FILE_NAME = "Tasks.journal";
+    private static final String BACKUP_FILE_SUFFIX = ".bak";
     private static final Path DATA_DIRECTORY = Paths.get(DATA_DIRECTORY_NAME);
+    private static final String STORAGE_FORMAT_PROPERTY = "fengwei.storage.format";
+    private static final StorageFormat DEFAULT_STORAGE_FORMAT = StorageFormat.TEXT;
 
-    // Task parsing constants
-    private static final String TASK_DELIMITER = " \\| ";
-    private static final String DONE_MARKER = "1";
-    private static final String NOT_DONE_MARKER = "0";
-    private static final int MIN_TASK_PARTS = 3;
-    private static final int MIN_DEADLINE_PARTS = 4;
-    private static final int MIN_EVENT_PARTS = 5;
-
-    // Task type constants
-    private static final char TODO_TYPE = 'T';
-    private static final char DEADLINE_TYPE = 'D';
-    private static final char EVENT_TYPE = 'E';
-
-    // Date format constants
-    private static final String DATE_TIME_PATTERN = "yyyy-MM-dd HHmm";
-    private static final String ISO_DATE_TIME_PATTERN = "yyyy-MM-dd'T'HH:mm";
-    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern(DATE_TIME_PATTERN);
-    private static final DateTimeFormatter ISO_FORMAT = DateTimeFormatter.ofPattern(ISO_DATE_TIME_PATTERN);
+    // Durability constants
+    private static final String DURABILITY_PROPERTY = "fengwei.storage.durability";
+    private static final String METRICS_PROPERTY = "fengwei.storage.metrics";
+    private static final DurabilityPolicy DEFAULT_DURABILITY_POLICY = DurabilityPolicy.BATCHED;
+    private static final long DEFAULT_SYNC_INTERVAL_MILLIS = 1000;
+
+    // Journal and compaction constants
+    private static final boolean DEFAULT_JOURNAL_ENABLED = true;
+    private static final long DEFAULT_MAX_JOURNAL_BYTES = 1024 * 1024;
+    private static final int DEFAULT_MAX_JOURNAL_RECORDS = 10_000;
+    private static final long DEFAULT_MAX_REPLAY_MILLIS = 200;
+    private static final long DEFAULT_COMPACTION_INTERVAL_MILLIS = 5 * 60 * 1000;
+    private static final long DEFAULT_REPLAY_NANOS_PER_RECORD = 2_000;
+    private static final String COMPACTOR_THREAD_NAME = "tasks-compactor";
+
+    // Write-behind constants
+    private static final boolean DEFAULT_WRITE_BEHIND_ENABLED = true;
+    private static final long DEFAULT_WRITE_BEHIND_DELAY_MILLIS = 500;
+    private static final int DEFAULT_WRITE_BEHIND_BATCH_SIZE = 256;
+    private static final String FLUSHER_THREAD_NAME = "tasks-flusher";
+    private static final String SHUTDOWN_FLUSH_THREAD_NAME = "tasks-shutdown-flush";
 
     private static TasksStorage instance = null;
-    private final Path tasksFilePath;
+    private final Path dataDirectory;
+    private final TaskJournal journal;
+    private final TextTaskLoader textTaskLoader = new TextTaskLoader();
+    private final Object snapshotLock = new Object();
+    private final AtomicBoolean isCompactionPending = new AtomicBoolean(false);
+    private final AtomicInteger lastId = new AtomicInteger(Task.NO_ID);
+    private volatile StorageFormat storageFormat;
+    private volatile boolean isJournalEnabled = DEFAULT_JOURNAL_ENABLED;
+    private long maxJournalBytes = DEFAULT_MAX_JOURNAL_BYTES;
+    private int maxJournalRecords = DEFAULT_MAX_JOURNAL_RECORDS;
+    private long maxReplayMillis = DEFAULT_MAX_REPLAY_MILLIS;
+    private long compactionIntervalMillis = DEFAULT_COMPACTION_INTERVAL_MILLIS;
+    private volatile long replayNanosPerRecord = DEFAULT_REPLAY_NANOS_PER_RECORD;
+    private long sealedBytes;
+    private int sealedRecords;
+    private ScheduledExecutorService compactor;
+    private ScheduledFuture<?> periodicCompaction;
+    private final Object flushLock = new Object();
+    private final Object pendingLock = new Object();
+    private final ScheduledExecutorService flusher;
+    private final FileSyncer syncer;
+    private final Map<DurabilityPolicy, WriteLatencyStats> writeLatencies = new EnumMap<>(DurabilityPolicy.class);
+    private volatile boolean isWriteBehindEnabled = DEFAULT_WRITE_BEHIND_ENABLED;
+    private long writeBehindDelayMillis = DEFAULT_WRITE_BEHIND_DELAY_MILLIS;
+    private int writeBehindBatchSize = DEFAULT_WRITE_BEHIND_BATCH_SIZE;
+    private List<String> pendingRecords = new ArrayList<>();
+    private List<Task> pendingSnapshot;
+    private ScheduledFuture<?> scheduledFlush;
 
     /**
      * Private constructor for singleton pattern.
      * Initializes data directory and tasks file.
      */
     private TasksStorage() {
-        this.tasksFilePath = DATA_DIRECTORY.resolve(TASKS_FILE_NAME);
+        this(DATA_DIRECTORY);
+    }
+
+    /**
+     * Constructs a storage keeping its files in the given directory, such as a temporary directory in tests.
+     * Initializes the directory and tasks file.
+     *
+     * @param dataDirectory the directory holding the task file and the journal
+     */
+    TasksStorage(Path dataDirectory) {
+        this.dataDirectory = dataDirectory;
+        this.storageFormat = readStorageFormatProperty();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, FLUSHER_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.syncer = new FileSyncer(readDurabilityPolicyProperty(), DEFAULT_SYNC_INTERVAL_MILLIS, flusher);
+        this.journal = new TaskJournal(dataDirectory, JOURNAL_FILE_NAME, syncer);
+        for (DurabilityPolicy policy : DurabilityPolicy.values()) {
+            writeLatencies.put(policy, new WriteLatencyStats(policy));
+        }
         initializeStorage();
     }
 
@@ -78,59 +142,270 @@ public class TasksStorage {
      * @throws IOException if directory creation fails
      */
     private void createDirectoryIfNotExists() throws IOException {
-        if (Files.notExists(DATA_DIRECTORY)) {
-            Files.createDirectories(DATA_DIRECTORY);
-            System.out.println("Created data directory: " + DATA_DIRECTORY.toAbsolutePath());
+        if (Files.notExists(dataDirectory)) {
+            Files.createDirectories(dataDirectory);
+            System.out.println("Created data directory: " + dataDirectory.toAbsolutePath());
         }
     }
 
     /**
-     * Creates the tasks file if it doesn't exist.
+     * Creates the tasks file if no task file exists in any format.
      *
      * @throws IOException if file creation fails
      */
     private void createFileIfNotExists() throws IOException {
-        if (Files.notExists(tasksFilePath)) {
-            Files.createFile(tasksFilePath);
-            System.out.println("Created tasks file: " + tasksFilePath.toAbsolutePath());
+        if (findExistingFormat(storageFormat) != null) {
+            return;
         }
+        Path tasksFilePath = getTasksFilePath(storageFormat);
+        Files.createFile(tasksFilePath);
+        System.out.println("Created tasks file: " + tasksFilePath.toAbsolutePath());
+    }
+
+    /**
+     * Reads the storage format from the {@code fengwei.storage.format} system property.
+     *
+     * @return the configured format, or the default format if none is configured
+     */
+    private static StorageFormat readStorageFormatProperty() {
+        String name = System.getProperty(STORAGE_FORMAT_PROPERTY);
+        if (name == null) {
+            return DEFAULT_STORAGE_FORMAT;
+        }
+        try {
+            return StorageFormat.fromName(name);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown storage format: " + name + ", using " + DEFAULT_STORAGE_FORMAT);
+            return DEFAULT_STORAGE_FORMAT;
+        }
+    }
+
+    /**
+     * Reads the durability policy from the {@code fengwei.storage.durability} system property.
+     *
+     * @return the configured policy, or the default policy if none is configured
+     */
+    private static DurabilityPolicy readDurabilityPolicyProperty() {
+        String name = System.getProperty(DURABILITY_PROPERTY);
+        if (name == null) {
+            return DEFAULT_DURABILITY_POLICY;
+        }
+        try {
+            return DurabilityPolicy.fromName(name);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown durability policy: " + name + ", using " + DEFAULT_DURABILITY_POLICY);
+            return DEFAULT_DURABILITY_POLICY;
+        }
+    }
+
+    private Path getTasksFilePath(StorageFormat format) {
+        return dataDirectory.resolve(format.getFileName());
     }
 
     /**
      * Gets the singleton instance of TasksStorage.
+     * Synchronized so that threads asking for it at the same time share a single instance.
      * @return the TasksStorage instance
      */
-    public static TasksStorage getInstance() {
+    public static synchronized TasksStorage getInstance() {
         if (instance == null) {
             instance = new TasksStorage();
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::shutdown, SHUTDOWN_FLUSH_THREAD_NAME));
         }
         return instance;
     }
 
     /**
-     * Loads tasks from the storage file.
+     * Enables or disables journal mode.
+     * When disabled, every mutation rewrites the whole task file.
+     *
+     * @param isJournalEnabled true to append mutations to the journal
+     */
+    public void setJournalEnabled(boolean isJournalEnabled) {
+        this.isJournalEnabled = isJournalEnabled;
+    }
+
+    /**
+     * Returns whether mutations are appended to the journal.
+     *
+     * @return true if journal mode is enabled
+     */
+    public boolean isJournalEnabled() {
+        return isJournalEnabled;
+    }
+
+    /**
+     * Enables or disables write-behind mode.
+     * When enabled, mutations only mark the tasks dirty and a background flusher writes bursts of
+     * changes together. Pending changes are flushed when {@code flush} is called and on JVM shutdown.
+     * Disabling write-behind flushes any pending changes straight away.
+     *
+     * @param isWriteBehindEnabled true to write changes in the background
+     */
+    public void setWriteBehindEnabled(boolean isWriteBehindEnabled) {
+        this.isWriteBehindEnabled = isWriteBehindEnabled;
+        if (!isWriteBehindEnabled) {
+            flush();
+        }
+    }
+
+    /**
+     * Returns whether changes are written in the background.
+     *
+     * @return true if write-behind mode is enabled
+     */
+    public boolean isWriteBehindEnabled() {
+        return isWriteBehindEnabled;
+    }
+
+    /**
+     * Sets when the background flusher writes pending changes.
+     * Changes are written once the oldest pending change is older than the delay,
+     * or as soon as the given number of changes is pending.
+     *
+     * @param delayMillis the longest time a change stays pending, in milliseconds
+     * @param batchSize the number of pending changes that triggers an immediate write
+     */
+    public void setWriteBehindLimits(long delayMillis, int batchSize) {
+        assert delayMillis >= 0 : "Write-behind delay should not be negative";
+        assert batchSize > 0 : "Write-behind batch size should be positive";
+        synchronized (pendingLock) {
+            this.writeBehindDelayMillis = delayMillis;
+            this.writeBehindBatchSize = batchSize;
+        }
+    }
+
+    /**
+     * Sets how hard writes are pushed to the storage device.
+     * {@code ALWAYS} forces every journal append and task file to disk before returning,
+     * {@code BATCHED} forces them at most once per sync interval, and {@code NONE} leaves
+     * them in the page cache.
+     *
+     * @param policy the durability policy
+     */
+    public void setDurabilityPolicy(DurabilityPolicy policy) {
+        syncer.setPolicy(policy);
+    }
+
+    public DurabilityPolicy getDurabilityPolicy() {
+        return syncer.getPolicy();
+    }
+
+    /**
+     * Sets the longest time a write stays unsynced under the {@code BATCHED} policy.
+     *
+     * @param syncIntervalMillis the sync interval in milliseconds
+     */
+    public void setSyncIntervalMillis(long syncIntervalMillis) {
+        syncer.setBatchIntervalMillis(syncIntervalMillis);
+    }
+
+    /**
+     * Gets the latency statistics of the writes made under a durability policy.
+     *
+     * @param policy the durability policy
+     * @return the write latency statistics of that policy
+     */
+    public WriteLatencyStats getWriteLatencyStats(DurabilityPolicy policy) {
+        return writeLatencies.get(policy);
+    }
+
+    private void recordWriteLatency(DurabilityPolicy policy, long writeStart) {
+        writeLatencies.get(policy).record(System.nanoTime() - writeStart);
+    }
+
+    /**
+     * Flushes pending changes when the JVM shuts down, then prints the write latency
+     * statistics if the {@code fengwei.storage.metrics} system property is set.
+     */
+    private void shutdown() {
+        flush();
+        if (Boolean.getBoolean(METRICS_PROPERTY)) {
+            for (WriteLatencyStats stats : writeLatencies.values()) {
+                if (stats.getCount() > 0) {
+                    System.out.println("Write latency " + stats);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the format the task file is stored in.
+     * A task file found only in the other format is converted the next time tasks are loaded.
+     *
+     * @param storageFormat the format to store the task file in
+     */
+    public void setStorageFormat(StorageFormat storageFormat) {
+        assert storageFormat != null : "Storage format should not be null";
+        this.storageFormat = storageFormat;
+    }
+
+    /**
+     * Gets the format the task file is stored in.
+     *
+     * @return the storage format
+     */
+    public StorageFormat getStorageFormat() {
+        return storageFormat;
+    }
+
+    /**
+     * Sets the thresholds beyond which the journal is compacted in the background.
+     * Compaction starts as soon as any one of the thresholds is exceeded.
+     *
+     * @param maxJournalBytes the journal size in bytes
+     * @param maxJournalRecords the number of journal records
+     * @param maxReplayMillis the estimated time to replay the journal on startup
+     */
+    public synchronized void setCompactionThresholds(long maxJournalBytes, int maxJournalRecords,
+                                                     long maxReplayMillis) {
+        assert maxJournalBytes > 0 : "Journal byte threshold should be positive";
+        assert maxJournalRecords > 0 : "Journal record threshold should be positive";
+        assert maxReplayMillis > 0 : "Replay time threshold should be positive";
+        this.maxJournalBytes = maxJournalBytes;
+        this.maxJournalRecords = maxJournalRecords;
+        this.maxReplayMillis = maxReplayMillis;
+    }
+
+    /**
+     * Sets how often the background compactor folds any outstanding journal records,
+     * regardless of the thresholds.
+     *
+     * @param compactionIntervalMillis the interval in milliseconds
+     */
+    public synchronized void setCompactionIntervalMillis(long compactionIntervalMillis) {
+        assert compactionIntervalMillis > 0 : "Compaction interval should be positive";
+        this.compactionIntervalMillis = compactionIntervalMillis;
+        if (compactor != null) {
+            schedulePeriodicCompaction();
+        }
+    }
+
+    /**
+     * Loads tasks from the storage file, then replays any journaled mutations on top of them.
+     * If the task file only exists in the other format, it is converted to the configured format.
      * @return list of loaded tasks
      */
     public List<Task> loadTasks() {
         List<Task> tasks = new ArrayList<>();
         try {
-            if (!Files.exists(tasksFilePath)) {
+            StorageFormat format = storageFormat;
+            StorageFormat sourceFormat = findExistingFormat(format);
+            if (sourceFormat == null) {
                 System.out.println("Tasks file does not exist, starting with empty list");
                 return tasks;
             }
 
-            List<String> lines = Files.readAllLines(tasksFilePath);
-            for (String line : lines) {
-                if (isValidTaskLine(line)) {
-                    try {
-                        Task task = parseTaskFromLine(line);
-                        if (task != null) {
-                            tasks.add(task);
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Skipping corrupted task line: " + line + " (Error: " + e.getMessage() + ")");
-                    }
-                }
+            Path sourcePath = getTasksFilePath(sourceFormat);
+            LoadResult result = sourceFormat == StorageFormat.BINARY
+                    ? loadBinarySnapshot(sourcePath, tasks)
+                    : loadTextSnapshot(sourcePath, tasks);
+            boolean isConverted = sourceFormat != format;
+            finishLoading(tasks, result, isConverted);
+            if (isConverted) {
+                Files.move(sourcePath, sourcePath.resolveSibling(sourcePath.getFileName() + BACKUP_FILE_SUFFIX),
+                        StandardCopyOption.REPLACE_EXISTING);
+                System.out.println("Converted tasks file to " + getTasksFilePath(format).toAbsolutePath());
             }
         } catch (IOException e) {
             System.err.println("Error loading tasks: " + e.getMessage());
@@ -139,195 +414,659 @@ public class TasksStorage {
     }
 
     /**
-     * Checks if a line is a valid task line.
+     * Finds the format the task file currently exists in, preferring the given format.
      *
-     * @param line the line to check
-     * @return true if the line is valid
+     * @param preferredFormat the configured format
+     * @return the format of the existing task file, or null if there is none
      */
-    private boolean isValidTaskLine(String line) {
-        return line != null && !line.trim().isEmpty();
+    private StorageFormat findExistingFormat(StorageFormat preferredFormat) {
+        if (Files.exists(getTasksFilePath(preferredFormat))) {
+            return preferredFormat;
+        }
+        for (StorageFormat format : StorageFormat.values()) {
+            if (Files.exists(getTasksFilePath(format))) {
+                return format;
+            }
+        }
+        return null;
     }
 
     /**
-     * Parses a task from a line of text.
-     *
-     * @param line the line to parse
-     * @return the parsed task, or null if parsing fails
-     * @throws IllegalArgumentException if the line format is invalid
+     * Loads a text task file and the journal segments it does not cover.
+     * The file is streamed and parsed in parallel, then records are replayed onto the parsed tasks.
      */
-    private Task parseTaskFromLine(String line) {
-        String[] parts = line.split(TASK_DELIMITER);
-        if (parts.length < MIN_TASK_PARTS) {
-            throw new IllegalArgumentException("Insufficient parts in task line");
-        }
+    private LoadResult loadTextSnapshot(Path path, List<Task> tasks) throws IOException {
+        LoadResult result = new LoadResult(textTaskLoader.load(path, tasks));
+        replayOntoTasks(tasks, result);
+        return result;
+    }
 
-        char taskType = parts[0].charAt(0);
-        boolean isDone = DONE_MARKER.equals(parts[1]);
-        String description = parts[2];
+    /**
+     * Loads a binary task file and the journal segments it does not cover.
+     */
+    private LoadResult loadBinarySnapshot(Path path, List<Task> tasks) throws IOException {
+        LoadResult result = new LoadResult(BinaryTaskFormat.read(path, tasks));
+        replayOntoTasks(tasks, result);
+        return result;
+    }
 
-        Task task = createTaskByType(taskType, description, parts);
+    /**
+     * Replays the journal segments newer than the loaded checkpoint onto the loaded tasks,
+     * then reports and drops the placeholders of lines that could not be parsed.
+     * Tasks stored before tasks had IDs are given IDs before the journal is replayed, so that
+     * they get the same IDs however many records follow. The IDs of tasks added by the journal count
+     * towards the highest ID given out, even if the journal deletes them again.
+     */
+    private void replayOntoTasks(List<Task> tasks, LoadResult result) throws IOException {
+        result.assignedIds = assignIds(tasks, result);
+        long replayStart = System.nanoTime();
+        for (Map.Entry<Long, Path> segment : journal.listSegments().tailMap(result.checkpoint, false).entrySet()) {
+            result.addSegment(segment.getKey(), segment.getValue(),
+                    TaskJournal.replaySegmentOntoTasks(segment.getValue(), tasks, result::noteId));
+        }
+        recordReplayTime(replayStart, result.replayedRecords);
+        result.assignedIds += assignIds(tasks, result);
+        lastId.accumulateAndGet(result.lastId, Math::max);
 
-        if (isDone) {
-            task.markAsDone();
+        for (Task task : tasks) {
+            if (task instanceof UnparsedTaskLine) {
+                result.skippedLines++;
+                if (TextTaskFormat.isInputLine(task.getDescription())) {
+                    // Input that was not a command only lasts for the session it was typed in
+                    continue;
+                }
+                String error = ((UnparsedTaskLine) task).getError();
+                System.err.println("Skipping corrupted task line: " + task.getDescription()
+                        + (error == null ? "" : " (Error: " + error + ")"));
+            }
         }
-        return task;
+        tasks.removeIf(task -> task instanceof UnparsedTaskLine);
     }
 
     /**
-     * Creates a task based on its type.
+     * Gives the next ID after the highest one given out to every parsed task without an ID, and to
+     * every task whose ID is not later than that of the task before it, such as in a file edited by
+     * hand, since the task list requires IDs to be unique and increasing along the list.
      *
-     * @param taskType the type of task
-     * @param description the task description
-     * @param parts the parsed parts of the task line
-     * @return the created task
-     * @throws IllegalArgumentException if the task type is unknown or format is invalid
+     * @param tasks the loaded tasks
+     * @param result the summary of the load, holding the highest ID given out so far
+     * @return the number of tasks given an ID
      */
-    private Task createTaskByType(char taskType, String description, String[] parts) {
-        try {
-            switch (taskType) {
-            case TODO_TYPE:
-                return new TodoTask(description);
-            case DEADLINE_TYPE:
-                return createDeadlineTask(description, parts);
-            case EVENT_TYPE:
-                return createEventTask(description, parts);
-            default:
-                throw new IllegalArgumentException("Unknown task type: " + taskType);
+    private static int assignIds(List<Task> tasks, LoadResult result) {
+        for (Task task : tasks) {
+            result.noteId(task.getId());
+        }
+        int previousId = Task.NO_ID;
+        int assignedIds = 0;
+        for (Task task : tasks) {
+            if (task instanceof UnparsedTaskLine) {
+                continue;
+            }
+            if (task.getId() <= previousId) {
+                task.setId(++result.lastId);
+                assignedIds++;
             }
-        } catch (FengWeiException e) {
-            // Re-throw FengWeiException as IllegalArgumentException to maintain existing error handling
-            throw new IllegalArgumentException("Invalid task data: " + e.getMessage(), e);
+            previousId = task.getId();
         }
+        return assignedIds;
     }
 
     /**
-     * Creates a deadline task from parsed parts.
+     * Returns the highest task ID given out so far, including the IDs of tasks deleted since, as
+     * recorded in the task file and the journal when the tasks were loaded and by every later add.
+     * Tasks added from now on must get later IDs, so that an ID never refers to two tasks.
      *
-     * @param description the task description
-     * @param parts the parsed parts
-     * @return the deadline task
-     * @throws IllegalArgumentException if the format is invalid
-     * @throws FengWeiException if task creation fails
+     * @return the highest task ID given out, or {@code Task.NO_ID} if there is none
      */
-    private DeadlineTask createDeadlineTask(String description, String[] parts) throws FengWeiException {
-        if (parts.length < MIN_DEADLINE_PARTS) {
-            throw new IllegalArgumentException("Deadline task missing 'by' field");
+    public int getLastId() {
+        return lastId.get();
+    }
+
+    private int noteIds(List<Task> tasks) {
+        int highestId = Task.NO_ID;
+        for (Task task : tasks) {
+            highestId = Math.max(highestId, task.getId());
+        }
+        return lastId.accumulateAndGet(highestId, Math::max);
+    }
+
+    private void recordReplayTime(long replayStart, int replayedRecords) {
+        if (replayedRecords > 0) {
+            replayNanosPerRecord = Math.max(1, (System.nanoTime() - replayStart) / replayedRecords);
         }
-        String by = parts[3];
-        return new DeadlineTask(description, by);
     }
 
     /**
-     * Creates an event task from parsed parts.
-     *
-     * @param description the task description
-     * @param parts the parsed parts
-     * @return the event task
-     * @throws IllegalArgumentException if the format is invalid
-     * @throws FengWeiException if task creation fails
+     * Summary of a task file load, used to prepare the journal afterwards.
      */
-    private EventTask createEventTask(String description, String[] parts) throws FengWeiException {
-        if (parts.length < MIN_EVENT_PARTS) {
-            throw new IllegalArgumentException("Event task missing from/to fields");
-        }
+    private static class LoadResult {
+        private final long checkpoint;
+        private long lastSegment;
+        private int lastId;
+        private int replayedRecords;
+        private long replayedBytes;
+        private int skippedLines;
+        private int assignedIds;
 
-        String from = parts[3];
-        String to = parts[4];
+        LoadResult(TaskFileHeader header) {
+            this.checkpoint = header.getCheckpoint();
+            this.lastSegment = checkpoint;
+            this.lastId = header.getLastId();
+        }
 
-        LocalDateTime fromDateTime = parseDateTime(from);
-        LocalDateTime toDateTime = parseDateTime(to);
+        void noteId(int id) {
+            lastId = Math.max(lastId, id);
+        }
 
-        return new EventTask(description, fromDateTime, toDateTime);
+        void addSegment(long segment, Path path, int records) throws IOException {
+            lastSegment = segment;
+            replayedRecords += records;
+            replayedBytes += Files.size(path);
+        }
     }
 
     /**
-     * Parses a date-time string with fallback formats.
+     * Prepares the journal for new records once tasks have been loaded.
+     * Journal records refer to tasks by position, so if any line was skipped the loaded tasks
+     * are saved straight away to keep the positions on disk in line with the task list.
+     * Tasks that were just given IDs are saved straight away as well, to keep their IDs.
      *
-     * @param dateTimeString the date-time string to parse
-     * @return the parsed LocalDateTime
-     * @throws IllegalArgumentException if parsing fails
+     * @param tasks the loaded tasks
+     * @param result the summary of the load
+     * @param isConverted whether the task file has to be rewritten in the configured format
+     * @throws IOException if stale journal segments cannot be deleted
      */
-    private LocalDateTime parseDateTime(String dateTimeString) {
-        try {
-            return LocalDateTime.parse(dateTimeString, INPUT_FORMAT);
-        } catch (DateTimeParseException e1) {
-            try {
-                // Try ISO format as fallback
-                return LocalDateTime.parse(dateTimeString, ISO_FORMAT);
-            } catch (DateTimeParseException e2) {
-                throw new IllegalArgumentException("Invalid date format: " + dateTimeString);
+    private void finishLoading(List<Task> tasks, LoadResult result, boolean isConverted) throws IOException {
+        journal.startAfter(result.lastSegment);
+        if (!isJournalEnabled) {
+            if (result.lastSegment > result.checkpoint || isConverted || result.assignedIds > 0) {
+                saveTasks(tasks);
+            }
+            journal.deleteSegmentsUpTo(result.lastSegment);
+            return;
+        }
+
+        journal.deleteSegmentsUpTo(result.checkpoint);
+        if (result.skippedLines > 0 || isConverted || result.assignedIds > 0) {
+            saveTasks(tasks);
+        } else {
+            synchronized (this) {
+                sealedBytes = result.replayedBytes;
+                sealedRecords = result.replayedRecords;
             }
         }
+        startCompactor();
+        compactIfNeeded();
     }
 
     /**
      * Saves tasks to the storage file.
+     * In journal mode, the file is replaced atomically and every journal segment written so far
+     * is discarded, since the file now holds every change.
      * @param tasks the list of tasks to save
      */
     public void saveTasks(List<Task> tasks) {
-        List<String> lines = new ArrayList<>();
-        for (Task task : tasks) {
-            lines.add(formatTaskForStorage(task));
+        synchronized (flushLock) {
+            discardPendingWrites();
+            writeTasks(tasks);
         }
+    }
 
+    private void writeTasks(List<Task> tasks) {
         try {
-            Files.write(tasksFilePath, lines);
+            StorageFormat format = storageFormat;
+            if (!isJournalEnabled) {
+                writeSnapshot(format, tasks, TextTaskFormat.NO_CHECKPOINT);
+                return;
+            }
+
+            long checkpoint;
+            synchronized (this) {
+                checkpoint = journal.rotate();
+                sealedBytes = 0;
+                sealedRecords = 0;
+            }
+            synchronized (snapshotLock) {
+                writeSnapshot(format, tasks, checkpoint);
+            }
+            journal.deleteSegmentsUpTo(checkpoint);
         } catch (IOException e) {
             System.err.println("Error saving tasks: " + e.getMessage());
         }
     }
 
     /**
-     * Formats a task for storage.
+     * Writes tasks to the task file in the given format.
      *
-     * @param task the task to format
-     * @return the formatted string
+     * @param format the format to write
+     * @param tasks the tasks to write
+     * @param checkpoint the last journal segment reflected in the tasks
+     * @throws IOException if the file cannot be written
      */
-    private String formatTaskForStorage(Task task) {
-        StringBuilder line = new StringBuilder();
-        line.append(getTaskTypeCharacter(task));
-        line.append(" | ");
-        line.append(task.isDone() ? DONE_MARKER : NOT_DONE_MARKER);
-        line.append(" | ");
-        line.append(task.getDescription());
+    private void writeSnapshot(StorageFormat format, List<Task> tasks, long checkpoint) throws IOException {
+        Path path = getTasksFilePath(format);
+        DurabilityPolicy policy = syncer.getPolicy();
+        long writeStart = System.nanoTime();
+        TaskFileHeader header = new TaskFileHeader(checkpoint, noteIds(tasks));
+        if (format == StorageFormat.BINARY) {
+            BinaryTaskFormat.write(path, tasks, header, syncer);
+        } else {
+            List<String> lines = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                lines.add(TextTaskFormat.formatLine(task));
+            }
+            TextTaskFormat.write(path, lines, header, syncer);
+        }
+        recordWriteLatency(policy, writeStart);
+    }
 
-        appendTaskSpecificData(task, line);
+    /**
+     * Persists a task that was added to the end of the task list.
+     *
+     * @param taskList the task list after the task was added
+     * @param task the added task
+     */
+    public void recordAdd(TaskList taskList, Task task) {
+        lastId.accumulateAndGet(task.getId(), Math::max);
+        persist(taskList, TaskJournal.addRecord(TextTaskFormat.formatLine(task)));
+    }
 
-        return line.toString();
+    /**
+     * Persists a line of input that was not a command, added to the end of the task list.
+     * It is written as a line of {@code Task.INPUT_TYPE}, which loading drops without reporting it,
+     * so it only lasts for the session while later records keep their positions.
+     *
+     * @param taskList the task list after the input was added
+     * @param input the added input
+     */
+    public void recordInput(TaskList taskList, Task input) {
+        assert input.getType() == Task.INPUT_TYPE : "Only input that is not a command should be recorded";
+        lastId.accumulateAndGet(input.getId(), Math::max);
+        persist(taskList, TaskJournal.addRecord(TextTaskFormat.formatLine(input)));
     }
 
     /**
-     * Gets the character representation of a task type.
+     * Persists a task being marked as done.
      *
-     * @param task the task
-     * @return the type character
+     * @param taskList the task list after the task was marked
+     * @param index the zero-based position of the marked task
      */
-    private char getTaskTypeCharacter(Task task) {
-        if (task instanceof TodoTask) {
-            return TODO_TYPE;
-        } else if (task instanceof DeadlineTask) {
-            return DEADLINE_TYPE;
-        } else if (task instanceof EventTask) {
-            return EVENT_TYPE;
-        } else {
-            return task.getType();
+    public void recordMark(TaskList taskList, int index) {
+        persist(taskList, TaskJournal.indexRecord(TaskJournal.RECORD_MARK, index));
+    }
+
+    /**
+     * Persists a task being marked as not done.
+     *
+     * @param taskList the task list after the task was unmarked
+     * @param index the zero-based position of the unmarked task
+     */
+    public void recordUnmark(TaskList taskList, int index) {
+        persist(taskList, TaskJournal.indexRecord(TaskJournal.RECORD_UNMARK, index));
+    }
+
+    /**
+     * Persists a task being deleted.
+     *
+     * @param taskList the task list after the task was deleted
+     * @param index the zero-based position the task was deleted from
+     */
+    public void recordDelete(TaskList taskList, int index) {
+        persist(taskList, TaskJournal.indexRecord(TaskJournal.RECORD_DELETE, index));
+    }
+
+    /**
+     * Persists several tasks being marked as done at once, in a single record.
+     *
+     * @param taskList the task list after the tasks were marked
+     * @param indices the zero-based positions of the marked tasks, in increasing order
+     */
+    public void recordMark(TaskList taskList, int[] indices) {
+        persist(taskList, TaskJournal.indicesRecord(TaskJournal.RECORD_MARK, indices));
+    }
+
+    /**
+     * Persists several tasks being marked as not done at once, in a single record.
+     *
+     * @param taskList the task list after the tasks were unmarked
+     * @param indices the zero-based positions of the unmarked tasks, in increasing order
+     */
+    public void recordUnmark(TaskList taskList, int[] indices) {
+        persist(taskList, TaskJournal.indicesRecord(TaskJournal.RECORD_UNMARK, indices));
+    }
+
+    /**
+     * Persists several tasks being deleted at once, in a single record.
+     *
+     * @param taskList the task list after the tasks were deleted
+     * @param indices the zero-based positions the tasks were deleted from, in increasing order
+     */
+    public void recordDelete(TaskList taskList, int[] indices) {
+        persist(taskList, TaskJournal.indicesRecord(TaskJournal.RECORD_DELETE, indices));
+    }
+
+    /**
+     * Persists removed tasks being put back, such as by undoing their deletion.
+     *
+     * @param taskList the task list after the tasks were put back
+     * @param indices the zero-based positions of the tasks once they were back, in increasing order
+     */
+    public void recordInsert(TaskList taskList, int[] indices) {
+        List<String> records = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            records.add(TaskJournal.insertRecord(index, TextTaskFormat.formatLine(taskList.get(index))));
+        }
+        persist(taskList, records);
+    }
+
+    private void persist(TaskList taskList, String record) {
+        persist(taskList, List.of(record));
+    }
+
+    /**
+     * Appends records to the journal, or rewrites the whole task file if journal mode is disabled.
+     *
+     * @param taskList the task list after the mutation
+     * @param records the journal records describing the mutation
+     */
+    private void persist(TaskList taskList, List<String> records) {
+        assert taskList != null : "TaskList should not be null";
+        if (isWriteBehindEnabled) {
+            markDirty(taskList, records);
+            return;
+        }
+        if (!isJournalEnabled) {
+            saveTasks(taskList.snapshot());
+            return;
+        }
+
+        try {
+            DurabilityPolicy policy = syncer.getPolicy();
+            long writeStart = System.nanoTime();
+            journal.appendAll(records);
+            recordWriteLatency(policy, writeStart);
+            compactIfNeeded();
+        } catch (IOException e) {
+            System.err.println("Error writing journal: " + e.getMessage());
+            journal.close();
+            saveTasks(taskList.snapshot());
+        }
+    }
+
+    /**
+     * Records a mutation to be written by the background flusher.
+     * In journal mode the record is queued; otherwise a snapshot of the tasks is kept, and only
+     * the latest snapshot is written.
+     *
+     * @param taskList the task list after the mutation
+     * @param records the journal records describing the mutation
+     */
+    private void markDirty(TaskList taskList, List<String> records) {
+        synchronized (pendingLock) {
+            if (isJournalEnabled) {
+                pendingRecords.addAll(records);
+            } else {
+                pendingSnapshot = taskList.snapshot();
+            }
+
+            int pendingCount = isJournalEnabled ? pendingRecords.size() : 1;
+            if (pendingCount >= writeBehindBatchSize) {
+                cancelScheduledFlush();
+                flusher.execute(this::flushInBackground);
+            } else if (scheduledFlush == null) {
+                scheduledFlush = flusher.schedule(this::flushInBackground, writeBehindDelayMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Writes every pending change to disk and syncs anything waiting for a batched sync,
+     * blocking until it is done. Called on JVM shutdown so that no change is lost.
+     * If the journal cannot be written, the records are put back to be retried, since the task list
+     * cannot be copied safely off the thread that changes it.
+     */
+    public void flush() {
+        flush(null);
+    }
+
+    /**
+     * Writes every pending change like {@code flush()}, but saves the whole task list instead if the
+     * journal cannot be written. Must be called on the thread that changes the task list, such as
+     * before exiting on the user's request.
+     *
+     * @param taskList the task list to save if the journal cannot be written, or null to put the
+     *                 records back instead
+     */
+    public void flush(TaskList taskList) {
+        synchronized (flushLock) {
+            PendingWrites pending = takePendingWrites();
+            if (!pending.isEmpty()) {
+                try {
+                    writePending(pending);
+                } catch (IOException e) {
+                    System.err.println("Error writing journal: " + e.getMessage());
+                    journal.close();
+                    if (taskList != null) {
+                        writeTasks(taskList.snapshot());
+                    } else {
+                        restorePendingWrites(pending);
+                    }
+                }
+            }
         }
+        syncer.syncPending();
     }
 
     /**
-     * Appends task-specific data to the storage line.
+     * Writes pending changes on the flusher thread.
+     * If the journal cannot be written, the records are put back and retried after the delay,
+     * since the task list cannot be copied safely off the thread that changes it.
+     */
+    private void flushInBackground() {
+        synchronized (flushLock) {
+            PendingWrites pending = takePendingWrites();
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                writePending(pending);
+            } catch (IOException e) {
+                System.err.println("Error writing journal: " + e.getMessage());
+                journal.close();
+                restorePendingWrites(pending);
+            }
+        }
+    }
+
+    private void writePending(PendingWrites pending) throws IOException {
+        if (pending.snapshot != null) {
+            writeTasks(pending.snapshot);
+            return;
+        }
+        DurabilityPolicy policy = syncer.getPolicy();
+        long writeStart = System.nanoTime();
+        journal.appendAll(pending.records);
+        recordWriteLatency(policy, writeStart);
+        compactIfNeeded();
+    }
+
+    private PendingWrites takePendingWrites() {
+        synchronized (pendingLock) {
+            cancelScheduledFlush();
+            PendingWrites pending = new PendingWrites(pendingRecords, pendingSnapshot);
+            pendingRecords = new ArrayList<>();
+            pendingSnapshot = null;
+            return pending;
+        }
+    }
+
+    private void restorePendingWrites(PendingWrites pending) {
+        synchronized (pendingLock) {
+            pending.records.addAll(pendingRecords);
+            pendingRecords = pending.records;
+            if (pendingSnapshot == null) {
+                pendingSnapshot = pending.snapshot;
+            }
+            if (scheduledFlush == null) {
+                scheduledFlush = flusher.schedule(this::flushInBackground, writeBehindDelayMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void discardPendingWrites() {
+        takePendingWrites();
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    /**
+     * Changes taken from the pending queue to be written together.
+     */
+    private static class PendingWrites {
+        private final List<String> records;
+        private final List<Task> snapshot;
+
+        PendingWrites(List<String> records, List<Task> snapshot) {
+            this.records = records;
+            this.snapshot = snapshot;
+        }
+
+        boolean isEmpty() {
+            return records.isEmpty() && snapshot == null;
+        }
+    }
+
+    /**
+     * Starts the background compactor if it is not running yet.
+     */
+    private synchronized void startCompactor() {
+        if (compactor != null) {
+            return;
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, COMPACTOR_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        schedulePeriodicCompaction();
+    }
+
+    private void schedulePeriodicCompaction() {
+        if (periodicCompaction != null) {
+            periodicCompaction.cancel(false);
+        }
+        periodicCompaction = compactor.scheduleWithFixedDelay(this::compactOutstandingRecords,
+                compactionIntervalMillis, compactionIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts a background compaction if the journal has grown past any of the thresholds.
+     */
+    private void compactIfNeeded() {
+        if (isCompactionThresholdExceeded()) {
+            scheduleCompaction();
+        }
+    }
+
+    private synchronized boolean isCompactionThresholdExceeded() {
+        long bytes = sealedBytes + journal.getActiveBytes();
+        long records = sealedRecords + journal.getActiveRecords();
+        long estimatedReplayMillis = TimeUnit.NANOSECONDS.toMillis(records * replayNanosPerRecord);
+        return bytes > maxJournalBytes || records > maxJournalRecords || estimatedReplayMillis > maxReplayMillis;
+    }
+
+    /**
+     * Waits until every compaction started so far has finished, such as before checking the files in tests.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException if the compactor could not run the wait
+     */
+    void awaitCompaction() throws InterruptedException, ExecutionException {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            current = compactor;
+        }
+        if (current != null) {
+            current.submit(() -> { }).get();
+        }
+    }
+
+    private void compactOutstandingRecords() {
+        boolean hasOutstandingRecords;
+        synchronized (this) {
+            hasOutstandingRecords = sealedRecords + journal.getActiveRecords() > 0;
+        }
+        if (hasOutstandingRecords) {
+            scheduleCompaction();
+        }
+    }
+
+    /**
+     * Seals the active journal segment and folds every sealed segment into the task file
+     * on the compactor thread. New records keep going to a fresh segment in the meantime.
+     */
+    private void scheduleCompaction() {
+        if (compactor == null || !isCompactionPending.compareAndSet(false, true)) {
+            return;
+        }
+        long lastSegment;
+        synchronized (this) {
+            lastSegment = journal.rotate();
+            sealedBytes = 0;
+            sealedRecords = 0;
+        }
+        compactor.execute(() -> {
+            try {
+                compactJournal(lastSegment);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error compacting journal: " + e.getMessage());
+            } finally {
+                isCompactionPending.set(false);
+            }
+        });
+    }
+
+    /**
+     * Folds every journal segment up to the given one into the task file.
+     * A text task file is edited as storage lines, so no task or date is parsed while compacting.
+     * The highest ID given out so far covers every task added by the folded segments.
      *
-     * @param task the task
-     * @param line the string builder to append to
+     * @param lastSegment the newest sealed segment to fold
+     * @throws IOException if the task file or a segment cannot be read or written
      */
-    private void appendTaskSpecificData(Task task, StringBuilder line) {
-        if (task instanceof DeadlineTask) {
-            DeadlineTask deadlineTask = (DeadlineTask) task;
-            line.append(" | ").append(deadlineTask.formatBy());
-        } else if (task instanceof EventTask) {
-            EventTask eventTask = (EventTask) task;
-            line.append(" | ").append(eventTask.getFrom().format(INPUT_FORMAT));
-            line.append(" | ").append(eventTask.getTo().format(INPUT_FORMAT));
+    private void compactJournal(long lastSegment) throws IOException {
+        synchronized (snapshotLock) {
+            StorageFormat format = storageFormat;
+            Path path = getTasksFilePath(format);
+            if (format == StorageFormat.BINARY) {
+                List<Task> tasks = new ArrayList<>();
+                long checkpoint = BinaryTaskFormat.read(path, tasks).getCheckpoint();
+                if (checkpoint >= lastSegment) {
+                    return;
+                }
+                for (Path segment : journal.listSegments().subMap(checkpoint, false, lastSegment, true).values()) {
+                    TaskJournal.replaySegmentOntoTasks(segment, tasks);
+                }
+                BinaryTaskFormat.write(path, tasks, new TaskFileHeader(lastSegment, lastId.get()), syncer);
+            } else {
+                List<String> lines = new ArrayList<>();
+                long checkpoint = TextTaskFormat.read(path, lines).getCheckpoint();
+                if (checkpoint >= lastSegment) {
+                    return;
+                }
+                for (Path segment : journal.listSegments().subMap(checkpoint, false, lastSegment, true).values()) {
+                    TaskJournal.replaySegment(segment, lines);
+                }
+                TextTaskFormat.write(path, lines, new TaskFileHeader(lastSegment, lastId.get()), syncer);
+            }
         }
+        journal.deleteSegmentsUpTo(lastSegment);
     }
 }
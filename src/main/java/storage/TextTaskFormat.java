@@ -0,0 +1,412 @@
+package storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import exceptions.FengWeiException;
+import tasks.DateTimeCodec;
+import tasks.DeadlineTask;
+import tasks.EventTask;
+import tasks.Task;
+import tasks.TodoTask;
+
+/**
+ * Reads and writes the human-readable task file format, one task per line:
+ * {@code <type> | <done> | <description> [| <date> [| <date>]] [| #<id>]}.
+ * Lines written before tasks had IDs have no ID field, and their tasks are given IDs when loaded.
+ * Any other field after those of the task type is ignored, as it always was.
+ */
+public class TextTaskFormat {
+    // Task parsing constants
+    private static final String TASK_DELIMITER = " \\| ";
+    private static final String TASK_SEPARATOR = " | ";
+    private static final String DONE_MARKER = "1";
+    private static final String NOT_DONE_MARKER = "0";
+    private static final int MIN_TASK_PARTS = 3;
+    private static final int MIN_DEADLINE_PARTS = 4;
+    private static final int MIN_EVENT_PARTS = 5;
+    private static final String COMMENT_PREFIX = "#";
+    private static final String ID_PREFIX = "#";
+    private static final Pattern ID_FIELD = Pattern.compile(ID_PREFIX + "(\\d{1,9})");
+    private static final String CHECKPOINT_PREFIX = "# checkpoint ";
+    private static final String LAST_ID_PREFIX = "# last id ";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    // Task type constants
+    static final char TODO_TYPE = 'T';
+    static final char DEADLINE_TYPE = 'D';
+    static final char EVENT_TYPE = 'E';
+
+    // Legacy date format constants, only read so that older task files still load
+    private static final String ISO_DATE_TIME_PATTERN = "yyyy-MM-dd'T'HH:mm";
+    private static final String DISPLAY_DATE_TIME_PATTERN = "dd MMM yyyy HHmm";
+    private static final DateTimeFormatter ISO_FORMAT = DateTimeFormatter.ofPattern(ISO_DATE_TIME_PATTERN);
+    private static final DateTimeFormatter DISPLAY_FORMAT =
+            DateTimeFormatter.ofPattern(DISPLAY_DATE_TIME_PATTERN, Locale.ENGLISH);
+
+    /** Checkpoint value of a file that does not cover any journal segment. */
+    static final long NO_CHECKPOINT = -1;
+
+    private TextTaskFormat() {
+    }
+
+    /**
+     * Reads the task lines of a file.
+     *
+     * @param path the file to read
+     * @param lines the list to add the task lines to
+     * @return the header of the file, with {@code NO_CHECKPOINT} and {@code Task.NO_ID} for the values
+     *         the file does not record
+     * @throws IOException if the file cannot be read
+     */
+    public static TaskFileHeader read(Path path, List<String> lines) throws IOException {
+        TaskFileHeader header = TaskFileHeader.NONE;
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (isHeaderLine(line)) {
+                header = parseHeaderLine(line, header);
+            } else if (isTaskLine(line)) {
+                lines.add(line);
+            }
+        }
+        return header;
+    }
+
+    /**
+     * Checks if a line is one of the header lines written by {@code write}.
+     *
+     * @param line the line to check
+     * @return true if the line records a checkpoint or the last task ID
+     */
+    static boolean isHeaderLine(String line) {
+        return line.startsWith(CHECKPOINT_PREFIX) || line.startsWith(LAST_ID_PREFIX);
+    }
+
+    /**
+     * Parses a header line into the header read so far.
+     *
+     * @param line the header line
+     * @param header the header read from the lines before
+     * @return the header with the value of the line
+     * @throws NumberFormatException if the value is not a number
+     */
+    static TaskFileHeader parseHeaderLine(String line, TaskFileHeader header) {
+        if (line.startsWith(LAST_ID_PREFIX)) {
+            int lastId = Integer.parseInt(line.substring(LAST_ID_PREFIX.length()).trim());
+            return new TaskFileHeader(header.getCheckpoint(), lastId);
+        }
+        return header.withCheckpoint(Long.parseLong(line.substring(CHECKPOINT_PREFIX.length()).trim()));
+    }
+
+    /**
+     * Writes task lines to a temporary file and atomically moves it over the given file.
+     * The header goes first, one line for the last journal segment folded into the file unless it is
+     * {@code NO_CHECKPOINT}, and one for the last task ID given out unless it is {@code Task.NO_ID}.
+     * Both are comment lines, which older versions skip.
+     *
+     * @param path the file to replace
+     * @param lines the task lines
+     * @param header the checkpoint and last task ID reflected in the lines
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, List<String> lines, TaskFileHeader header) throws IOException {
+        write(path, lines, header, FileSyncer.NO_SYNC);
+    }
+
+    /**
+     * Writes task lines like {@code write(Path, List, TaskFileHeader)}, applying a durability policy
+     * to the file.
+     *
+     * @param path the file to replace
+     * @param lines the task lines
+     * @param header the checkpoint and last task ID reflected in the lines
+     * @param syncer the syncer applying the durability policy
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, List<String> lines, TaskFileHeader header, FileSyncer syncer)
+            throws IOException {
+        List<String> content = new ArrayList<>(lines.size() + 2);
+        if (header.getCheckpoint() != NO_CHECKPOINT) {
+            content.add(CHECKPOINT_PREFIX + header.getCheckpoint());
+        }
+        if (header.getLastId() != Task.NO_ID) {
+            content.add(LAST_ID_PREFIX + header.getLastId());
+        }
+        content.addAll(lines);
+
+        Path tempPath = tempPathFor(path);
+        Files.write(tempPath, content, StandardCharsets.UTF_8);
+        moveAtomically(tempPath, path, syncer);
+    }
+
+    /**
+     * Returns the temporary file used while replacing the given file.
+     *
+     * @param path the file to replace
+     * @return the temporary file next to it
+     */
+    static Path tempPathFor(Path path) {
+        return path.resolveSibling(path.getFileName() + TEMP_FILE_SUFFIX);
+    }
+
+    /**
+     * Moves a file over another one atomically where the file system supports it,
+     * syncing the file and its directory as the durability policy requires.
+     *
+     * @param source the file to move
+     * @param target the file to replace
+     * @param syncer the syncer applying the durability policy
+     * @throws IOException if the file cannot be moved
+     */
+    static void moveAtomically(Path source, Path target, FileSyncer syncer) throws IOException {
+        syncer.beforeMove(source, target);
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncer.afterMove(target);
+    }
+
+    /**
+     * Checks if a line holds a task, as opposed to a blank or comment line.
+     *
+     * @param line the line to check
+     * @return true if the line is a task line
+     */
+    public static boolean isTaskLine(String line) {
+        return line != null && !line.trim().isEmpty() && !line.startsWith(COMMENT_PREFIX);
+    }
+
+    /**
+     * Parses a task from a line of text.
+     *
+     * @param line the line to parse
+     * @return the parsed task
+     * @throws IllegalArgumentException if the line format is invalid
+     */
+    public static Task parseLine(String line) {
+        String[] parts = line.split(TASK_DELIMITER);
+        if (parts.length < MIN_TASK_PARTS) {
+            throw new IllegalArgumentException("Insufficient parts in task line");
+        }
+
+        char taskType = parts[0].charAt(0);
+        boolean isDone = DONE_MARKER.equals(parts[1]);
+        String description = parts[2];
+
+        Task task = createTaskByType(taskType, description, parts);
+
+        if (isDone) {
+            task.markAsDone();
+        }
+        int idPart = getIdPart(taskType);
+        if (parts.length > idPart) {
+            task.setId(parseId(parts[parts.length - 1]));
+        }
+        return task;
+    }
+
+    /**
+     * Gets the position of the optional ID field, after the fields of the task type.
+     */
+    private static int getIdPart(char taskType) {
+        switch (taskType) {
+        case DEADLINE_TYPE:
+            return MIN_DEADLINE_PARTS;
+        case EVENT_TYPE:
+            return MIN_EVENT_PARTS;
+        default:
+            return MIN_TASK_PARTS;
+        }
+    }
+
+    /**
+     * Parses the last field of a task line as its ID, if it is one.
+     * A line whose description holds the field separator has extra fields, which are not IDs.
+     *
+     * @param field the last field, such as {@code #12}
+     * @return the ID, or {@code Task.NO_ID} if the field is not a positive ID
+     */
+    private static int parseId(String field) {
+        Matcher matcher = ID_FIELD.matcher(field.trim());
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : Task.NO_ID;
+    }
+
+    /**
+     * Creates a task based on its type.
+     *
+     * @param taskType the type of task
+     * @param description the task description
+     * @param parts the parsed parts of the task line
+     * @return the created task
+     * @throws IllegalArgumentException if the task type is unknown or format is invalid
+     */
+    private static Task createTaskByType(char taskType, String description, String[] parts) {
+        try {
+            switch (taskType) {
+            case TODO_TYPE:
+                return new TodoTask(description);
+            case DEADLINE_TYPE:
+                return createDeadlineTask(description, parts);
+            case EVENT_TYPE:
+                return createEventTask(description, parts);
+            default:
+                throw new IllegalArgumentException("Unknown task type: " + taskType);
+            }
+        } catch (FengWeiException e) {
+            // Re-throw FengWeiException as IllegalArgumentException to maintain existing error handling
+            throw new IllegalArgumentException("Invalid task data: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates a deadline task from parsed parts.
+     *
+     * @param description the task description
+     * @param parts the parsed parts
+     * @return the deadline task
+     * @throws IllegalArgumentException if the format is invalid
+     * @throws FengWeiException if task creation fails
+     */
+    private static DeadlineTask createDeadlineTask(String description, String[] parts) throws FengWeiException {
+        if (parts.length < MIN_DEADLINE_PARTS) {
+            throw new IllegalArgumentException("Deadline task missing 'by' field");
+        }
+        LocalDateTime by = parseDateTime(parts[3]);
+        return new DeadlineTask(description, by);
+    }
+
+    /**
+     * Creates an event task from parsed parts.
+     *
+     * @param description the task description
+     * @param parts the parsed parts
+     * @return the event task
+     * @throws IllegalArgumentException if the format is invalid
+     * @throws FengWeiException if task creation fails
+     */
+    private static EventTask createEventTask(String description, String[] parts) throws FengWeiException {
+        if (parts.length < MIN_EVENT_PARTS) {
+            throw new IllegalArgumentException("Event task missing from/to fields");
+        }
+
+        String from = parts[3];
+        String to = parts[4];
+
+        LocalDateTime fromDateTime = parseDateTime(from);
+        LocalDateTime toDateTime = parseDateTime(to);
+
+        return new EventTask(description, fromDateTime, toDateTime);
+    }
+
+    /**
+     * Parses a date-time string with fallback formats.
+     * Deadlines used to be stored in their display format, so that format is accepted as well.
+     *
+     * @param dateTimeString the date-time string to parse
+     * @return the parsed LocalDateTime
+     * @throws IllegalArgumentException if parsing fails
+     */
+    private static LocalDateTime parseDateTime(String dateTimeString) {
+        try {
+            return DateTimeCodec.parse(dateTimeString);
+        } catch (DateTimeParseException e1) {
+            try {
+                // Try ISO format as fallback
+                return LocalDateTime.parse(dateTimeString, ISO_FORMAT);
+            } catch (DateTimeParseException e2) {
+                try {
+                    return LocalDateTime.parse(dateTimeString, DISPLAY_FORMAT);
+                } catch (DateTimeParseException e3) {
+                    throw new IllegalArgumentException("Invalid date format: " + dateTimeString);
+                }
+            }
+        }
+    }
+
+    /**
+     * Formats a task for storage.
+     *
+     * @param task the task to format
+     * @return the formatted string
+     */
+    public static String formatLine(Task task) {
+        if (task instanceof UnparsedTaskLine) {
+            return task.getDescription();
+        }
+
+        StringBuilder line = new StringBuilder();
+        line.append(getTaskTypeCharacter(task));
+        line.append(TASK_SEPARATOR);
+        line.append(task.isDone() ? DONE_MARKER : NOT_DONE_MARKER);
+        line.append(TASK_SEPARATOR);
+        line.append(task.getDescription());
+
+        appendTaskSpecificData(task, line);
+        if (task.getId() != Task.NO_ID) {
+            line.append(TASK_SEPARATOR).append(ID_PREFIX).append(task.getId());
+        }
+
+        return line.toString();
+    }
+
+    /**
+     * Checks if a stored line holds input that was not a command, which is not loaded back.
+     *
+     * @param line the stored line
+     * @return true if the line is of {@code Task.INPUT_TYPE}
+     */
+    static boolean isInputLine(String line) {
+        return line.startsWith(Task.INPUT_TYPE + TASK_SEPARATOR);
+    }
+
+    /**
+     * Gets the character representation of a task type.
+     *
+     * @param task the task
+     * @return the type character
+     */
+    static char getTaskTypeCharacter(Task task) {
+        if (task instanceof TodoTask) {
+            return TODO_TYPE;
+        } else if (task instanceof DeadlineTask) {
+            return DEADLINE_TYPE;
+        } else if (task instanceof EventTask) {
+            return EVENT_TYPE;
+        } else {
+            return task.getType();
+        }
+    }
+
+    /**
+     * Appends task-specific data to the storage line.
+     *
+     * @param task the task
+     * @param line the string builder to append to
+     */
+    private static void appendTaskSpecificData(Task task, StringBuilder line) {
+        if (task instanceof DeadlineTask) {
+            DeadlineTask deadlineTask = (DeadlineTask) task;
+            line.append(TASK_SEPARATOR);
+            DateTimeCodec.formatTo(deadlineTask.getBy(), line);
+        } else if (task instanceof EventTask) {
+            EventTask eventTask = (EventTask) task;
+            line.append(TASK_SEPARATOR);
+            DateTimeCodec.formatTo(eventTask.getFrom(), line);
+            line.append(TASK_SEPARATOR);
+            DateTimeCodec.formatTo(eventTask.getTo(), line);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import tasks.Task;
+
+/**
+ * Loads a text task file by streaming it in chunks and parsing the chunks in parallel.
+ * Chunks end on line boundaries and their results are collected in file order, so the loaded
+ * tasks keep their order. Only a bounded number of chunks is in flight at once, so the raw
+ * file is never held in memory as a whole.
+ */
+public class TextTaskLoader {
+    // Chunking constants
+    private static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+    private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+    private static final byte LINE_FEED = '\n';
+    private static final char CARRIAGE_RETURN = '\r';
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Constructs a loader that parses on the common fork-join pool.
+     */
+    public TextTaskLoader() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a loader that parses on the given pool.
+     *
+     * @param pool the pool to parse chunks on
+     * @param chunkSize the number of bytes to read per chunk
+     */
+    public TextTaskLoader(ForkJoinPool pool, int chunkSize) {
+        assert pool != null : "Pool should not be null";
+        assert chunkSize > 0 : "Chunk size should be positive";
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads and parses the tasks of a text task file.
+     * Lines that cannot be parsed are added as {@code UnparsedTaskLine} placeholders holding the
+     * parse error, so that they keep their positions while the journal is replayed.
+     *
+     * @param path the file to read
+     * @param tasks the list to add the tasks to
+     * @return the header of the file, with {@code NO_CHECKPOINT} and {@code Task.NO_ID} for the values
+     *         the file does not record
+     * @throws IOException if the file cannot be read
+     */
+    public TaskFileHeader load(Path path, List<Task> tasks) throws IOException {
+        int maxInFlight = Math.max(1, pool.getParallelism() * CHUNKS_IN_FLIGHT_PER_THREAD);
+        Deque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>();
+        TaskFileHeader header = TaskFileHeader.NONE;
+
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] buffer = new byte[chunkSize];
+            int filled = 0;
+            int read;
+            while ((read = in.read(buffer, filled, buffer.length - filled)) >= 0) {
+                filled += read;
+                if (filled < buffer.length) {
+                    continue;
+                }
+
+                int end = lastLineEnd(buffer, filled);
+                if (end < 0) {
+                    // A single line is longer than the buffer, so keep reading into a bigger one
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    continue;
+                }
+
+                if (inFlight.size() >= maxInFlight) {
+                    header = collect(inFlight.removeFirst().join(), tasks, header);
+                }
+                byte[] chunk = Arrays.copyOf(buffer, end + 1);
+                inFlight.addLast(pool.submit(() -> parseChunk(chunk)));
+                filled -= end + 1;
+                System.arraycopy(buffer, end + 1, buffer, 0, filled);
+            }
+
+            if (filled > 0) {
+                byte[] chunk = Arrays.copyOf(buffer, filled);
+                inFlight.addLast(pool.submit(() -> parseChunk(chunk)));
+            }
+        } finally {
+            while (!inFlight.isEmpty()) {
+                header = collect(inFlight.removeFirst().join(), tasks, header);
+            }
+        }
+        return header;
+    }
+
+    private static int lastLineEnd(byte[] buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == LINE_FEED) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static TaskFileHeader collect(Chunk chunk, List<Task> tasks, TaskFileHeader header) {
+        tasks.addAll(chunk.tasks);
+        for (String headerLine : chunk.headerLines) {
+            header = TextTaskFormat.parseHeaderLine(headerLine, header);
+        }
+        return header;
+    }
+
+    /**
+     * Parses the lines of one chunk.
+     * A line feed byte never occurs inside a multi-byte UTF-8 character, so every chunk
+     * decodes on its own.
+     *
+     * @param bytes the chunk, ending on a line boundary or at the end of the file
+     * @return the parsed tasks and header lines of the chunk
+     */
+    private static Chunk parseChunk(byte[] bytes) {
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        Chunk chunk = new Chunk();
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf(LINE_FEED, start);
+            if (end < 0) {
+                end = text.length();
+            }
+            int lineEnd = end > start && text.charAt(end - 1) == CARRIAGE_RETURN ? end - 1 : end;
+            parseLine(text.substring(start, lineEnd), chunk);
+            start = end + 1;
+        }
+        return chunk;
+    }
+
+    private static void parseLine(String line, Chunk chunk) {
+        if (TextTaskFormat.isHeaderLine(line)) {
+            chunk.headerLines.add(line);
+        } else if (TextTaskFormat.isTaskLine(line)) {
+            try {
+                chunk.tasks.add(TextTaskFormat.parseLine(line));
+            } catch (Exception e) {
+                chunk.tasks.add(new UnparsedTaskLine(line, e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Tasks parsed from one chunk of the file.
+     */
+    private static class Chunk {
+        private final List<Task> tasks = new ArrayList<>();
+        private final List<String> headerLines = new ArrayList<>();
+    }
+}
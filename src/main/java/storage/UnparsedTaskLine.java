@@ -0,0 +1,43 @@
+package storage;
+
+import tasks.Task;
+
+/**
+ * Placeholder for a stored task line that could not be parsed.
+ * Keeps the line in its position while journal records are replayed, so that the positions
+ * in later records still line up, and so that compaction can write the line back verbatim.
+ */
+class UnparsedTaskLine extends Task {
+    private static final char UNPARSED_TYPE = '?';
+
+    private final String error;
+
+    /**
+     * Constructs a placeholder holding the given line.
+     *
+     * @param line the line that could not be parsed
+     */
+    UnparsedTaskLine(String line) {
+        this(line, null);
+    }
+
+    /**
+     * Constructs a placeholder holding the given line and the reason it could not be parsed.
+     *
+     * @param line the line that could not be parsed
+     * @param error the parse error message, or null if unknown
+     */
+    UnparsedTaskLine(String line, String error) {
+        super(line, UNPARSED_TYPE);
+        this.error = error;
+    }
+
+    /**
+     * Gets the reason the line could not be parsed.
+     *
+     * @return the parse error message, or null if unknown
+     */
+    String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,101 @@
+package storage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency statistics of storage writes made under one durability policy.
+ * Latencies are counted in power-of-two microsecond buckets, so percentiles are accurate to
+ * within a factor of two while recording stays constant time and constant space.
+ */
+public class WriteLatencyStats {
+    private static final int BUCKET_COUNT = 40;
+    private static final double PERCENTILE_MEDIAN = 50;
+    private static final double PERCENTILE_TAIL = 99;
+
+    private final DurabilityPolicy policy;
+    private final long[] buckets = new long[BUCKET_COUNT];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    /**
+     * Constructs empty statistics for a policy.
+     *
+     * @param policy the policy the writes are made under
+     */
+    public WriteLatencyStats(DurabilityPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Records the latency of one write.
+     *
+     * @param nanos the time the write took, in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        long latency = Math.max(0, nanos);
+        count++;
+        totalNanos += latency;
+        maxNanos = Math.max(maxNanos, latency);
+        buckets[bucketOf(TimeUnit.NANOSECONDS.toMicros(latency))]++;
+    }
+
+    public DurabilityPolicy getPolicy() {
+        return policy;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the mean write latency.
+     *
+     * @return the mean latency in microseconds, or 0 if nothing was written
+     */
+    public synchronized double getMeanMicros() {
+        return count == 0 ? 0 : totalNanos / 1000.0 / count;
+    }
+
+    public synchronized long getMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxNanos);
+    }
+
+    /**
+     * Gets an upper bound of the given latency percentile.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the bucket holding the percentile in microseconds, or 0 if nothing was written
+     */
+    public synchronized long getPercentileMicros(double percentile) {
+        assert percentile >= 0 && percentile <= 100 : "Percentile should be between 0 and 100";
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+
+    private static int bucketOf(long micros) {
+        int bucket = Long.SIZE - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    private static long bucketUpperBound(int bucket) {
+        return bucket == 0 ? 0 : (1L << bucket) - 1;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: %d writes, mean %.1f us, p50 <= %d us, p99 <= %d us, max %d us",
+                policy.name().toLowerCase(), count, getMeanMicros(), getPercentileMicros(PERCENTILE_MEDIAN),
+                getPercentileMicros(PERCENTILE_TAIL), getMaxMicros());
+    }
+}
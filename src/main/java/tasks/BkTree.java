@@ -0,0 +1,277 @@
+package tasks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Burkhard-Keller tree of words under Levenshtein distance, used to find words close to a misspelt one.
+ * Each child hangs off its parent at its distance from the parent, so by the triangle inequality a
+ * search within distance k of a query only descends into children at distance d - k to d + k, where
+ * d is the distance of the query from the parent.
+ * Removed words stay in the tree as tombstones until they make up most of it, when the owner is
+ * expected to rebuild the tree from its live words.
+ */
+public class BkTree {
+    private static final long NODE_BYTES = 48;
+    private static final long ARRAY_OVERHEAD_BYTES = 16;
+
+    private Node root;
+    private int size;
+    private int removedCount;
+
+    /**
+     * Adds a word, or revives it if it was removed.
+     *
+     * @param word the word to add
+     */
+    public void add(String word) {
+        assert word != null && !word.isEmpty() : "Word should not be empty";
+        if (root == null) {
+            root = new Node(word);
+            size++;
+            return;
+        }
+
+        char[] chars = word.toCharArray();
+        int[] previous = new int[chars.length + 1];
+        int[] current = new int[chars.length + 1];
+        Node node = root;
+        while (true) {
+            int distance = distance(node.chars, chars, previous, current, Integer.MAX_VALUE - 1);
+            if (distance == 0) {
+                if (node.isRemoved) {
+                    node.isRemoved = false;
+                    removedCount--;
+                    size++;
+                }
+                return;
+            }
+            Node child = node.findChild(distance);
+            if (child == null) {
+                node.addChild(distance, new Node(word));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Removes a word, leaving it in the tree as a tombstone.
+     *
+     * @param word the word to remove
+     */
+    public void remove(String word) {
+        char[] chars = word.toCharArray();
+        int[] previous = new int[chars.length + 1];
+        int[] current = new int[chars.length + 1];
+        Node node = root;
+        while (node != null) {
+            int distance = distance(node.chars, chars, previous, current, Integer.MAX_VALUE - 1);
+            if (distance == 0) {
+                if (!node.isRemoved) {
+                    node.isRemoved = true;
+                    removedCount++;
+                    size--;
+                }
+                return;
+            }
+            node = node.findChild(distance);
+        }
+    }
+
+    /**
+     * Finds the words within a maximum edit distance of a word.
+     *
+     * @param word the word to look for
+     * @param maxDistance the maximum number of inserted, deleted or substituted characters
+     * @return the matching words, nearest first
+     */
+    public List<Match> search(String word, int maxDistance) {
+        assert maxDistance >= 0 : "Maximum distance should not be negative";
+        List<Match> matches = new ArrayList<>();
+        if (root == null) {
+            return matches;
+        }
+
+        char[] query = word.toCharArray();
+        int[] previous = new int[query.length + 1];
+        int[] current = new int[query.length + 1];
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            // Past this bound neither the node nor any of its children can match
+            int bound = maxDistance + node.maxChildDistance;
+            int distance = distance(node.chars, query, previous, current, bound);
+            if (distance <= maxDistance && !node.isRemoved) {
+                matches.add(new Match(node.word, distance));
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                if (Math.abs(node.childDistances[i] - distance) <= maxDistance) {
+                    pending.push(node.children[i]);
+                }
+            }
+        }
+        matches.sort((first, second) -> Integer.compare(first.distance, second.distance));
+        return matches;
+    }
+
+    /**
+     * Returns the number of words in the tree, not counting removed ones.
+     *
+     * @return the number of live words
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Estimates the heap memory held by the tree, including removed words, without the words
+     * themselves, which the owner keeps.
+     *
+     * @return the approximate size in bytes
+     */
+    public long estimateBytes() {
+        long bytes = 0;
+        Deque<Node> pending = new ArrayDeque<>();
+        if (root != null) {
+            pending.push(root);
+        }
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            bytes += NODE_BYTES + ARRAY_OVERHEAD_BYTES + (long) node.chars.length * Character.BYTES;
+            if (node.children != null) {
+                bytes += 2 * ARRAY_OVERHEAD_BYTES + (long) node.children.length * 2 * Integer.BYTES;
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                pending.push(node.children[i]);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Checks if removed words outnumber the live ones, so that searches would be faster on a rebuilt tree.
+     *
+     * @return true if the tree should be rebuilt
+     */
+    public boolean isMostlyRemoved() {
+        return removedCount > size;
+    }
+
+    /**
+     * Computes the Levenshtein distance between two words, keeping only two rows of the usual table.
+     *
+     * @param first the first word
+     * @param second the second word
+     * @return the minimum number of single-character edits turning one word into the other
+     */
+    static int distance(String first, String second) {
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        return distance(first.toCharArray(), second.toCharArray(), previous, current, Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * Computes the Levenshtein distance between two words, giving up once it is known to exceed a bound.
+     * Every row of the table holds the minimum distance any alignment can still reach, so the
+     * computation stops as soon as a whole row is past the bound.
+     *
+     * @param previous a scratch row at least one longer than the second word
+     * @param current another scratch row of the same length
+     * @return the distance, or {@code bound + 1} if it exceeds the bound
+     */
+    private static int distance(char[] first, char[] second, int[] previous, int[] current, int bound) {
+        if (Math.abs(first.length - second.length) > bound) {
+            return bound + 1;
+        }
+        for (int j = 0; j <= second.length; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= first.length; i++) {
+            current[0] = i;
+            int rowMinimum = i;
+            char c = first[i - 1];
+            for (int j = 1; j <= second.length; j++) {
+                int substitution = previous[j - 1] + (c == second[j - 1] ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > bound) {
+                return bound + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[second.length], bound + 1);
+    }
+
+    /**
+     * A word found by a search, with its distance from the query.
+     */
+    public static class Match {
+        private final String word;
+        private final int distance;
+
+        Match(String word, int distance) {
+            this.word = word;
+            this.distance = distance;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+    }
+
+    /**
+     * A word in the tree and its children, keyed by their distance from it.
+     */
+    private static class Node {
+        private static final int INITIAL_CHILDREN = 2;
+
+        private final String word;
+        private final char[] chars;
+        private boolean isRemoved;
+        private int[] childDistances;
+        private Node[] children;
+        private int childCount;
+        private int maxChildDistance;
+
+        Node(String word) {
+            this.word = word;
+            this.chars = word.toCharArray();
+        }
+
+        Node findChild(int distance) {
+            for (int i = 0; i < childCount; i++) {
+                if (childDistances[i] == distance) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        void addChild(int distance, Node child) {
+            if (children == null) {
+                childDistances = new int[INITIAL_CHILDREN];
+                children = new Node[INITIAL_CHILDREN];
+            } else if (childCount == children.length) {
+                childDistances = Arrays.copyOf(childDistances, childCount * 2);
+                children = Arrays.copyOf(children, childCount * 2);
+            }
+            childDistances[childCount] = distance;
+            children[childCount] = child;
+            childCount++;
+            maxChildDistance = Math.max(maxChildDistance, distance);
+        }
+    }
+}
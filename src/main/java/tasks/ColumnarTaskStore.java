@@ -0,0 +1,356 @@
+package tasks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import exceptions.FengWeiException;
+
+/**
+ * Task store keeping tasks in parallel primitive arrays instead of as objects, to cut the heap used per task.
+ * Each task takes a type byte, a done bit, its ID, two epoch-minute longs for its dates and an offset
+ * into a shared arena holding the UTF-8 bytes of its description after their length, with no object
+ * headers, strings or date objects.
+ * Tasks are built from the columns whenever they are returned, so changes to a returned task are not
+ * kept, and dates are kept to the minute, like in the task file. Since tasks are built anew, a snapshot
+ * is a list of all the tasks built at once, which takes O(n) time.
+ */
+public class ColumnarTaskStore implements TaskStore {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int INITIAL_ARENA_BYTES = 256;
+    private static final int ARENA_GROWTH_DIVISOR = 4;
+    private static final int VARINT_PAYLOAD_BITS = 7;
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION = 0x80;
+    private static final long SECONDS_PER_MINUTE = 60;
+    private static final char TODO_TYPE = 'T';
+    private static final char DEADLINE_TYPE = 'D';
+    private static final char EVENT_TYPE = 'E';
+    private static final byte EMPTY_TYPE = 0;
+
+    private byte[] types;
+    private long[] doneBits;
+    private int[] ids;
+    private long[] firstMinutes;
+    private long[] secondMinutes;
+    private int[] descriptionStarts;
+    private byte[] arena;
+    private int arenaSize;
+    private int garbageBytes;
+    private int size;
+
+    /**
+     * Constructs an empty store with room for the given number of tasks.
+     *
+     * @param initialCapacity the number of tasks to make room for
+     */
+    public ColumnarTaskStore(int initialCapacity) {
+        int capacity = Math.max(INITIAL_CAPACITY, initialCapacity);
+        this.types = new byte[capacity];
+        this.doneBits = new long[wordsFor(capacity)];
+        this.ids = new int[capacity];
+        this.firstMinutes = new long[capacity];
+        this.secondMinutes = new long[capacity];
+        this.descriptionStarts = new int[capacity];
+        this.arena = new byte[INITIAL_ARENA_BYTES];
+    }
+
+    @Override
+    public void add(Task task) {
+        if (size == types.length) {
+            grow();
+        }
+        size++;
+        write(size - 1, task);
+    }
+
+    @Override
+    public void set(int index, Task task) {
+        assert types[index] == EMPTY_TYPE : "Position should be empty";
+        write(index, task);
+    }
+
+    private void write(int index, Task task) {
+        assert task.getType() < 0x80 && task.getType() != EMPTY_TYPE : "Task type should fit in a byte";
+        types[index] = (byte) task.getType();
+        ids[index] = task.getId();
+        if (task instanceof DeadlineTask) {
+            firstMinutes[index] = toMinutes(((DeadlineTask) task).getBy());
+        } else if (task instanceof EventTask) {
+            firstMinutes[index] = toMinutes(((EventTask) task).getFrom());
+            secondMinutes[index] = toMinutes(((EventTask) task).getTo());
+        }
+        descriptionStarts[index] = appendToArena(task.getDescription().getBytes(StandardCharsets.UTF_8));
+        setDone(index, task.isDone());
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        garbageBytes += entryLength(descriptionStarts[index]);
+        int moved = size - index - 1;
+        System.arraycopy(types, index + 1, types, index, moved);
+        System.arraycopy(ids, index + 1, ids, index, moved);
+        System.arraycopy(firstMinutes, index + 1, firstMinutes, index, moved);
+        System.arraycopy(secondMinutes, index + 1, secondMinutes, index, moved);
+        System.arraycopy(descriptionStarts, index + 1, descriptionStarts, index, moved);
+        removeBit(index);
+        size--;
+        if (garbageBytes > arenaSize / 2) {
+            compactArena();
+        }
+        return removed;
+    }
+
+    @Override
+    public void removeAll(int[] indices) {
+        if (indices.length == 0) {
+            return;
+        }
+        int kept = indices[0];
+        int next = 0;
+        for (int i = indices[0]; i < size; i++) {
+            if (next < indices.length && indices[next] == i) {
+                if (types[i] != EMPTY_TYPE) {
+                    garbageBytes += entryLength(descriptionStarts[i]);
+                }
+                next++;
+                continue;
+            }
+            types[kept] = types[i];
+            ids[kept] = ids[i];
+            firstMinutes[kept] = firstMinutes[i];
+            secondMinutes[kept] = secondMinutes[i];
+            descriptionStarts[kept] = descriptionStarts[i];
+            setDone(kept, isDone(i));
+            kept++;
+        }
+        for (int i = kept; i < size; i++) {
+            setDone(i, false);
+        }
+        size = kept;
+        if (garbageBytes > arenaSize / 2) {
+            compactArena();
+        }
+    }
+
+    @Override
+    public void openEmpty(int[] indices) {
+        int newSize = size + indices.length;
+        while (newSize > types.length) {
+            grow();
+        }
+        // Move tasks from the end, so each is moved once without overwriting one not yet moved
+        int from = size - 1;
+        int next = indices.length - 1;
+        for (int to = newSize - 1; next >= 0; to--) {
+            if (indices[next] == to) {
+                types[to] = EMPTY_TYPE;
+                setDone(to, false);
+                next--;
+                continue;
+            }
+            types[to] = types[from];
+            ids[to] = ids[from];
+            firstMinutes[to] = firstMinutes[from];
+            secondMinutes[to] = secondMinutes[from];
+            descriptionStarts[to] = descriptionStarts[from];
+            setDone(to, isDone(from));
+            from--;
+        }
+        size = newSize;
+    }
+
+    @Override
+    public void clear(int index) {
+        assert types[index] != EMPTY_TYPE : "Position should hold a task";
+        garbageBytes += entryLength(descriptionStarts[index]);
+        types[index] = EMPTY_TYPE;
+    }
+
+    @Override
+    public Task get(int index) {
+        assert index >= 0 && index < size : "Index should be within valid range";
+        int start = descriptionStarts[index];
+        int length = readLength(start);
+        String description = new String(arena, start + lengthSize(length), length, StandardCharsets.UTF_8);
+        char type = (char) types[index];
+        Task task;
+        try {
+            if (type == TODO_TYPE) {
+                task = new TodoTask(description);
+            } else if (type == DEADLINE_TYPE) {
+                task = new DeadlineTask(description, toDateTime(firstMinutes[index]));
+            } else if (type == EVENT_TYPE) {
+                task = new EventTask(description, toDateTime(firstMinutes[index]), toDateTime(secondMinutes[index]));
+            } else {
+                task = new Task(description, type);
+            }
+        } catch (FengWeiException e) {
+            throw new IllegalStateException("Stored task could not be rebuilt: " + e.getMessage(), e);
+        }
+        if (isDone(index)) {
+            task.markAsDone();
+        }
+        task.setId(ids[index]);
+        return task;
+    }
+
+    @Override
+    public List<Task> snapshot() {
+        List<Task> snapshot = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (types[i] != EMPTY_TYPE) {
+                snapshot.add(get(i));
+            }
+        }
+        return Collections.unmodifiableList(snapshot);
+    }
+
+    @Override
+    public boolean isDone(int index) {
+        return (doneBits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public void setDone(int index, boolean isDone) {
+        if (isDone) {
+            doneBits[index >>> 6] |= 1L << index;
+        } else {
+            doneBits[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    @Override
+    public TaskStore createEmpty(int initialCapacity) {
+        return new ColumnarTaskStore(initialCapacity);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Estimates the heap memory held by the store, including unused capacity.
+     *
+     * @return the approximate size in bytes
+     */
+    public long estimateBytes() {
+        return types.length + (long) doneBits.length * Long.BYTES
+                + (long) types.length * (2 * Long.BYTES + 2 * Integer.BYTES) + arena.length;
+    }
+
+    private static int wordsFor(int bits) {
+        return (bits + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static long toMinutes(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_MINUTE);
+    }
+
+    private static LocalDateTime toDateTime(long minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * SECONDS_PER_MINUTE, 0, ZoneOffset.UTC);
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        doneBits = Arrays.copyOf(doneBits, wordsFor(capacity));
+        ids = Arrays.copyOf(ids, capacity);
+        firstMinutes = Arrays.copyOf(firstMinutes, capacity);
+        secondMinutes = Arrays.copyOf(secondMinutes, capacity);
+        descriptionStarts = Arrays.copyOf(descriptionStarts, capacity);
+    }
+
+    /**
+     * Appends a description to the arena, after its length as a varint.
+     * The arena grows by a quarter of its size, so little of it stays unused while copies stay amortized.
+     *
+     * @return the offset of the entry
+     */
+    private int appendToArena(byte[] bytes) {
+        int entryLength = lengthSize(bytes.length) + bytes.length;
+        if (arenaSize + entryLength > arena.length) {
+            int grownLength = arena.length + arena.length / ARENA_GROWTH_DIVISOR;
+            arena = Arrays.copyOf(arena, Math.max(grownLength, arenaSize + entryLength));
+        }
+        int start = arenaSize;
+        int position = start;
+        int remaining = bytes.length;
+        while (remaining > VARINT_PAYLOAD_MASK) {
+            arena[position++] = (byte) ((remaining & VARINT_PAYLOAD_MASK) | VARINT_CONTINUATION);
+            remaining >>>= VARINT_PAYLOAD_BITS;
+        }
+        arena[position++] = (byte) remaining;
+        System.arraycopy(bytes, 0, arena, position, bytes.length);
+        arenaSize += entryLength;
+        return start;
+    }
+
+    private int readLength(int start) {
+        int length = 0;
+        int shift = 0;
+        int position = start;
+        byte b;
+        do {
+            b = arena[position++];
+            length |= (b & VARINT_PAYLOAD_MASK) << shift;
+            shift += VARINT_PAYLOAD_BITS;
+        } while ((b & VARINT_CONTINUATION) != 0);
+        return length;
+    }
+
+    private static int lengthSize(int length) {
+        int size = 1;
+        for (int remaining = length >>> VARINT_PAYLOAD_BITS; remaining != 0; remaining >>>= VARINT_PAYLOAD_BITS) {
+            size++;
+        }
+        return size;
+    }
+
+    private int entryLength(int start) {
+        int length = readLength(start);
+        return lengthSize(length) + length;
+    }
+
+    /**
+     * Drops the descriptions of removed tasks from the arena, keeping the others in list order.
+     */
+    private void compactArena() {
+        byte[] compacted = new byte[Math.max(INITIAL_ARENA_BYTES, arenaSize - garbageBytes)];
+        int compactedSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (types[i] == EMPTY_TYPE) {
+                continue;
+            }
+            int entryLength = entryLength(descriptionStarts[i]);
+            System.arraycopy(arena, descriptionStarts[i], compacted, compactedSize, entryLength);
+            descriptionStarts[i] = compactedSize;
+            compactedSize += entryLength;
+        }
+        arena = compacted;
+        arenaSize = compactedSize;
+        garbageBytes = 0;
+    }
+
+    /**
+     * Removes the done bit at a position, moving every later bit down by one.
+     */
+    private void removeBit(int index) {
+        int word = index >>> 6;
+        int lastWord = (size - 1) >>> 6;
+        long keptMask = (1L << index) - 1;
+        long current = doneBits[word];
+        long shifted = (current & keptMask) | ((current >>> 1) & ~keptMask);
+        for (int i = word; i < lastWord; i++) {
+            doneBits[i] = shifted | (doneBits[i + 1] << 63);
+            shifted = doneBits[i + 1] >>> 1;
+        }
+        doneBits[lastWord] = shifted;
+    }
+}
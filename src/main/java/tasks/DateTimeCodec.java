@@ -0,0 +1,183 @@
+package tasks;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses and formats date-times in the fixed-width "yyyy-MM-dd HHmm" format used for input and storage.
+ * Works directly on characters instead of going through a {@code DateTimeFormatter}, so parsing
+ * allocates nothing but the result, and anything it formats parses back to the same date-time.
+ * Unlike the lenient formatter, days past the end of the month and hour 24 are rejected.
+ */
+public class DateTimeCodec {
+    /** The pattern this codec reads and writes. */
+    public static final String PATTERN = "yyyy-MM-dd HHmm";
+
+    // Layout constants
+    private static final int LENGTH = 15;
+    private static final int YEAR_START = 0;
+    private static final int MONTH_START = 5;
+    private static final int DAY_START = 8;
+    private static final int HOUR_START = 11;
+    private static final int MINUTE_START = 13;
+    private static final int DATE_SEPARATOR_FIRST = 4;
+    private static final int DATE_SEPARATOR_SECOND = 7;
+    private static final int TIME_SEPARATOR = 10;
+    private static final char DATE_SEPARATOR = '-';
+    private static final char DATE_TIME_SEPARATOR = ' ';
+
+    // Range constants
+    private static final int MIN_YEAR = 1;
+    private static final int MAX_YEAR = 9999;
+    private static final int MAX_MONTH = 12;
+    private static final int MAX_HOUR = 23;
+    private static final int MAX_MINUTE = 59;
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final int FEBRUARY = 2;
+
+    private DateTimeCodec() {
+    }
+
+    /**
+     * Parses a date-time in "yyyy-MM-dd HHmm" format.
+     *
+     * @param text the text to parse
+     * @return the parsed date-time
+     * @throws DateTimeParseException if the text is not a valid date-time in this format
+     */
+    public static LocalDateTime parse(CharSequence text) throws DateTimeParseException {
+        assert text != null : "Date-time text should not be null";
+        if (text.length() != LENGTH) {
+            throw new DateTimeParseException("Text '" + text + "' should be in the format " + PATTERN,
+                    text, Math.min(text.length(), LENGTH));
+        }
+        expectSeparator(text, DATE_SEPARATOR_FIRST, DATE_SEPARATOR);
+        expectSeparator(text, DATE_SEPARATOR_SECOND, DATE_SEPARATOR);
+        expectSeparator(text, TIME_SEPARATOR, DATE_TIME_SEPARATOR);
+
+        int year = readDigits(text, YEAR_START, 4);
+        int month = readDigits(text, MONTH_START, 2);
+        int day = readDigits(text, DAY_START, 2);
+        int hour = readDigits(text, HOUR_START, 2);
+        int minute = readDigits(text, MINUTE_START, 2);
+
+        checkRange(text, YEAR_START, year, MIN_YEAR, MAX_YEAR);
+        checkRange(text, MONTH_START, month, 1, MAX_MONTH);
+        checkRange(text, DAY_START, day, 1, lengthOfMonth(year, month));
+        checkRange(text, HOUR_START, hour, 0, MAX_HOUR);
+        checkRange(text, MINUTE_START, minute, 0, MAX_MINUTE);
+        return LocalDateTime.of(year, month, day, hour, minute);
+    }
+
+    /**
+     * Formats a date-time in "yyyy-MM-dd HHmm" format.
+     *
+     * @param dateTime the date-time to format
+     * @return the formatted date-time
+     * @throws DateTimeException if the year does not fit in four digits
+     */
+    public static String format(LocalDateTime dateTime) {
+        char[] chars = new char[LENGTH];
+        fill(dateTime, chars);
+        return new String(chars);
+    }
+
+    /**
+     * Appends a date-time in "yyyy-MM-dd HHmm" format without creating an intermediate string.
+     *
+     * @param dateTime the date-time to format
+     * @param builder the builder to append to
+     * @throws DateTimeException if the year does not fit in four digits
+     */
+    public static void formatTo(LocalDateTime dateTime, StringBuilder builder) {
+        int start = builder.length();
+        builder.setLength(start + LENGTH);
+        int year = dateTime.getYear();
+        checkFormattable(year);
+        writeDigits(builder, start + YEAR_START, year, 4);
+        builder.setCharAt(start + DATE_SEPARATOR_FIRST, DATE_SEPARATOR);
+        writeDigits(builder, start + MONTH_START, dateTime.getMonthValue(), 2);
+        builder.setCharAt(start + DATE_SEPARATOR_SECOND, DATE_SEPARATOR);
+        writeDigits(builder, start + DAY_START, dateTime.getDayOfMonth(), 2);
+        builder.setCharAt(start + TIME_SEPARATOR, DATE_TIME_SEPARATOR);
+        writeDigits(builder, start + HOUR_START, dateTime.getHour(), 2);
+        writeDigits(builder, start + MINUTE_START, dateTime.getMinute(), 2);
+    }
+
+    private static void fill(LocalDateTime dateTime, char[] chars) {
+        int year = dateTime.getYear();
+        checkFormattable(year);
+        writeDigits(chars, YEAR_START, year, 4);
+        chars[DATE_SEPARATOR_FIRST] = DATE_SEPARATOR;
+        writeDigits(chars, MONTH_START, dateTime.getMonthValue(), 2);
+        chars[DATE_SEPARATOR_SECOND] = DATE_SEPARATOR;
+        writeDigits(chars, DAY_START, dateTime.getDayOfMonth(), 2);
+        chars[TIME_SEPARATOR] = DATE_TIME_SEPARATOR;
+        writeDigits(chars, HOUR_START, dateTime.getHour(), 2);
+        writeDigits(chars, MINUTE_START, dateTime.getMinute(), 2);
+    }
+
+    private static void checkFormattable(int year) {
+        if (year < MIN_YEAR || year > MAX_YEAR) {
+            throw new DateTimeException("Year " + year + " cannot be formatted as " + PATTERN);
+        }
+    }
+
+    private static void writeDigits(char[] chars, int start, int value, int width) {
+        int remaining = value;
+        for (int i = start + width - 1; i >= start; i--) {
+            chars[i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+    }
+
+    private static void writeDigits(StringBuilder builder, int start, int value, int width) {
+        int remaining = value;
+        for (int i = start + width - 1; i >= start; i--) {
+            builder.setCharAt(i, (char) ('0' + remaining % 10));
+            remaining /= 10;
+        }
+    }
+
+    private static void expectSeparator(CharSequence text, int index, char separator) {
+        if (text.charAt(index) != separator) {
+            throw new DateTimeParseException("Text '" + text + "' could not be parsed at index " + index,
+                    text, index);
+        }
+    }
+
+    private static int readDigits(CharSequence text, int start, int width) {
+        int value = 0;
+        for (int i = start; i < start + width; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new DateTimeParseException("Text '" + text + "' could not be parsed at index " + i,
+                        text, i);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void checkRange(CharSequence text, int index, int value, int min, int max) {
+        if (value < min || value > max) {
+            throw new DateTimeParseException("Text '" + text + "' could not be parsed: value " + value
+                    + " at index " + index + " is not between " + min + " and " + max, text, index);
+        }
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        if (month < 1 || month > MAX_MONTH) {
+            return 0;
+        }
+        if (month == FEBRUARY && isLeapYear(year)) {
+            return DAYS_IN_MONTH[month - 1] + 1;
+        }
+        return DAYS_IN_MONTH[month - 1];
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+}
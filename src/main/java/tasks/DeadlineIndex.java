@@ -0,0 +1,108 @@
+package tasks;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Ordered index from deadlines to the tasks due at them, used to answer due-date queries with a range scan.
+ * Tasks due at the same time are kept in the order they were added, by their sequence numbers.
+ */
+public class DeadlineIndex {
+    private static final int INITIAL_RESULT_CAPACITY = 8;
+    private static final long ENTRY_OVERHEAD_BYTES = 56;
+
+    private final TreeMap<LocalDateTime, IntPostingList> tasksByDeadline = new TreeMap<>();
+    private int size;
+
+    /**
+     * Adds a deadline task.
+     *
+     * @param sequenceNumber the sequence number of the task
+     * @param by the deadline of the task
+     */
+    public void add(int sequenceNumber, LocalDateTime by) {
+        tasksByDeadline.computeIfAbsent(by, key -> new IntPostingList()).add(sequenceNumber);
+        size++;
+    }
+
+    /**
+     * Removes a deadline task.
+     *
+     * @param sequenceNumber the sequence number of the task
+     * @param by the deadline of the task
+     */
+    public void remove(int sequenceNumber, LocalDateTime by) {
+        IntPostingList list = tasksByDeadline.get(by);
+        if (list == null || !list.remove(sequenceNumber)) {
+            return;
+        }
+        if (list.isEmpty()) {
+            tasksByDeadline.remove(by);
+        }
+        size--;
+    }
+
+    /**
+     * Finds the tasks due in a range of time, stopping once enough are found.
+     * Only the deadlines in the range are visited, plus the tasks rejected by the filter.
+     *
+     * @param from the earliest deadline, inclusive, or null for no lower bound
+     * @param to the latest deadline, or null for no upper bound
+     * @param isToInclusive whether tasks due exactly at the latest deadline are included
+     * @param limit the maximum number of tasks to find
+     * @param filter the condition the sequence numbers of the tasks must meet
+     * @return the sequence numbers of the tasks, by deadline
+     */
+    public int[] find(LocalDateTime from, LocalDateTime to, boolean isToInclusive, int limit, IntPredicate filter) {
+        assert limit >= 0 : "Limit should not be negative";
+        NavigableMap<LocalDateTime, IntPostingList> range = tasksByDeadline;
+        if (from != null) {
+            range = range.tailMap(from, true);
+        }
+        if (to != null) {
+            range = range.headMap(to, isToInclusive);
+        }
+
+        int[] found = new int[Math.min(limit, INITIAL_RESULT_CAPACITY)];
+        int count = 0;
+        for (Map.Entry<LocalDateTime, IntPostingList> entry : range.entrySet()) {
+            int[] due = entry.getValue().toArray();
+            for (int i = 0; i < due.length && count < limit; i++) {
+                int sequenceNumber = due[i];
+                if (!filter.test(sequenceNumber)) {
+                    continue;
+                }
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, Math.min(limit, count * 2));
+                }
+                found[count++] = sequenceNumber;
+            }
+            if (count == limit) {
+                break;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Estimates the heap memory held by the index, including the tree map entries. The deadlines
+     * themselves are those of the tasks, so they are not counted.
+     *
+     * @return the approximate size in bytes
+     */
+    public long estimateBytes() {
+        long bytes = 0;
+        for (IntPostingList list : tasksByDeadline.values()) {
+            bytes += ENTRY_OVERHEAD_BYTES + list.estimateBytes();
+        }
+        return bytes;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -9,7 +9,6 @@ import exceptions.FengWeiException;
  * Represents a task that needs to be completed by a specific deadline.
  */
 public class DeadlineTask extends Task {
-    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
     private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy HHmm");
     private static final char TASK_TYPE = 'D';
 
@@ -38,6 +37,24 @@ public class DeadlineTask extends Task {
         assert getType() == TASK_TYPE : "DeadlineTask should have type 'D'";
     }
 
+    /**
+     * Constructs a DeadlineTask with the given description and an already parsed deadline.
+     *
+     * @param description The description of the task.
+     * @param by The deadline.
+     * @throws FengWeiException if the description is null or empty, or the deadline is null
+     */
+    public DeadlineTask(String description, LocalDateTime by) throws FengWeiException {
+        super(validateDescription(description), TASK_TYPE);
+
+        if (by == null) {
+            throw new FengWeiException("OOPS!!! The deadline time cannot be null.");
+        }
+        this.by = by;
+
+        assert getType() == TASK_TYPE : "DeadlineTask should have type 'D'";
+    }
+
     /**
      * Validates the task description.
      *
@@ -81,7 +98,7 @@ public class DeadlineTask extends Task {
      */
     private LocalDateTime parseDateTime(String dateTimeString) throws DateTimeParseException {
         assert dateTimeString != null : "Input date string should not be null";
-        LocalDateTime result = LocalDateTime.parse(dateTimeString, INPUT_FORMAT);
+        LocalDateTime result = DateTimeCodec.parse(dateTimeString);
         assert result != null : "Parsed LocalDateTime should not be null";
         return result;
     }
@@ -8,7 +8,6 @@ import exceptions.FengWeiException;
  * Represents a task that occurs during a specific time period.
  */
 public class EventTask extends Task {
-    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
     private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("MMM d yyyy, HH:mm");
     private static final char TASK_TYPE = 'E';
 
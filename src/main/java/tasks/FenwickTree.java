@@ -0,0 +1,106 @@
+package tasks;
+
+import java.util.Arrays;
+
+/**
+ * Fenwick tree (binary indexed tree) of counts, used to turn list positions into storage slots and back.
+ * Each entry covers a range of slots ending at it whose length is its lowest set bit, so both prefix
+ * sums and finding the slot where a prefix sum is reached walk one entry per bit, in O(log n) time.
+ * Slots can be appended, which only needs the sums of earlier slots.
+ */
+public class FenwickTree {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] tree;
+    private int size;
+
+    /**
+     * Constructs a tree of the given number of slots, each holding a count of one.
+     *
+     * @param size the number of slots
+     */
+    public FenwickTree(int size) {
+        assert size >= 0 : "Size should not be negative";
+        this.tree = new int[Math.max(INITIAL_CAPACITY, size) + 1];
+        this.size = size;
+        for (int i = 1; i <= size; i++) {
+            tree[i] = i & -i;
+        }
+    }
+
+    /**
+     * Appends a slot with the given count.
+     *
+     * @param count the count of the new slot
+     */
+    public void append(int count) {
+        if (size + 1 == tree.length) {
+            tree = Arrays.copyOf(tree, tree.length * 2);
+        }
+        int i = ++size;
+        // The new entry covers itself and the earlier slots in its range
+        tree[i] = count + prefixSum(i - 1) - prefixSum(i - (i & -i));
+    }
+
+    /**
+     * Adds to the count of a slot.
+     *
+     * @param slot the zero-based slot
+     * @param delta the amount to add
+     */
+    public void add(int slot, int delta) {
+        assert slot >= 0 && slot < size : "Slot should be within valid range";
+        for (int i = slot + 1; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Sums the counts of the slots before a slot.
+     *
+     * @param slot the zero-based slot, up to the number of slots
+     * @return the sum of the counts of slots {@code 0} to {@code slot - 1}
+     */
+    public int prefixSum(int slot) {
+        assert slot >= 0 && slot <= size : "Slot should be within valid range";
+        int sum = 0;
+        for (int i = slot; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Finds the first slot at which the prefix sum exceeds a value, for counts that are never negative.
+     * With counts of one for used slots and zero for free ones, this is the slot of the used slot at a position.
+     *
+     * @param value the value to exceed, not negative
+     * @return the zero-based slot, or the number of slots if the total does not exceed the value
+     */
+    public int findSlot(int value) {
+        assert value >= 0 : "Value should not be negative";
+        int position = 0;
+        int remaining = value;
+        for (int step = Integer.highestOneBit(Math.max(1, size)); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= size && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Estimates the heap memory held by the tree.
+     *
+     * @return the approximate size in bytes
+     */
+    public long estimateBytes() {
+        return (long) tree.length * Integer.BYTES;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,151 @@
+package tasks;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from positive ints to ints, kept in two primitive arrays so that a million entries take a
+ * few megabytes instead of the boxed keys, values and entries of a {@code HashMap}.
+ * Uses open addressing with linear probing, and removals shift later entries back instead of leaving
+ * tombstones, so lookups never slow down as entries come and go.
+ */
+public class IntIntHashMap {
+    /** Value returned for keys that are not in the map. */
+    public static final int NOT_FOUND = -1;
+
+    private static final int EMPTY = 0;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_LOAD_PERCENT = 50;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    public IntIntHashMap() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty map with room for the given number of entries.
+     *
+     * @param expectedSize the number of entries to make room for
+     */
+    public IntIntHashMap(int expectedSize) {
+        int minCapacity = Math.max(INITIAL_CAPACITY, expectedSize) * 100 / MAX_LOAD_PERCENT;
+        int capacity = Integer.highestOneBit(minCapacity - 1) << 1;
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+    }
+
+    /**
+     * Maps a key to a value, replacing any value it had.
+     *
+     * @param key the key, positive
+     * @param value the value
+     */
+    public void put(int key, int value) {
+        assert key > EMPTY : "Key should be positive";
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+        if ((long) size * 100 > (long) keys.length * MAX_LOAD_PERCENT) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the key
+     * @return the value, or {@code NOT_FOUND} if the key is not in the map
+     */
+    public int get(int key) {
+        if (key <= EMPTY) {
+            return NOT_FOUND;
+        }
+        int slot = find(key);
+        return keys[slot] == EMPTY ? NOT_FOUND : values[slot];
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return the value the key had, or {@code NOT_FOUND} if it was not in the map
+     */
+    public int remove(int key) {
+        if (key <= EMPTY) {
+            return NOT_FOUND;
+        }
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            return NOT_FOUND;
+        }
+        int removed = values[slot];
+        int mask = keys.length - 1;
+        // Move back every later entry of the probe run that would no longer be reachable
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = indexFor(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return removed;
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Estimates the heap memory held by the map.
+     *
+     * @return the approximate size in bytes
+     */
+    public long estimateBytes() {
+        return (long) keys.length * 2 * Integer.BYTES;
+    }
+
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = indexFor(key);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int indexFor(int key) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (keys.length - 1);
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
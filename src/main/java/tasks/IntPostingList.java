@@ -0,0 +1,281 @@
+package tasks;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable, sorted list of distinct task sequence numbers, used as the postings of an index.
+ * Tasks receive increasing sequence numbers as they are added, so adding a new task is an append.
+ * Removed numbers are only flagged in a bitmap, so removing from a long list does not shift it,
+ * and are dropped in one pass once they outnumber the numbers still in the list.
+ */
+public class IntPostingList {
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int GALLOP_RATIO = 16;
+
+    private int[] values;
+    private int length;
+    private long[] removedBits;
+    private int removedCount;
+
+    /**
+     * Constructs an empty posting list.
+     */
+    public IntPostingList() {
+        this.values = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds a sequence number, keeping the list sorted. Adding a number already present has no effect.
+     *
+     * @param value the sequence number to add
+     */
+    public void add(int value) {
+        if (length > 0 && values[length - 1] >= value) {
+            int index = Arrays.binarySearch(values, 0, length, value);
+            if (index >= 0) {
+                if (isRemoved(index)) {
+                    removedBits[index >>> 6] &= ~(1L << index);
+                    removedCount--;
+                }
+                return;
+            }
+            compact();
+            insertAt(-Arrays.binarySearch(values, 0, length, value) - 1, value);
+            return;
+        }
+        insertAt(length, value);
+    }
+
+    private void insertAt(int index, int value) {
+        assert index == length || removedCount == 0 : "Only appends should move past removed numbers";
+        if (length == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        System.arraycopy(values, index, values, index + 1, length - index);
+        values[index] = value;
+        length++;
+    }
+
+    private boolean isRemoved(int index) {
+        int word = index >>> 6;
+        return removedCount > 0 && word < removedBits.length && (removedBits[word] & (1L << index)) != 0;
+    }
+
+    /**
+     * Drops the removed numbers, moving each remaining number once.
+     */
+    private void compact() {
+        if (removedCount == 0) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < length; i++) {
+            if (!isRemoved(i)) {
+                values[kept++] = values[i];
+            }
+        }
+        length = kept;
+        removedBits = null;
+        removedCount = 0;
+    }
+
+    /**
+     * Removes a sequence number if it is present.
+     *
+     * @param value the sequence number to remove
+     * @return true if the number was present
+     */
+    public boolean remove(int value) {
+        int index = Arrays.binarySearch(values, 0, length, value);
+        if (index < 0 || isRemoved(index)) {
+            return false;
+        }
+        if (index == length - 1) {
+            length--;
+        } else {
+            int words = (values.length + Long.SIZE - 1) / Long.SIZE;
+            if (removedBits == null) {
+                removedBits = new long[words];
+            } else if (removedBits.length < words) {
+                removedBits = Arrays.copyOf(removedBits, words);
+            }
+            removedBits[index >>> 6] |= 1L << index;
+            removedCount++;
+        }
+        if (removedCount > size()) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Removes every sequence number of a sorted array that is present, in one pass over this list.
+     * Uses a linear merge when both are of similar size, and binary searches when the array is much
+     * longer than this list.
+     *
+     * @param sorted a sorted array of sequence numbers
+     * @return the number of sequence numbers removed
+     */
+    public int removeAll(int[] sorted) {
+        boolean isGallop = (long) length * GALLOP_RATIO < sorted.length;
+        int kept = 0;
+        int removed = 0;
+        int j = 0;
+        for (int i = 0; i < length; i++) {
+            if (isRemoved(i)) {
+                continue;
+            }
+            int value = values[i];
+            boolean isFound;
+            if (isGallop) {
+                int index = Arrays.binarySearch(sorted, j, sorted.length, value);
+                isFound = index >= 0;
+                j = isFound ? index + 1 : -index - 1;
+            } else {
+                while (j < sorted.length && sorted[j] < value) {
+                    j++;
+                }
+                isFound = j < sorted.length && sorted[j] == value;
+            }
+            if (isFound) {
+                removed++;
+            } else {
+                values[kept++] = value;
+            }
+        }
+        length = kept;
+        removedBits = null;
+        removedCount = 0;
+        return removed;
+    }
+
+    public boolean contains(int value) {
+        int index = Arrays.binarySearch(values, 0, length, value);
+        return index >= 0 && !isRemoved(index);
+    }
+
+    public int size() {
+        return length - removedCount;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Keeps only the numbers of a sorted array that are also in this list, in place.
+     * Uses a linear merge when both are of similar size, and binary searches when this list
+     * is much longer than the array.
+     *
+     * @param sorted a sorted array of sequence numbers
+     * @param count the number of leading array elements in use
+     * @return the number of leading array elements kept
+     */
+    public int retainIn(int[] sorted, int count) {
+        int kept = 0;
+        if ((long) count * GALLOP_RATIO < length) {
+            int from = 0;
+            for (int i = 0; i < count; i++) {
+                int index = Arrays.binarySearch(values, from, length, sorted[i]);
+                if (index >= 0) {
+                    if (!isRemoved(index)) {
+                        sorted[kept++] = sorted[i];
+                    }
+                    from = index + 1;
+                } else {
+                    from = -index - 1;
+                }
+            }
+            return kept;
+        }
+
+        int j = 0;
+        for (int i = 0; i < count && j < length; i++) {
+            while (j < length && values[j] < sorted[i]) {
+                j++;
+            }
+            if (j < length && values[j] == sorted[i] && !isRemoved(j)) {
+                sorted[kept++] = sorted[i];
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Copies the sequence numbers into a new array.
+     *
+     * @return the sorted sequence numbers
+     */
+    public int[] toArray() {
+        if (removedCount == 0) {
+            return Arrays.copyOf(values, length);
+        }
+        int[] copy = new int[size()];
+        copyTo(copy, 0);
+        return copy;
+    }
+
+    /**
+     * Copies the sequence numbers into an array.
+     *
+     * @return the position after the last copied number
+     */
+    private int copyTo(int[] target, int offset) {
+        if (removedCount == 0) {
+            System.arraycopy(values, 0, target, offset, length);
+            return offset + length;
+        }
+        int position = offset;
+        for (int i = 0; i < length; i++) {
+            if (!isRemoved(i)) {
+                target[position++] = values[i];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Estimates the heap memory held by this list.
+     *
+     * @return the approximate size in bytes
+     */
+    public long estimateBytes() {
+        long bytes = (long) values.length * Integer.BYTES;
+        return removedBits == null ? bytes : bytes + (long) removedBits.length * Long.BYTES;
+    }
+
+    /**
+     * Merges several posting lists into one sorted array without duplicates.
+     *
+     * @param lists the posting lists to merge
+     * @return the sorted union of the sequence numbers
+     */
+    public static int[] union(List<IntPostingList> lists) {
+        if (lists.isEmpty()) {
+            return new int[0];
+        }
+        if (lists.size() == 1) {
+            return lists.get(0).toArray();
+        }
+
+        int total = 0;
+        for (IntPostingList list : lists) {
+            total += list.size();
+        }
+        int[] merged = new int[total];
+        int offset = 0;
+        for (IntPostingList list : lists) {
+            offset = list.copyTo(merged, offset);
+        }
+        Arrays.sort(merged);
+
+        int distinct = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (distinct == 0 || merged[distinct - 1] != merged[i]) {
+                merged[distinct++] = merged[i];
+            }
+        }
+        return Arrays.copyOf(merged, distinct);
+    }
+}
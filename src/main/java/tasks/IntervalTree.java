@@ -0,0 +1,221 @@
+package tasks;
+
+import java.util.Arrays;
+
+/**
+ * Balanced search tree of time intervals, used to find the events overlapping a period.
+ * Intervals are half-open, so an interval ending at the instant another starts does not overlap it.
+ * Nodes are ordered by start and then by task sequence number, and each node also holds the
+ * latest end in its subtree, so a query skips every subtree that ends before the period starts and
+ * runs in O(log n + k) time for k overlapping intervals.
+ * The tree is kept balanced as a treap, with priorities derived from the sequence numbers.
+ */
+public class IntervalTree {
+    private static final int INITIAL_RESULT_CAPACITY = 8;
+    private static final long NODE_BYTES = 56;
+
+    private Node root;
+    private int size;
+
+    /**
+     * Adds the interval of a task.
+     *
+     * @param sequenceNumber the sequence number of the task
+     * @param start the start of the interval
+     * @param end the end of the interval, after the start
+     */
+    public void add(int sequenceNumber, long start, long end) {
+        assert start < end : "Interval should end after it starts";
+        root = insert(root, new Node(sequenceNumber, start, end));
+        size++;
+    }
+
+    /**
+     * Removes the interval of a task.
+     *
+     * @param sequenceNumber the sequence number of the task
+     * @param start the start of the interval, as it was added
+     */
+    public void remove(int sequenceNumber, long start) {
+        int initialSize = size;
+        root = delete(root, sequenceNumber, start);
+        assert size == initialSize - 1 : "Removed interval should have been in the tree";
+    }
+
+    /**
+     * Finds the tasks whose intervals overlap a period.
+     *
+     * @param start the start of the period
+     * @param end the end of the period, after the start
+     * @return the sequence numbers of the overlapping tasks, by start of their intervals
+     */
+    public int[] findOverlapping(long start, long end) {
+        assert start < end : "Period should end after it starts";
+        Result result = new Result();
+        collect(root, start, end, result);
+        return Arrays.copyOf(result.values, result.size);
+    }
+
+    /**
+     * Estimates the heap memory held by the tree.
+     *
+     * @return the approximate size in bytes
+     */
+    public long estimateBytes() {
+        return size * NODE_BYTES;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static void collect(Node node, long start, long end, Result result) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        collect(node.left, start, end, result);
+        if (node.start >= end) {
+            // Every interval to the right starts even later
+            return;
+        }
+        if (node.end > start) {
+            result.add(node.sequenceNumber);
+        }
+        collect(node.right, start, end, result);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.sequenceNumber, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                return rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                return rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private Node delete(Node node, int sequenceNumber, long start) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(start, sequenceNumber, node);
+        if (comparison < 0) {
+            node.left = delete(node.left, sequenceNumber, start);
+        } else if (comparison > 0) {
+            node.right = delete(node.right, sequenceNumber, start);
+        } else {
+            size--;
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Joins two treaps where every interval of the first orders before every interval of the second.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static int compare(long start, int sequenceNumber, Node node) {
+        int comparison = Long.compare(start, node.start);
+        return comparison != 0 ? comparison : Integer.compare(sequenceNumber, node.sequenceNumber);
+    }
+
+    /**
+     * Scrambles a sequence number into a priority, so that tasks added in order still give a balanced tree.
+     */
+    private static int priorityOf(int sequenceNumber) {
+        int hash = sequenceNumber * 0x9E3779B9;
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        return hash ^ (hash >>> 13);
+    }
+
+    /**
+     * The interval of one task, with the latest end in its subtree.
+     */
+    private static class Node {
+        private final int sequenceNumber;
+        private final int priority;
+        private final long start;
+        private final long end;
+        private long maxEnd;
+        private Node left;
+        private Node right;
+
+        Node(int sequenceNumber, long start, long end) {
+            this.sequenceNumber = sequenceNumber;
+            this.priority = priorityOf(sequenceNumber);
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null) {
+                maxEnd = Math.max(maxEnd, left.maxEnd);
+            }
+            if (right != null) {
+                maxEnd = Math.max(maxEnd, right.maxEnd);
+            }
+        }
+    }
+
+    /**
+     * A growable array of sequence numbers found by a query.
+     */
+    private static class Result {
+        private int[] values = new int[INITIAL_RESULT_CAPACITY];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
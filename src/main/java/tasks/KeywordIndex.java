@@ -0,0 +1,304 @@
+package tasks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from the words of task descriptions to the tasks containing them.
+ * A word is a maximal run of letters and digits in the lower-cased description, and tasks are
+ * identified by their task IDs.
+ * The distinct words are also kept in a {@code BkTree}, so that misspelt words can be looked up, and
+ * by every one- and two-character sequence they contain, so that the words containing some text can
+ * be found without going through the whole vocabulary. Character sequences are packed into an int,
+ * with a single character packed as if preceded by U+FFFF, a noncharacter never found in a word.
+ */
+public class KeywordIndex {
+    private static final long ENTRY_OVERHEAD_BYTES = 112;
+    private static final long SET_ENTRY_OVERHEAD_BYTES = 48;
+    private static final int MAX_GRAM_LENGTH = 2;
+    private static final char NO_CHAR = '\uffff';
+
+    private final Map<String, IntPostingList> postings = new HashMap<>();
+    private final Map<Integer, Set<String>> wordsByGram = new HashMap<>();
+    private BkTree vocabulary = new BkTree();
+
+    /**
+     * Indexes the words of a task description.
+     *
+     * @param taskId the ID of the task
+     * @param description the task description
+     */
+    public void add(int taskId, String description) {
+        for (String word : tokenize(description.toLowerCase())) {
+            IntPostingList list = postings.get(word);
+            if (list == null) {
+                list = new IntPostingList();
+                postings.put(word, list);
+                vocabulary.add(word);
+                addGrams(word);
+            }
+            list.add(taskId);
+        }
+    }
+
+    /**
+     * Removes a task description from the index.
+     *
+     * @param taskId the ID of the task
+     * @param description the task description
+     */
+    public void remove(int taskId, String description) {
+        for (String word : tokenize(description.toLowerCase())) {
+            IntPostingList list = postings.get(word);
+            if (list != null) {
+                list.remove(taskId);
+                if (list.isEmpty()) {
+                    postings.remove(word);
+                    vocabulary.remove(word);
+                    removeGrams(word);
+                }
+            }
+        }
+        if (vocabulary.isMostlyRemoved()) {
+            rebuildVocabulary();
+        }
+    }
+
+    /**
+     * Removes many tasks at once, in one pass over the postings instead of one lookup per word of each
+     * description. When most of the words go, the vocabulary and the words by character sequence are
+     * rebuilt from the remaining words instead of removing the others one at a time.
+     *
+     * @param sortedTaskIds the sorted IDs of the tasks
+     */
+    public void removeAll(int[] sortedTaskIds) {
+        List<String> emptiedWords = new ArrayList<>();
+        Iterator<Map.Entry<String, IntPostingList>> entries = postings.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, IntPostingList> entry = entries.next();
+            IntPostingList list = entry.getValue();
+            if (list.removeAll(sortedTaskIds) > 0 && list.isEmpty()) {
+                entries.remove();
+                emptiedWords.add(entry.getKey());
+            }
+        }
+
+        if (emptiedWords.size() > postings.size()) {
+            wordsByGram.clear();
+            for (String word : postings.keySet()) {
+                addGrams(word);
+            }
+            rebuildVocabulary();
+            return;
+        }
+        for (String word : emptiedWords) {
+            vocabulary.remove(word);
+            removeGrams(word);
+        }
+        if (vocabulary.isMostlyRemoved()) {
+            rebuildVocabulary();
+        }
+    }
+
+    private void rebuildVocabulary() {
+        BkTree rebuilt = new BkTree();
+        for (String word : postings.keySet()) {
+            rebuilt.add(word);
+        }
+        vocabulary = rebuilt;
+    }
+
+    /**
+     * Adds a word under each of its one- and two-character sequences, without collecting them first:
+     * a sequence occurring twice in the word just adds it to the same set again.
+     */
+    private void addGrams(String word) {
+        char previous = NO_CHAR;
+        for (int i = 0; i < word.length(); i++) {
+            char current = word.charAt(i);
+            wordsByGram.computeIfAbsent(gram(NO_CHAR, current), key -> new HashSet<>()).add(word);
+            if (previous != NO_CHAR) {
+                wordsByGram.computeIfAbsent(gram(previous, current), key -> new HashSet<>()).add(word);
+            }
+            previous = current;
+        }
+    }
+
+    private void removeGrams(String word) {
+        char previous = NO_CHAR;
+        for (int i = 0; i < word.length(); i++) {
+            char current = word.charAt(i);
+            removeGram(gram(NO_CHAR, current), word);
+            if (previous != NO_CHAR) {
+                removeGram(gram(previous, current), word);
+            }
+            previous = current;
+        }
+    }
+
+    private void removeGram(int gram, String word) {
+        Set<String> words = wordsByGram.get(gram);
+        if (words != null) {
+            words.remove(word);
+            if (words.isEmpty()) {
+                wordsByGram.remove(gram);
+            }
+        }
+    }
+
+    private static int gram(char first, char second) {
+        return (first << Character.SIZE) | second;
+    }
+
+    /**
+     * Finds the tasks with a word that contains the given text.
+     * The text must not contain any separator, so it can only occur within a single word.
+     * Text of one or two characters is looked up directly among the words containing it. Longer
+     * text only has to be checked against the words containing the rarest of its two-character
+     * sequences. The postings of the matching words are then merged, so neither the descriptions
+     * nor the whole vocabulary are scanned.
+     *
+     * @param lowerCaseText lower-cased text made only of letters and digits
+     * @return the sorted IDs of the matching tasks
+     */
+    public int[] findContaining(String lowerCaseText) {
+        assert !lowerCaseText.isEmpty() && isWord(lowerCaseText) : "Text should be a non-empty word";
+        Set<String> candidates = findWordCandidates(lowerCaseText);
+        List<IntPostingList> matches = new ArrayList<>();
+        for (String word : candidates) {
+            if (word.contains(lowerCaseText)) {
+                matches.add(postings.get(word));
+            }
+        }
+        return IntPostingList.union(matches);
+    }
+
+    /**
+     * Returns the words that may contain some text: every word that does is among them.
+     */
+    private Set<String> findWordCandidates(String lowerCaseText) {
+        if (lowerCaseText.length() == 1) {
+            return wordsByGram.getOrDefault(gram(NO_CHAR, lowerCaseText.charAt(0)), Set.of());
+        }
+        Set<String> rarest = null;
+        for (int start = 0; start + MAX_GRAM_LENGTH <= lowerCaseText.length(); start++) {
+            Set<String> words = wordsByGram.get(gram(lowerCaseText.charAt(start), lowerCaseText.charAt(start + 1)));
+            if (words == null) {
+                return Set.of();
+            }
+            if (rarest == null || words.size() < rarest.size()) {
+                rarest = words;
+            }
+        }
+        return rarest;
+    }
+
+    /**
+     * Finds the indexed words within a maximum edit distance of a word.
+     *
+     * @param lowerCaseWord the lower-cased word to look for
+     * @param maxDistance the maximum number of inserted, deleted or substituted characters
+     * @return the matching words, nearest first
+     */
+    public List<BkTree.Match> findSimilar(String lowerCaseWord, int maxDistance) {
+        return vocabulary.search(lowerCaseWord, maxDistance);
+    }
+
+    /**
+     * Returns the tasks containing any of some indexed words, merging their postings.
+     *
+     * @param words indexed words
+     * @return the sorted IDs of the tasks, without repeats
+     */
+    public int[] getPostings(List<String> words) {
+        List<IntPostingList> lists = new ArrayList<>(words.size());
+        for (String word : words) {
+            IntPostingList list = postings.get(word);
+            if (list != null) {
+                lists.add(list);
+            }
+        }
+        return IntPostingList.union(lists);
+    }
+
+    /**
+     * Estimates the heap memory held by the index, including the hash map entries, the words, the
+     * sets of words by character sequence and the BK-tree of the words.
+     *
+     * @return the approximate size in bytes
+     */
+    public long estimateBytes() {
+        long bytes = 0;
+        for (Map.Entry<String, IntPostingList> entry : postings.entrySet()) {
+            bytes += ENTRY_OVERHEAD_BYTES + (long) entry.getKey().length() * Character.BYTES
+                    + entry.getValue().estimateBytes();
+        }
+        for (Set<String> words : wordsByGram.values()) {
+            bytes += ENTRY_OVERHEAD_BYTES + (long) words.size() * SET_ENTRY_OVERHEAD_BYTES;
+        }
+        return bytes + vocabulary.estimateBytes();
+    }
+
+    /**
+     * Returns the number of distinct words indexed.
+     *
+     * @return the vocabulary size
+     */
+    public int getWordCount() {
+        return postings.size();
+    }
+
+    /**
+     * Splits lower-cased text into its words.
+     *
+     * @param lowerCaseText the text to split
+     * @return the words, in order, possibly repeated
+     */
+    public static List<String> tokenize(String lowerCaseText) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < lowerCaseText.length(); i++) {
+            boolean isWordChar = Character.isLetterOrDigit(lowerCaseText.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                words.add(lowerCaseText.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            words.add(lowerCaseText.substring(start));
+        }
+        return words;
+    }
+
+    /**
+     * Returns the longest word in lower-cased text, used to narrow down a search for the whole text.
+     *
+     * @param lowerCaseText the text
+     * @return the longest word, or null if the text has no letters or digits
+     */
+    public static String longestWord(String lowerCaseText) {
+        String longest = null;
+        for (String word : tokenize(lowerCaseText)) {
+            if (longest == null || word.length() > longest.length()) {
+                longest = word;
+            }
+        }
+        return longest;
+    }
+
+    private static boolean isWord(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isLetterOrDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
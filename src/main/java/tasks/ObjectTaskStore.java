@@ -0,0 +1,122 @@
+package tasks;
+
+import java.util.List;
+
+/**
+ * Task store keeping the task objects themselves, so a task is the same object every time it is returned,
+ * until a snapshot is taken.
+ * Tasks are held in a {@code PersistentTaskVector}, so snapshots take O(1) time and share the tasks
+ * with the store. A task held by a snapshot is copied before its status changes, so from then on
+ * the store returns the copy.
+ */
+public class ObjectTaskStore implements TaskStore {
+    private PersistentTaskVector tasks = new PersistentTaskVector();
+
+    /**
+     * Constructs an empty store.
+     * The tasks are held in nodes of 32, so no room is made up front.
+     *
+     * @param initialCapacity the number of tasks expected
+     */
+    public ObjectTaskStore(int initialCapacity) {
+        assert initialCapacity >= 0 : "Capacity should not be negative";
+    }
+
+    @Override
+    public void add(Task task) {
+        tasks.append(task);
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = tasks.get(index);
+        removeAll(new int[] {index});
+        return removed;
+    }
+
+    @Override
+    public void removeAll(int[] indices) {
+        if (indices.length == 0) {
+            return;
+        }
+        // Rebuild the vector, leaving the old one to any snapshots still holding it
+        PersistentTaskVector rebuilt = new PersistentTaskVector();
+        int next = 0;
+        for (int i = 0; i < tasks.slotCount(); i++) {
+            if (next < indices.length && indices[next] == i) {
+                next++;
+            } else {
+                rebuilt.append(tasks.get(i));
+            }
+        }
+        // The moved tasks may be held by snapshots, so the rebuilt nodes must be copied before changes
+        rebuilt.snapshot();
+        tasks = rebuilt;
+    }
+
+    @Override
+    public void clear(int index) {
+        tasks.clear(index);
+    }
+
+    @Override
+    public void set(int index, Task task) {
+        tasks.set(index, task);
+    }
+
+    @Override
+    public void openEmpty(int[] indices) {
+        if (indices.length == 0) {
+            return;
+        }
+        PersistentTaskVector rebuilt = new PersistentTaskVector();
+        int slotCount = tasks.slotCount() + indices.length;
+        int from = 0;
+        int next = 0;
+        for (int i = 0; i < slotCount; i++) {
+            if (next < indices.length && indices[next] == i) {
+                rebuilt.appendEmpty();
+                next++;
+                continue;
+            }
+            Task task = tasks.get(from++);
+            if (task == null) {
+                rebuilt.appendEmpty();
+            } else {
+                rebuilt.append(task);
+            }
+        }
+        rebuilt.snapshot();
+        tasks = rebuilt;
+    }
+
+    @Override
+    public Task get(int index) {
+        return tasks.get(index);
+    }
+
+    @Override
+    public boolean isDone(int index) {
+        return tasks.get(index).isDone();
+    }
+
+    @Override
+    public void setDone(int index, boolean isDone) {
+        tasks.setDone(index, isDone);
+    }
+
+    @Override
+    public List<Task> snapshot() {
+        return tasks.snapshot();
+    }
+
+    @Override
+    public TaskStore createEmpty(int initialCapacity) {
+        return new ObjectTaskStore(initialCapacity);
+    }
+
+    @Override
+    public int size() {
+        return tasks.slotCount();
+    }
+}
@@ -0,0 +1,267 @@
+package tasks;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Slots of tasks in a 32-way trie whose nodes are shared with snapshots, so that taking a snapshot
+ * takes O(1) time and every change after it copies only the O(log32 n) nodes on its path.
+ * Nodes created since the last snapshot belong to the vector and are changed in place, so a run of
+ * changes without snapshots, such as loading a file, allocates no more than a plain array would.
+ * A task that may be reachable from a snapshot is copied before its done status is changed, so a
+ * snapshot never sees a later change. Slots of removed tasks hold null, and each node counts the
+ * tasks under it, so a snapshot finds the task at a list position by skipping empty subtrees.
+ */
+public class PersistentTaskVector {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final int ALL_SHARED = -1;
+
+    private Node root;
+    private int shift;
+    private int slotCount;
+    private Object owner = new Object();
+
+    /**
+     * Appends a task in a new slot.
+     *
+     * @param task the task to append
+     */
+    public void append(Task task) {
+        assert task != null : "Task should not be null";
+        growIfFull();
+        Node leaf = editPath(slotCount, 1);
+        leaf.children[slotCount & MASK] = task;
+        leaf.sharedBits &= ~(1 << (slotCount & MASK));
+        slotCount++;
+    }
+
+    /**
+     * Appends an empty slot, for a task to be put back in later.
+     */
+    public void appendEmpty() {
+        growIfFull();
+        editPath(slotCount, 0);
+        slotCount++;
+    }
+
+    /**
+     * Puts a task in an empty slot.
+     *
+     * @param slot the empty slot
+     * @param task the task
+     */
+    public void set(int slot, Task task) {
+        assert task != null : "Task should not be null";
+        assert get(slot) == null : "Slot should be empty";
+        Node leaf = editPath(slot, 1);
+        leaf.children[slot & MASK] = task;
+        leaf.sharedBits &= ~(1 << (slot & MASK));
+    }
+
+    private void growIfFull() {
+        if (slotCount == 1 << (shift + BITS)) {
+            Node newRoot = new Node(owner);
+            newRoot.children[0] = root;
+            newRoot.taskCount = root.taskCount;
+            root = newRoot;
+            shift += BITS;
+        }
+    }
+
+    /**
+     * Empties the slot of a removed task.
+     *
+     * @param slot the slot
+     */
+    public void clear(int slot) {
+        assert get(slot) != null : "Slot should hold a task";
+        Node leaf = editPath(slot, -1);
+        leaf.children[slot & MASK] = null;
+    }
+
+    /**
+     * Marks the task in a slot as done or not done, copying it first if a snapshot may hold it.
+     *
+     * @param slot the slot
+     * @param isDone whether the task is done
+     */
+    public void setDone(int slot, boolean isDone) {
+        Node leaf = editPath(slot, 0);
+        int bit = 1 << (slot & MASK);
+        Task task = (Task) leaf.children[slot & MASK];
+        if ((leaf.sharedBits & bit) != 0) {
+            task = task.copy();
+            leaf.children[slot & MASK] = task;
+            leaf.sharedBits &= ~bit;
+        }
+        if (isDone) {
+            task.markAsDone();
+        } else {
+            task.markAsNotDone();
+        }
+    }
+
+    /**
+     * Returns the task in a slot.
+     *
+     * @param slot the slot
+     * @return the task, or null if the slot is empty
+     */
+    public Task get(int slot) {
+        return get(root, shift, slot);
+    }
+
+    public int slotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Returns the tasks as they are now, which later changes to the vector do not affect.
+     * Every node becomes shared with the snapshot, so the next change to each one copies it.
+     *
+     * @return an unmodifiable list of the tasks, in slot order without the empty slots
+     */
+    public List<Task> snapshot() {
+        owner = new Object();
+        return new Snapshot(root, shift, slotCount);
+    }
+
+    /**
+     * Makes the nodes on the path to a slot belong to the vector, creating missing ones.
+     *
+     * @param slot the slot
+     * @param taskCountDelta the change in the number of tasks under each node on the path
+     * @return the leaf holding the slot
+     */
+    private Node editPath(int slot, int taskCountDelta) {
+        root = root == null ? new Node(owner) : editable(root);
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node.taskCount += taskCountDelta;
+            int index = (slot >>> level) & MASK;
+            Node child = (Node) node.children[index];
+            child = child == null ? new Node(owner) : editable(child);
+            node.children[index] = child;
+            node = child;
+        }
+        node.taskCount += taskCountDelta;
+        return node;
+    }
+
+    private Node editable(Node node) {
+        if (node.owner == owner) {
+            return node;
+        }
+        Node copy = new Node(owner);
+        System.arraycopy(node.children, 0, copy.children, 0, WIDTH);
+        copy.taskCount = node.taskCount;
+        copy.sharedBits = ALL_SHARED;
+        return copy;
+    }
+
+    private static Task get(Node root, int shift, int slot) {
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Node) node.children[(slot >>> level) & MASK];
+        }
+        return (Task) node.children[slot & MASK];
+    }
+
+    /**
+     * A node of the trie: children are nodes, or tasks in the leaves.
+     */
+    private static final class Node {
+        private final Object owner;
+        private final Object[] children = new Object[WIDTH];
+        private int taskCount;
+        /** In a leaf, the slots whose tasks may also be reachable from a snapshot. */
+        private int sharedBits;
+
+        Node(Object owner) {
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * The tasks of the vector at the time of a snapshot.
+     */
+    private static final class Snapshot extends AbstractList<Task> implements RandomAccess {
+        private final Node root;
+        private final int shift;
+        private final int slotCount;
+        private final int size;
+
+        Snapshot(Node root, int shift, int slotCount) {
+            this.root = root;
+            this.shift = shift;
+            this.slotCount = slotCount;
+            this.size = root == null ? 0 : root.taskCount;
+        }
+
+        @Override
+        public Task get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            if (size == slotCount) {
+                return PersistentTaskVector.get(root, shift, index);
+            }
+            // Skip whole subtrees until reaching the leaf holding the task at the position
+            Node node = root;
+            int remaining = index;
+            for (int level = shift; level > 0; level -= BITS) {
+                int child = 0;
+                while (node.children[child] == null || ((Node) node.children[child]).taskCount <= remaining) {
+                    remaining -= node.children[child] == null ? 0 : ((Node) node.children[child]).taskCount;
+                    child++;
+                }
+                node = (Node) node.children[child];
+            }
+            for (int child = 0; ; child++) {
+                if (node.children[child] != null && remaining-- == 0) {
+                    return (Task) node.children[child];
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+            return new Iterator<>() {
+                private int slot = nextSlot(0);
+
+                @Override
+                public boolean hasNext() {
+                    return slot < slotCount;
+                }
+
+                @Override
+                public Task next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Task task = PersistentTaskVector.get(root, shift, slot);
+                    slot = nextSlot(slot + 1);
+                    return task;
+                }
+
+                private int nextSlot(int from) {
+                    int next = from;
+                    while (next < slotCount && PersistentTaskVector.get(root, shift, next) == null) {
+                        next++;
+                    }
+                    return next;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package tasks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Radix tree of texts, used to complete what the user is typing.
+ * Texts are matched case-insensitively but completed in the case they were first added in.
+ * Edges hold whole runs of characters and children are kept sorted, so a lookup walks at most
+ * the prefix and then visits only as many nodes as it needs to collect its results.
+ * All methods are synchronized, so the trie can be queried from a background thread.
+ */
+public class PrefixTrie {
+    private static final long NODE_BYTES = 32;
+    private static final long ARRAY_OVERHEAD_BYTES = 16;
+    private static final long STRING_OVERHEAD_BYTES = 40;
+
+    private final Node root = new Node("");
+
+    /**
+     * Adds a text. Adding the same text again only increases its count.
+     *
+     * @param text the text to add
+     */
+    public synchronized void add(String text) {
+        assert text != null : "Text should not be null";
+        String key = text.toLowerCase();
+        Node node = root;
+        int matched = 0;
+        while (matched < key.length()) {
+            Node child = node.findChild(key.charAt(matched));
+            if (child == null) {
+                Node leaf = new Node(key.substring(matched));
+                leaf.text = text;
+                leaf.count = 1;
+                node.addChild(leaf);
+                return;
+            }
+
+            int common = commonPrefixLength(child.label, key, matched);
+            if (common < child.label.length()) {
+                child = node.splitChild(child, common);
+            }
+            node = child;
+            matched += common;
+        }
+        if (node.count == 0) {
+            node.text = text;
+        }
+        node.count++;
+    }
+
+    /**
+     * Removes one occurrence of a text, if present.
+     *
+     * @param text the text to remove
+     */
+    public synchronized void remove(String text) {
+        assert text != null : "Text should not be null";
+        String key = text.toLowerCase();
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        int matched = 0;
+        while (matched < key.length()) {
+            Node child = node.findChild(key.charAt(matched));
+            if (child == null || !key.startsWith(child.label, matched)) {
+                return;
+            }
+            path.add(node);
+            node = child;
+            matched += child.label.length();
+        }
+        if (node.count == 0) {
+            return;
+        }
+        node.count--;
+        if (node.count > 0) {
+            return;
+        }
+
+        node.text = null;
+        Node parent = path.isEmpty() ? null : path.get(path.size() - 1);
+        if (node.childCount == 0 && parent != null) {
+            parent.removeChild(node);
+            if (parent != root && parent.count == 0 && parent.childCount == 1) {
+                parent.mergeWithOnlyChild();
+            }
+        } else if (node != root && node.childCount == 1) {
+            node.mergeWithOnlyChild();
+        }
+    }
+
+    /**
+     * Finds up to the given number of texts starting with a prefix, ignoring case.
+     * Shorter texts come before their extensions, and texts are otherwise in alphabetical order.
+     *
+     * @param prefix the prefix typed so far
+     * @param limit the maximum number of completions
+     * @return the completions, in the case they were added in
+     */
+    public synchronized List<String> complete(String prefix, int limit) {
+        assert prefix != null : "Prefix should not be null";
+        assert limit > 0 : "Limit should be positive";
+        String key = prefix.toLowerCase();
+        Node node = root;
+        int matched = 0;
+        while (matched < key.length()) {
+            Node child = node.findChild(key.charAt(matched));
+            if (child == null) {
+                return new ArrayList<>();
+            }
+            int common = commonPrefixLength(child.label, key, matched);
+            if (common < child.label.length() && matched + common < key.length()) {
+                return new ArrayList<>();
+            }
+            node = child;
+            matched += common;
+        }
+
+        List<String> completions = new ArrayList<>();
+        collect(node, completions, limit);
+        return completions;
+    }
+
+    /**
+     * Estimates the heap memory held by the trie, including the nodes, their child arrays and their
+     * labels. The texts themselves are the descriptions of the tasks, so they are not counted.
+     *
+     * @return the approximate size in bytes
+     */
+    public synchronized long estimateBytes() {
+        return estimateBytes(root);
+    }
+
+    private static long estimateBytes(Node node) {
+        long bytes = NODE_BYTES + STRING_OVERHEAD_BYTES + node.label.length()
+                + (node.children.length == 0 ? 0 : ARRAY_OVERHEAD_BYTES + (long) node.children.length * Integer.BYTES);
+        for (int i = 0; i < node.childCount; i++) {
+            bytes += estimateBytes(node.children[i]);
+        }
+        return bytes;
+    }
+
+    private static void collect(Node node, List<String> completions, int limit) {
+        if (node.count > 0) {
+            completions.add(node.text);
+        }
+        for (int i = 0; i < node.childCount && completions.size() < limit; i++) {
+            collect(node.children[i], completions, limit);
+        }
+    }
+
+    private static int commonPrefixLength(String label, String key, int keyStart) {
+        int max = Math.min(label.length(), key.length() - keyStart);
+        int length = 0;
+        while (length < max && label.charAt(length) == key.charAt(keyStart + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * A node of the radix tree, reached from its parent through its label.
+     */
+    private static class Node {
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private String label;
+        private Node[] children = NO_CHILDREN;
+        private int childCount;
+        private String text;
+        private int count;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node findChild(char first) {
+            int index = indexOfChild(first);
+            return index >= 0 ? children[index] : null;
+        }
+
+        /**
+         * Binary searches the children by the first character of their labels.
+         *
+         * @return the index of the child, or {@code -(insertion point) - 1} if there is none
+         */
+        private int indexOfChild(char first) {
+            int low = 0;
+            int high = childCount - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char middleFirst = children[middle].label.charAt(0);
+                if (middleFirst < first) {
+                    low = middle + 1;
+                } else if (middleFirst > first) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+
+        void addChild(Node child) {
+            int index = -indexOfChild(child.label.charAt(0)) - 1;
+            assert index >= 0 : "Children should have distinct first characters";
+            if (childCount == children.length) {
+                children = Arrays.copyOf(children, Math.max(2, childCount * 2));
+            }
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            children[index] = child;
+            childCount++;
+        }
+
+        void removeChild(Node child) {
+            int index = indexOfChild(child.label.charAt(0));
+            assert index >= 0 && children[index] == child : "Child should belong to this node";
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            childCount--;
+            children[childCount] = null;
+        }
+
+        /**
+         * Splits the label of a child, inserting a new node for the first part of it.
+         *
+         * @return the inserted node
+         */
+        Node splitChild(Node child, int length) {
+            Node middle = new Node(child.label.substring(0, length));
+            children[indexOfChild(child.label.charAt(0))] = middle;
+            child.label = child.label.substring(length);
+            middle.addChild(child);
+            return middle;
+        }
+
+        /**
+         * Absorbs the only child of a node that holds no text itself.
+         */
+        void mergeWithOnlyChild() {
+            Node child = children[0];
+            label = label + child.label;
+            children = child.children;
+            childCount = child.childCount;
+            text = child.text;
+            count = child.count;
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package tasks;
+
+import java.util.Arrays;
+
+/**
+ * Compressed bitmap of non-negative ints in the style of Roaring bitmaps, used to filter tasks by
+ * status and type.
+ * Values are split by their high 16 bits into chunks of 65536. A chunk holding few values keeps them
+ * as a sorted array of their low 16 bits, and a chunk holding many keeps a plain bitmap of 1024 longs,
+ * so sparse sets stay small while dense sets combine a word at a time.
+ */
+public class RoaringBitmap {
+    private static final int CHUNK_BITS = 16;
+    private static final int LOW_MASK = 0xFFFF;
+    private static final int MAX_ARRAY_SIZE = 4096;
+    private static final int BITMAP_WORDS = 1 << (CHUNK_BITS - 6);
+    private static final int INITIAL_CHUNKS = 4;
+    private static final int INITIAL_ARRAY_CAPACITY = 4;
+
+    private int[] keys = new int[INITIAL_CHUNKS];
+    private Container[] containers = new Container[INITIAL_CHUNKS];
+    private int chunkCount;
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value to add, not negative
+     */
+    public void add(int value) {
+        assert value >= 0 : "Value should not be negative";
+        int key = value >>> CHUNK_BITS;
+        int index = indexOfKey(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertChunk(index, key, new Container());
+        }
+        containers[index].add((char) (value & LOW_MASK));
+    }
+
+    /**
+     * Removes a value, if present.
+     *
+     * @param value the value to remove
+     */
+    public void remove(int value) {
+        int index = indexOfKey(value >>> CHUNK_BITS);
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index];
+        container.remove((char) (value & LOW_MASK));
+        if (container.cardinality == 0) {
+            System.arraycopy(keys, index + 1, keys, index, chunkCount - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, chunkCount - index - 1);
+            chunkCount--;
+            containers[chunkCount] = null;
+        }
+    }
+
+    /**
+     * Checks if a value is present.
+     *
+     * @param value the value to look for
+     * @return true if the value is in the bitmap
+     */
+    public boolean contains(int value) {
+        int index = indexOfKey(value >>> CHUNK_BITS);
+        return index >= 0 && containers[index].contains((char) (value & LOW_MASK));
+    }
+
+    /**
+     * Returns the number of values in the bitmap.
+     *
+     * @return the cardinality
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    /**
+     * Returns the values in the bitmap.
+     *
+     * @return the values, in increasing order
+     */
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int count = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            count = containers[i].copyTo(keys[i] << CHUNK_BITS, values, count);
+        }
+        return values;
+    }
+
+    /**
+     * Computes the values present in both bitmaps.
+     *
+     * @param first the first bitmap
+     * @param second the second bitmap
+     * @return a new bitmap with the intersection
+     */
+    public static RoaringBitmap and(RoaringBitmap first, RoaringBitmap second) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < first.chunkCount && j < second.chunkCount) {
+            if (first.keys[i] < second.keys[j]) {
+                i++;
+            } else if (first.keys[i] > second.keys[j]) {
+                j++;
+            } else {
+                Container container = Container.and(first.containers[i], second.containers[j]);
+                if (container.cardinality > 0) {
+                    result.appendChunk(first.keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the values present in either bitmap.
+     *
+     * @param first the first bitmap
+     * @param second the second bitmap
+     * @return a new bitmap with the union
+     */
+    public static RoaringBitmap or(RoaringBitmap first, RoaringBitmap second) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < first.chunkCount || j < second.chunkCount) {
+            if (j == second.chunkCount || (i < first.chunkCount && first.keys[i] < second.keys[j])) {
+                result.appendChunk(first.keys[i], first.containers[i].copy());
+                i++;
+            } else if (i == first.chunkCount || first.keys[i] > second.keys[j]) {
+                result.appendChunk(second.keys[j], second.containers[j].copy());
+                j++;
+            } else {
+                result.appendChunk(first.keys[i], Container.or(first.containers[i], second.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the heap memory held by the bitmap.
+     *
+     * @return the approximate size in bytes
+     */
+    public long estimateBytes() {
+        long bytes = (long) keys.length * (Integer.BYTES + Long.BYTES);
+        for (int i = 0; i < chunkCount; i++) {
+            bytes += containers[i].estimateBytes();
+        }
+        return bytes;
+    }
+
+    private int indexOfKey(int key) {
+        // Values are mostly added in increasing order, so check the last chunk first
+        if (chunkCount > 0 && keys[chunkCount - 1] == key) {
+            return chunkCount - 1;
+        }
+        return Arrays.binarySearch(keys, 0, chunkCount, key);
+    }
+
+    private void insertChunk(int index, int key, Container container) {
+        if (chunkCount == keys.length) {
+            keys = Arrays.copyOf(keys, chunkCount * 2);
+            containers = Arrays.copyOf(containers, chunkCount * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, chunkCount - index);
+        System.arraycopy(containers, index, containers, index + 1, chunkCount - index);
+        keys[index] = key;
+        containers[index] = container;
+        chunkCount++;
+    }
+
+    private void appendChunk(int key, Container container) {
+        insertChunk(chunkCount, key, container);
+    }
+
+    /**
+     * The values of one chunk, held either as a sorted array or as a bitmap depending on how many there are.
+     */
+    private static class Container {
+        private char[] array = new char[INITIAL_ARRAY_CAPACITY];
+        private long[] bitmap;
+        private int cardinality;
+
+        boolean contains(char low) {
+            if (bitmap != null) {
+                return (bitmap[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(array, 0, cardinality, low) >= 0;
+        }
+
+        void add(char low) {
+            if (bitmap != null) {
+                long word = bitmap[low >>> 6];
+                long updated = word | (1L << low);
+                if (updated != word) {
+                    bitmap[low >>> 6] = updated;
+                    cardinality++;
+                }
+                return;
+            }
+
+            int index = cardinality > 0 && array[cardinality - 1] < low
+                    ? -cardinality - 1
+                    : Arrays.binarySearch(array, 0, cardinality, low);
+            if (index >= 0) {
+                return;
+            }
+            if (cardinality == MAX_ARRAY_SIZE) {
+                convertToBitmap();
+                add(low);
+                return;
+            }
+            index = -index - 1;
+            if (cardinality == array.length) {
+                array = Arrays.copyOf(array, Math.min(MAX_ARRAY_SIZE, cardinality * 2));
+            }
+            System.arraycopy(array, index, array, index + 1, cardinality - index);
+            array[index] = low;
+            cardinality++;
+        }
+
+        void remove(char low) {
+            if (bitmap != null) {
+                long word = bitmap[low >>> 6];
+                long updated = word & ~(1L << low);
+                if (updated != word) {
+                    bitmap[low >>> 6] = updated;
+                    cardinality--;
+                    if (cardinality <= MAX_ARRAY_SIZE / 2) {
+                        convertToArray();
+                    }
+                }
+                return;
+            }
+
+            int index = Arrays.binarySearch(array, 0, cardinality, low);
+            if (index >= 0) {
+                System.arraycopy(array, index + 1, array, index, cardinality - index - 1);
+                cardinality--;
+            }
+        }
+
+        int copyTo(int high, int[] values, int start) {
+            int count = start;
+            if (bitmap == null) {
+                for (int i = 0; i < cardinality; i++) {
+                    values[count++] = high | array[i];
+                }
+                return count;
+            }
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                long word = bitmap[w];
+                while (word != 0) {
+                    values[count++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return count;
+        }
+
+        Container copy() {
+            Container copy = new Container();
+            copy.cardinality = cardinality;
+            if (bitmap != null) {
+                copy.array = null;
+                copy.bitmap = bitmap.clone();
+            } else {
+                copy.array = Arrays.copyOf(array, Math.max(INITIAL_ARRAY_CAPACITY, cardinality));
+            }
+            return copy;
+        }
+
+        long estimateBytes() {
+            return bitmap != null ? (long) BITMAP_WORDS * Long.BYTES : (long) array.length * Character.BYTES;
+        }
+
+        private void convertToBitmap() {
+            bitmap = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                bitmap[array[i] >>> 6] |= 1L << array[i];
+            }
+            array = null;
+        }
+
+        private void convertToArray() {
+            char[] values = new char[Math.max(INITIAL_ARRAY_CAPACITY, cardinality)];
+            int count = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                long word = bitmap[w];
+                while (word != 0) {
+                    values[count++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            array = values;
+            bitmap = null;
+        }
+
+        static Container and(Container first, Container second) {
+            Container result = new Container();
+            if (first.bitmap != null && second.bitmap != null) {
+                result.array = null;
+                result.bitmap = new long[BITMAP_WORDS];
+                int cardinality = 0;
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    long word = first.bitmap[w] & second.bitmap[w];
+                    result.bitmap[w] = word;
+                    cardinality += Long.bitCount(word);
+                }
+                result.cardinality = cardinality;
+                if (cardinality <= MAX_ARRAY_SIZE) {
+                    result.convertToArray();
+                }
+                return result;
+            }
+
+            // At least one side is a small array, so probe the other side with each of its values
+            Container small = first.bitmap == null ? first : second;
+            Container other = small == first ? second : first;
+            result.array = new char[Math.max(INITIAL_ARRAY_CAPACITY, small.cardinality)];
+            for (int i = 0; i < small.cardinality; i++) {
+                if (other.contains(small.array[i])) {
+                    result.array[result.cardinality++] = small.array[i];
+                }
+            }
+            return result;
+        }
+
+        static Container or(Container first, Container second) {
+            if (first.bitmap == null && second.bitmap == null
+                    && first.cardinality + second.cardinality <= MAX_ARRAY_SIZE) {
+                Container result = new Container();
+                result.array = new char[Math.max(INITIAL_ARRAY_CAPACITY, first.cardinality + second.cardinality)];
+                int i = 0;
+                int j = 0;
+                while (i < first.cardinality || j < second.cardinality) {
+                    char next;
+                    if (j == second.cardinality || (i < first.cardinality && first.array[i] < second.array[j])) {
+                        next = first.array[i++];
+                    } else if (i == first.cardinality || first.array[i] > second.array[j]) {
+                        next = second.array[j++];
+                    } else {
+                        next = first.array[i++];
+                        j++;
+                    }
+                    result.array[result.cardinality++] = next;
+                }
+                return result;
+            }
+
+            if (first.bitmap != null && second.bitmap != null) {
+                Container result = new Container();
+                result.array = null;
+                result.bitmap = new long[BITMAP_WORDS];
+                int cardinality = 0;
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    long word = first.bitmap[w] | second.bitmap[w];
+                    result.bitmap[w] = word;
+                    cardinality += Long.bitCount(word);
+                }
+                result.cardinality = cardinality;
+                return result;
+            }
+
+            // Add the values of the array side to a copy of the other side
+            Container small = first.bitmap == null ? first : second;
+            Container result = (small == first ? second : first).copy();
+            if (result.bitmap == null) {
+                result.convertToBitmap();
+            }
+            for (int i = 0; i < small.cardinality; i++) {
+                result.add(small.array[i]);
+            }
+            return result;
+        }
+    }
+}
@@ -3,11 +3,20 @@ package tasks;
 /**
  * Represents a generic task with a description and type.
  * Serves as the superclass for specific task types.
+ * A task gets a stable ID when it is added to a {@code TaskList}, which is stored with it and
+ * stays the same as other tasks are added and deleted.
  */
-public class Task {
+public class Task implements Cloneable {
+    /** ID of a task that has not been added to a task list yet. */
+    public static final int NO_ID = 0;
+
+    /** Type of a line of input that was not a command, kept in the list for the rest of the session. */
+    public static final char INPUT_TYPE = ' ';
+
     private final String description;
     private boolean isDone;
     private final char taskChar;
+    private int id = NO_ID;
 
     /**
      * Constructor for a Task object.
@@ -41,6 +50,20 @@ public class Task {
         return taskChar;
     }
 
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the stable ID of the task, as given by the task list or read from storage.
+     *
+     * @param id the ID, positive, or {@code NO_ID}
+     */
+    public void setId(int id) {
+        assert id >= NO_ID : "Task ID should not be negative";
+        this.id = id;
+    }
+
     @Override
     public String toString() {
         String result = "[" + this.taskChar + "][" + this.getStatusIcon() + "] " + this.description;
@@ -53,6 +76,19 @@ public class Task {
         return isDone;
     }
 
+    /**
+     * Copies the task, so that the copy can be changed while the original stays as it is.
+     *
+     * @return a task of the same type with the same fields
+     */
+    public Task copy() {
+        try {
+            return (Task) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError("Tasks should be cloneable", e);
+        }
+    }
+
     public void markAsDone() {
         boolean wasDone = this.isDone;
         this.isDone = true;
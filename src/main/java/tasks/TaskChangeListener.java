@@ -0,0 +1,31 @@
+package tasks;
+
+/**
+ * Receives the changes made to a task list, such as to save them or to keep a view of the list up to date.
+ */
+public interface TaskChangeListener {
+    /**
+     * Called after tasks were added or put back into the list.
+     *
+     * @param taskList the task list after the change
+     * @param indices the positions of the tasks once they were back, in increasing order
+     */
+    void tasksInserted(TaskList taskList, int[] indices);
+
+    /**
+     * Called after tasks were removed from the list.
+     *
+     * @param taskList the task list after the change
+     * @param indices the positions the tasks were removed from, in increasing order
+     */
+    void tasksRemoved(TaskList taskList, int[] indices);
+
+    /**
+     * Called after tasks were marked as done or not done.
+     *
+     * @param taskList the task list after the change
+     * @param indices the positions of the tasks, in increasing order
+     * @param isDone whether the tasks were marked as done
+     */
+    void tasksMarked(TaskList taskList, int[] indices, boolean isDone);
+}
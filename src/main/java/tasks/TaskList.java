@@ -1,97 +1,942 @@
 package tasks;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Manages a list of tasks and provides operations to modify the list.
+ * The tasks themselves are held by a {@code TaskStore}, either as objects or in columns.
+ * Every task has a stable ID, kept from storage or given when it is added, and IDs increase along
+ * the list. The lower-cased description of each task is kept in a {@code TrigramIndex} and a
+ * {@code KeywordIndex} so that searches do not scan every task. The periods of events are kept in an
+ * {@code IntervalTree} to find overlapping events, and deadlines in a {@code DeadlineIndex} to find
+ * the tasks due in a range of time. The IDs of done tasks, pending tasks and each type of task are
+ * kept in bitmaps, so that filters combine with bitmap operations instead of checking every task.
+ * Removed tasks leave a free slot in the store instead of shifting every later task, and a
+ * {@code FenwickTree} over the used slots turns list positions into slots in O(log n) time.
+ * The free slots are dropped in one pass once they outnumber the tasks.
+ * Snapshots of the tasks come from the store, so the default store takes them in O(1) time.
+ * Listeners are told of every task added, removed or marked, such as to keep a view of the list up to date.
  */
 public class TaskList {
-    private final List<Task> tasks;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long STRING_OVERHEAD_BYTES = 40;
+    private static final int MIN_COMPACTED_SLOTS = 64;
+    private static final int MIN_BULK_REMOVALS = 64;
+    private static final char DEADLINE_TYPE = 'D';
+    private static final char EVENT_TYPE = 'E';
+
+    // Default fuzzy search distances, by word length
+    private static final int EXACT_WORD_MAX_LENGTH = 2;
+    private static final int ONE_TYPO_WORD_MAX_LENGTH = 5;
+    private static final int LONG_WORD_MAX_DISTANCE = 2;
+
+    private final TaskStore tasks;
+    private final List<String> lowerCaseDescriptions;
+    private final KeywordIndex keywordIndex = new KeywordIndex();
+    private final TrigramIndex trigramIndex = new TrigramIndex();
+    private final PrefixTrie descriptionTrie = new PrefixTrie();
+    private final IntervalTree eventPeriods = new IntervalTree();
+    private final DeadlineIndex deadlines = new DeadlineIndex();
+    private final RoaringBitmap doneTasks = new RoaringBitmap();
+    private final RoaringBitmap pendingTasks = new RoaringBitmap();
+    private final Map<Character, RoaringBitmap> tasksByType = new HashMap<>();
+    private final IntIntHashMap slotsById;
+    private final List<TaskChangeListener> changeListeners = new ArrayList<>();
+    private FenwickTree usedSlots;
+    private int[] slotIds;
+    private int freeSlotCount;
+    private int lastId;
 
     public TaskList(List<Task> tasks) {
+        this(tasks, new ObjectTaskStore(tasks.size()));
+    }
+
+    /**
+     * Constructs a task list holding its tasks in the given store.
+     *
+     * @param tasks the tasks to start with
+     * @param store an empty store to hold the tasks in
+     */
+    public TaskList(List<Task> tasks, TaskStore store) {
         assert tasks != null : "Input task list should not be null";
-        this.tasks = new ArrayList<>(tasks);
+        assert store != null && store.size() == 0 : "Store should be empty";
+        this.tasks = store;
+        this.lowerCaseDescriptions = new ArrayList<>(tasks.size());
+        this.slotsById = new IntIntHashMap(tasks.size());
+        this.usedSlots = new FenwickTree(0);
+        this.slotIds = new int[Math.max(INITIAL_CAPACITY, tasks.size())];
+        for (Task task : tasks) {
+            add(task);
+        }
         assert this.tasks != null : "Internal task list should be initialized";
     }
 
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this.tasks = new ObjectTaskStore(INITIAL_CAPACITY);
+        this.lowerCaseDescriptions = new ArrayList<>();
+        this.slotsById = new IntIntHashMap();
+        this.usedSlots = new FenwickTree(0);
+        this.slotIds = new int[INITIAL_CAPACITY];
         assert this.tasks != null : "Internal task list should be initialized";
     }
 
     /**
      * Finds and returns a list of tasks that contain the specified keyword in their description.
+     * The search is case-insensitive and matches any part of the description. Keywords of at least
+     * three characters are narrowed down with the trigram index and then checked, while shorter
+     * keywords are looked up in the keyword index by their longest word.
      *
      * @param keyword The keyword to search for within task descriptions.
      * @return A list of tasks that match the keyword.
      */
     public List<Task> findTasks(String keyword) {
         assert keyword != null : "Keyword should not be null";
+        String lowerCaseKeyword = keyword.toLowerCase();
+        if (lowerCaseKeyword.length() >= TrigramIndex.GRAM_LENGTH) {
+            boolean isSingleTrigram = lowerCaseKeyword.length() == TrigramIndex.GRAM_LENGTH;
+            List<Task> matchingTasks = new ArrayList<>();
+            for (int id : trigramIndex.findCandidates(lowerCaseKeyword)) {
+                int slot = slotOfId(id);
+                if (isSingleTrigram || lowerCaseDescriptions.get(slot).contains(lowerCaseKeyword)) {
+                    matchingTasks.add(tasks.get(slot));
+                }
+            }
+            return matchingTasks;
+        }
+
+        String longestWord = KeywordIndex.longestWord(lowerCaseKeyword);
+        if (longestWord == null) {
+            return scanTasks(lowerCaseKeyword);
+        }
+
+        boolean isSingleWord = longestWord.length() == lowerCaseKeyword.length();
         List<Task> matchingTasks = new ArrayList<>();
-        for (Task task : tasks) {
-            assert task != null : "Task in list should not be null";
-            assert task.getDescription() != null : "Task description should not be null";
-            if (task.getDescription().toLowerCase().contains(keyword.toLowerCase())) {
-                matchingTasks.add(task);
+        for (int id : keywordIndex.findContaining(longestWord)) {
+            int slot = slotOfId(id);
+            if (isSingleWord || lowerCaseDescriptions.get(slot).contains(lowerCaseKeyword)) {
+                matchingTasks.add(tasks.get(slot));
             }
         }
         assert matchingTasks != null : "Matching tasks list should not be null";
         return matchingTasks;
     }
 
+    /**
+     * Finds tasks with words close to those of a search term, tolerating typos.
+     * Longer words are allowed more edits: words of up to two characters must match exactly,
+     * words of up to five characters may be one edit away and longer words two edits away.
+     *
+     * @param term the words to search for
+     * @return the matching tasks, nearest first
+     */
+    public List<Task> findSimilarTasks(String term) {
+        return findSimilarTasks(term, -1);
+    }
+
+    /**
+     * Finds tasks with words close to those of a search term, tolerating typos.
+     * Every word of the term has to be within the maximum edit distance of some word in the
+     * description, and tasks are ranked by the sum of the distances of their nearest words,
+     * then by their position in the list. Only the distinct words of all descriptions are compared
+     * against the term, through the BK-tree of the keyword index.
+     *
+     * @param term the words to search for
+     * @param maxDistance the maximum number of edits per word, or a negative number to pick it by word length
+     * @return the matching tasks, nearest first
+     */
+    public List<Task> findSimilarTasks(String term, int maxDistance) {
+        assert term != null : "Term should not be null";
+        List<String> words = KeywordIndex.tokenize(term.toLowerCase());
+        List<Task> matchingTasks = new ArrayList<>();
+        if (words.isEmpty()) {
+            return matchingTasks;
+        }
+
+        // Each match packs a task ID above the total distance of the task, so matches sort by ID
+        long[] matches = null;
+        int maxTotalDistance = 0;
+        for (String word : words) {
+            int wordMaxDistance = maxDistance >= 0 ? maxDistance : defaultMaxDistance(word);
+            long[] wordMatches = findWordMatches(word, wordMaxDistance);
+            matches = matches == null ? wordMatches : addDistances(matches, wordMatches);
+            maxTotalDistance += wordMaxDistance;
+        }
+
+        // Bucket the matches by distance, keeping list order within each bucket
+        int[] bucketStarts = new int[maxTotalDistance + 2];
+        for (long match : matches) {
+            bucketStarts[distanceOf(match) + 1]++;
+        }
+        for (int distance = 1; distance < bucketStarts.length; distance++) {
+            bucketStarts[distance] += bucketStarts[distance - 1];
+        }
+        Task[] ranked = new Task[matches.length];
+        for (long match : matches) {
+            ranked[bucketStarts[distanceOf(match)]++] = tasks.get(slotOfId(idOf(match)));
+        }
+        matchingTasks.addAll(Arrays.asList(ranked));
+        return matchingTasks;
+    }
+
+    private static int defaultMaxDistance(String word) {
+        if (word.length() <= EXACT_WORD_MAX_LENGTH) {
+            return 0;
+        }
+        return word.length() <= ONE_TYPO_WORD_MAX_LENGTH ? 1 : LONG_WORD_MAX_DISTANCE;
+    }
+
+    /**
+     * Finds how close the tasks with a word near a given one come to it. The postings of the indexed
+     * words at each distance are merged nearest first, so a task keeps the distance of its nearest word.
+     *
+     * @return the matching tasks, packed with their distances, by ID
+     */
+    private long[] findWordMatches(String word, int maxDistance) {
+        List<BkTree.Match> similarWords = keywordIndex.findSimilar(word, maxDistance);
+        long[] matches = new long[0];
+        int start = 0;
+        while (start < similarWords.size()) {
+            int distance = similarWords.get(start).getDistance();
+            List<String> wordsAtDistance = new ArrayList<>();
+            int end = start;
+            while (end < similarWords.size() && similarWords.get(end).getDistance() == distance) {
+                wordsAtDistance.add(similarWords.get(end).getWord());
+                end++;
+            }
+            matches = addFartherMatches(matches, keywordIndex.getPostings(wordsAtDistance), distance);
+            start = end;
+        }
+        return matches;
+    }
+
+    /**
+     * Merges sorted task IDs at some distance into nearer matches, skipping the tasks already matched.
+     */
+    private static long[] addFartherMatches(long[] matches, int[] ids, int distance) {
+        long[] merged = new long[matches.length + ids.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < matches.length || j < ids.length) {
+            if (j == ids.length || (i < matches.length && idOf(matches[i]) <= ids[j])) {
+                if (j < ids.length && idOf(matches[i]) == ids[j]) {
+                    j++;
+                }
+                merged[count++] = matches[i++];
+            } else {
+                merged[count++] = packMatch(ids[j++], distance);
+            }
+        }
+        return Arrays.copyOf(merged, count);
+    }
+
+    /**
+     * Keeps the tasks matched by both sorted arrays of matches, adding up their distances.
+     */
+    private static long[] addDistances(long[] totals, long[] matches) {
+        long[] kept = new long[Math.min(totals.length, matches.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < totals.length && j < matches.length) {
+            int id = idOf(totals[i]);
+            int otherId = idOf(matches[j]);
+            if (id < otherId) {
+                i++;
+            } else if (id > otherId) {
+                j++;
+            } else {
+                kept[count++] = packMatch(id, distanceOf(totals[i++]) + distanceOf(matches[j++]));
+            }
+        }
+        return Arrays.copyOf(kept, count);
+    }
+
+    private static long packMatch(int id, int distance) {
+        return ((long) id << Integer.SIZE) | distance;
+    }
+
+    private static int idOf(long match) {
+        return (int) (match >>> Integer.SIZE);
+    }
+
+    private static int distanceOf(long match) {
+        return (int) match;
+    }
+
+    /**
+     * Finds tasks by checking every description, for keywords without any letter or digit.
+     *
+     * @param lowerCaseKeyword the lower-cased keyword
+     * @return the tasks whose description contains the keyword
+     */
+    private List<Task> scanTasks(String lowerCaseKeyword) {
+        List<Task> matchingTasks = new ArrayList<>();
+        for (int slot = 0; slot < tasks.size(); slot++) {
+            String lowerCaseDescription = lowerCaseDescriptions.get(slot);
+            if (lowerCaseDescription != null && lowerCaseDescription.contains(lowerCaseKeyword)) {
+                matchingTasks.add(tasks.get(slot));
+            }
+        }
+        return matchingTasks;
+    }
+
+    /**
+     * Finds the position of the task with an ID.
+     *
+     * @param id the ID of the task
+     * @return the zero-based position of the task, or -1 if no task in the list has the ID
+     */
+    public int indexOfId(int id) {
+        int slot = slotsById.get(id);
+        return slot == IntIntHashMap.NOT_FOUND ? -1 : indexOfSlot(slot);
+    }
+
+    private int slotOfId(int id) {
+        int slot = slotsById.get(id);
+        assert slot != IntIntHashMap.NOT_FOUND : "Indexed task should be in the list";
+        return slot;
+    }
+
+    private int slotAt(int index) {
+        return freeSlotCount == 0 ? index : usedSlots.findSlot(index);
+    }
+
+    private int indexOfSlot(int slot) {
+        return freeSlotCount == 0 ? slot : usedSlots.prefixSum(slot);
+    }
+
+    /**
+     * Finds the events that overlap a period, such as the events clashing with a new one.
+     * An event ending exactly when the period starts, or starting exactly when it ends, does not overlap it.
+     * An event or period that starts and ends at the same time counts as lasting one second.
+     *
+     * @param from the start of the period
+     * @param to the end of the period, not before the start
+     * @return the overlapping events, by start time
+     */
+    public List<Task> findEventsDuring(LocalDateTime from, LocalDateTime to) {
+        assert from != null && to != null : "Period should not be null";
+        assert !to.isBefore(from) : "Period should not end before it starts";
+        int[] found = eventPeriods.findOverlapping(toSeconds(from), toEndSeconds(from, to));
+        List<Task> events = new ArrayList<>(found.length);
+        for (int id : found) {
+            events.add(tasks.get(slotOfId(id)));
+        }
+        return events;
+    }
+
+    /**
+     * Finds the positions of the tasks with a status and one of some types.
+     *
+     * @param isDone true for done tasks, false for pending tasks, or null for either
+     * @param types the task types to include, or an empty collection for every type
+     * @return the indices of the matching tasks, in list order
+     */
+    public int[] filterIndices(Boolean isDone, Collection<Character> types) {
+        assert types != null : "Types should not be null";
+        RoaringBitmap matching = null;
+        if (isDone != null) {
+            matching = isDone ? doneTasks : pendingTasks;
+        }
+        if (!types.isEmpty()) {
+            RoaringBitmap ofTypes = new RoaringBitmap();
+            for (char type : types) {
+                RoaringBitmap ofType = tasksByType.get(Character.toUpperCase(type));
+                if (ofType != null) {
+                    ofTypes = RoaringBitmap.or(ofTypes, ofType);
+                }
+            }
+            matching = matching == null ? ofTypes : RoaringBitmap.and(matching, ofTypes);
+        }
+        if (matching == null) {
+            matching = RoaringBitmap.or(doneTasks, pendingTasks);
+        }
+        return indicesOfIds(matching.toArray());
+    }
+
+    /**
+     * Maps sorted IDs to list positions.
+     * Few IDs are looked up one by one, while many are matched in a single pass over the slots.
+     */
+    private int[] indicesOfIds(int[] sorted) {
+        int[] indices = new int[sorted.length];
+        int slotCount = tasks.size();
+        boolean isScanCheaper = (long) sorted.length * (32 - Integer.numberOfLeadingZeros(slotCount)) > slotCount;
+        int slot = 0;
+        int index = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (isScanCheaper) {
+                while (slotIds[slot] != sorted[i]) {
+                    if (slotIds[slot] != Task.NO_ID) {
+                        index++;
+                    }
+                    slot++;
+                }
+                indices[i] = index;
+            } else {
+                indices[i] = indexOfSlot(slotOfId(sorted[i]));
+            }
+            assert indices[i] >= 0 && indices[i] < size() : "Filtered task should be in the list";
+        }
+        return indices;
+    }
+
+    /**
+     * Finds the deadlines not yet done that are due at or before a time.
+     *
+     * @param by the latest deadline
+     * @return the deadline tasks, by deadline
+     */
+    public List<Task> findDeadlinesDueBy(LocalDateTime by) {
+        assert by != null : "Deadline should not be null";
+        return findPendingDeadlines(null, by, true, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds the deadlines not yet done that are due before the current time.
+     *
+     * @param now the current time
+     * @return the overdue deadline tasks, by deadline
+     */
+    public List<Task> findOverdueDeadlines(LocalDateTime now) {
+        assert now != null : "Current time should not be null";
+        return findPendingDeadlines(null, now, false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds the next deadlines not yet done, due at or after the current time.
+     *
+     * @param now the current time
+     * @param count the maximum number of deadlines to find
+     * @return the upcoming deadline tasks, by deadline
+     */
+    public List<Task> findUpcomingDeadlines(LocalDateTime now, int count) {
+        assert now != null : "Current time should not be null";
+        assert count >= 0 : "Count should not be negative";
+        return findPendingDeadlines(now, null, false, count);
+    }
+
+    private List<Task> findPendingDeadlines(LocalDateTime from, LocalDateTime to, boolean isToInclusive, int limit) {
+        int[] found = deadlines.find(from, to, isToInclusive, limit, id -> !tasks.isDone(slotOfId(id)));
+        List<Task> dueTasks = new ArrayList<>(found.length);
+        for (int id : found) {
+            dueTasks.add(tasks.get(slotOfId(id)));
+        }
+        return dueTasks;
+    }
+
+    private static long toSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long toEndSeconds(LocalDateTime from, LocalDateTime to) {
+        return Math.max(toSeconds(to), toSeconds(from) + 1);
+    }
+
+    /**
+     * Completes a task description from its first characters, ignoring case.
+     * Like the other queries, it must only be called on the thread changing the list, or on the copy
+     * read through a {@code TaskListSnapshot}.
+     *
+     * @param prefix the start of the description
+     * @param limit the maximum number of completions
+     * @return the descriptions starting with the prefix, shortest and then alphabetically first
+     */
+    public List<String> completeDescription(String prefix, int limit) {
+        assert prefix != null : "Prefix should not be null";
+        return descriptionTrie.complete(prefix, limit);
+    }
+
+    /**
+     * Estimates the heap memory used by the search indexes, on top of the tasks themselves: the word,
+     * trigram and prefix indexes, the event and deadline indexes, the status and type bitmaps, and the
+     * maps between IDs, slots and positions.
+     * Lower-cased descriptions only count when they differ from the description itself.
+     *
+     * @return the approximate size in bytes
+     */
+    public long estimateIndexBytes() {
+        long bytes = keywordIndex.estimateBytes() + trigramIndex.estimateBytes() + descriptionTrie.estimateBytes()
+                + eventPeriods.estimateBytes() + deadlines.estimateBytes()
+                + doneTasks.estimateBytes() + pendingTasks.estimateBytes()
+                + slotsById.estimateBytes() + usedSlots.estimateBytes() + (long) slotIds.length * Integer.BYTES;
+        for (RoaringBitmap ofType : tasksByType.values()) {
+            bytes += ofType.estimateBytes();
+        }
+        for (int slot = 0; slot < tasks.size(); slot++) {
+            String lowerCaseDescription = lowerCaseDescriptions.get(slot);
+            bytes += Integer.BYTES;
+            if (lowerCaseDescription != null && lowerCaseDescription != tasks.get(slot).getDescription()) {
+                bytes += STRING_OVERHEAD_BYTES + lowerCaseDescription.length();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Appends a task, giving it the next ID if it has none, so that IDs stay unique and increasing
+     * along the list. A task that already has an ID, such as a loaded one, must have an ID later than
+     * every ID given out so far.
+     *
+     * @param task the task to append
+     * @throws IllegalArgumentException if the task has an ID that is not later than every ID given out
+     */
     public void add(Task task) {
         assert task != null : "Task to add should not be null";
-        int initialSize = tasks.size();
-        tasks.add(task);
-        assert tasks.size() == initialSize + 1 : "Task list size should increase by 1 after adding";
-        assert tasks.contains(task) : "Added task should be in the list";
+        int initialSize = size();
+        if (task.getId() == Task.NO_ID) {
+            task.setId(lastId + 1);
+        } else if (task.getId() <= lastId) {
+            throw new IllegalArgumentException("Task ID should be later than every ID given out: #" + task.getId());
+        }
+        putInSlot(tasks.size(), task);
+        assert size() == initialSize + 1 : "Task list size should increase by 1 after adding";
+        if (!changeListeners.isEmpty()) {
+            int[] indices = {initialSize};
+            changeListeners.forEach(listener -> listener.tasksInserted(this, indices));
+        }
     }
 
+    /**
+     * Makes sure tasks added from now on get IDs later than the given one, such as the IDs of tasks
+     * deleted in an earlier session, so that an ID never refers to two tasks.
+     *
+     * @param id the highest ID given out so far
+     */
+    public void skipIdsUpTo(int id) {
+        lastId = Math.max(lastId, id);
+    }
+
+    /**
+     * Puts removed tasks back at the positions they were removed from, keeping their IDs, such as to
+     * undo deleting them. A task goes into a free slot between its neighbours if there is one, in
+     * O(log n) time. Otherwise the slots are rebuilt once with room for all the remaining tasks, in
+     * O(n) time. Copies of the tasks are put back, since snapshots taken before they were removed may
+     * still hold them.
+     *
+     * @param indices the positions of the tasks once they are back, in increasing order
+     * @param tasksToInsert the tasks, whose IDs must lie between those of the tasks around them
+     */
+    public void insertAll(int[] indices, List<Task> tasksToInsert) {
+        assert indices.length == tasksToInsert.size() : "Each task should have a position";
+        int initialSize = size();
+        for (int i = 0; i < indices.length; i++) {
+            int index = indices[i];
+            assert index >= 0 && index <= size() : "Index should be within valid range";
+            int slot = freeSlotBefore(index);
+            if (slot < 0) {
+                openSlots(Arrays.copyOfRange(indices, i, indices.length));
+                slot = freeSlotBefore(index);
+            }
+            Task task = tasksToInsert.get(i).copy();
+            assert index == 0 || slotIds[slotAt(index - 1)] < task.getId() : "IDs should increase along the list";
+            assert index == size() || slotIds[slotAt(index)] > task.getId() : "IDs should increase along the list";
+            putInSlot(slot, task);
+        }
+        assert size() == initialSize + indices.length : "Task list size should increase by the inserted tasks";
+        changeListeners.forEach(listener -> listener.tasksInserted(this, indices));
+    }
+
+    /**
+     * Finds a slot for a task to be put at a position, between the slots of the tasks around it.
+     *
+     * @return a free slot or the next new slot, or -1 if the tasks around the position are in adjacent slots
+     */
+    private int freeSlotBefore(int index) {
+        int previousSlot = index == 0 ? -1 : slotAt(index - 1);
+        int nextSlot = index == size() ? tasks.size() : slotAt(index);
+        if (nextSlot - previousSlot > 1) {
+            return nextSlot - 1;
+        }
+        return index == size() ? tasks.size() : -1;
+    }
+
+    /**
+     * Drops the free slots, then opens free slots at some positions in one pass over the slots.
+     *
+     * @param indices the positions to open, as they are once the slots are open, in increasing order
+     */
+    private void openSlots(int[] indices) {
+        if (freeSlotCount > 0) {
+            compactSlots();
+        }
+        int slotCount = tasks.size() + indices.length;
+        tasks.openEmpty(indices);
+        int[] movedSlotIds = new int[Math.max(INITIAL_CAPACITY, slotCount)];
+        List<String> movedDescriptions = new ArrayList<>(slotCount);
+        int from = 0;
+        int next = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (next < indices.length && indices[next] == slot) {
+                movedDescriptions.add(null);
+                next++;
+                continue;
+            }
+            movedSlotIds[slot] = slotIds[from];
+            movedDescriptions.add(lowerCaseDescriptions.get(from));
+            slotsById.put(slotIds[from], slot);
+            from++;
+        }
+        slotIds = movedSlotIds;
+        lowerCaseDescriptions.clear();
+        lowerCaseDescriptions.addAll(movedDescriptions);
+        usedSlots = new FenwickTree(slotCount);
+        for (int slot : indices) {
+            usedSlots.add(slot, -1);
+        }
+        freeSlotCount = indices.length;
+    }
+
+    /**
+     * Puts a task with an ID in a free slot or the next new slot, and adds it to the indexes.
+     */
+    private void putInSlot(int slot, Task task) {
+        int id = task.getId();
+        lastId = Math.max(lastId, id);
+        String lowerCaseDescription = task.getDescription().toLowerCase();
+        if (slot == tasks.size()) {
+            if (slot == slotIds.length) {
+                slotIds = Arrays.copyOf(slotIds, slot * 2);
+            }
+            usedSlots.append(1);
+            tasks.add(task);
+            lowerCaseDescriptions.add(lowerCaseDescription);
+        } else {
+            assert slotIds[slot] == Task.NO_ID : "Slot should be free";
+            usedSlots.add(slot, 1);
+            freeSlotCount--;
+            tasks.set(slot, task);
+            lowerCaseDescriptions.set(slot, lowerCaseDescription);
+        }
+        slotIds[slot] = id;
+        slotsById.put(id, slot);
+        keywordIndex.add(id, task.getDescription());
+        trigramIndex.add(id, lowerCaseDescription);
+        descriptionTrie.add(task.getDescription());
+        (task.isDone() ? doneTasks : pendingTasks).add(id);
+        tasksByType.computeIfAbsent(task.getType(), key -> new RoaringBitmap()).add(id);
+        if (task instanceof EventTask) {
+            EventTask event = (EventTask) task;
+            eventPeriods.add(id, toSeconds(event.getFrom()), toEndSeconds(event.getFrom(), event.getTo()));
+        } else if (task instanceof DeadlineTask) {
+            deadlines.add(id, ((DeadlineTask) task).getBy());
+        }
+    }
+
+    /**
+     * Removes the task at a position, leaving its slot free until enough slots are free to drop them.
+     *
+     * @param index the zero-based position of the task
+     * @return the removed task
+     */
     public Task remove(int index) {
-        assert index >= 0 && index < tasks.size() : "Index should be within valid range";
-        int initialSize = tasks.size();
-        Task removedTask = tasks.remove(index);
+        assert index >= 0 && index < size() : "Index should be within valid range";
+        int initialSize = size();
+        Task removedTask = removeSlot(slotAt(index), true);
+        compactSlotsIfNeeded();
+        assert size() == initialSize - 1 : "Task list size should decrease by 1 after removal";
+        if (!changeListeners.isEmpty()) {
+            int[] indices = {index};
+            changeListeners.forEach(listener -> listener.tasksRemoved(this, indices));
+        }
+        return removedTask;
+    }
+
+    /**
+     * Removes the tasks at some positions in one pass, dropping their slots in at most one compaction.
+     * When many tasks are removed, they are dropped from the word and trigram indexes in one pass over
+     * each index rather than one description at a time.
+     *
+     * @param indices the zero-based positions of the tasks, in increasing order without repeats
+     * @return the removed tasks, in list order
+     */
+    public List<Task> removeAll(int[] indices) {
+        int initialSize = size();
+        int[] slots = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            assert indices[i] >= 0 && indices[i] < size() : "Index should be within valid range";
+            assert i == 0 || indices[i] > indices[i - 1] : "Indices should be increasing";
+            slots[i] = slotAt(indices[i]);
+        }
+        boolean isBulk = indices.length >= MIN_BULK_REMOVALS && indices.length * 4L > initialSize;
+        // IDs increase along the list, so the IDs of increasing positions are sorted
+        int[] ids = new int[slots.length];
+        List<Task> removedTasks = new ArrayList<>(slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            ids[i] = slotIds[slots[i]];
+            removedTasks.add(removeSlot(slots[i], !isBulk));
+        }
+        if (isBulk) {
+            keywordIndex.removeAll(ids);
+            trigramIndex.removeAll(ids);
+        }
+        compactSlotsIfNeeded();
+        assert size() == initialSize - indices.length : "Task list size should decrease by the removed tasks";
+        changeListeners.forEach(listener -> listener.tasksRemoved(this, indices));
+        return removedTasks;
+    }
+
+    /**
+     * Removes the task in a slot from the indexes and frees the slot.
+     * The word and trigram indexes are left to the caller unless asked for.
+     */
+    private Task removeSlot(int slot, boolean isRemovedFromTextIndexes) {
+        int id = slotIds[slot];
+        Task removedTask = tasks.get(slot);
         assert removedTask != null : "Removed task should not be null";
-        assert tasks.size() == initialSize - 1 : "Task list size should decrease by 1 after removal";
+        String lowerCaseDescription = lowerCaseDescriptions.set(slot, null);
+        if (isRemovedFromTextIndexes) {
+            keywordIndex.remove(id, removedTask.getDescription());
+            trigramIndex.remove(id, lowerCaseDescription);
+        }
+        descriptionTrie.remove(removedTask.getDescription());
+        doneTasks.remove(id);
+        pendingTasks.remove(id);
+        tasksByType.get(removedTask.getType()).remove(id);
+        if (removedTask instanceof EventTask) {
+            eventPeriods.remove(id, toSeconds(((EventTask) removedTask).getFrom()));
+        } else if (removedTask instanceof DeadlineTask) {
+            deadlines.remove(id, ((DeadlineTask) removedTask).getBy());
+        }
+        tasks.clear(slot);
+        slotIds[slot] = Task.NO_ID;
+        slotsById.remove(id);
+        usedSlots.add(slot, -1);
+        freeSlotCount++;
         return removedTask;
     }
 
+    private void compactSlotsIfNeeded() {
+        if (freeSlotCount >= MIN_COMPACTED_SLOTS && freeSlotCount > size()) {
+            compactSlots();
+        }
+    }
+
+    /**
+     * Drops the free slots left by removed tasks in one pass, moving every remaining task once.
+     */
+    private void compactSlots() {
+        int slotCount = tasks.size();
+        int[] freeSlots = new int[freeSlotCount];
+        int freeCount = 0;
+        int kept = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slotIds[slot] == Task.NO_ID) {
+                freeSlots[freeCount++] = slot;
+                continue;
+            }
+            slotIds[kept] = slotIds[slot];
+            lowerCaseDescriptions.set(kept, lowerCaseDescriptions.get(slot));
+            slotsById.put(slotIds[kept], kept);
+            kept++;
+        }
+        tasks.removeAll(freeSlots);
+        lowerCaseDescriptions.subList(kept, slotCount).clear();
+        usedSlots = new FenwickTree(kept);
+        freeSlotCount = 0;
+        assert tasks.size() == kept : "Store should only hold the remaining tasks";
+    }
+
     public Task get(int index) {
-        assert index >= 0 && index < tasks.size() : "Index should be within valid range";
-        Task task = tasks.get(index);
+        assert index >= 0 && index < size() : "Index should be within valid range";
+        Task task = tasks.get(slotAt(index));
         assert task != null : "Retrieved task should not be null";
         return task;
     }
 
     public int size() {
-        int size = tasks.size();
+        int size = tasks.size() - freeSlotCount;
         assert size >= 0 : "Size should never be negative";
         return size;
     }
 
     public List<Task> getAll() {
-        List<Task> copy = new ArrayList<>(tasks);
+        List<Task> copy = new ArrayList<>(size());
+        for (int slot = 0; slot < tasks.size(); slot++) {
+            if (slotIds[slot] != Task.NO_ID) {
+                copy.add(tasks.get(slot));
+            }
+        }
         assert copy != null : "Copy of task list should not be null";
-        assert copy.size() == tasks.size() : "Copy should have same size as original";
+        assert copy.size() == size() : "Copy should have same size as original";
         return copy;
     }
 
+    /**
+     * Returns the tasks as they are now, in a list that later changes to the task list do not affect.
+     * Unlike {@code getAll}, this takes O(1) time with the default store, so the tasks can be saved or
+     * shown while the list keeps changing.
+     *
+     * @return an unmodifiable list of the tasks
+     */
+    public List<Task> snapshot() {
+        List<Task> snapshot = tasks.snapshot();
+        assert snapshot.size() == size() : "Snapshot should have same size as original";
+        return snapshot;
+    }
+
+    /**
+     * Returns a read-only view of the tasks, which follows later changes to the task list. Unlike
+     * {@code snapshot}, no task is built until it is read, so a page of a long list can be shown
+     * from it in O(log n) time per task. Must only be read on the thread changing the list.
+     *
+     * @return an unmodifiable view of the tasks in list order
+     */
+    public List<Task> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return TaskList.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return TaskList.this.size();
+            }
+        };
+    }
+
+    /**
+     * Creates an empty store of the same kind as the one holding the tasks, such as for a copy of the
+     * list. Does not read the tasks, so any thread may call it.
+     *
+     * @param initialCapacity the number of tasks expected
+     * @return the new store
+     */
+    TaskStore createEmptyStore(int initialCapacity) {
+        return tasks.createEmpty(initialCapacity);
+    }
+
     public void markAsDone(int index) {
-        assert index >= 0 && index < tasks.size() : "Index should be within valid range";
-        Task task = tasks.get(index);
-        assert task != null : "Task to mark should not be null";
-        boolean wasNotDone = !task.isDone();
-        task.markAsDone();
-        assert task.isDone() : "Task should be marked as done after calling markAsDone";
+        markAllAsDone(new int[] {index});
     }
 
     public void markAsNotDone(int index) {
-        assert index >= 0 && index < tasks.size() : "Index should be within valid range";
-        Task task = tasks.get(index);
-        assert task != null : "Task to unmark should not be null";
-        boolean wasDone = task.isDone();
-        task.markAsNotDone();
-        assert !task.isDone() : "Task should be marked as not done after calling markAsNotDone";
+        markAllAsNotDone(new int[] {index});
+    }
+
+    /**
+     * Marks the tasks at some positions as done.
+     *
+     * @param indices the zero-based positions of the tasks
+     */
+    public void markAllAsDone(int[] indices) {
+        for (int index : indices) {
+            assert index >= 0 && index < size() : "Index should be within valid range";
+            int slot = slotAt(index);
+            tasks.setDone(slot, true);
+            doneTasks.add(slotIds[slot]);
+            pendingTasks.remove(slotIds[slot]);
+            assert tasks.isDone(slot) : "Task should be marked as done after calling markAsDone";
+        }
+        changeListeners.forEach(listener -> listener.tasksMarked(this, indices, true));
+    }
+
+    /**
+     * Marks the tasks at some positions as not done.
+     *
+     * @param indices the zero-based positions of the tasks
+     */
+    public void markAllAsNotDone(int[] indices) {
+        for (int index : indices) {
+            assert index >= 0 && index < size() : "Index should be within valid range";
+            int slot = slotAt(index);
+            tasks.setDone(slot, false);
+            pendingTasks.add(slotIds[slot]);
+            doneTasks.remove(slotIds[slot]);
+            assert !tasks.isDone(slot) : "Task should be marked as not done after calling markAsNotDone";
+        }
+        changeListeners.forEach(listener -> listener.tasksMarked(this, indices, false));
+    }
+
+    /**
+     * Adds a listener to be told of every later change to the list, on the thread making the change.
+     *
+     * @param listener the listener
+     */
+    public void addChangeListener(TaskChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Returns the IDs of all the tasks in an order, read from the indexes instead of sorting the tasks.
+     * Type and status orders join the bitmaps of each type or status, and date order merges the deadline
+     * index with the events by start time, in O(n) time overall. Ties are broken by ID, as by the
+     * comparator of the order.
+     *
+     * @param order the order
+     * @return the IDs of the tasks, in the order
+     */
+    public int[] idsInOrder(TaskOrder order) {
+        int[] ids = new int[size()];
+        int count = 0;
+        switch (order) {
+        case TYPE:
+            List<Character> types = new ArrayList<>(tasksByType.keySet());
+            types.sort(null);
+            for (char type : types) {
+                count = append(ids, count, tasksByType.get(type).toArray());
+            }
+            break;
+        case STATUS:
+            count = append(ids, count, pendingTasks.toArray());
+            count = append(ids, count, doneTasks.toArray());
+            break;
+        case DATE:
+            count = mergeByDate(ids, deadlines.find(null, null, true, Integer.MAX_VALUE, id -> true),
+                    eventPeriods.findOverlapping(Long.MIN_VALUE, Long.MAX_VALUE));
+            RoaringBitmap undated = new RoaringBitmap();
+            for (Map.Entry<Character, RoaringBitmap> entry : tasksByType.entrySet()) {
+                if (entry.getKey() != DEADLINE_TYPE && entry.getKey() != EVENT_TYPE) {
+                    undated = RoaringBitmap.or(undated, entry.getValue());
+                }
+            }
+            count = append(ids, count, undated.toArray());
+            break;
+        default:
+            throw new AssertionError("Unknown order: " + order);
+        }
+        assert count == ids.length : "Every task should be in the order once";
+        return ids;
+    }
+
+    private static int append(int[] ids, int count, int[] more) {
+        System.arraycopy(more, 0, ids, count, more.length);
+        return count + more.length;
+    }
+
+    /**
+     * Merges the IDs of deadlines and events, each already in date order, by date and then by ID.
+     *
+     * @return the number of IDs written
+     */
+    private int mergeByDate(int[] ids, int[] deadlineIds, int[] eventIds) {
+        Comparator<Task> byDate = TaskOrder.DATE.comparator();
+        int count = 0;
+        int deadlineIndex = 0;
+        int eventIndex = 0;
+        Task nextDeadline = deadlineIds.length == 0 ? null : tasks.get(slotOfId(deadlineIds[0]));
+        Task nextEvent = eventIds.length == 0 ? null : tasks.get(slotOfId(eventIds[0]));
+        while (nextDeadline != null || nextEvent != null) {
+            if (nextEvent == null || nextDeadline != null && byDate.compare(nextDeadline, nextEvent) < 0) {
+                ids[count++] = deadlineIds[deadlineIndex++];
+                nextDeadline = deadlineIndex == deadlineIds.length
+                        ? null : tasks.get(slotOfId(deadlineIds[deadlineIndex]));
+            } else {
+                ids[count++] = eventIds[eventIndex++];
+                nextEvent = eventIndex == eventIds.length ? null : tasks.get(slotOfId(eventIds[eventIndex]));
+            }
+        }
+        return count;
     }
 }
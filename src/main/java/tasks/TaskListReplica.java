@@ -0,0 +1,213 @@
+package tasks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A copy of a task list, with its own indexes, that other threads query while the thread owning the
+ * list keeps changing it.
+ * The owning thread records every change made to the list and publishes them in batches as snapshots,
+ * which takes O(1) time plus the changes of the batch. A query on a snapshot first replays onto the copy
+ * the published changes it has not applied yet, so it sees the tasks as of that snapshot or a later
+ * one, without waiting for the owning thread. Queries take turns on the copy.
+ * Published changes are only kept until the copy has applied them. Once more changes are waiting than
+ * there are tasks, such as while nothing is queried, they are dropped for a snapshot of the tasks, from
+ * which the copy is rebuilt by the next query. The copy is built on the first query.
+ */
+public class TaskListReplica {
+    private static final int MIN_KEPT_CHANGES = 1024;
+
+    // Only used on the thread owning the list
+    private final TaskList source;
+    private final ArrayDeque<ChangeBatch> unapplied = new ArrayDeque<>();
+    private List<Change> recorded = new ArrayList<>();
+    private int recordedCount;
+    private long unappliedCount;
+    private long nextSequence;
+    private TaskListSnapshot latest;
+
+    // Guarded by the query lock, with the applied sequence also read by the owning thread
+    private final Object queryLock = new Object();
+    private TaskList copy;
+    private volatile long appliedSequence = -1;
+
+    /**
+     * Constructs a replica of a task list and publishes its first snapshot.
+     * Must be called on the thread that changes the list.
+     *
+     * @param source the task list to copy
+     */
+    public TaskListReplica(TaskList source) {
+        assert source != null : "Task list should not be null";
+        this.source = source;
+        source.addChangeListener(new ChangeRecorder());
+        publishTasks();
+    }
+
+    /**
+     * Publishes the changes made to the list since the last snapshot.
+     * Must be called on the thread that changes the list.
+     *
+     * @return the snapshot holding every change made so far
+     */
+    public TaskListSnapshot publish() {
+        dropAppliedBatches();
+        if (recorded.isEmpty()) {
+            return latest;
+        }
+        if (unappliedCount + recordedCount > Math.max(MIN_KEPT_CHANGES, source.size())) {
+            return publishTasks();
+        }
+        ChangeBatch batch = new ChangeBatch(nextSequence++, recorded, recordedCount, null, unapplied.peekLast());
+        recorded = new ArrayList<>();
+        recordedCount = 0;
+        unappliedCount += batch.changeCount;
+        unapplied.addLast(batch);
+        latest = new TaskListSnapshot(this, batch);
+        return latest;
+    }
+
+    /**
+     * Publishes a snapshot of the tasks in place of the changes waiting to be applied.
+     */
+    private TaskListSnapshot publishTasks() {
+        ChangeBatch batch = new ChangeBatch(nextSequence++, List.of(), 0, source.snapshot(), null);
+        recorded = new ArrayList<>();
+        recordedCount = 0;
+        unapplied.clear();
+        unappliedCount = 0;
+        unapplied.addLast(batch);
+        latest = new TaskListSnapshot(this, batch);
+        return latest;
+    }
+
+    /**
+     * Forgets the batches the copy has applied, so that they can be collected.
+     */
+    private void dropAppliedBatches() {
+        long applied = appliedSequence;
+        while (!unapplied.isEmpty() && unapplied.peekFirst().sequence <= applied) {
+            unappliedCount -= unapplied.removeFirst().changeCount;
+        }
+        if (!unapplied.isEmpty()) {
+            unapplied.peekFirst().previous = null;
+        }
+    }
+
+    /**
+     * Runs a query on the copy, once it has applied the changes up to a batch.
+     *
+     * @param upTo the last batch the query must see
+     * @param query the query
+     * @param <T> the type of the result of the query
+     * @return the result of the query
+     */
+    <T> T read(ChangeBatch upTo, Function<TaskList, T> query) {
+        synchronized (queryLock) {
+            if (upTo.sequence > appliedSequence) {
+                catchUp(upTo);
+            }
+            return query.apply(copy);
+        }
+    }
+
+    /**
+     * Applies the batches after the last one applied, up to a batch, rebuilding the copy from the
+     * latest snapshot of the tasks among them, if any.
+     */
+    private void catchUp(ChangeBatch upTo) {
+        ArrayDeque<ChangeBatch> batches = new ArrayDeque<>();
+        ChangeBatch batch = upTo;
+        while (true) {
+            batches.addFirst(batch);
+            if (batch.tasks != null || batch.sequence == appliedSequence + 1) {
+                break;
+            }
+            batch = batch.previous;
+            assert batch != null : "Batches after the last one applied should be kept";
+        }
+        for (ChangeBatch next : batches) {
+            if (next.tasks != null) {
+                copy = rebuild(next.tasks);
+            }
+            for (Change change : next.changes) {
+                change.applyTo(copy);
+            }
+        }
+        appliedSequence = upTo.sequence;
+    }
+
+    private TaskList rebuild(List<Task> tasks) {
+        List<Task> copies = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            copies.add(task.copy());
+        }
+        return new TaskList(copies, source.createEmptyStore(copies.size()));
+    }
+
+    /**
+     * A change to the list, replayed onto the copy.
+     */
+    private interface Change {
+        void applyTo(TaskList taskList);
+    }
+
+    /**
+     * The changes published in one snapshot, linked to the batch published before it until the copy
+     * has applied that one. A batch may instead hold all the tasks, with no changes and no link.
+     */
+    static final class ChangeBatch {
+        private final long sequence;
+        private final List<Change> changes;
+        private final int changeCount;
+        private final List<Task> tasks;
+        private volatile ChangeBatch previous;
+
+        ChangeBatch(long sequence, List<Change> changes, int changeCount, List<Task> tasks, ChangeBatch previous) {
+            this.sequence = sequence;
+            this.changes = changes;
+            this.changeCount = changeCount;
+            this.tasks = tasks;
+            this.previous = previous;
+        }
+    }
+
+    /**
+     * Records the changes made to the list, counting one change per task. Added tasks are copied, since
+     * the owning thread may still change them in place.
+     */
+    private class ChangeRecorder implements TaskChangeListener {
+        @Override
+        public void tasksInserted(TaskList taskList, int[] indices) {
+            int[] positions = indices.clone();
+            List<Task> inserted = new ArrayList<>(positions.length);
+            for (int index : positions) {
+                inserted.add(taskList.get(index).copy());
+            }
+            record(target -> target.insertAll(positions, inserted), positions.length);
+        }
+
+        @Override
+        public void tasksRemoved(TaskList taskList, int[] indices) {
+            int[] positions = indices.clone();
+            record(target -> target.removeAll(positions), positions.length);
+        }
+
+        @Override
+        public void tasksMarked(TaskList taskList, int[] indices, boolean isDone) {
+            int[] positions = indices.clone();
+            if (isDone) {
+                record(target -> target.markAllAsDone(positions), positions.length);
+            } else {
+                record(target -> target.markAllAsNotDone(positions), positions.length);
+            }
+        }
+
+        private void record(Change change, int count) {
+            recorded.add(change);
+            recordedCount += count;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package tasks;
+
+import java.util.function.Function;
+
+/**
+ * The tasks of a task list as of one batch of changes, published by a {@code TaskListReplica}.
+ * A snapshot is never changed once made, so any thread may query it without locking, while the thread
+ * owning the list keeps changing it. Queries are answered by the replica, with every index of a task
+ * list, once it has caught up with the snapshot.
+ */
+public final class TaskListSnapshot {
+    private final TaskListReplica replica;
+    private final TaskListReplica.ChangeBatch batch;
+
+    /**
+     * Constructs a snapshot holding the changes up to a batch.
+     *
+     * @param replica the replica answering queries
+     * @param batch the last batch of changes in the snapshot
+     */
+    TaskListSnapshot(TaskListReplica replica, TaskListReplica.ChangeBatch batch) {
+        this.replica = replica;
+        this.batch = batch;
+    }
+
+    /**
+     * Queries the tasks, as of this snapshot or a later one published since, on the calling thread.
+     * The task list given to the query must only be read, and only until the query returns.
+     *
+     * @param query the query
+     * @param <T> the type of the result of the query
+     * @return the result of the query
+     */
+    public <T> T read(Function<TaskList, T> query) {
+        return replica.read(batch, query);
+    }
+
+    /**
+     * Returns the number of tasks.
+     *
+     * @return the number of tasks, as of this snapshot or a later one
+     */
+    public int size() {
+        return read(TaskList::size);
+    }
+}
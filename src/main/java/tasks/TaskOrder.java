@@ -0,0 +1,48 @@
+package tasks;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Orders tasks can be sorted in, each by one key and then by task ID.
+ * A task list gives the whole order from its indexes with {@code TaskList.idsInOrder}, and the
+ * comparator of an order agrees with it, so that a sorted view can be kept up to date one task at a time.
+ */
+public enum TaskOrder {
+    /** By task type letter. */
+    TYPE(Comparator.comparing(Task::getType)),
+    /** Pending tasks before done tasks. */
+    STATUS(Comparator.comparing(Task::isDone)),
+    /** By deadline or event start, with tasks without a date last. */
+    DATE(Comparator.comparing(TaskOrder::dateOf, Comparator.nullsLast(Comparator.naturalOrder())));
+
+    private final Comparator<Task> comparator;
+
+    TaskOrder(Comparator<Task> keyComparator) {
+        this.comparator = keyComparator.thenComparingInt(Task::getId);
+    }
+
+    /**
+     * Returns the comparator of the order, which breaks ties by task ID.
+     *
+     * @return the comparator
+     */
+    public Comparator<Task> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Returns the date a task is sorted by in date order.
+     *
+     * @param task the task
+     * @return the deadline of a deadline, the start of an event, or null for other tasks
+     */
+    public static LocalDateTime dateOf(Task task) {
+        if (task instanceof DeadlineTask) {
+            return ((DeadlineTask) task).getBy();
+        } else if (task instanceof EventTask) {
+            return ((EventTask) task).getFrom();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,102 @@
+package tasks;
+
+import java.util.List;
+
+/**
+ * Holds the tasks of a {@code TaskList} in list order, along with their IDs.
+ * A store may keep the tasks as objects or in another form, in which case {@code get} builds a new
+ * task each time, so the done status of a task must be changed through {@code setDone}.
+ */
+public interface TaskStore {
+    /**
+     * Appends a task.
+     *
+     * @param task the task to append
+     */
+    void add(Task task);
+
+    /**
+     * Removes the task at a position.
+     *
+     * @param index the position of the task
+     * @return the removed task
+     */
+    Task remove(int index);
+
+    /**
+     * Removes the tasks at some positions in a single pass, moving each remaining task only once.
+     *
+     * @param indices the positions of the tasks, in increasing order
+     */
+    void removeAll(int[] indices);
+
+    /**
+     * Empties the position of a removed task without moving later tasks, leaving it to be dropped
+     * by {@code removeAll}. An empty position is skipped by snapshots and must not be read.
+     *
+     * @param index the position of the task
+     */
+    void clear(int index);
+
+    /**
+     * Puts a task back in an empty position.
+     *
+     * @param index the empty position
+     * @param task the task to put there
+     */
+    void set(int index, Task task);
+
+    /**
+     * Moves tasks along to open empty positions in a single pass, moving each task only once.
+     *
+     * @param indices the positions to leave empty, as they are once the tasks have moved, in increasing order
+     */
+    void openEmpty(int[] indices);
+
+    /**
+     * Returns the task at a position.
+     *
+     * @param index the position of the task
+     * @return the task
+     */
+    Task get(int index);
+
+    /**
+     * Checks if the task at a position is done, without building the task.
+     *
+     * @param index the position of the task
+     * @return true if the task is done
+     */
+    boolean isDone(int index);
+
+    /**
+     * Marks the task at a position as done or not done.
+     *
+     * @param index the position of the task
+     * @param isDone whether the task is done
+     */
+    void setDone(int index, boolean isDone);
+
+    /**
+     * Returns the tasks as they are now, as a list that later changes to the store do not affect.
+     *
+     * @return an unmodifiable list of the tasks
+     */
+    List<Task> snapshot();
+
+    /**
+     * Creates an empty store of the same kind, such as for a copy of the task list. Does not read the
+     * tasks, so any thread may call it.
+     *
+     * @param initialCapacity the number of tasks expected
+     * @return the new store
+     */
+    TaskStore createEmpty(int initialCapacity);
+
+    /**
+     * Returns the number of tasks.
+     *
+     * @return the number of tasks
+     */
+    int size();
+}
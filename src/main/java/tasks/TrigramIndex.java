@@ -0,0 +1,115 @@
+package tasks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index from every three-character sequence (trigram) of the lower-cased task descriptions to
+ * the tasks containing it. A description can only contain a text if it contains every trigram
+ * of that text, so intersecting the trigram postings narrows a substring search down to a few
+ * candidates, which are then checked with {@code String.contains}.
+ */
+public class TrigramIndex {
+    /** The shortest text the index can narrow down. */
+    public static final int GRAM_LENGTH = 3;
+
+    // Lookup constants
+    private static final int FEW_CANDIDATES = 64;
+
+    // Memory estimate constants
+    private static final int CHAR_BITS = Character.SIZE;
+    private static final long ENTRY_OVERHEAD_BYTES = 96;
+
+    private final Map<Long, IntPostingList> postings = new HashMap<>();
+
+    /**
+     * Indexes the trigrams of a task description.
+     *
+     * @param sequenceNumber the sequence number of the task
+     * @param lowerCaseDescription the lower-cased task description
+     */
+    public void add(int sequenceNumber, String lowerCaseDescription) {
+        for (int i = 0; i + GRAM_LENGTH <= lowerCaseDescription.length(); i++) {
+            postings.computeIfAbsent(trigramAt(lowerCaseDescription, i), key -> new IntPostingList())
+                    .add(sequenceNumber);
+        }
+    }
+
+    /**
+     * Removes the trigrams of a task description from the index.
+     *
+     * @param sequenceNumber the sequence number of the task
+     * @param lowerCaseDescription the lower-cased task description
+     */
+    public void remove(int sequenceNumber, String lowerCaseDescription) {
+        for (int i = 0; i + GRAM_LENGTH <= lowerCaseDescription.length(); i++) {
+            long trigram = trigramAt(lowerCaseDescription, i);
+            IntPostingList list = postings.get(trigram);
+            if (list != null && list.remove(sequenceNumber) && list.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    /**
+     * Removes many tasks at once, in one pass over the postings instead of one lookup per trigram of
+     * each description, which is cheaper once a large part of the tasks goes.
+     *
+     * @param sortedSequenceNumbers the sorted sequence numbers of the tasks
+     */
+    public void removeAll(int[] sortedSequenceNumbers) {
+        postings.values().removeIf(list -> list.removeAll(sortedSequenceNumbers) > 0 && list.isEmpty());
+    }
+
+    /**
+     * Finds the tasks whose description contains every trigram of the given text.
+     * This is a superset of the tasks containing the text itself, and exactly those tasks
+     * if the text is a single trigram.
+     *
+     * @param lowerCaseText lower-cased text of at least {@code GRAM_LENGTH} characters
+     * @return the sorted sequence numbers of the candidate tasks
+     */
+    public int[] findCandidates(String lowerCaseText) {
+        assert lowerCaseText.length() >= GRAM_LENGTH : "Text should be at least one trigram long";
+        List<IntPostingList> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM_LENGTH <= lowerCaseText.length(); i++) {
+            IntPostingList list = postings.get(trigramAt(lowerCaseText, i));
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+
+        // Intersect from the rarest trigram, and stop once checking the candidates is cheaper
+        lists.sort(Comparator.comparingInt(IntPostingList::size));
+        int[] candidates = lists.get(0).toArray();
+        int count = candidates.length;
+        for (int i = 1; i < lists.size() && count > FEW_CANDIDATES; i++) {
+            count = lists.get(i).retainIn(candidates, count);
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Estimates the heap memory held by the index, including the hash map entries and boxed keys.
+     *
+     * @return the approximate size in bytes
+     */
+    public long estimateBytes() {
+        long bytes = 0;
+        for (IntPostingList list : postings.values()) {
+            bytes += ENTRY_OVERHEAD_BYTES + list.estimateBytes();
+        }
+        return bytes;
+    }
+
+    private static long trigramAt(String text, int start) {
+        return ((long) text.charAt(start) << (2 * CHAR_BITS))
+                | ((long) text.charAt(start + 1) << CHAR_BITS)
+                | text.charAt(start + 2);
+    }
+}
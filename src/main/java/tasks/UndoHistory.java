@@ -0,0 +1,269 @@
+package tasks;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Undo and redo history of the changes made to a task list by commands.
+ * Each change is kept as the change that reverses it, such as the ID of an added task or the removed
+ * tasks with their positions, instead of a copy of the list, so undoing takes time in proportion to
+ * the number of tasks changed. Tasks are found by their IDs, which do not change as other tasks come
+ * and go. The heap held by each change is estimated, and the oldest changes are dropped once the
+ * history holds more than its budget.
+ */
+public class UndoHistory {
+    /** Default budget for the heap held by the history. */
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private static final long CHANGE_OVERHEAD_BYTES = 48;
+    private static final long TASK_OVERHEAD_BYTES = 128;
+
+    private final Deque<Change> undoChanges = new ArrayDeque<>();
+    private final Deque<Change> redoChanges = new ArrayDeque<>();
+    private final long maxBytes;
+    private long bytes;
+
+    /**
+     * Constructs an empty history.
+     *
+     * @param maxBytes the most heap the history may hold, in bytes
+     */
+    public UndoHistory(long maxBytes) {
+        assert maxBytes >= 0 : "Budget should not be negative";
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Records that a task was added, so that undoing removes it again.
+     *
+     * @param task the added task, with its ID
+     */
+    public void recordAdd(Task task) {
+        assert task.getId() != Task.NO_ID : "Added task should have an ID";
+        push(new Removal(new int[] {task.getId()}));
+    }
+
+    /**
+     * Records the status of tasks about to be marked or unmarked, so that undoing restores it.
+     * Must be called before the tasks are changed.
+     *
+     * @param taskList the task list holding the tasks
+     * @param indices the positions of the tasks, in increasing order
+     */
+    public void recordStatus(TaskList taskList, int[] indices) {
+        int[] ids = new int[indices.length];
+        BitSet wereDone = new BitSet(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            Task task = taskList.get(indices[i]);
+            ids[i] = task.getId();
+            wereDone.set(i, task.isDone());
+        }
+        push(new StatusChange(ids, wereDone));
+    }
+
+    /**
+     * Records that tasks were removed, so that undoing puts them back where they were.
+     *
+     * @param indices the positions the tasks were removed from, in increasing order
+     * @param removedTasks the removed tasks, in list order
+     */
+    public void recordRemove(int[] indices, List<Task> removedTasks) {
+        push(new Insertion(indices, removedTasks));
+    }
+
+    /**
+     * Reverses the latest change that has not been undone.
+     *
+     * @param taskList the task list the change was made to
+     * @param listener the listener told of the changes made to the list
+     * @return false if there was nothing to undo
+     */
+    public boolean undo(TaskList taskList, TaskChangeListener listener) {
+        return move(undoChanges, redoChanges, taskList, listener);
+    }
+
+    /**
+     * Makes the latest undone change again, unless another change was recorded since it was undone.
+     *
+     * @param taskList the task list the change was made to
+     * @param listener the listener told of the changes made to the list
+     * @return false if there was nothing to redo
+     */
+    public boolean redo(TaskList taskList, TaskChangeListener listener) {
+        return move(redoChanges, undoChanges, taskList, listener);
+    }
+
+    /**
+     * Returns the estimated heap held by the history.
+     *
+     * @return the approximate size in bytes
+     */
+    public long estimateBytes() {
+        return bytes;
+    }
+
+    private void push(Change change) {
+        for (Change redoChange : redoChanges) {
+            bytes -= redoChange.estimateBytes();
+        }
+        redoChanges.clear();
+        undoChanges.push(change);
+        bytes += change.estimateBytes();
+        evictOldest();
+    }
+
+    private boolean move(Deque<Change> from, Deque<Change> to, TaskList taskList, TaskChangeListener listener) {
+        if (from.isEmpty()) {
+            return false;
+        }
+        Change change = from.pop();
+        bytes -= change.estimateBytes();
+        Change inverse = change.apply(taskList, listener);
+        to.push(inverse);
+        bytes += inverse.estimateBytes();
+        evictOldest();
+        return true;
+    }
+
+    /**
+     * Drops the oldest changes until the history fits its budget, starting with those to undo.
+     */
+    private void evictOldest() {
+        while (bytes > maxBytes && !(undoChanges.isEmpty() && redoChanges.isEmpty())) {
+            Change oldest = undoChanges.isEmpty() ? redoChanges.removeLast() : undoChanges.removeLast();
+            bytes -= oldest.estimateBytes();
+        }
+    }
+
+    private static int[] indicesOfIds(TaskList taskList, int[] ids) {
+        int[] indices = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            indices[i] = taskList.indexOfId(ids[i]);
+            assert indices[i] >= 0 : "Task in the history should be in the list";
+        }
+        return indices;
+    }
+
+    /**
+     * A change to a task list, which can be applied to give the change reversing it.
+     * The IDs of the tasks a change holds are in increasing order, so their positions are too.
+     */
+    private abstract static class Change {
+        abstract Change apply(TaskList taskList, TaskChangeListener listener);
+
+        abstract long estimateBytes();
+    }
+
+    /**
+     * Removes tasks by their IDs.
+     */
+    private static class Removal extends Change {
+        private final int[] ids;
+
+        Removal(int[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        Change apply(TaskList taskList, TaskChangeListener listener) {
+            int[] indices = indicesOfIds(taskList, ids);
+            List<Task> removedTasks = taskList.removeAll(indices);
+            listener.tasksRemoved(taskList, indices);
+            return new Insertion(indices, removedTasks);
+        }
+
+        @Override
+        long estimateBytes() {
+            return CHANGE_OVERHEAD_BYTES + (long) ids.length * Integer.BYTES;
+        }
+    }
+
+    /**
+     * Puts removed tasks back at their positions.
+     */
+    private static class Insertion extends Change {
+        private final int[] indices;
+        private final List<Task> tasks;
+        private final long taskBytes;
+
+        Insertion(int[] indices, List<Task> tasks) {
+            this.indices = indices;
+            this.tasks = tasks;
+            long descriptionBytes = 0;
+            for (Task task : tasks) {
+                descriptionBytes += task.getDescription().length();
+            }
+            this.taskBytes = tasks.size() * TASK_OVERHEAD_BYTES + descriptionBytes;
+        }
+
+        @Override
+        Change apply(TaskList taskList, TaskChangeListener listener) {
+            taskList.insertAll(indices, tasks);
+            listener.tasksInserted(taskList, indices);
+            int[] ids = new int[tasks.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = tasks.get(i).getId();
+            }
+            return new Removal(ids);
+        }
+
+        @Override
+        long estimateBytes() {
+            return CHANGE_OVERHEAD_BYTES + (long) indices.length * (Integer.BYTES + Long.BYTES) + taskBytes;
+        }
+    }
+
+    /**
+     * Sets the done status of tasks found by their IDs.
+     */
+    private static class StatusChange extends Change {
+        private final int[] ids;
+        private final BitSet areDone;
+
+        StatusChange(int[] ids, BitSet areDone) {
+            this.ids = ids;
+            this.areDone = areDone;
+        }
+
+        @Override
+        Change apply(TaskList taskList, TaskChangeListener listener) {
+            int[] indices = indicesOfIds(taskList, ids);
+            BitSet wereDone = new BitSet(ids.length);
+            int[] toMark = new int[indices.length];
+            int[] toUnmark = new int[indices.length];
+            int markCount = 0;
+            int unmarkCount = 0;
+            for (int i = 0; i < indices.length; i++) {
+                wereDone.set(i, taskList.get(indices[i]).isDone());
+                if (areDone.get(i)) {
+                    toMark[markCount++] = indices[i];
+                } else {
+                    toUnmark[unmarkCount++] = indices[i];
+                }
+            }
+            setStatus(taskList, listener, Arrays.copyOf(toMark, markCount), true);
+            setStatus(taskList, listener, Arrays.copyOf(toUnmark, unmarkCount), false);
+            return new StatusChange(ids, wereDone);
+        }
+
+        private static void setStatus(TaskList taskList, TaskChangeListener listener, int[] indices, boolean isDone) {
+            if (indices.length == 0) {
+                return;
+            }
+            if (isDone) {
+                taskList.markAllAsDone(indices);
+            } else {
+                taskList.markAllAsNotDone(indices);
+            }
+            listener.tasksMarked(taskList, indices, isDone);
+        }
+
+        @Override
+        long estimateBytes() {
+            return CHANGE_OVERHEAD_BYTES + (long) ids.length * Integer.BYTES + areDone.size() / Byte.SIZE;
+        }
+    }
+}
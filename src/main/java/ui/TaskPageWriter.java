@@ -0,0 +1,108 @@
+package ui;
+
+import java.io.IOException;
+import java.util.List;
+
+import tasks.Task;
+import tasks.TaskList;
+
+/**
+ * Writes one page of tasks to a sink line by line, without building the whole list as one string.
+ * Only the tasks on the page are read and formatted, so the time and memory taken depend on the page
+ * size rather than on the size of the list.
+ */
+public class TaskPageWriter {
+    /** Number of tasks on a page when no size is given. */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    /** Largest number of tasks a page may hold. */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final int page;
+    private final int pageSize;
+
+    /**
+     * Constructs a writer for a page of tasks.
+     *
+     * @param page the one-based number of the page
+     * @param pageSize the number of tasks on each page
+     */
+    public TaskPageWriter(int page, int pageSize) {
+        assert page >= 1 : "Page should be positive";
+        assert pageSize >= 1 && pageSize <= MAX_PAGE_SIZE : "Page size should be within valid range";
+        this.page = page;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Returns the one-based number of the page written.
+     *
+     * @return the page number
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * Returns the number of pages needed for a number of tasks.
+     *
+     * @param total the number of tasks
+     * @return the number of pages, at least one
+     */
+    public int pageCount(int total) {
+        return Math.max(1, (total + pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Writes the page of a list of tasks, numbered by their positions in the list.
+     *
+     * @param sink the sink to write the lines to
+     * @param tasks all the tasks
+     * @throws IOException if the sink fails
+     */
+    public void writeTasks(Appendable sink, List<Task> tasks) throws IOException {
+        int start = start(tasks.size());
+        int end = end(tasks.size());
+        for (int i = start; i < end; i++) {
+            sink.append(Ui.formatListEntry(i + 1, tasks.get(i))).append('\n');
+        }
+        writeFooter(sink, start, end, tasks.size());
+    }
+
+    /**
+     * Writes the page of the tasks passing a filter, numbered by their positions in the whole list.
+     *
+     * @param sink the sink to write the lines to
+     * @param taskList the task list
+     * @param indices the positions of all the tasks passing the filter
+     * @throws IOException if the sink fails
+     */
+    public void writeFiltered(Appendable sink, TaskList taskList, int[] indices) throws IOException {
+        int start = start(indices.length);
+        int end = end(indices.length);
+        for (int i = start; i < end; i++) {
+            sink.append(Ui.formatListEntry(indices[i] + 1, taskList.get(indices[i]))).append('\n');
+        }
+        writeFooter(sink, start, end, indices.length);
+    }
+
+    private int start(int total) {
+        return (int) Math.min(total, (long) (page - 1) * pageSize);
+    }
+
+    private int end(int total) {
+        return Math.min(total, start(total) + pageSize);
+    }
+
+    /**
+     * Writes which tasks were shown and how to see the rest, when they did not all fit on the page.
+     */
+    private void writeFooter(Appendable sink, int start, int end, int total) throws IOException {
+        if (pageCount(total) == 1) {
+            return;
+        }
+        sink.append("Showing ").append(String.valueOf(start + 1)).append('-').append(String.valueOf(end))
+                .append(" of ").append(String.valueOf(total)).append(" (page ").append(String.valueOf(page))
+                .append(" of ").append(String.valueOf(pageCount(total)))
+                .append("). Add /page <number> to see another page.\n");
+    }
+}
@@ -1,14 +1,22 @@
 package ui;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Scanner;
 
 import tasks.Task;
+import tasks.TaskList;
 
 /**
  * Handles user interface interactions including input/output operations.
  */
 public class Ui {
+    private static final int MAX_LISTED_CHANGED_TASKS = 10;
+
     private final Scanner scanner = new Scanner(System.in);
 
     /**
@@ -73,18 +81,74 @@ public class Ui {
     }
 
     /**
-     * Displays the list of tasks.
-     * @param tasks the list of tasks to display
+     * Displays a page of the list of tasks, streamed through a buffer instead of printed line by line.
+     * @param tasks the list of tasks
+     * @param pageWriter the writer of the page to display
      */
-    public void showTaskList(List<Task> tasks) {
+    public void showTaskList(List<Task> tasks, TaskPageWriter pageWriter) {
         showLine();
         System.out.println("Here are the tasks in your list:");
-        for (int i = 0; i < tasks.size(); i++) {
-            System.out.println((i + 1) + "." + tasks.get(i));
+        writePage(sink -> pageWriter.writeTasks(sink, tasks));
+        showLine();
+    }
+
+    /**
+     * Formats a numbered line of a task list, followed by the ID of the task if it has one.
+     * @param number the one-based number of the line
+     * @param task the task
+     * @return the formatted line
+     */
+    public static String formatListEntry(int number, Task task) {
+        String entry = number + "." + task;
+        return task.getId() == Task.NO_ID ? entry : entry + " (#" + task.getId() + ")";
+    }
+
+    /**
+     * Displays the tasks passing a filter, numbered by their positions in the whole list.
+     * @param taskList the task list
+     * @param indices the positions of the tasks to display
+     */
+    public void showFilteredTasks(TaskList taskList, int[] indices) {
+        showFilteredTasks(taskList, indices, new TaskPageWriter(1, TaskPageWriter.DEFAULT_PAGE_SIZE));
+    }
+
+    /**
+     * Displays a page of the tasks passing a filter, numbered by their positions in the whole list.
+     * @param taskList the task list
+     * @param indices the positions of all the tasks passing the filter
+     * @param pageWriter the writer of the page to display
+     */
+    public void showFilteredTasks(TaskList taskList, int[] indices, TaskPageWriter pageWriter) {
+        showLine();
+        if (indices.length == 0) {
+            System.out.println("No tasks match that filter!");
+        } else {
+            System.out.println("Here are the matching tasks in your list:");
+            writePage(sink -> pageWriter.writeFiltered(sink, taskList, indices));
         }
         showLine();
     }
 
+    /**
+     * Writes a page to standard output through one buffer, flushed once the page is written.
+     */
+    private void writePage(PageWrite write) {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()));
+        try {
+            write.writeTo(out);
+            out.flush();
+        } catch (IOException e) {
+            System.out.println(" OOPS!!! Could not show the list: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a page of tasks to a sink.
+     */
+    private interface PageWrite {
+        void writeTo(Appendable sink) throws IOException;
+    }
+
     /**
      * Displays the found tasks from a search.
      * @param foundTasks the list of found tasks to display
@@ -93,7 +157,55 @@ public class Ui {
         showLine();
         System.out.println("Here are the matching tasks in your list:");
         for (int i = 0; i < foundTasks.size(); i++) {
-            System.out.println((i + 1) + "." + foundTasks.get(i));
+            System.out.println(formatListEntry(i + 1, foundTasks.get(i)));
+        }
+        showLine();
+    }
+
+    /**
+     * Displays the events overlapping a period.
+     * @param events the overlapping events, by start time
+     */
+    public void showEventsDuring(List<Task> events) {
+        showLine();
+        if (events.isEmpty()) {
+            System.out.println("No events in that period!");
+        } else {
+            System.out.println("Here are the events in that period:");
+            for (int i = 0; i < events.size(); i++) {
+                System.out.println(formatListEntry(i + 1, events.get(i)));
+            }
+        }
+        showLine();
+    }
+
+    /**
+     * Displays the deadlines found by a due-date query.
+     * @param heading the line introducing the deadlines
+     * @param deadlines the deadline tasks, by deadline
+     */
+    public void showDeadlines(String heading, List<Task> deadlines) {
+        showLine();
+        if (deadlines.isEmpty()) {
+            System.out.println("No matching deadlines!");
+        } else {
+            System.out.println(heading);
+            for (int i = 0; i < deadlines.size(); i++) {
+                System.out.println(formatListEntry(i + 1, deadlines.get(i)));
+            }
+        }
+        showLine();
+    }
+
+    /**
+     * Displays a warning that a new event overlaps existing ones.
+     * @param conflicts the existing events overlapping the new one
+     */
+    public void showEventConflicts(List<Task> conflicts) {
+        showLine();
+        System.out.println("Heads up! This event overlaps with:");
+        for (Task conflict : conflicts) {
+            System.out.println("  " + conflict);
         }
         showLine();
     }
@@ -146,6 +258,83 @@ public class Ui {
         showLine();
     }
 
+    /**
+     * Displays a confirmation message when several tasks are marked at once.
+     * @param tasks the tasks that were marked
+     */
+    public void showTasksMarked(List<Task> tasks) {
+        showLine();
+        System.out.println(formatChangedTasks("Nice! I've marked these " + tasks.size() + " tasks as done:", tasks));
+        showLine();
+    }
+
+    /**
+     * Displays a confirmation message when several tasks are unmarked at once.
+     * @param tasks the tasks that were unmarked
+     */
+    public void showTasksUnmarked(List<Task> tasks) {
+        showLine();
+        System.out.println(formatChangedTasks("OK, I've marked these " + tasks.size() + " tasks as not done yet:",
+                tasks));
+        showLine();
+    }
+
+    /**
+     * Displays a confirmation message when several tasks are deleted at once.
+     * @param tasks the tasks that were deleted
+     * @param remainingTasks the number of tasks remaining in the list
+     */
+    public void showTasksDeleted(List<Task> tasks, int remainingTasks) {
+        showLine();
+        System.out.println(formatChangedTasks("Noted. I've removed these " + tasks.size() + " tasks:", tasks));
+        System.out.println("Now you have " + remainingTasks + " tasks in the list.");
+        showLine();
+    }
+
+    /**
+     * Formats a heading followed by the first few tasks changed by a command, so that changing
+     * thousands of tasks at once does not print every one of them.
+     * @param heading the heading
+     * @param tasks the changed tasks
+     * @return the formatted text
+     */
+    public static String formatChangedTasks(String heading, List<Task> tasks) {
+        StringBuilder text = new StringBuilder(heading);
+        int listed = Math.min(tasks.size(), MAX_LISTED_CHANGED_TASKS);
+        for (int i = 0; i < listed; i++) {
+            text.append("\n    ").append(tasks.get(i));
+        }
+        if (tasks.size() > listed) {
+            text.append("\n    ...and ").append(tasks.size() - listed).append(" more");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Displays the changes made to the list by undoing or redoing.
+     * @param heading the heading saying what was done
+     * @param changes descriptions of the changes
+     */
+    public void showHistoryChange(String heading, List<String> changes) {
+        showLine();
+        System.out.println(formatHistoryChange(heading, changes));
+        showLine();
+    }
+
+    /**
+     * Formats the changes made to the list by undoing or redoing.
+     * @param heading the heading saying what was done
+     * @param changes descriptions of the changes
+     * @return the formatted text
+     */
+    public static String formatHistoryChange(String heading, List<String> changes) {
+        StringBuilder text = new StringBuilder(heading);
+        for (String change : changes) {
+            text.append("\n    ").append(change);
+        }
+        return text.toString();
+    }
+
     /**
      * Displays the help information showing available commands.
      */
@@ -153,17 +342,25 @@ public class Ui {
         showLine();
         System.out.println("Here are the available commands:");
         System.out.println("1. list - Shows the list of tasks.");
+        System.out.println("   list /done, /pending, /type <T|D|E> - Shows only the tasks passing the filters.");
+        System.out.println("   list /page <number> /size <number> - Shows one page of the list, 50 tasks by default.");
         System.out.println("2. find <keyword> - Finds tasks matching the keyword.");
+        System.out.println("   fuzzy <words> [/max <distance>] or find ~<words> - Finds tasks despite typos.");
         System.out.println("3. todo <description> - Adds a todo task.");
         System.out.println("4. deadline <description> /by <time> - Adds a deadline task.");
         System.out.println("   Time format: YYYY-MM-DD HHMM (e.g., 2025-12-25 1400)");
+        System.out.println("   due <date>, overdue, upcoming <count> - Shows the deadlines not done yet.");
         System.out.println("5. event <description> /from <start> /to <end> - Adds an event task.");
         System.out.println("   Time format: YYYY-MM-DD HHMM (e.g., 2025-12-25 1400)");
+        System.out.println("   during <start> /to <end> - Shows the events overlapping a period.");
         System.out.println("6. mark <task number> - Marks a task as done.");
         System.out.println("7. unmark <task number> - Marks a task as not done.");
         System.out.println("8. delete <task number> - Deletes a task from the list.");
-        System.out.println("9. help - Shows this help message.");
-        System.out.println("10. bye - Exits the program.");
+        System.out.println("   Tasks can also be given by their ID, such as #12, shown after them in lists.");
+        System.out.println("   Several tasks can be given at once, such as 1-50,72 or the filters of list.");
+        System.out.println("9. undo - Undoes the last change to the list, and redo makes it again.");
+        System.out.println("10. help - Shows this help message.");
+        System.out.println("11. bye - Exits the program.");
         showLine();
     }
 }
@@ -0,0 +1,280 @@
+package storage;
+
+import exceptions.FengWeiException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tasks.DeadlineTask;
+import tasks.EventTask;
+import tasks.Task;
+import tasks.TodoTask;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test class for BinaryTaskFormat functionality.
+ * Tests that tasks written to a binary task file are read back the same through the memory-mapped
+ * buffer, that files of older versions still load, and that damaged files are rejected or cut short.
+ */
+public class BinaryTaskFormatTest {
+    private static final int MAGIC = 0x46575442;
+
+    @TempDir
+    Path directory;
+
+    private static List<Task> createTasks() throws FengWeiException {
+        TodoTask todo = new TodoTask("Buy milk");
+        todo.setId(1);
+        DeadlineTask deadline = new DeadlineTask("Submit report", LocalDateTime.of(2025, 10, 15, 23, 59));
+        deadline.setId(2);
+        deadline.markAsDone();
+        EventTask event = new EventTask("Team meeting", LocalDateTime.of(2025, 10, 16, 14, 0),
+                LocalDateTime.of(2025, 10, 16, 16, 0));
+        event.setId(300);
+        char[] longDescription = new char[1000];
+        Arrays.fill(longDescription, '\u00e9');
+        TodoTask longTodo = new TodoTask(new String(longDescription));
+        longTodo.setId(301);
+        return List.of(todo, deadline, event, new UnparsedTaskLine("X | 0 | kept as is"), longTodo);
+    }
+
+    private static List<String> formatLines(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(TextTaskFormat.formatLine(task));
+        }
+        return lines;
+    }
+
+    /**
+     * Writes by hand a file header without the last task ID, laid out as before the third version.
+     */
+    private static DataOutputStream writeHeader(ByteArrayOutputStream bytes, int version, int count)
+            throws IOException {
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(version);
+        out.writeLong(4);
+        out.writeInt(count);
+        return out;
+    }
+
+    /**
+     * Tests that every kind of task, including an unparsed line and a description longer than the
+     * read buffer, is read back with the same fields, ID and header.
+     *
+     * @throws Exception if task creation fails or the file cannot be written
+     */
+    @Test
+    public void write_thenRead_roundTrip() throws Exception {
+        Path path = directory.resolve("Tasks.bin");
+        List<Task> tasks = createTasks();
+        BinaryTaskFormat.write(path, tasks, new TaskFileHeader(7, 301));
+
+        List<Task> read = new ArrayList<>();
+        TaskFileHeader header = BinaryTaskFormat.read(path, read);
+
+        Assertions.assertEquals(7, header.getCheckpoint());
+        Assertions.assertEquals(301, header.getLastId());
+        Assertions.assertEquals(formatLines(tasks), formatLines(read));
+        Assertions.assertTrue(read.get(3) instanceof UnparsedTaskLine);
+        Assertions.assertEquals(300, read.get(2).getId());
+    }
+
+    /**
+     * Tests that many tasks survive a round trip through the memory-mapped buffer.
+     *
+     * @throws Exception if task creation fails or the file cannot be written
+     */
+    @Test
+    public void write_thenRead_manyTasks() throws Exception {
+        Path path = directory.resolve("Tasks.bin");
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= 20_000; i++) {
+            TodoTask task = new TodoTask("task " + i);
+            task.setId(i);
+            tasks.add(task);
+        }
+        BinaryTaskFormat.write(path, tasks, new TaskFileHeader(TextTaskFormat.NO_CHECKPOINT, 20_000));
+
+        List<Task> read = new ArrayList<>();
+        BinaryTaskFormat.read(path, read);
+
+        Assertions.assertEquals(formatLines(tasks), formatLines(read));
+    }
+
+    /**
+     * Tests that an empty file reads as no tasks with an empty header.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    public void read_emptyFile_returnsEmptyHeader() throws IOException {
+        Path path = Files.createFile(directory.resolve("Tasks.bin"));
+        List<Task> read = new ArrayList<>();
+
+        TaskFileHeader header = BinaryTaskFormat.read(path, read);
+
+        Assertions.assertEquals(TextTaskFormat.NO_CHECKPOINT, header.getCheckpoint());
+        Assertions.assertEquals(Task.NO_ID, header.getLastId());
+        Assertions.assertTrue(read.isEmpty());
+    }
+
+    /**
+     * Tests that files which are not binary task files, are of an unknown version or have a cut
+     * short header are rejected.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    public void read_badHeader_throwsException() throws IOException {
+        Path text = directory.resolve("Tasks.txt");
+        Files.write(text, List.of("T | 0 | Buy milk | #1"), StandardCharsets.UTF_8);
+        Assertions.assertThrows(IOException.class, () -> BinaryTaskFormat.read(text, new ArrayList<>()));
+
+        ByteArrayOutputStream newer = new ByteArrayOutputStream();
+        writeHeader(newer, 9, 0).writeInt(0);
+        Path newerPath = Files.write(directory.resolve("Newer.bin"), newer.toByteArray());
+        IOException error = Assertions.assertThrows(IOException.class,
+                () -> BinaryTaskFormat.read(newerPath, new ArrayList<>()));
+        Assertions.assertTrue(error.getMessage().contains("version"));
+
+        byte[] truncated = Arrays.copyOf(newer.toByteArray(), 8);
+        Path truncatedPath = Files.write(directory.resolve("Truncated.bin"), truncated);
+        Assertions.assertThrows(IOException.class, () -> BinaryTaskFormat.read(truncatedPath, new ArrayList<>()));
+    }
+
+    /**
+     * Tests that reading stops at a record cut short, keeping the tasks before it.
+     *
+     * @throws Exception if task creation fails or the file cannot be written
+     */
+    @Test
+    public void read_truncatedRecord_keepsEarlierTasks() throws Exception {
+        Path path = directory.resolve("Tasks.bin");
+        List<Task> tasks = createTasks();
+        BinaryTaskFormat.write(path, tasks, new TaskFileHeader(7, 301));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 10));
+
+        List<Task> read = new ArrayList<>();
+        TaskFileHeader header = BinaryTaskFormat.read(path, read);
+
+        Assertions.assertEquals(7, header.getCheckpoint());
+        Assertions.assertEquals(formatLines(tasks.subList(0, 4)), formatLines(read));
+    }
+
+    /**
+     * Tests that files of the versions without task IDs or without the last task ID still load.
+     *
+     * @throws IOException if a file cannot be written or read
+     */
+    @Test
+    public void read_olderVersions_loaded() throws IOException {
+        ByteArrayOutputStream withoutIds = new ByteArrayOutputStream();
+        DataOutputStream out = writeHeader(withoutIds, 1, 1);
+        out.writeByte('T');
+        out.writeByte(1);
+        out.writeByte(3);
+        out.write("old".getBytes(StandardCharsets.UTF_8));
+        Path withoutIdsPath = Files.write(directory.resolve("V1.bin"), withoutIds.toByteArray());
+
+        ByteArrayOutputStream withoutLastId = new ByteArrayOutputStream();
+        out = writeHeader(withoutLastId, 2, 1);
+        out.writeByte('T');
+        out.writeByte(0);
+        out.writeByte(5);
+        out.writeByte(3);
+        out.write("new".getBytes(StandardCharsets.UTF_8));
+        Path withoutLastIdPath = Files.write(directory.resolve("V2.bin"), withoutLastId.toByteArray());
+
+        List<Task> read = new ArrayList<>();
+        TaskFileHeader header = BinaryTaskFormat.read(withoutIdsPath, read);
+        Assertions.assertEquals(4, header.getCheckpoint());
+        Assertions.assertEquals(Task.NO_ID, header.getLastId());
+        Assertions.assertEquals(List.of("T | 1 | old"), formatLines(read));
+
+        read.clear();
+        header = BinaryTaskFormat.read(withoutLastIdPath, read);
+        Assertions.assertEquals(Task.NO_ID, header.getLastId());
+        Assertions.assertEquals(List.of("T | 0 | new | #5"), formatLines(read));
+    }
+
+    /**
+     * Tests that a task of a type without a record layout is written as an unparsed line, keeping the
+     * tasks after it.
+     *
+     * @throws Exception if task creation fails or the file cannot be written
+     */
+    @Test
+    public void write_unknownTaskType_keptAsUnparsedLine() throws Exception {
+        Path path = directory.resolve("Tasks.bin");
+        TodoTask first = new TodoTask("first");
+        first.setId(1);
+        Task unknown = new Task("blah", ' ');
+        unknown.setId(2);
+        TodoTask last = new TodoTask("last");
+        last.setId(3);
+        BinaryTaskFormat.write(path, List.of(first, unknown, last), new TaskFileHeader(1, 3));
+
+        List<Task> read = new ArrayList<>();
+        BinaryTaskFormat.read(path, read);
+
+        Assertions.assertEquals(List.of("T | 0 | first | #1", "  | 0 | blah | #2", "T | 0 | last | #3"),
+                formatLines(read));
+        Assertions.assertTrue(read.get(1) instanceof UnparsedTaskLine);
+    }
+
+    /**
+     * Tests that a complete record of an unknown type is skipped while the records after it are read.
+     *
+     * @throws IOException if the file cannot be written or read
+     */
+    @Test
+    public void read_unknownRecordType_skipsOnlyThatRecord() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = writeHeader(bytes, 2, 2);
+        out.writeByte(' ');
+        out.writeByte(0);
+        out.writeByte(1);
+        out.writeByte(4);
+        out.write("blah".getBytes(StandardCharsets.UTF_8));
+        out.writeByte('T');
+        out.writeByte(0);
+        out.writeByte(2);
+        out.writeByte(4);
+        out.write("kept".getBytes(StandardCharsets.UTF_8));
+        Path path = Files.write(directory.resolve("Tasks.bin"), bytes.toByteArray());
+
+        List<Task> read = new ArrayList<>();
+        BinaryTaskFormat.read(path, read);
+
+        Assertions.assertEquals(List.of("T | 0 | kept | #2"), formatLines(read));
+    }
+
+    /**
+     * Tests that binary task files are told apart from text files and files too short to tell.
+     *
+     * @throws Exception if task creation fails or a file cannot be written
+     */
+    @Test
+    public void isBinaryFile_checksMagicNumber() throws Exception {
+        Path binary = directory.resolve("Tasks.bin");
+        BinaryTaskFormat.write(binary, createTasks(), TaskFileHeader.NONE);
+        Path text = Files.write(directory.resolve("Tasks.txt"), List.of("T | 0 | Buy milk"), StandardCharsets.UTF_8);
+        Path tiny = Files.write(directory.resolve("Tiny.bin"), new byte[] {0x46});
+
+        Assertions.assertTrue(BinaryTaskFormat.isBinaryFile(binary));
+        Assertions.assertFalse(BinaryTaskFormat.isBinaryFile(text));
+        Assertions.assertFalse(BinaryTaskFormat.isBinaryFile(tiny));
+    }
+}
@@ -0,0 +1,264 @@
+package storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Test class for FileSyncer functionality.
+ * Tests how often each durability policy forces written data to the device, counting the forces
+ * made on a file channel.
+ */
+public class FileSyncerTest {
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private CountingChannel openChannel(String fileName) throws IOException {
+        return new CountingChannel(FileChannel.open(directory.resolve(fileName), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Tests that every write is forced under the always policy.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    @Test
+    public void always_forcesEveryWrite() throws IOException {
+        FileSyncer syncer = new FileSyncer(DurabilityPolicy.ALWAYS, 60_000, scheduler);
+        try (CountingChannel channel = openChannel("journal")) {
+            for (int i = 0; i < 3; i++) {
+                syncer.afterWrite(channel);
+            }
+            Assertions.assertEquals(3, channel.forces);
+            Assertions.assertEquals(0, scheduler.getQueue().size());
+        }
+    }
+
+    /**
+     * Tests that nothing is forced under the none policy, even when pending syncs are flushed.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    @Test
+    public void none_neverForces() throws IOException {
+        FileSyncer syncer = new FileSyncer(DurabilityPolicy.NONE, 60_000, scheduler);
+        try (CountingChannel channel = openChannel("journal")) {
+            for (int i = 0; i < 3; i++) {
+                syncer.afterWrite(channel);
+            }
+            syncer.beforeClose(channel);
+            syncer.syncPending();
+            Assertions.assertEquals(0, channel.forces);
+            Assertions.assertEquals(0, scheduler.getQueue().size());
+        }
+    }
+
+    /**
+     * Tests that writes within a batch interval are left unforced with a single sync scheduled,
+     * and are forced together when the pending syncs are flushed.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    @Test
+    public void batched_defersWritesWithinInterval() throws IOException {
+        FileSyncer syncer = new FileSyncer(DurabilityPolicy.BATCHED, 60_000, scheduler);
+        try (CountingChannel channel = openChannel("journal")) {
+            for (int i = 0; i < 3; i++) {
+                syncer.afterWrite(channel);
+            }
+            Assertions.assertEquals(0, channel.forces);
+            Assertions.assertEquals(1, scheduler.getQueue().size());
+
+            syncer.syncPending();
+            Assertions.assertEquals(1, channel.forces);
+            syncer.syncPending();
+            Assertions.assertEquals(1, channel.forces);
+        }
+    }
+
+    /**
+     * Tests that a write made once the batch interval has passed is forced straight away.
+     *
+     * @throws Exception if the channel cannot be written or the wait is interrupted
+     */
+    @Test
+    public void batched_forcesWriteAfterInterval() throws Exception {
+        FileSyncer syncer = new FileSyncer(DurabilityPolicy.BATCHED, 1, scheduler);
+        try (CountingChannel channel = openChannel("journal")) {
+            Thread.sleep(5);
+            syncer.afterWrite(channel);
+            Assertions.assertEquals(1, channel.forces);
+            Assertions.assertEquals(0, scheduler.getQueue().size());
+        }
+    }
+
+    /**
+     * Tests that a channel holding an unforced batched write is forced before it is closed, while
+     * other channels are left alone.
+     *
+     * @throws IOException if the channels cannot be written
+     */
+    @Test
+    public void batched_beforeClose_forcesUnsyncedChannel() throws IOException {
+        FileSyncer syncer = new FileSyncer(DurabilityPolicy.BATCHED, 60_000, scheduler);
+        try (CountingChannel written = openChannel("journal.1");
+             CountingChannel other = openChannel("journal.2")) {
+            syncer.afterWrite(written);
+
+            syncer.beforeClose(other);
+            syncer.beforeClose(written);
+            syncer.beforeClose(written);
+
+            Assertions.assertEquals(0, other.forces);
+            Assertions.assertEquals(1, written.forces);
+        }
+    }
+
+    /**
+     * Tests that switching policy first forces the writes still waiting for a batched sync.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    @Test
+    public void setPolicy_forcesPendingBatchedWrites() throws IOException {
+        FileSyncer syncer = new FileSyncer(DurabilityPolicy.BATCHED, 60_000, scheduler);
+        try (CountingChannel channel = openChannel("journal")) {
+            syncer.afterWrite(channel);
+            syncer.setPolicy(DurabilityPolicy.NONE);
+            syncer.afterWrite(channel);
+
+            Assertions.assertEquals(1, channel.forces);
+            Assertions.assertEquals(DurabilityPolicy.NONE, syncer.getPolicy());
+        }
+    }
+
+    /**
+     * Tests that policy names are parsed ignoring case and surrounding spaces.
+     */
+    @Test
+    public void fromName_ignoresCase() {
+        Assertions.assertEquals(DurabilityPolicy.ALWAYS, DurabilityPolicy.fromName("always"));
+        Assertions.assertEquals(DurabilityPolicy.BATCHED, DurabilityPolicy.fromName(" Batched "));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> DurabilityPolicy.fromName("sometimes"));
+    }
+
+    /**
+     * File channel that counts the forces made on it and passes everything else to a real channel.
+     */
+    private static class CountingChannel extends FileChannel {
+        private final FileChannel channel;
+        private int forces;
+
+        CountingChannel(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            forces++;
+            channel.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return channel.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return channel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return channel.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package storage;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tasks.Task;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test class for TaskFileConverter functionality.
+ * Tests that converting between the text and binary formats keeps every task, unparsable lines and
+ * the file header.
+ */
+public class TaskFileConverterTest {
+    private static final List<String> LINES = List.of(
+            "T | 0 | Buy milk | #1",
+            "D | 1 | Submit report | 2025-10-15 2359 | #2",
+            "E | 0 | Team meeting | 2025-10-16 1400 | 2025-10-16 1600 | #4",
+            "X | 0 | kept as is",
+            "T | 1 | Call mum | #9");
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that a text file converted to binary and back is unchanged.
+     *
+     * @throws Exception if a file cannot be written or read
+     */
+    @Test
+    public void convert_textToBinaryAndBack_unchanged() throws Exception {
+        Path text = directory.resolve("Tasks.txt");
+        Path binary = directory.resolve("Tasks.bin");
+        Path convertedText = directory.resolve("Converted.txt");
+        TextTaskFormat.write(text, LINES, new TaskFileHeader(3, 12));
+
+        Assertions.assertEquals(5, TaskFileConverter.convert(text, binary, StorageFormat.BINARY));
+        Assertions.assertTrue(BinaryTaskFormat.isBinaryFile(binary));
+        Assertions.assertEquals(5, TaskFileConverter.convert(binary, convertedText, StorageFormat.TEXT));
+
+        List<String> lines = new ArrayList<>();
+        TaskFileHeader header = TextTaskFormat.read(convertedText, lines);
+        Assertions.assertEquals(LINES, lines);
+        Assertions.assertEquals(3, header.getCheckpoint());
+        Assertions.assertEquals(12, header.getLastId());
+    }
+
+    /**
+     * Tests that a text file converted to binary reads back as the same tasks, with the unparsable
+     * line kept as a placeholder.
+     *
+     * @throws Exception if a file cannot be written or read
+     */
+    @Test
+    public void convert_textToBinary_keepsTasks() throws Exception {
+        Path text = directory.resolve("Tasks.txt");
+        Path binary = directory.resolve("Tasks.bin");
+        TextTaskFormat.write(text, LINES, TaskFileHeader.NONE);
+
+        TaskFileConverter.convert(text, binary, StorageFormat.BINARY);
+        List<Task> tasks = new ArrayList<>();
+        TaskFileHeader header = BinaryTaskFormat.read(binary, tasks);
+
+        Assertions.assertEquals(TextTaskFormat.NO_CHECKPOINT, header.getCheckpoint());
+        Assertions.assertEquals(Task.NO_ID, header.getLastId());
+        Assertions.assertEquals(5, tasks.size());
+        Assertions.assertTrue(tasks.get(1).isDone());
+        Assertions.assertEquals(4, tasks.get(2).getId());
+        Assertions.assertTrue(tasks.get(3) instanceof UnparsedTaskLine);
+        for (int i = 0; i < tasks.size(); i++) {
+            Assertions.assertEquals(LINES.get(i), TextTaskFormat.formatLine(tasks.get(i)));
+        }
+    }
+
+    /**
+     * Tests that converting a file into its own format rewrites it unchanged.
+     *
+     * @throws Exception if a file cannot be written or read
+     */
+    @Test
+    public void convert_sameFormat_unchanged() throws Exception {
+        Path text = directory.resolve("Tasks.txt");
+        Path copy = directory.resolve("Copy.txt");
+        TextTaskFormat.write(text, LINES, new TaskFileHeader(3, 12));
+
+        TaskFileConverter.convert(text, copy, StorageFormat.TEXT);
+
+        List<String> lines = new ArrayList<>();
+        Assertions.assertEquals(12, TextTaskFormat.read(copy, lines).getLastId());
+        Assertions.assertEquals(LINES, lines);
+    }
+}
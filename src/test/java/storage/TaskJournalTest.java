@@ -0,0 +1,193 @@
+package storage;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tasks.Task;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Test class for TaskJournal functionality.
+ * Tests that appended records replay onto storage lines and tasks alike, that records which cannot
+ * be applied are skipped, and that segments are numbered and deleted as the journal rotates.
+ */
+public class TaskJournalTest {
+    private static final String BASE_NAME = "Tasks.journal";
+
+    @TempDir
+    Path directory;
+
+    private TaskJournal openJournal() {
+        return new TaskJournal(directory, BASE_NAME, FileSyncer.NO_SYNC);
+    }
+
+    private Path writeSegment(String fileName, String... records) throws IOException {
+        Path segment = directory.resolve(fileName);
+        Files.write(segment, List.of(records), StandardCharsets.UTF_8);
+        return segment;
+    }
+
+    /**
+     * Tests that records appended to the journal replay to the same storage lines and tasks.
+     *
+     * @throws IOException if the journal cannot be written or read
+     */
+    @Test
+    public void replaySegment_appendedRecords_roundTrip() throws IOException {
+        TaskJournal journal = openJournal();
+        journal.append(TaskJournal.addRecord("T | 0 | a | #1"));
+        journal.appendAll(List.of(TaskJournal.addRecord("T | 0 | b | #2"),
+                TaskJournal.addRecord("D | 0 | c | 2025-10-15 2359 | #3"),
+                TaskJournal.addRecord("T | 0 | d | #4")));
+        journal.append(TaskJournal.indicesRecord(TaskJournal.RECORD_MARK, new int[] {0, 1, 2}));
+        journal.append(TaskJournal.indexRecord(TaskJournal.RECORD_UNMARK, 1));
+        journal.append(TaskJournal.indicesRecord(TaskJournal.RECORD_DELETE, new int[] {0, 3}));
+        journal.append(TaskJournal.insertRecord(0, "T | 1 | a | #1"));
+        journal.close();
+
+        Path segment = journal.listSegments().lastEntry().getValue();
+        List<String> lines = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>();
+        Assertions.assertEquals(8, TaskJournal.replaySegment(segment, lines));
+        Assertions.assertEquals(8, TaskJournal.replaySegmentOntoTasks(segment, tasks));
+
+        Assertions.assertEquals(List.of("T | 1 | a | #1", "T | 0 | b | #2", "D | 1 | c | 2025-10-15 2359 | #3"),
+                lines);
+        Assertions.assertEquals(3, tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Assertions.assertEquals(lines.get(i), TextTaskFormat.formatLine(tasks.get(i)));
+        }
+    }
+
+    /**
+     * Tests that the IDs of tasks added by the journal are passed on, even if a later record deletes them.
+     *
+     * @throws IOException if the segment cannot be written or read
+     */
+    @Test
+    public void replaySegmentOntoTasks_passesOnDeletedIds() throws IOException {
+        Path segment = writeSegment(BASE_NAME + ".1",
+                TaskJournal.addRecord("T | 0 | a | #1"),
+                TaskJournal.addRecord("T | 0 | b | #2"),
+                TaskJournal.indexRecord(TaskJournal.RECORD_DELETE, 1));
+        List<Task> tasks = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+
+        TaskJournal.replaySegmentOntoTasks(segment, tasks, ids::add);
+
+        Assertions.assertEquals(1, tasks.size());
+        Assertions.assertEquals(List.of(1, 2), ids);
+    }
+
+    /**
+     * Tests that corrupt records, including a record cut short by a crash, are skipped while the
+     * records around them are still applied.
+     *
+     * @throws IOException if the segment cannot be written or read
+     */
+    @Test
+    public void replaySegment_corruptRecords_skipped() throws IOException {
+        Path segment = writeSegment(BASE_NAME + ".1",
+                TaskJournal.addRecord("T | 0 | a | #1"),
+                "BOGUS | 0",
+                "MARK",
+                "MARK | x",
+                "DELETE | 5",
+                "DELETE | 0-",
+                "INSERT | 9 | T | 0 | z | #9",
+                TaskJournal.addRecord("T | 0 | b | #2"),
+                "",
+                TaskJournal.indexRecord(TaskJournal.RECORD_MARK, 1),
+                "UNMA");
+
+        List<String> lines = new ArrayList<>();
+        int records = TaskJournal.replaySegment(segment, lines);
+
+        Assertions.assertEquals(10, records);
+        Assertions.assertEquals(List.of("T | 0 | a | #1", "T | 1 | b | #2"), lines);
+    }
+
+    /**
+     * Tests that an added task line that cannot be parsed is kept as a placeholder, so that the
+     * positions of later records still line up.
+     *
+     * @throws IOException if the segment cannot be written or read
+     */
+    @Test
+    public void replaySegmentOntoTasks_unparsableTask_keptAsPlaceholder() throws IOException {
+        Path segment = writeSegment(BASE_NAME + ".1",
+                TaskJournal.addRecord("D | 0 | c | not a date | #1"),
+                TaskJournal.addRecord("T | 0 | b | #2"),
+                TaskJournal.indexRecord(TaskJournal.RECORD_MARK, 1));
+
+        List<Task> tasks = new ArrayList<>();
+        TaskJournal.replaySegmentOntoTasks(segment, tasks);
+
+        Assertions.assertEquals(2, tasks.size());
+        Assertions.assertTrue(tasks.get(0) instanceof UnparsedTaskLine);
+        Assertions.assertTrue(tasks.get(1).isDone());
+    }
+
+    /**
+     * Tests that rotating seals the active segment, that new records go to the next segment and
+     * that deleting up to a segment keeps the later ones.
+     *
+     * @throws IOException if the journal cannot be written or read
+     */
+    @Test
+    public void rotate_startsNewSegment() throws IOException {
+        TaskJournal journal = openJournal();
+        journal.append(TaskJournal.addRecord("T | 0 | a | #1"));
+        Assertions.assertEquals(1, journal.getActiveRecords());
+
+        long sealed = journal.rotate();
+        Assertions.assertEquals(0, journal.getActiveRecords());
+        journal.append(TaskJournal.addRecord("T | 0 | b | #2"));
+        journal.close();
+
+        TreeMap<Long, Path> segments = journal.listSegments();
+        Assertions.assertEquals(1, sealed);
+        Assertions.assertEquals(List.of(1L, 2L), new ArrayList<>(segments.keySet()));
+
+        journal.deleteSegmentsUpTo(sealed);
+        Assertions.assertEquals(List.of(2L), new ArrayList<>(journal.listSegments().keySet()));
+    }
+
+    /**
+     * Tests that a journal file named without a segment number counts as the oldest segment, that
+     * unrelated files are ignored, and that writing resumes after the newest segment on disk.
+     *
+     * @throws IOException if the journal cannot be written or read
+     */
+    @Test
+    public void listSegments_legacyAndUnrelatedFiles() throws IOException {
+        writeSegment(BASE_NAME, TaskJournal.addRecord("T | 0 | a | #1"));
+        writeSegment(BASE_NAME + ".7", TaskJournal.addRecord("T | 0 | b | #2"));
+        writeSegment(BASE_NAME + ".tmp", "not a segment");
+        writeSegment(BASE_NAME + "x.3", "not a segment");
+
+        TaskJournal journal = openJournal();
+        Assertions.assertEquals(List.of(0L, 7L), new ArrayList<>(journal.listSegments().keySet()));
+
+        journal.startAfter(journal.listSegments().lastKey());
+        journal.append(TaskJournal.addRecord("T | 0 | c | #3"));
+        journal.close();
+        Assertions.assertEquals(8, (long) journal.listSegments().lastKey());
+    }
+
+    /**
+     * Tests that runs of positions are written as ranges.
+     */
+    @Test
+    public void indicesRecord_writesRanges() {
+        Assertions.assertEquals("DELETE | 0-2,5,7-8",
+                TaskJournal.indicesRecord(TaskJournal.RECORD_DELETE, new int[] {0, 1, 2, 5, 7, 8}));
+    }
+}
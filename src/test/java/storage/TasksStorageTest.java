@@ -0,0 +1,321 @@
+package storage;
+
+import exceptions.FengWeiException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tasks.Task;
+import tasks.TaskList;
+import tasks.TodoTask;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test class for TasksStorage functionality.
+ * Tests that changes recorded through the storage load back the same, whether they are still in the
+ * journal or already folded into the task file, with the storage kept in a temporary directory.
+ */
+public class TasksStorageTest {
+    private static final String JOURNAL_FILE_NAME = "Tasks.journal";
+
+    @TempDir
+    Path dataDirectory;
+
+    private TasksStorage openStorage() {
+        TasksStorage storage = new TasksStorage(dataDirectory);
+        storage.setWriteBehindEnabled(false);
+        return storage;
+    }
+
+    private TasksStorage openWriteBehindStorage() {
+        TasksStorage storage = new TasksStorage(dataDirectory);
+        storage.setWriteBehindLimits(60_000, 1_000);
+        return storage;
+    }
+
+    private static TodoTask addTask(TasksStorage storage, TaskList taskList, String description)
+            throws FengWeiException {
+        TodoTask task = new TodoTask(description);
+        taskList.add(task);
+        storage.recordAdd(taskList, task);
+        return task;
+    }
+
+    private Path tasksFile() {
+        return dataDirectory.resolve(StorageFormat.TEXT.getFileName());
+    }
+
+    private Path journalSegment(long segment) {
+        return dataDirectory.resolve(JOURNAL_FILE_NAME + "." + segment);
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        List<String> descriptions = new ArrayList<>();
+        for (Task task : tasks) {
+            descriptions.add(task.getDescription() + (task.isDone() ? " done" : ""));
+        }
+        return descriptions;
+    }
+
+    /**
+     * Tests that changes recorded in the journal are replayed when the tasks are loaded again.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void loadTasks_replaysJournal() throws FengWeiException {
+        TasksStorage storage = openStorage();
+        TaskList taskList = new TaskList(storage.loadTasks());
+        addTask(storage, taskList, "first");
+        addTask(storage, taskList, "second");
+        addTask(storage, taskList, "third");
+        addTask(storage, taskList, "fourth");
+        taskList.markAsDone(2);
+        storage.recordMark(taskList, 2);
+        taskList.markAllAsDone(new int[] {0, 1});
+        storage.recordMark(taskList, new int[] {0, 1});
+        taskList.markAsNotDone(0);
+        storage.recordUnmark(taskList, 0);
+        taskList.removeAll(new int[] {1, 3});
+        storage.recordDelete(taskList, new int[] {1, 3});
+        storage.flush();
+
+        Assertions.assertTrue(Files.exists(journalSegment(1)));
+        List<Task> loaded = openStorage().loadTasks();
+        Assertions.assertEquals(List.of("first", "third done"), describe(loaded));
+        Assertions.assertEquals(1, loaded.get(0).getId());
+        Assertions.assertEquals(3, loaded.get(1).getId());
+    }
+
+    /**
+     * Tests that input that was not a command is dropped when the tasks are loaded again, while the
+     * changes recorded after it still apply to the right tasks and its ID is not given out again.
+     *
+     * @throws Exception if task creation fails or the task file cannot be read
+     */
+    @Test
+    public void recordInput_droppedOnLoad() throws Exception {
+        TasksStorage storage = openStorage();
+        TaskList taskList = new TaskList(storage.loadTasks());
+        addTask(storage, taskList, "first");
+        Task input = new Task("blah", Task.INPUT_TYPE);
+        taskList.add(input);
+        storage.recordInput(taskList, input);
+        addTask(storage, taskList, "second");
+        taskList.markAsDone(2);
+        storage.recordMark(taskList, 2);
+        storage.flush();
+
+        TasksStorage reopened = openStorage();
+        Assertions.assertEquals(List.of("first", "second done"), describe(reopened.loadTasks()));
+        Assertions.assertEquals(3, reopened.getLastId());
+        Assertions.assertFalse(Files.readString(tasksFile(), StandardCharsets.UTF_8).contains("blah"));
+    }
+
+    /**
+     * Tests that only the journal segments after the checkpoint in the task file are replayed, and
+     * that the segments the file already covers are deleted.
+     *
+     * @throws Exception if the files cannot be written
+     */
+    @Test
+    public void loadTasks_skipsSegmentsCoveredByCheckpoint() throws Exception {
+        TextTaskFormat.write(tasksFile(), List.of("T | 0 | a | #1", "T | 0 | b | #2"),
+                new TaskFileHeader(2, 2));
+        Files.write(journalSegment(2), List.of(TaskJournal.addRecord("T | 0 | b | #2")), StandardCharsets.UTF_8);
+        Files.write(journalSegment(3), List.of(TaskJournal.indexRecord(TaskJournal.RECORD_MARK, 1),
+                TaskJournal.addRecord("T | 0 | c | #3")), StandardCharsets.UTF_8);
+
+        TasksStorage storage = openStorage();
+        List<Task> loaded = storage.loadTasks();
+
+        Assertions.assertEquals(List.of("a", "b done", "c"), describe(loaded));
+        Assertions.assertEquals(3, storage.getLastId());
+        Assertions.assertFalse(Files.exists(journalSegment(2)));
+        Assertions.assertTrue(Files.exists(journalSegment(3)));
+    }
+
+    /**
+     * Tests that corrupt task lines are skipped and the task file rewritten without them, so that
+     * the positions in later journal records match the loaded tasks.
+     *
+     * @throws Exception if the files cannot be written or read
+     */
+    @Test
+    public void loadTasks_corruptLines_skippedAndRewritten() throws Exception {
+        Files.write(tasksFile(), List.of("T | 0 | a | #1", "D | 0 | b | not a date | #2", "X | 0 | c | #3",
+                "T | 1 | d | #4"), StandardCharsets.UTF_8);
+
+        TasksStorage storage = openStorage();
+        TaskList taskList = new TaskList(storage.loadTasks());
+        Assertions.assertEquals(List.of("a", "d done"), describe(taskList.getAll()));
+
+        List<String> lines = new ArrayList<>();
+        TextTaskFormat.read(tasksFile(), lines);
+        Assertions.assertEquals(List.of("T | 0 | a | #1", "T | 1 | d | #4"), lines);
+
+        taskList.markAsDone(0);
+        storage.recordMark(taskList, 0);
+        storage.flush();
+        Assertions.assertEquals(List.of("a done", "d done"), describe(openStorage().loadTasks()));
+    }
+
+    /**
+     * Tests that no change is lost when the journal is compacted in the background while further
+     * changes are appended, and that the task file then holds a checkpoint.
+     *
+     * @throws Exception if task creation fails or waiting for the compactor is interrupted
+     */
+    @Test
+    public void compaction_interleavedWithAppends_losesNothing() throws Exception {
+        TasksStorage storage = openStorage();
+        TaskList taskList = new TaskList(storage.loadTasks());
+        storage.setCompactionThresholds(1, 1, 1);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            addTask(storage, taskList, "task " + i);
+            expected.add("task " + i);
+            if (i % 3 == 0) {
+                taskList.markAsDone(i / 3);
+                storage.recordMark(taskList, i / 3);
+                expected.set(i / 3, "task " + (i / 3) + " done");
+            }
+        }
+        storage.flush();
+        storage.awaitCompaction();
+
+        Assertions.assertTrue(TextTaskFormat.read(tasksFile(), new ArrayList<>()).getCheckpoint() > 0);
+        TasksStorage reopened = openStorage();
+        List<Task> loaded = reopened.loadTasks();
+        Assertions.assertEquals(expected, describe(loaded));
+        Assertions.assertEquals(300, reopened.getLastId());
+    }
+
+    /**
+     * Tests that the ID of a deleted task is not given out again after a restart, whether the
+     * deletion is still in the journal or already in the task file.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void lastId_keptAfterDeletingLatestTasks() throws FengWeiException {
+        TasksStorage storage = openStorage();
+        TaskList taskList = new TaskList(storage.loadTasks());
+        addTask(storage, taskList, "first");
+        addTask(storage, taskList, "second");
+        addTask(storage, taskList, "third");
+        taskList.remove(2);
+        storage.recordDelete(taskList, 2);
+        storage.flush();
+
+        TasksStorage replayed = openStorage();
+        List<Task> replayedTasks = replayed.loadTasks();
+        Assertions.assertEquals(2, replayedTasks.size());
+        Assertions.assertEquals(3, replayed.getLastId());
+
+        TaskList reloadedList = new TaskList(replayedTasks);
+        reloadedList.skipIdsUpTo(replayed.getLastId());
+        reloadedList.remove(1);
+        replayed.saveTasks(reloadedList.snapshot());
+
+        TasksStorage reopened = openStorage();
+        TaskList reopenedList = new TaskList(reopened.loadTasks());
+        reopenedList.skipIdsUpTo(reopened.getLastId());
+        Task added = addTask(reopened, reopenedList, "fourth");
+        Assertions.assertEquals(4, added.getId());
+    }
+
+    /**
+     * Tests that tasks of a hand-edited file whose IDs do not increase are given new IDs, so that
+     * they can be loaded into a task list.
+     *
+     * @throws Exception if the task file cannot be written
+     */
+    @Test
+    public void loadTasks_repeatedIds_givenNewIds() throws Exception {
+        TextTaskFormat.write(dataDirectory.resolve(StorageFormat.TEXT.getFileName()),
+                List.of("T | 0 | a | #5", "T | 0 | b | #5", "T | 0 | c", "T | 0 | d | #2"),
+                new TaskFileHeader(TextTaskFormat.NO_CHECKPOINT, 6));
+
+        TasksStorage storage = openStorage();
+        TaskList taskList = new TaskList(storage.loadTasks());
+
+        Assertions.assertEquals(5, taskList.get(0).getId());
+        Assertions.assertEquals(7, taskList.get(1).getId());
+        Assertions.assertEquals(8, taskList.get(2).getId());
+        Assertions.assertEquals(9, taskList.get(3).getId());
+        Assertions.assertEquals(9, storage.getLastId());
+    }
+
+    /**
+     * Tests that changes made in a burst stay pending until flushed and are then appended to the
+     * journal in a single write.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void writeBehind_coalescesChanges() throws FengWeiException {
+        TasksStorage storage = openWriteBehindStorage();
+        TaskList taskList = new TaskList(storage.loadTasks());
+        for (int i = 0; i < 10; i++) {
+            addTask(storage, taskList, "task " + i);
+        }
+        taskList.markAsDone(4);
+        storage.recordMark(taskList, 4);
+
+        WriteLatencyStats stats = storage.getWriteLatencyStats(storage.getDurabilityPolicy());
+        Assertions.assertFalse(Files.exists(journalSegment(1)));
+        Assertions.assertEquals(0, stats.getCount());
+
+        storage.flush(taskList);
+        Assertions.assertEquals(1, stats.getCount());
+        List<Task> loaded = openStorage().loadTasks();
+        Assertions.assertEquals(10, loaded.size());
+        Assertions.assertTrue(loaded.get(4).isDone());
+    }
+
+    /**
+     * Tests that flushing on the thread that owns the task list, as on exit, saves the whole list
+     * when the journal cannot be written.
+     *
+     * @throws Exception if task creation fails or the files cannot be written
+     */
+    @Test
+    public void flush_journalUnwritable_savesTaskList() throws Exception {
+        TasksStorage storage = openWriteBehindStorage();
+        TaskList taskList = new TaskList(storage.loadTasks());
+        Files.createDirectory(journalSegment(1));
+        addTask(storage, taskList, "first");
+        addTask(storage, taskList, "second");
+
+        storage.flush(taskList);
+
+        Assertions.assertEquals(List.of("first", "second"), describe(openStorage().loadTasks()));
+    }
+
+    /**
+     * Tests that flushing without the task list, as on JVM shutdown, keeps the changes the journal
+     * could not take, so that a later flush still writes them.
+     *
+     * @throws Exception if task creation fails or the files cannot be written
+     */
+    @Test
+    public void flush_journalUnwritable_keepsChangesForRetry() throws Exception {
+        TasksStorage storage = openWriteBehindStorage();
+        TaskList taskList = new TaskList(storage.loadTasks());
+        Path blocked = Files.createDirectory(journalSegment(1));
+        addTask(storage, taskList, "first");
+        addTask(storage, taskList, "second");
+
+        storage.flush();
+        Assertions.assertTrue(Files.isDirectory(blocked));
+        Files.delete(blocked);
+        storage.flush();
+
+        Assertions.assertEquals(List.of("first", "second"), describe(openStorage().loadTasks()));
+    }
+}
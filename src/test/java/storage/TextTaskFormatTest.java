@@ -0,0 +1,61 @@
+package storage;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import tasks.DeadlineTask;
+import tasks.Task;
+
+/**
+ * Test class for TextTaskFormat functionality.
+ * Tests that task lines are parsed and formatted consistently, including lines of older files.
+ */
+public class TextTaskFormatTest {
+
+    /**
+     * Tests that a formatted task parses back to the same task and ID.
+     */
+    @Test
+    public void parseLine_readsFormattedLine() {
+        Task task = TextTaskFormat.parseLine("D | 1 | Submit report | 2025-10-15 2359 | #7");
+
+        Assertions.assertTrue(task instanceof DeadlineTask);
+        Assertions.assertTrue(task.isDone());
+        Assertions.assertEquals(7, task.getId());
+        Assertions.assertEquals("D | 1 | Submit report | 2025-10-15 2359 | #7", TextTaskFormat.formatLine(task));
+    }
+
+    /**
+     * Tests that a line written before tasks had IDs loads without an ID.
+     */
+    @Test
+    public void parseLine_withoutIdField_hasNoId() {
+        Task task = TextTaskFormat.parseLine("T | 0 | Buy milk");
+
+        Assertions.assertEquals("Buy milk", task.getDescription());
+        Assertions.assertEquals(Task.NO_ID, task.getId());
+    }
+
+    /**
+     * Tests that extra fields from a description holding the field separator are ignored, as they
+     * were before tasks had IDs, while an ID after them is still read.
+     */
+    @Test
+    public void parseLine_withExtraFields_ignoresThem() {
+        Task withoutId = TextTaskFormat.parseLine("T | 0 | Compare A | B");
+        Task withId = TextTaskFormat.parseLine("T | 0 | Compare A | B | #12");
+        Task withBadId = TextTaskFormat.parseLine("T | 0 | Compare A | #B");
+
+        Assertions.assertEquals("Compare A", withoutId.getDescription());
+        Assertions.assertEquals(Task.NO_ID, withoutId.getId());
+        Assertions.assertEquals(12, withId.getId());
+        Assertions.assertEquals(Task.NO_ID, withBadId.getId());
+    }
+
+    /**
+     * Tests that a line with too few fields is rejected.
+     */
+    @Test
+    public void parseLine_tooFewFields_throwsException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TextTaskFormat.parseLine("T | 0"));
+    }
+}
@@ -0,0 +1,116 @@
+package storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tasks.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Test class for TextTaskLoader functionality.
+ * Tests that tasks load in file order with the same header and the same corrupted lines, wherever
+ * the chunk boundaries fall.
+ */
+public class TextTaskLoaderTest {
+    private static final String CORRUPTED_LINE = "D | 0 | Submit report | not a date | #3";
+    private static final List<String> TASK_LINES = List.of(
+            "T | 0 | Buy milk | #1",
+            "E | 1 | Caf\u00e9 meeting | 2025-10-16 1400 | 2025-10-16 1600 | #2",
+            CORRUPTED_LINE,
+            "T | 0 | Read a book whose title is long enough to fill more than one small chunk | #4",
+            "T | 1 | Call mum | #5");
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private Path writeFile() throws Exception {
+        StringBuilder content = new StringBuilder("# checkpoint 6\n# last id 9\n");
+        for (String line : TASK_LINES) {
+            content.append(line).append(line.startsWith("E") ? "\r\n" : "\n");
+        }
+        content.append("\n# a comment\n");
+        return Files.write(directory.resolve("Tasks.txt"), content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that the tasks, the header and the corrupted line are the same for every chunk size,
+     * including sizes that split lines, multi-byte characters and the line break of a line ending
+     * in a carriage return, and sizes smaller than a single line.
+     *
+     * @throws Exception if the file cannot be written or read
+     */
+    @Test
+    public void load_everyChunkSize_sameResult() throws Exception {
+        Path path = writeFile();
+        long fileSize = Files.size(path);
+        for (int chunkSize = 1; chunkSize <= fileSize + 1; chunkSize++) {
+            List<Task> tasks = new ArrayList<>();
+            TaskFileHeader header = new TextTaskLoader(pool, chunkSize).load(path, tasks);
+
+            String message = "Chunk size " + chunkSize;
+            Assertions.assertEquals(6, header.getCheckpoint(), message);
+            Assertions.assertEquals(9, header.getLastId(), message);
+            Assertions.assertEquals(TASK_LINES.size(), tasks.size(), message);
+            for (int i = 0; i < tasks.size(); i++) {
+                Assertions.assertEquals(TASK_LINES.get(i), TextTaskFormat.formatLine(tasks.get(i)), message);
+            }
+            Assertions.assertTrue(tasks.get(2) instanceof UnparsedTaskLine, message);
+            Assertions.assertEquals(CORRUPTED_LINE, tasks.get(2).getDescription(), message);
+            Assertions.assertNotNull(((UnparsedTaskLine) tasks.get(2)).getError(), message);
+        }
+    }
+
+    /**
+     * Tests that many tasks parsed by several threads keep their order.
+     *
+     * @throws Exception if the file cannot be written or read
+     */
+    @Test
+    public void load_manyChunks_keepsOrder() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 5_000; i++) {
+            lines.add("T | " + (i % 2) + " | task " + i + " | #" + i);
+        }
+        Path path = directory.resolve("Tasks.txt");
+        Files.write(path, lines, StandardCharsets.UTF_8);
+
+        List<Task> tasks = new ArrayList<>();
+        new TextTaskLoader(pool, 100).load(path, tasks);
+
+        Assertions.assertEquals(lines.size(), tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Assertions.assertEquals(lines.get(i), TextTaskFormat.formatLine(tasks.get(i)));
+        }
+    }
+
+    /**
+     * Tests that an empty file loads no tasks and an empty header.
+     *
+     * @throws Exception if the file cannot be written or read
+     */
+    @Test
+    public void load_emptyFile_noTasks() throws Exception {
+        Path path = Files.createFile(directory.resolve("Tasks.txt"));
+        List<Task> tasks = new ArrayList<>();
+
+        TaskFileHeader header = new TextTaskLoader(pool, 16).load(path, tasks);
+
+        Assertions.assertTrue(tasks.isEmpty());
+        Assertions.assertEquals(TextTaskFormat.NO_CHECKPOINT, header.getCheckpoint());
+        Assertions.assertEquals(Task.NO_ID, header.getLastId());
+    }
+}
@@ -0,0 +1,76 @@
+package tasks;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test class for BkTree functionality.
+ * Tests edit distances and searching for words within a distance after adding and removing words.
+ */
+public class BkTreeTest {
+    /**
+     * Tests the edit distance for insertions, deletions and substitutions.
+     */
+    @Test
+    public void distance_countsSingleCharacterEdits() {
+        Assertions.assertEquals(0, BkTree.distance("book", "book"));
+        Assertions.assertEquals(1, BkTree.distance("book", "bok"));
+        Assertions.assertEquals(1, BkTree.distance("book", "boot"));
+        Assertions.assertEquals(2, BkTree.distance("meeting", "meetnig"));
+        Assertions.assertEquals(3, BkTree.distance("kitten", "sitting"));
+        Assertions.assertEquals(4, BkTree.distance("", "milk"));
+    }
+
+    /**
+     * Tests that search finds the words within the distance, nearest first.
+     */
+    @Test
+    public void search_findsWordsWithinDistance() {
+        BkTree tree = new BkTree();
+        for (String word : new String[] {"book", "books", "boot", "look", "milk", "meeting"}) {
+            tree.add(word);
+        }
+
+        List<BkTree.Match> matches = tree.search("bok", 1);
+        Assertions.assertEquals(1, matches.get(0).getDistance());
+        Assertions.assertEquals(List.of("book"), wordsOf(matches));
+        Assertions.assertEquals(List.of("book", "books", "boot", "look"), sorted(wordsOf(tree.search("book", 1)), 1));
+        Assertions.assertEquals(List.of(), wordsOf(tree.search("xyz", 2)));
+    }
+
+    /**
+     * Tests that removed words are no longer found and can be added back.
+     */
+    @Test
+    public void remove_hidesWordUntilAddedAgain() {
+        BkTree tree = new BkTree();
+        tree.add("book");
+        tree.add("boot");
+        tree.remove("book");
+
+        Assertions.assertEquals(1, tree.size());
+        Assertions.assertEquals(List.of("boot"), wordsOf(tree.search("book", 1)));
+
+        tree.add("book");
+        Assertions.assertEquals(2, tree.size());
+        Assertions.assertEquals(List.of("book", "boot"), wordsOf(tree.search("book", 1)));
+    }
+
+    private static List<String> wordsOf(List<BkTree.Match> matches) {
+        List<String> words = new ArrayList<>();
+        for (BkTree.Match match : matches) {
+            words.add(match.getWord());
+        }
+        return words;
+    }
+
+    private static List<String> sorted(List<String> words, int from) {
+        List<String> tail = new ArrayList<>(words.subList(from, words.size()));
+        tail.sort(null);
+        List<String> result = new ArrayList<>(words.subList(0, from));
+        result.addAll(tail);
+        return result;
+    }
+}
@@ -0,0 +1,115 @@
+package tasks;
+
+import exceptions.FengWeiException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Test class for ColumnarTaskStore functionality.
+ * Tests that tasks are rebuilt unchanged from the columns, and that the columns take the few bytes
+ * per task they are sized for.
+ */
+public class ColumnarTaskStoreTest {
+    /** Number of tasks in the footprint check. */
+    private static final int FOOTPRINT_TASK_COUNT = 30_000;
+
+    /**
+     * Tests that every type of task is rebuilt with its description, dates and status.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void get_rebuildsStoredTasks() throws FengWeiException {
+        ColumnarTaskStore store = new ColumnarTaskStore(0);
+        Task generic = new Task("\u00dcn\u00efc\u00f6d\u00e9 note \u4f60\u597d", ' ');
+        DeadlineTask deadline = new DeadlineTask("Submit report", "2024-12-31 2359");
+        EventTask event = new EventTask("Camp", DateTimeCodec.parse("0001-01-01 0000"),
+                DateTimeCodec.parse("9999-12-31 2359"));
+        deadline.markAsDone();
+        store.add(new TodoTask("Buy groceries"));
+        store.add(deadline);
+        store.add(event);
+        store.add(generic);
+
+        Assertions.assertEquals(4, store.size());
+        Assertions.assertEquals("[T][ ] Buy groceries", store.get(0).toString());
+        Assertions.assertEquals(deadline.toString(), store.get(1).toString());
+        Assertions.assertTrue(store.get(1) instanceof DeadlineTask);
+        Assertions.assertEquals(event.getTo(), ((EventTask) store.get(2)).getTo());
+        Assertions.assertEquals(generic.toString(), store.get(3).toString());
+    }
+
+    /**
+     * Tests that removing tasks keeps the others and their statuses in order, across many removals.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void remove_keepsRemainingTasksInOrder() throws FengWeiException {
+        Random random = new Random(3);
+        ColumnarTaskStore columns = new ColumnarTaskStore(0);
+        ObjectTaskStore objects = new ObjectTaskStore(0);
+        for (int i = 0; i < 500; i++) {
+            TodoTask task = new TodoTask("Task " + "x".repeat(random.nextInt(200)) + i);
+            if (random.nextBoolean()) {
+                task.markAsDone();
+            }
+            columns.add(task);
+            objects.add(task);
+        }
+        while (objects.size() > 0) {
+            int index = random.nextInt(objects.size());
+            Assertions.assertEquals(objects.remove(index).toString(), columns.remove(index).toString());
+            if (objects.size() > 0) {
+                int checked = random.nextInt(objects.size());
+                columns.setDone(checked, !columns.isDone(checked));
+                objects.setDone(checked, !objects.isDone(checked));
+            }
+            for (int i = 0; i < objects.size(); i++) {
+                Assertions.assertEquals(objects.get(i).toString(), columns.get(i).toString());
+            }
+        }
+        Assertions.assertEquals(0, columns.size());
+    }
+
+    /**
+     * Tests that the columns take a type byte, a done bit, an ID, two dates and an offset per task
+     * plus the description bytes, with little room unused, measured from the sizes of the column arrays.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void estimateBytes_matchesColumnSizes() throws FengWeiException {
+        ColumnarTaskStore columns = new ColumnarTaskStore(FOOTPRINT_TASK_COUNT);
+        fill(columns);
+        long descriptionBytes = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            descriptionBytes += columns.get(i).getDescription().getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+
+        long columnBytes = (long) FOOTPRINT_TASK_COUNT * (Byte.BYTES + 2 * Long.BYTES + 2 * Integer.BYTES)
+                + (FOOTPRINT_TASK_COUNT + Long.SIZE - 1) / Long.SIZE * Long.BYTES;
+        Assertions.assertEquals(FOOTPRINT_TASK_COUNT, columns.size());
+        Assertions.assertTrue(columns.estimateBytes() >= columnBytes + descriptionBytes);
+        Assertions.assertTrue(columns.estimateBytes() <= columnBytes + descriptionBytes * 5 / 4 + 256,
+                "Columns took " + columns.estimateBytes() + " bytes for " + descriptionBytes + " description bytes");
+    }
+
+    private static TaskStore fill(TaskStore store) throws FengWeiException {
+        LocalDateTime start = DateTimeCodec.parse("2025-01-01 0000");
+        for (int i = 0; i < FOOTPRINT_TASK_COUNT; i++) {
+            LocalDateTime time = start.plusMinutes(i * 7L);
+            if (i % 3 == 0) {
+                store.add(new TodoTask("Read chapter " + i + " of the book"));
+            } else if (i % 3 == 1) {
+                store.add(new DeadlineTask("Submit report " + i, time));
+            } else {
+                store.add(new EventTask("Team meeting " + i, time, time.plusHours(1)));
+            }
+        }
+        return store;
+    }
+}
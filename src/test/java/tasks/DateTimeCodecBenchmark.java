@@ -0,0 +1,99 @@
+package tasks;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Microbenchmark comparing DateTimeCodec with the DateTimeFormatter path it replaces.
+ * Run its main method directly; it is not part of the unit test suite.
+ */
+public class DateTimeCodecBenchmark {
+    private static final int DATE_COUNT = 10_000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 20;
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(DateTimeCodec.PATTERN);
+
+    /**
+     * Runs the benchmark and prints the average time per operation.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        LocalDateTime[] dateTimes = new LocalDateTime[DATE_COUNT];
+        String[] texts = new String[DATE_COUNT];
+        LocalDateTime dateTime = LocalDateTime.of(2000, 1, 1, 0, 0);
+        for (int i = 0; i < DATE_COUNT; i++) {
+            dateTimes[i] = dateTime;
+            texts[i] = DateTimeCodec.format(dateTime);
+            dateTime = dateTime.plusMinutes(9_973);
+        }
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += parseWithFormatter(texts) + parseWithCodec(texts);
+            sink += formatWithFormatter(dateTimes) + formatWithCodec(dateTimes);
+        }
+
+        report("parse  DateTimeFormatter", measure(() -> parseWithFormatter(texts)));
+        report("parse  DateTimeCodec", measure(() -> parseWithCodec(texts)));
+        report("format DateTimeFormatter", measure(() -> formatWithFormatter(dateTimes)));
+        report("format DateTimeCodec", measure(() -> formatWithCodec(dateTimes)));
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static double measure(Round round) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            sink += round.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.println();
+        }
+        return (double) elapsed / ((long) MEASURED_ROUNDS * DATE_COUNT);
+    }
+
+    private static void report(String name, double nanosPerOperation) {
+        System.out.printf("%-26s %8.1f ns/op%n", name, nanosPerOperation);
+    }
+
+    private static long parseWithFormatter(String[] texts) {
+        long sum = 0;
+        for (String text : texts) {
+            sum += LocalDateTime.parse(text, FORMATTER).getMinute();
+        }
+        return sum;
+    }
+
+    private static long parseWithCodec(String[] texts) {
+        long sum = 0;
+        for (String text : texts) {
+            sum += DateTimeCodec.parse(text).getMinute();
+        }
+        return sum;
+    }
+
+    private static long formatWithFormatter(LocalDateTime[] dateTimes) {
+        long sum = 0;
+        for (LocalDateTime dateTime : dateTimes) {
+            sum += dateTime.format(FORMATTER).length();
+        }
+        return sum;
+    }
+
+    private static long formatWithCodec(LocalDateTime[] dateTimes) {
+        long sum = 0;
+        for (LocalDateTime dateTime : dateTimes) {
+            sum += DateTimeCodec.format(dateTime).length();
+        }
+        return sum;
+    }
+
+    /**
+     * One measured pass over the inputs, returning a checksum so the work is not optimised away.
+     */
+    private interface Round {
+        long run();
+    }
+}
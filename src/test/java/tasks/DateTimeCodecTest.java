@@ -0,0 +1,69 @@
+package tasks;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Assertions;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Test class for DateTimeCodec functionality.
+ * Tests parsing, formatting, validation, and round-tripping of "yyyy-MM-dd HHmm" date-times.
+ */
+public class DateTimeCodecTest {
+
+    /**
+     * Tests that a valid date-time string is parsed into the matching LocalDateTime.
+     */
+    @Test
+    public void parse_validDateTime_returnsDateTime() {
+        Assertions.assertEquals(LocalDateTime.of(2024, 6, 30, 23, 59), DateTimeCodec.parse("2024-06-30 2359"));
+        Assertions.assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0), DateTimeCodec.parse("2024-02-29 0000"));
+    }
+
+    /**
+     * Tests that a date-time is formatted with zero padding.
+     */
+    @Test
+    public void format_padsWithZeros() {
+        Assertions.assertEquals("0987-01-02 0305", DateTimeCodec.format(LocalDateTime.of(987, 1, 2, 3, 5)));
+    }
+
+    /**
+     * Tests that formatTo appends to existing content.
+     */
+    @Test
+    public void formatTo_appendsToBuilder() {
+        StringBuilder builder = new StringBuilder("by ");
+        DateTimeCodec.formatTo(LocalDateTime.of(2025, 10, 15, 23, 59), builder);
+        Assertions.assertEquals("by 2025-10-15 2359", builder.toString());
+    }
+
+    /**
+     * Tests that the codec agrees with the formatter it replaces and round-trips over a range of dates.
+     */
+    @Test
+    public void formatAndParse_matchFormatterAndRoundTrip() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DateTimeCodec.PATTERN);
+        LocalDateTime dateTime = LocalDateTime.of(1999, 12, 31, 0, 0);
+        for (int i = 0; i < 2000; i++) {
+            String formatted = DateTimeCodec.format(dateTime);
+            Assertions.assertEquals(dateTime.format(formatter), formatted);
+            Assertions.assertEquals(dateTime, DateTimeCodec.parse(formatted));
+            dateTime = dateTime.plusHours(13).plusMinutes(7);
+        }
+    }
+
+    /**
+     * Tests that malformed and out-of-range date-times are rejected.
+     */
+    @Test
+    public void parse_invalidDateTime_throwsException() {
+        String[] invalid = {"", "invalid-date", "2024-6-30 2359", "2024/06/30 2359", "2024-06-30T2359",
+            "2024-06-30 23:59", "2024-13-01 1200", "2024-00-01 1200", "2025-02-29 1200", "2024-04-31 1200",
+            "2024-06-30 2400", "2024-06-30 1260", "0000-01-01 0000", "2024-06-30 2359 "};
+        for (String text : invalid) {
+            Assertions.assertThrows(DateTimeParseException.class, () -> DateTimeCodec.parse(text), text);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package tasks;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test class for FenwickTree functionality.
+ * Tests prefix sums and finding slots by position while slots are appended and freed.
+ */
+public class FenwickTreeTest {
+    /**
+     * Tests that positions skip freed slots.
+     */
+    @Test
+    public void findSlot_skipsFreedSlots() {
+        FenwickTree tree = new FenwickTree(5);
+        tree.add(1, -1);
+        tree.add(3, -1);
+
+        Assertions.assertEquals(0, tree.findSlot(0));
+        Assertions.assertEquals(2, tree.findSlot(1));
+        Assertions.assertEquals(4, tree.findSlot(2));
+        Assertions.assertEquals(5, tree.findSlot(3));
+        Assertions.assertEquals(2, tree.prefixSum(3));
+        Assertions.assertEquals(3, tree.prefixSum(5));
+    }
+
+    /**
+     * Tests prefix sums and slot lookups against a plain array, over many random appends and frees.
+     */
+    @Test
+    public void findSlot_matchesScanOfSlots() {
+        Random random = new Random(7);
+        FenwickTree tree = new FenwickTree(3);
+        List<Integer> counts = new ArrayList<>(List.of(1, 1, 1));
+        for (int i = 0; i < 3000; i++) {
+            if (random.nextInt(3) == 0) {
+                int slot = random.nextInt(counts.size());
+                if (counts.get(slot) == 1) {
+                    tree.add(slot, -1);
+                    counts.set(slot, 0);
+                }
+            } else {
+                tree.append(1);
+                counts.add(1);
+            }
+
+            int slot = random.nextInt(counts.size() + 1);
+            int expectedSum = 0;
+            for (int j = 0; j < slot; j++) {
+                expectedSum += counts.get(j);
+            }
+            Assertions.assertEquals(expectedSum, tree.prefixSum(slot));
+
+            int position = random.nextInt(counts.size());
+            int expectedSlot = 0;
+            for (int seen = 0; expectedSlot < counts.size(); expectedSlot++) {
+                seen += counts.get(expectedSlot);
+                if (seen > position) {
+                    break;
+                }
+            }
+            Assertions.assertEquals(expectedSlot, tree.findSlot(position));
+        }
+        Assertions.assertEquals(counts.size(), tree.size());
+    }
+}
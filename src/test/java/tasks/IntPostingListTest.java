@@ -0,0 +1,91 @@
+package tasks;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Test class for IntPostingList functionality.
+ * Tests that removed numbers are never returned, whether or not they have been dropped from the list yet.
+ */
+public class IntPostingListTest {
+    /**
+     * Tests lookups, copies and intersections against a sorted set, over many random adds and removes.
+     */
+    @Test
+    public void operations_matchSortedSet() {
+        Random random = new Random(11);
+        IntPostingList list = new IntPostingList();
+        TreeSet<Integer> expected = new TreeSet<>();
+        int next = 0;
+        for (int i = 0; i < 5000; i++) {
+            int choice = random.nextInt(4);
+            if (choice == 0 && !expected.isEmpty()) {
+                int value = random.nextInt(next);
+                Assertions.assertEquals(expected.remove(value), list.remove(value));
+            } else if (choice == 1 && next > 0) {
+                int value = random.nextInt(next);
+                list.add(value);
+                expected.add(value);
+            } else {
+                next += 1 + random.nextInt(3);
+                list.add(next);
+                expected.add(next);
+            }
+
+            int probe = random.nextInt(next + 1);
+            Assertions.assertEquals(expected.contains(probe), list.contains(probe));
+            Assertions.assertEquals(expected.size(), list.size());
+        }
+
+        int[] values = expected.stream().mapToInt(Integer::intValue).toArray();
+        Assertions.assertArrayEquals(values, list.toArray());
+        Assertions.assertArrayEquals(values, IntPostingList.union(List.of(list, new IntPostingList())));
+        int[] candidates = new int[next + 1];
+        for (int i = 0; i <= next; i++) {
+            candidates[i] = i;
+        }
+        Assertions.assertEquals(values.length, list.retainIn(candidates, candidates.length));
+
+        int removed = values[values.length / 2];
+        list.remove(removed);
+        int[] few = {values[0], removed, values[values.length - 1]};
+        Assertions.assertEquals(2, list.retainIn(few, few.length));
+        Assertions.assertEquals(values[values.length - 1], few[1]);
+    }
+
+    /**
+     * Tests that removing a sorted array drops exactly the numbers present and not already removed,
+     * both for arrays of similar size and for arrays much longer than the list.
+     */
+    @Test
+    public void removeAll_matchesSortedSet() {
+        Random random = new Random(13);
+        for (int arrayLength : new int[] {50, 5000}) {
+            IntPostingList list = new IntPostingList();
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int value = 0; value < 400; value += 1 + random.nextInt(4)) {
+                list.add(value);
+                expected.add(value);
+            }
+            for (int i = 0; i < 20; i++) {
+                int value = random.nextInt(400);
+                Assertions.assertEquals(expected.remove(value), list.remove(value));
+            }
+            TreeSet<Integer> toRemove = new TreeSet<>();
+            while (toRemove.size() < arrayLength) {
+                toRemove.add(random.nextInt(arrayLength * 10));
+            }
+
+            int[] sorted = toRemove.stream().mapToInt(Integer::intValue).toArray();
+            int sizeBefore = expected.size();
+            expected.removeAll(toRemove);
+
+            Assertions.assertEquals(sizeBefore - expected.size(), list.removeAll(sorted));
+            Assertions.assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), list.toArray());
+            Assertions.assertEquals(expected.size(), list.size());
+        }
+    }
+}
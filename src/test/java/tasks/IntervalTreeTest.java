@@ -0,0 +1,84 @@
+package tasks;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test class for IntervalTree functionality.
+ * Tests finding overlapping intervals after adding and removing intervals.
+ */
+public class IntervalTreeTest {
+    /**
+     * Tests that only overlapping intervals are found, by start, and touching intervals are not.
+     */
+    @Test
+    public void findOverlapping_returnsOverlappingIntervalsByStart() {
+        IntervalTree tree = new IntervalTree();
+        tree.add(0, 30, 40);
+        tree.add(1, 10, 20);
+        tree.add(2, 15, 35);
+        tree.add(3, 50, 60);
+
+        Assertions.assertArrayEquals(new int[] {1, 2, 0}, tree.findOverlapping(12, 32));
+        Assertions.assertArrayEquals(new int[] {2}, tree.findOverlapping(20, 30));
+        Assertions.assertArrayEquals(new int[0], tree.findOverlapping(40, 50));
+        Assertions.assertArrayEquals(new int[] {3}, tree.findOverlapping(59, 100));
+    }
+
+    /**
+     * Tests that removed intervals are no longer found.
+     */
+    @Test
+    public void remove_dropsInterval() {
+        IntervalTree tree = new IntervalTree();
+        tree.add(0, 10, 20);
+        tree.add(1, 10, 30);
+        tree.remove(0, 10);
+
+        Assertions.assertEquals(1, tree.size());
+        Assertions.assertArrayEquals(new int[] {1}, tree.findOverlapping(0, 100));
+    }
+
+    /**
+     * Tests queries against a scan of every interval, over many random adds and removes.
+     */
+    @Test
+    public void findOverlapping_matchesScanOfAllIntervals() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        List<long[]> intervals = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            if (!intervals.isEmpty() && random.nextInt(3) == 0) {
+                long[] removed = intervals.remove(random.nextInt(intervals.size()));
+                tree.remove((int) removed[0], removed[1]);
+            } else {
+                long start = random.nextInt(10_000);
+                long[] interval = {i, start, start + 1 + random.nextInt(500)};
+                intervals.add(interval);
+                tree.add(i, interval[1], interval[2]);
+            }
+
+            long queryStart = random.nextInt(10_000);
+            long queryEnd = queryStart + 1 + random.nextInt(300);
+            List<long[]> expected = new ArrayList<>();
+            for (long[] interval : intervals) {
+                if (interval[1] < queryEnd && interval[2] > queryStart) {
+                    expected.add(interval);
+                }
+            }
+            expected.sort((first, second) -> first[1] != second[1]
+                    ? Long.compare(first[1], second[1]) : Long.compare(first[0], second[0]));
+            int[] expectedNumbers = new int[expected.size()];
+            for (int j = 0; j < expected.size(); j++) {
+                expectedNumbers[j] = (int) expected.get(j)[0];
+            }
+            Assertions.assertEquals(Arrays.toString(expectedNumbers),
+                    Arrays.toString(tree.findOverlapping(queryStart, queryEnd)));
+        }
+        Assertions.assertEquals(intervals.size(), tree.size());
+    }
+}
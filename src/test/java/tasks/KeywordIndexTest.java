@@ -0,0 +1,85 @@
+package tasks;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Test class for KeywordIndex functionality.
+ * Tests finding the tasks with a word containing some text, compared with checking every word of
+ * every description, as tasks are added and removed.
+ */
+public class KeywordIndexTest {
+    private static final String[] WORDS = {"book", "books", "bookmark", "ebook", "go", "ago", "good",
+        "a", "b2b", "\u00fcber", "cook", "look", "o", "oo"};
+
+    private static int[] findByScan(TreeMap<Integer, String> descriptions, String text) {
+        List<Integer> matches = new ArrayList<>();
+        for (Map.Entry<Integer, String> entry : descriptions.entrySet()) {
+            for (String word : KeywordIndex.tokenize(entry.getValue().toLowerCase())) {
+                if (word.contains(text)) {
+                    matches.add(entry.getKey());
+                    break;
+                }
+            }
+        }
+        return matches.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Tests that exact words, parts of words and text found in no word give the tasks expected.
+     */
+    @Test
+    public void findContaining_matchesWholeAndPartialWords() {
+        KeywordIndex index = new KeywordIndex();
+        index.add(1, "Read book");
+        index.add(2, "Return ebook, go home");
+        index.add(3, "Good cookies");
+
+        Assertions.assertArrayEquals(new int[] {1, 2}, index.findContaining("book"));
+        Assertions.assertArrayEquals(new int[] {2, 3}, index.findContaining("go"));
+        Assertions.assertArrayEquals(new int[] {1, 2, 3}, index.findContaining("o"));
+        Assertions.assertArrayEquals(new int[] {3}, index.findContaining("cookie"));
+        Assertions.assertArrayEquals(new int[0], index.findContaining("bookmark"));
+        Assertions.assertArrayEquals(new int[0], index.findContaining("xo"));
+    }
+
+    /**
+     * Tests that random texts find the same tasks as checking every word, as random descriptions are
+     * added and removed, and that words no longer in any description are dropped.
+     */
+    @Test
+    public void findContaining_matchesScanAfterChanges() {
+        Random random = new Random(11);
+        KeywordIndex index = new KeywordIndex();
+        TreeMap<Integer, String> descriptions = new TreeMap<>();
+        for (int taskId = 0; taskId < 400; taskId++) {
+            StringBuilder description = new StringBuilder();
+            for (int i = random.nextInt(4); i >= 0; i--) {
+                description.append(WORDS[random.nextInt(WORDS.length)]).append(i % 2 == 0 ? " " : ", ");
+            }
+            index.add(taskId, description.toString());
+            descriptions.put(taskId, description.toString());
+            if (random.nextInt(3) == 0) {
+                int removed = descriptions.keySet().stream().skip(random.nextInt(descriptions.size()))
+                        .findFirst().orElseThrow();
+                index.remove(removed, descriptions.remove(removed));
+            }
+
+            String word = WORDS[random.nextInt(WORDS.length)];
+            int start = random.nextInt(word.length());
+            String text = word.substring(start, start + 1 + random.nextInt(word.length() - start));
+            Assertions.assertArrayEquals(findByScan(descriptions, text), index.findContaining(text));
+        }
+
+        for (int taskId : new ArrayList<>(descriptions.keySet())) {
+            index.remove(taskId, descriptions.remove(taskId));
+        }
+        Assertions.assertEquals(0, index.getWordCount());
+        Assertions.assertArrayEquals(new int[0], index.findContaining("o"));
+    }
+}
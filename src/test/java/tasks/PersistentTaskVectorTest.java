@@ -0,0 +1,108 @@
+package tasks;
+
+import exceptions.FengWeiException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test class for PersistentTaskVector functionality.
+ * Tests that snapshots keep the tasks they were taken with while the vector keeps changing.
+ */
+public class PersistentTaskVectorTest {
+    /**
+     * Tests that a snapshot is not affected by later appends, removals or changes to done status.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void snapshot_unaffectedByLaterChanges() throws FengWeiException {
+        PersistentTaskVector vector = new PersistentTaskVector();
+        for (int i = 0; i < 100; i++) {
+            vector.append(new TodoTask("task " + i));
+        }
+        List<Task> snapshot = vector.snapshot();
+
+        vector.append(new TodoTask("later task"));
+        vector.clear(5);
+        vector.setDone(10, true);
+
+        Assertions.assertEquals(100, snapshot.size());
+        Assertions.assertEquals("task 5", snapshot.get(5).getDescription());
+        Assertions.assertFalse(snapshot.get(10).isDone());
+        Assertions.assertTrue(vector.get(10).isDone());
+        Assertions.assertNull(vector.get(5));
+        Assertions.assertEquals(101, vector.slotCount());
+    }
+
+    /**
+     * Tests that tasks are changed in place while no snapshot holds them.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void setDone_withoutSnapshot_changesTaskInPlace() throws FengWeiException {
+        PersistentTaskVector vector = new PersistentTaskVector();
+        Task task = new TodoTask("read book");
+        vector.append(task);
+
+        vector.setDone(0, true);
+
+        Assertions.assertSame(task, vector.get(0));
+        Assertions.assertTrue(task.isDone());
+    }
+
+    /**
+     * Tests positions and iteration of snapshots against a plain list, over many random appends,
+     * removals and snapshots.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void snapshot_matchesListOfRemainingTasks() throws FengWeiException {
+        Random random = new Random(11);
+        PersistentTaskVector vector = new PersistentTaskVector();
+        List<Task> slots = new ArrayList<>();
+        List<List<Task>> snapshots = new ArrayList<>();
+        List<List<Task>> expectedSnapshots = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int slot = slots.isEmpty() ? 0 : random.nextInt(slots.size());
+            if (random.nextInt(4) == 0 && !slots.isEmpty() && slots.get(slot) != null) {
+                vector.clear(slot);
+                slots.set(slot, null);
+            } else {
+                Task task = new TodoTask("task " + i);
+                vector.append(task);
+                slots.add(task);
+            }
+            if (i % 500 == 0) {
+                snapshots.add(vector.snapshot());
+                expectedSnapshots.add(remainingTasks(slots));
+            }
+        }
+        snapshots.add(vector.snapshot());
+        expectedSnapshots.add(remainingTasks(slots));
+
+        for (int i = 0; i < snapshots.size(); i++) {
+            List<Task> snapshot = snapshots.get(i);
+            List<Task> expected = expectedSnapshots.get(i);
+            Assertions.assertEquals(expected.size(), snapshot.size());
+            Assertions.assertEquals(expected, new ArrayList<>(snapshot));
+            for (int j = 0; j < expected.size(); j++) {
+                Assertions.assertSame(expected.get(j), snapshot.get(j));
+            }
+        }
+    }
+
+    private static List<Task> remainingTasks(List<Task> slots) {
+        List<Task> remaining = new ArrayList<>();
+        for (Task task : slots) {
+            if (task != null) {
+                remaining.add(task);
+            }
+        }
+        return remaining;
+    }
+}
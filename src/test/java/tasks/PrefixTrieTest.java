@@ -0,0 +1,60 @@
+package tasks;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+/**
+ * Test class for PrefixTrie functionality.
+ * Tests completing prefixes after texts are added and removed.
+ */
+public class PrefixTrieTest {
+    /**
+     * Tests that completions are ordered with shorter texts first, then alphabetically.
+     */
+    @Test
+    public void complete_ordersShorterTextsFirst() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("read book");
+        trie.add("read");
+        trie.add("return book");
+        trie.add("buy milk");
+
+        Assertions.assertEquals(List.of("read", "read book", "return book"), trie.complete("re", 10));
+        Assertions.assertEquals(List.of("read"), trie.complete("re", 1));
+        Assertions.assertTrue(trie.complete("x", 10).isEmpty());
+        Assertions.assertTrue(trie.complete("reads", 10).isEmpty());
+    }
+
+    /**
+     * Tests that prefixes match regardless of case and completions keep the case they were added in.
+     */
+    @Test
+    public void complete_ignoresCaseOfPrefix() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("Team Meeting");
+
+        Assertions.assertEquals(List.of("Team Meeting"), trie.complete("team m", 10));
+        Assertions.assertEquals(List.of("Team Meeting"), trie.complete("TEAM", 10));
+    }
+
+    /**
+     * Tests that a text added twice is only dropped once both occurrences are removed.
+     */
+    @Test
+    public void remove_keepsTextUntilLastOccurrenceIsRemoved() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("read");
+        trie.add("read");
+        trie.add("read book");
+
+        trie.remove("read");
+        Assertions.assertEquals(List.of("read", "read book"), trie.complete("r", 10));
+
+        trie.remove("read");
+        Assertions.assertEquals(List.of("read book"), trie.complete("r", 10));
+
+        trie.remove("read book");
+        Assertions.assertTrue(trie.complete("", 10).isEmpty());
+    }
+}
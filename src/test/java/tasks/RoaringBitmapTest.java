@@ -0,0 +1,89 @@
+package tasks;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Test class for RoaringBitmap functionality.
+ * Tests adding, removing and combining values against a plain bit set, across sparse and dense chunks.
+ */
+public class RoaringBitmapTest {
+    /**
+     * Tests that values are found in increasing order once added and are gone once removed.
+     */
+    @Test
+    public void addAndRemove_tracksValues() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        bitmap.add(70_000);
+        bitmap.add(3);
+        bitmap.add(65_536);
+        bitmap.add(3);
+
+        Assertions.assertArrayEquals(new int[] {3, 65_536, 70_000}, bitmap.toArray());
+        Assertions.assertTrue(bitmap.contains(65_536));
+
+        bitmap.remove(65_536);
+        bitmap.remove(12);
+        Assertions.assertFalse(bitmap.contains(65_536));
+        Assertions.assertEquals(2, bitmap.cardinality());
+    }
+
+    /**
+     * Tests that and and or match a plain bit set for sparse and dense values.
+     */
+    @Test
+    public void andOr_matchBitSet() {
+        Random random = new Random(7);
+        for (int density : new int[] {2, 50, 1000}) {
+            RoaringBitmap first = new RoaringBitmap();
+            RoaringBitmap second = new RoaringBitmap();
+            BitSet firstSet = new BitSet();
+            BitSet secondSet = new BitSet();
+            for (int value = 0; value < 300_000; value++) {
+                if (random.nextInt(1000) < density) {
+                    first.add(value);
+                    firstSet.set(value);
+                }
+                if (random.nextInt(1000) < density / 2 + 1) {
+                    second.add(value);
+                    secondSet.set(value);
+                }
+            }
+            for (int i = 0; i < 20_000; i++) {
+                int value = random.nextInt(300_000);
+                first.remove(value);
+                firstSet.clear(value);
+            }
+
+            BitSet and = (BitSet) firstSet.clone();
+            and.and(secondSet);
+            BitSet or = (BitSet) firstSet.clone();
+            or.or(secondSet);
+            Assertions.assertArrayEquals(firstSet.stream().toArray(), first.toArray());
+            Assertions.assertArrayEquals(and.stream().toArray(), RoaringBitmap.and(first, second).toArray());
+            Assertions.assertArrayEquals(or.stream().toArray(), RoaringBitmap.or(first, second).toArray());
+            Assertions.assertEquals(or.cardinality(), RoaringBitmap.or(second, first).cardinality());
+        }
+    }
+
+    /**
+     * Tests that the combining operations leave their inputs unchanged.
+     */
+    @Test
+    public void andOr_doNotChangeInputs() {
+        RoaringBitmap first = new RoaringBitmap();
+        RoaringBitmap second = new RoaringBitmap();
+        first.add(1);
+        second.add(2);
+
+        RoaringBitmap union = RoaringBitmap.or(first, second);
+        union.add(5);
+        Assertions.assertArrayEquals(new int[] {1}, first.toArray());
+        Assertions.assertArrayEquals(new int[] {2}, second.toArray());
+        Assertions.assertArrayEquals(new int[0], RoaringBitmap.and(first, second).toArray());
+        Assertions.assertEquals("[1, 2, 5]", Arrays.toString(union.toArray()));
+    }
+}
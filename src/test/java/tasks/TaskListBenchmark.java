@@ -0,0 +1,74 @@
+package tasks;
+
+import exceptions.FengWeiException;
+
+/**
+ * Benchmark of a bulk delete, comparing TaskList.removeAll with removing the same tasks one at a time.
+ * Run its main method directly; it is not part of the unit test suite.
+ */
+public class TaskListBenchmark {
+    private static final int TASK_COUNT = 150_000;
+    private static final int REMOVED_COUNT = 100_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    /**
+     * Runs the benchmark and prints the average time per bulk delete.
+     *
+     * @param args unused
+     * @throws FengWeiException if task creation fails
+     */
+    public static void main(String[] args) throws FengWeiException {
+        int[] indices = new int[REMOVED_COUNT];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i < REMOVED_COUNT / 2 ? i : 2 * i - REMOVED_COUNT / 2;
+        }
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += removeAll(createTaskList(), indices) + removeOneByOne(createTaskList(), indices);
+        }
+
+        long bulkNanos = 0;
+        long oneByOneNanos = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            TaskList taskList = createTaskList();
+            long start = System.nanoTime();
+            sink += removeAll(taskList, indices);
+            bulkNanos += System.nanoTime() - start;
+
+            taskList = createTaskList();
+            start = System.nanoTime();
+            sink += removeOneByOne(taskList, indices);
+            oneByOneNanos += System.nanoTime() - start;
+        }
+
+        report("removeAll", bulkNanos);
+        report("remove one by one", oneByOneNanos);
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static TaskList createTaskList() throws FengWeiException {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            taskList.add(new TodoTask("Task " + i));
+        }
+        return taskList;
+    }
+
+    private static long removeAll(TaskList taskList, int[] indices) {
+        taskList.removeAll(indices);
+        return taskList.size();
+    }
+
+    private static long removeOneByOne(TaskList taskList, int[] indices) {
+        for (int i = indices.length - 1; i >= 0; i--) {
+            taskList.remove(indices[i]);
+        }
+        return taskList.size();
+    }
+
+    private static void report(String name, long totalNanos) {
+        System.out.printf("%-18s %8.1f ms%n", name, totalNanos / 1e6 / MEASURED_ROUNDS);
+    }
+}
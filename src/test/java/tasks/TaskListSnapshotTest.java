@@ -0,0 +1,196 @@
+package tasks;
+
+import exceptions.FengWeiException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Test class for TaskListSnapshot and TaskListReplica functionality.
+ * Tests that snapshots keep the tasks they were published with, that queries on them see the indexes
+ * of the list, and that they can be queried from other threads while the list changes.
+ */
+public class TaskListSnapshotTest {
+    private static List<String> describe(TaskList taskList) {
+        List<String> descriptions = new ArrayList<>();
+        for (int i = 0; i < taskList.size(); i++) {
+            Task task = taskList.get(i);
+            descriptions.add("#" + task.getId() + " " + task.getDescription() + (task.isDone() ? " X" : ""));
+        }
+        return descriptions;
+    }
+
+    /**
+     * Tests that a snapshot does not see changes made to the list after it was published.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void snapshot_unaffectedByLaterChanges() throws FengWeiException {
+        TaskList taskList = new TaskList();
+        taskList.add(new TodoTask("read book"));
+        taskList.add(new TodoTask("buy milk"));
+        TaskListReplica replica = new TaskListReplica(taskList);
+        TaskListSnapshot snapshot = replica.publish();
+
+        taskList.markAsDone(0);
+        taskList.remove(1);
+        taskList.add(new TodoTask("read paper"));
+
+        Assertions.assertEquals(2, snapshot.size());
+        Assertions.assertEquals(List.of("#1 read book", "#2 buy milk"),
+                snapshot.read(TaskListSnapshotTest::describe));
+        Assertions.assertEquals(1, snapshot.read(copy -> copy.findTasks("read").size()).intValue());
+        Assertions.assertEquals("read paper", taskList.get(1).getDescription());
+    }
+
+    /**
+     * Tests that queries on published snapshots see every kind of change, through the indexes, and
+     * that tasks changed in place by the list afterwards do not change the copy.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void publish_replaysChanges() throws FengWeiException {
+        TaskList taskList = new TaskList();
+        TaskListReplica replica = new TaskListReplica(taskList);
+        taskList.add(new TodoTask("read book"));
+        taskList.add(new TodoTask("buy milk"));
+        taskList.add(new TodoTask("read paper"));
+        Assertions.assertEquals(3, replica.publish().size());
+
+        taskList.markAllAsDone(new int[] {0, 2});
+        List<Task> removed = taskList.removeAll(new int[] {0, 1});
+        TaskListSnapshot afterRemoving = replica.publish();
+        Assertions.assertEquals(List.of("#3 read paper X"), afterRemoving.read(TaskListSnapshotTest::describe));
+
+        taskList.insertAll(new int[] {0, 1}, removed);
+        taskList.markAsNotDone(2);
+        TaskListSnapshot afterUndo = replica.publish();
+        taskList.add(new TodoTask("walk dog"));
+        taskList.markAsDone(3);
+
+        Assertions.assertEquals(List.of("#1 read book X", "#2 buy milk", "#3 read paper"),
+                afterUndo.read(TaskListSnapshotTest::describe));
+        Assertions.assertEquals(2, afterUndo.read(copy -> copy.findTasks("read").size()).intValue());
+        Assertions.assertEquals(1, afterUndo.read(copy -> copy.filterIndices(true, List.of()).length).intValue());
+        Assertions.assertEquals(List.of("#1 read book X", "#2 buy milk", "#3 read paper", "#4 walk dog X"),
+                replica.publish().read(TaskListSnapshotTest::describe));
+    }
+
+    /**
+     * Tests that a snapshot without changes since the last one is the same snapshot.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void publish_noChanges_sameSnapshot() throws FengWeiException {
+        TaskList taskList = new TaskList();
+        TaskListReplica replica = new TaskListReplica(taskList);
+        taskList.add(new TodoTask("read book"));
+        TaskListSnapshot snapshot = replica.publish();
+
+        Assertions.assertSame(snapshot, replica.publish());
+    }
+
+    /**
+     * Tests that many changes published without queries are dropped for a snapshot of the tasks, from
+     * which the copy is rebuilt, both before and after the copy was first built.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void publish_manyChangesWithoutQueries_rebuildsCopy() throws FengWeiException {
+        TaskList taskList = new TaskList();
+        TaskListReplica replica = new TaskListReplica(taskList);
+        TaskListSnapshot snapshot = null;
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 3000; i++) {
+                taskList.add(new TodoTask("task " + i));
+                if (i % 2 == 1) {
+                    taskList.remove(taskList.size() - 2);
+                }
+                snapshot = replica.publish();
+            }
+            Assertions.assertEquals(describe(taskList), snapshot.read(TaskListSnapshotTest::describe));
+            Assertions.assertEquals(taskList.findTasks("task 2999").size(),
+                    snapshot.read(copy -> copy.findTasks("task 2999").size()).intValue());
+        }
+    }
+
+    /**
+     * Tests that the copy keeps the kind of store of the list.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void read_columnarList_sameTasks() throws FengWeiException {
+        TaskList taskList = new TaskList(List.of(), new ColumnarTaskStore(0));
+        taskList.add(new DeadlineTask("submit report", LocalDateTime.of(2025, 10, 15, 23, 59)));
+        TaskListReplica replica = new TaskListReplica(taskList);
+        taskList.add(new TodoTask("read book"));
+        taskList.markAsDone(1);
+
+        TaskListSnapshot snapshot = replica.publish();
+
+        Assertions.assertEquals(describe(taskList), snapshot.read(TaskListSnapshotTest::describe));
+        LocalDateTime later = LocalDateTime.of(2030, 1, 1, 0, 0);
+        Assertions.assertEquals(1, snapshot.read(copy -> copy.findOverdueDeadlines(later).size()).intValue());
+        Assertions.assertArrayEquals(new int[] {1}, snapshot.read(copy -> copy.filterIndices(true, List.of())));
+    }
+
+    /**
+     * Tests that threads querying published snapshots always see whole batches of changes while
+     * another thread keeps changing the list.
+     *
+     * @throws Exception if task creation fails or a thread is interrupted
+     */
+    @Test
+    public void snapshot_readFromOtherThreads_seesWholeBatches() throws Exception {
+        TaskList taskList = new TaskList();
+        TaskListReplica replica = new TaskListReplica(taskList);
+        AtomicReference<TaskListSnapshot> latest = new AtomicReference<>(replica.publish());
+        List<Throwable> failures = new ArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 200; j++) {
+                        TaskListSnapshot snapshot = latest.get();
+                        snapshot.read(copy -> {
+                            int size = copy.size();
+                            Assertions.assertEquals(0, size % 10, "Snapshot should hold whole batches");
+                            Assertions.assertEquals(size, copy.findTasks("task").size());
+                            Assertions.assertEquals(size / 10, copy.filterIndices(true, List.of()).length,
+                                    "Snapshot should hold whole batches");
+                            return null;
+                        });
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+
+        for (int batch = 0; batch < 100; batch++) {
+            for (int i = 0; i < 10; i++) {
+                taskList.add(new TodoTask("task " + batch + " " + i));
+            }
+            taskList.markAsDone(batch);
+            latest.set(replica.publish());
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        Assertions.assertEquals(List.of(), failures);
+        Assertions.assertEquals(1000, latest.get().size());
+    }
+}
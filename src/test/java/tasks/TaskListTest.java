@@ -4,8 +4,11 @@ import exceptions.FengWeiException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Assertions;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Test class for TaskList functionality.
@@ -158,6 +161,33 @@ public class TaskListTest {
         Assertions.assertEquals(1, taskList.size());
     }
 
+    /**
+     * Tests that a snapshot keeps the tasks and statuses it was taken with, across later changes.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void snapshot_unaffectedByLaterChanges() throws FengWeiException {
+        for (int i = 0; i < 200; i++) {
+            taskList.add(new TodoTask("task " + i));
+        }
+        List<Task> snapshot = taskList.snapshot();
+
+        taskList.markAsDone(0);
+        for (int i = 0; i < 150; i++) {
+            taskList.remove(1);
+        }
+        taskList.add(new TodoTask("later task"));
+
+        Assertions.assertEquals(200, snapshot.size());
+        Assertions.assertFalse(snapshot.get(0).isDone());
+        Assertions.assertEquals("task 1", snapshot.get(1).getDescription());
+        Assertions.assertEquals("task 199", snapshot.get(199).getDescription());
+        Assertions.assertTrue(taskList.get(0).isDone());
+        Assertions.assertEquals(51, taskList.size());
+        Assertions.assertEquals("task 151", taskList.snapshot().get(1).getDescription());
+    }
+
     /**
      * Tests that markAsDone correctly marks a task as completed.
      */
@@ -251,6 +281,370 @@ public class TaskListTest {
         Assertions.assertEquals(task, foundTasks.get(0));
     }
 
+    /**
+     * Tests that findTasks matches keywords spanning several words and punctuation.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void findTasks_matchesAcrossWords() throws FengWeiException {
+        TodoTask task1 = new TodoTask("Email Bob: project update");
+        TodoTask task2 = new TodoTask("Project update for Alice");
+        taskList.add(task1);
+        taskList.add(task2);
+
+        Assertions.assertEquals(List.of(task1), taskList.findTasks("bob: proj"));
+        Assertions.assertEquals(List.of(task1, task2), taskList.findTasks("ject upd"));
+        Assertions.assertEquals(List.of(task1), taskList.findTasks(":"));
+        Assertions.assertEquals(List.of(task1, task2), taskList.findTasks(""));
+    }
+
+    /**
+     * Tests that findTasks matches partial words of every length, as a plain substring search would.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void findTasks_matchesPartialWordsOfAnyLength() throws FengWeiException {
+        TodoTask task1 = new TodoTask("Return library BOOK");
+        TodoTask task2 = new TodoTask("Book dentist");
+        TodoTask task3 = new TodoTask("Call mom");
+        taskList.add(task1);
+        taskList.add(task2);
+        taskList.add(task3);
+
+        Assertions.assertEquals(List.of(task1, task2), taskList.findTasks("boo"));
+        Assertions.assertEquals(List.of(task1, task2), taskList.findTasks("oo"));
+        Assertions.assertEquals(List.of(task3), taskList.findTasks("l m"));
+        Assertions.assertEquals(List.of(task2), taskList.findTasks("k d"));
+        Assertions.assertEquals(List.of(), taskList.findTasks("bookd"));
+    }
+
+    /**
+     * Tests that filterIndices combines status and type filters and follows marking and removal.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void filterIndices_combinesStatusAndType() throws FengWeiException {
+        TodoTask otherTodo = new TodoTask("Call mom");
+        taskList.add(todoTask);
+        taskList.add(deadlineTask);
+        taskList.add(otherTodo);
+        taskList.markAsDone(1);
+        taskList.markAsDone(2);
+
+        Assertions.assertArrayEquals(new int[] {1, 2}, taskList.filterIndices(true, List.of()));
+        Assertions.assertArrayEquals(new int[] {0}, taskList.filterIndices(false, List.of()));
+        Assertions.assertArrayEquals(new int[] {0, 2}, taskList.filterIndices(null, List.of('t')));
+        Assertions.assertArrayEquals(new int[] {1, 2}, taskList.filterIndices(true, List.of('T', 'D')));
+        Assertions.assertArrayEquals(new int[0], taskList.filterIndices(false, List.of('E')));
+
+        taskList.markAsNotDone(2);
+        taskList.remove(0);
+        Assertions.assertArrayEquals(new int[] {1}, taskList.filterIndices(false, List.of('T')));
+        Assertions.assertArrayEquals(new int[] {0, 1}, taskList.filterIndices(null, List.of()));
+    }
+
+    /**
+     * Tests that the due-date queries find pending deadlines in deadline order and skip done ones.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void findDeadlines_returnsPendingDeadlinesByDeadline() throws FengWeiException {
+        DeadlineTask essay = new DeadlineTask("Essay", "2025-03-01 1200");
+        DeadlineTask taxes = new DeadlineTask("Taxes", "2025-01-15 0900");
+        DeadlineTask report = new DeadlineTask("Report", "2025-02-01 1800");
+        DeadlineTask slides = new DeadlineTask("Slides", "2025-02-01 1800");
+        taskList.add(essay);
+        taskList.add(todoTask);
+        taskList.add(taxes);
+        taskList.add(report);
+        taskList.add(slides);
+        LocalDateTime now = DateTimeCodec.parse("2025-02-01 1800");
+
+        Assertions.assertEquals(List.of(taxes), taskList.findOverdueDeadlines(now));
+        Assertions.assertEquals(List.of(report, slides), taskList.findUpcomingDeadlines(now, 2));
+        Assertions.assertEquals(List.of(taxes, report, slides), taskList.findDeadlinesDueBy(now));
+
+        taskList.markAsDone(3);
+        taskList.remove(0);
+        Assertions.assertEquals(List.of(slides), taskList.findUpcomingDeadlines(now, 5));
+        Assertions.assertEquals(List.of(taxes, slides),
+                taskList.findDeadlinesDueBy(DateTimeCodec.parse("2025-12-31 2359")));
+    }
+
+    /**
+     * Tests that findEventsDuring finds the overlapping events by start time and skips other tasks.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void findEventsDuring_returnsOverlappingEventsByStart() throws FengWeiException {
+        EventTask lunch = new EventTask("Lunch", DateTimeCodec.parse("2025-12-25 1200"),
+                DateTimeCodec.parse("2025-12-25 1400"));
+        EventTask party = new EventTask("Party", DateTimeCodec.parse("2025-12-25 1500"),
+                DateTimeCodec.parse("2025-12-25 1800"));
+        EventTask call = new EventTask("Call", DateTimeCodec.parse("2025-12-25 1430"),
+                DateTimeCodec.parse("2025-12-25 1430"));
+        taskList.add(party);
+        taskList.add(deadlineTask);
+        taskList.add(lunch);
+        taskList.add(call);
+
+        Assertions.assertEquals(List.of(call, party), taskList.findEventsDuring(
+                DateTimeCodec.parse("2025-12-25 1400"), DateTimeCodec.parse("2025-12-25 1600")));
+        Assertions.assertEquals(List.of(call), taskList.findEventsDuring(
+                DateTimeCodec.parse("2025-12-25 1430"), DateTimeCodec.parse("2025-12-25 1430")));
+
+        taskList.remove(0);
+        Assertions.assertEquals(List.of(lunch, call), taskList.findEventsDuring(
+                DateTimeCodec.parse("2025-12-25 0000"), DateTimeCodec.parse("2025-12-26 0000")));
+    }
+
+    /**
+     * Tests that findSimilarTasks tolerates typos and ranks closer matches first.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void findSimilarTasks_ranksTasksByEditDistance() throws FengWeiException {
+        TodoTask task1 = new TodoTask("Team meting notes");
+        TodoTask task2 = new TodoTask("Book meeting room");
+        TodoTask task3 = new TodoTask("Buy milk");
+        taskList.add(task1);
+        taskList.add(task2);
+        taskList.add(task3);
+
+        Assertions.assertEquals(List.of(task2, task1), taskList.findSimilarTasks("meeting"));
+        Assertions.assertEquals(List.of(task1, task2), taskList.findSimilarTasks("Meting"));
+        Assertions.assertEquals(List.of(task2), taskList.findSimilarTasks("bok meetign"));
+        Assertions.assertEquals(List.of(task2), taskList.findSimilarTasks("meeting", 0));
+        Assertions.assertEquals(List.of(), taskList.findSimilarTasks("cat"));
+    }
+
+    /**
+     * Tests that a task counts the nearest of its words close to each word of the term, and that tasks
+     * at the same total distance stay in list order.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void findSimilarTasks_severalCloseWords_ranksByNearestWords() throws FengWeiException {
+        TodoTask task1 = new TodoTask("Meting and meeting");
+        TodoTask task2 = new TodoTask("Metting plan");
+        TodoTask task3 = new TodoTask("Meeting plan");
+        TodoTask task4 = new TodoTask("Meetings");
+        taskList.add(task1);
+        taskList.add(task2);
+        taskList.add(task3);
+        taskList.add(task4);
+
+        Assertions.assertEquals(List.of(task1, task3, task2, task4), taskList.findSimilarTasks("meeting"));
+        Assertions.assertEquals(List.of(task3, task2), taskList.findSimilarTasks("meeting plan"));
+    }
+
+    /**
+     * Tests that findTasks stops finding removed tasks and keeps finding the others in order.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void findTasks_afterRemove_reflectsRemainingTasks() throws FengWeiException {
+        TodoTask task1 = new TodoTask("Buy milk");
+        TodoTask task2 = new TodoTask("Buy bread");
+        TodoTask task3 = new TodoTask("Buy eggs");
+        TaskList loadedList = new TaskList(List.of(task1, task2, task3));
+
+        loadedList.remove(1);
+        TodoTask task4 = new TodoTask("Buy bread again");
+        loadedList.add(task4);
+
+        Assertions.assertEquals(List.of(task1, task3, task4), loadedList.findTasks("buy"));
+        Assertions.assertEquals(List.of(task4), loadedList.findTasks("bread"));
+    }
+
+    /**
+     * Tests that the index memory estimate grows with the tasks indexed, and counts the lower-cased
+     * copy of a description only when it differs from the description.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void estimateIndexBytes_countsIndexesAndLowerCaseCopies() throws FengWeiException {
+        TaskList lowerCaseList = new TaskList();
+        TaskList mixedCaseList = new TaskList();
+        for (int i = 0; i < 1000; i++) {
+            lowerCaseList.add(new TodoTask("read chapter " + i));
+            mixedCaseList.add(new TodoTask("Read Chapter " + i));
+        }
+
+        Assertions.assertTrue(lowerCaseList.estimateIndexBytes() > new TaskList().estimateIndexBytes());
+        Assertions.assertTrue(mixedCaseList.estimateIndexBytes()
+                >= lowerCaseList.estimateIndexBytes() + 1000 * "read chapter 0".length());
+    }
+
+    /**
+     * Tests that the index memory estimate also counts the indexes of deadlines and events.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void estimateIndexBytes_countsDateIndexes() throws FengWeiException {
+        TaskList todoList = new TaskList();
+        TaskList deadlineList = new TaskList();
+        TaskList eventList = new TaskList();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int i = 0; i < 1000; i++) {
+            todoList.add(new TodoTask("task " + i));
+            deadlineList.add(new DeadlineTask("task " + i, start.plusHours(i)));
+            eventList.add(new EventTask("task " + i, start.plusHours(i), start.plusHours(i + 1)));
+        }
+
+        long todoBytes = todoList.estimateIndexBytes();
+        Assertions.assertTrue(deadlineList.estimateIndexBytes() >= todoBytes + 1000 * Long.BYTES);
+        Assertions.assertTrue(eventList.estimateIndexBytes() >= todoBytes + 1000 * 2 * Long.BYTES);
+    }
+
+    /**
+     * Tests that tasks keep their IDs as other tasks are removed, and are found by them.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void indexOfId_findsTasksAfterRemovals() throws FengWeiException {
+        TodoTask stored = new TodoTask("Stored task");
+        stored.setId(40);
+        TaskList loadedList = new TaskList(List.of(stored));
+        List<TodoTask> added = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            TodoTask task = new TodoTask("Task " + i);
+            loadedList.add(task);
+            added.add(task);
+        }
+        Assertions.assertEquals(40, stored.getId());
+        Assertions.assertEquals(41, added.get(0).getId());
+
+        for (int i = 0; i < 150; i++) {
+            loadedList.remove(1 + i);
+        }
+        loadedList.markAsDone(75);
+        assertOddTasksFoundById(loadedList, 299);
+
+        // Removing a few more tasks leaves more free slots than tasks, so the free slots are dropped
+        for (int i = 0; i < 10; i++) {
+            loadedList.remove(loadedList.size() - 1);
+        }
+        Assertions.assertEquals(141, loadedList.size());
+        assertOddTasksFoundById(loadedList, 279);
+        Assertions.assertEquals(0, loadedList.indexOfId(40));
+        Assertions.assertEquals(-1, loadedList.indexOfId(41));
+        Assertions.assertEquals(List.of(added.get(151)), loadedList.findTasks("task 151"));
+        Assertions.assertArrayEquals(new int[] {75}, loadedList.filterIndices(true, List.of()));
+    }
+
+    /**
+     * Tests that removing most tasks at once removes exactly those tasks from the list and its indexes.
+     * How long this takes is measured by {@code TaskListBenchmark} instead.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void removeAll_manyTasks_removesFromIndexes() throws FengWeiException {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i <= 300; i++) {
+            taskList.add(new TodoTask("Task " + i));
+        }
+        taskList.remove(0);
+        int[] indices = new int[200];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i < 100 ? i : 2 * i - 99;
+        }
+
+        List<Task> removed = taskList.removeAll(indices);
+
+        Assertions.assertEquals(200, removed.size());
+        Assertions.assertEquals("Task 1", removed.get(0).getDescription());
+        Assertions.assertEquals("Task 102", removed.get(100).getDescription());
+        Assertions.assertEquals(100, taskList.size());
+        Assertions.assertEquals("Task 101", taskList.get(0).getDescription());
+        Assertions.assertEquals("Task 103", taskList.get(1).getDescription());
+        Assertions.assertEquals("Task 299", taskList.get(taskList.size() - 1).getDescription());
+        Assertions.assertEquals(-1, taskList.indexOfId(removed.get(0).getId()));
+        Assertions.assertTrue(taskList.findTasks("task 102").isEmpty());
+        Assertions.assertEquals(List.of(taskList.get(1)), taskList.findTasks("task 103"));
+        Assertions.assertTrue(taskList.findSimilarTasks("102", 0).isEmpty());
+        Assertions.assertEquals(List.of(taskList.get(1)), taskList.findSimilarTasks("103", 0));
+        Assertions.assertEquals(100, taskList.findSimilarTasks("task", 0).size());
+        Assertions.assertEquals(100, taskList.filterIndices(false, List.of()).length);
+    }
+
+    /**
+     * Tests that removing a few tasks at once removes exactly those tasks from the list and its indexes.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void removeAll_fewTasks_removesFromIndexes() throws FengWeiException {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 300; i++) {
+            taskList.add(new TodoTask("Task " + i));
+        }
+
+        List<Task> removed = taskList.removeAll(new int[] {0, 150, 299});
+
+        Assertions.assertEquals(List.of("Task 0", "Task 150", "Task 299"),
+                removed.stream().map(Task::getDescription).toList());
+        Assertions.assertEquals(297, taskList.size());
+        Assertions.assertEquals(-1, taskList.indexOfId(removed.get(1).getId()));
+        Assertions.assertTrue(taskList.findTasks("task 150").isEmpty());
+        Assertions.assertTrue(taskList.findSimilarTasks("150", 0).isEmpty());
+        Assertions.assertEquals(List.of(taskList.get(149)), taskList.findSimilarTasks("151", 0));
+        Assertions.assertEquals(297, taskList.findSimilarTasks("task", 0).size());
+    }
+
+    private static void assertOddTasksFoundById(TaskList taskList, int lastTask) {
+        for (int i = 1; i <= lastTask; i += 2) {
+            int index = taskList.indexOfId(41 + i);
+            Assertions.assertEquals(1 + i / 2, index);
+            Assertions.assertEquals("Task " + i, taskList.get(index).getDescription());
+        }
+        Assertions.assertEquals(-1, taskList.indexOfId(41 + lastTask + 2));
+    }
+
+    /**
+     * Tests that adding a task with an ID already given out is rejected instead of renumbering it.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void add_reusedId_isRejected() throws FengWeiException {
+        taskList.add(todoTask);
+        deadlineTask.setId(todoTask.getId());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> taskList.add(deadlineTask));
+        Assertions.assertEquals(1, taskList.size());
+        Assertions.assertEquals(0, taskList.indexOfId(todoTask.getId()));
+    }
+
+    /**
+     * Tests that IDs skipped over, such as those of tasks deleted in an earlier session, are not
+     * given to new tasks.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void skipIdsUpTo_newTasksGetLaterIds() throws FengWeiException {
+        taskList.add(todoTask);
+        taskList.skipIdsUpTo(10);
+        taskList.skipIdsUpTo(5);
+        taskList.add(deadlineTask);
+
+        Assertions.assertEquals(11, deadlineTask.getId());
+        Assertions.assertEquals(1, taskList.indexOfId(11));
+    }
+
     /**
      * Tests multiple operations working together correctly in a complex scenario.
      * This integration test verifies that add, mark, and remove operations work properly in sequence.
@@ -285,4 +679,76 @@ public class TaskListTest {
         Assertions.assertEquals(task1, taskList.get(0));
         Assertions.assertEquals(task3, taskList.get(1));
     }
+
+    /**
+     * Tests that the orders read from the indexes match sorting the tasks with the comparator of each order.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void idsInOrder_matchesComparator() throws FengWeiException {
+        Random random = new Random(5);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int i = 0; i < 500; i++) {
+            LocalDateTime date = start.plusHours(random.nextInt(50));
+            int kind = random.nextInt(3);
+            if (kind == 0) {
+                taskList.add(new TodoTask("todo " + i));
+            } else if (kind == 1) {
+                taskList.add(new DeadlineTask("deadline " + i, date));
+            } else {
+                taskList.add(new EventTask("event " + i, date, date.plusHours(1)));
+            }
+            if (random.nextInt(3) == 0) {
+                taskList.markAsDone(taskList.size() - 1);
+            }
+        }
+        taskList.removeAll(new int[] {3, 50, 51, 300});
+
+        for (TaskOrder order : TaskOrder.values()) {
+            List<Task> sorted = new ArrayList<>(taskList.getAll());
+            sorted.sort(order.comparator());
+            int[] ids = taskList.idsInOrder(order);
+            Assertions.assertEquals(sorted.size(), ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                Assertions.assertEquals(sorted.get(i).getId(), ids[i], order + " order differs at " + i);
+            }
+        }
+    }
+
+    /**
+     * Tests that change listeners are told of each add, mark and removal with the positions changed.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void changeListener_toldOfEachChange() throws FengWeiException {
+        List<String> changes = new ArrayList<>();
+        taskList.addChangeListener(new TaskChangeListener() {
+            @Override
+            public void tasksInserted(TaskList list, int[] indices) {
+                changes.add("inserted " + Arrays.toString(indices));
+            }
+
+            @Override
+            public void tasksRemoved(TaskList list, int[] indices) {
+                changes.add("removed " + Arrays.toString(indices));
+            }
+
+            @Override
+            public void tasksMarked(TaskList list, int[] indices, boolean isDone) {
+                changes.add("marked " + Arrays.toString(indices) + " " + isDone);
+            }
+        });
+
+        taskList.add(todoTask);
+        taskList.add(deadlineTask);
+        taskList.add(new TodoTask("Read book"));
+        taskList.markAllAsDone(new int[] {0, 2});
+        taskList.markAsNotDone(2);
+        taskList.removeAll(new int[] {0, 1});
+
+        Assertions.assertEquals(List.of("inserted [0]", "inserted [1]", "inserted [2]", "marked [0, 2] true",
+                "marked [2] false", "removed [0, 1]"), changes);
+    }
 }
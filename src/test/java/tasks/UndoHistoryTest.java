@@ -0,0 +1,195 @@
+package tasks;
+
+import exceptions.FengWeiException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test class for UndoHistory functionality.
+ * Tests that undoing and redoing adds, status changes and removals restore the task list and its IDs.
+ */
+public class UndoHistoryTest {
+    /** Listener that ignores the changes it is told of. */
+    private static final TaskChangeListener IGNORE_CHANGES = new TaskChangeListener() {
+        @Override
+        public void tasksInserted(TaskList taskList, int[] indices) {
+        }
+
+        @Override
+        public void tasksRemoved(TaskList taskList, int[] indices) {
+        }
+
+        @Override
+        public void tasksMarked(TaskList taskList, int[] indices, boolean isDone) {
+        }
+    };
+
+    /**
+     * Tests that undoing an add removes the task, and redoing it puts the task back with its ID.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void undoAdd_removesTaskAndRedoPutsItBack() throws FengWeiException {
+        TaskList taskList = createTaskList(new TaskList(), 3);
+        UndoHistory history = new UndoHistory(UndoHistory.DEFAULT_MAX_BYTES);
+        Task added = new TodoTask("added task");
+        taskList.add(added);
+        history.recordAdd(added);
+        int id = added.getId();
+
+        Assertions.assertTrue(history.undo(taskList, IGNORE_CHANGES));
+        Assertions.assertEquals(3, taskList.size());
+        Assertions.assertEquals(-1, taskList.indexOfId(id));
+
+        Assertions.assertTrue(history.redo(taskList, IGNORE_CHANGES));
+        Assertions.assertEquals(4, taskList.size());
+        Assertions.assertEquals(3, taskList.indexOfId(id));
+        Assertions.assertEquals("added task", taskList.get(3).getDescription());
+        Assertions.assertFalse(history.redo(taskList, IGNORE_CHANGES));
+    }
+
+    /**
+     * Tests that undoing a mark restores the status each task had before, and the listener is told of it.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void undoMark_restoresEarlierStatus() throws FengWeiException {
+        TaskList taskList = createTaskList(new TaskList(), 5);
+        UndoHistory history = new UndoHistory(UndoHistory.DEFAULT_MAX_BYTES);
+        taskList.markAsDone(1);
+        int[] indices = {0, 1, 2};
+        history.recordStatus(taskList, indices);
+        taskList.markAllAsDone(indices);
+        List<Boolean> marked = new ArrayList<>();
+        TaskChangeListener listener = new TaskChangeListener() {
+            @Override
+            public void tasksInserted(TaskList list, int[] changed) {
+            }
+
+            @Override
+            public void tasksRemoved(TaskList list, int[] changed) {
+            }
+
+            @Override
+            public void tasksMarked(TaskList list, int[] changed, boolean isDone) {
+                marked.add(isDone);
+            }
+        };
+
+        Assertions.assertTrue(history.undo(taskList, listener));
+
+        Assertions.assertFalse(taskList.get(0).isDone());
+        Assertions.assertTrue(taskList.get(1).isDone());
+        Assertions.assertFalse(taskList.get(2).isDone());
+        Assertions.assertEquals(List.of(true, false), marked);
+    }
+
+    /**
+     * Tests that undoing a removal of many tasks puts each back at its position with its ID and status,
+     * including after the free positions they left were compacted away, for both task stores.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void undoRemoveAll_restoresTasksInPlace() throws FengWeiException {
+        for (TaskList taskList : List.of(new TaskList(), new TaskList(new ArrayList<>(), new ColumnarTaskStore(0)))) {
+            createTaskList(taskList, 1000);
+            taskList.markAsDone(10);
+            List<String> expected = describe(taskList);
+            int[] ids = idsOf(taskList);
+            UndoHistory history = new UndoHistory(UndoHistory.DEFAULT_MAX_BYTES);
+            int[] indices = new int[600];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = i + i / 2;
+            }
+
+            List<Task> removed = taskList.removeAll(indices);
+            history.recordRemove(indices, removed);
+            Assertions.assertEquals(400, taskList.size());
+            Assertions.assertTrue(history.undo(taskList, IGNORE_CHANGES));
+
+            Assertions.assertEquals(expected, describe(taskList));
+            Assertions.assertArrayEquals(ids, idsOf(taskList));
+            Assertions.assertTrue(taskList.get(10).isDone());
+            for (int i = 0; i < ids.length; i++) {
+                Assertions.assertEquals(i, taskList.indexOfId(ids[i]));
+            }
+            Assertions.assertEquals(1000, taskList.filterIndices(false, List.of()).length + 1);
+        }
+    }
+
+    /**
+     * Tests that recording a new change after undoing drops the changes that could be redone.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void record_afterUndo_clearsRedo() throws FengWeiException {
+        TaskList taskList = createTaskList(new TaskList(), 2);
+        UndoHistory history = new UndoHistory(UndoHistory.DEFAULT_MAX_BYTES);
+        Task added = new TodoTask("added task");
+        taskList.add(added);
+        history.recordAdd(added);
+        history.undo(taskList, IGNORE_CHANGES);
+
+        Task other = new TodoTask("other task");
+        taskList.add(other);
+        history.recordAdd(other);
+
+        Assertions.assertFalse(history.redo(taskList, IGNORE_CHANGES));
+        Assertions.assertTrue(history.undo(taskList, IGNORE_CHANGES));
+        Assertions.assertFalse(history.undo(taskList, IGNORE_CHANGES));
+    }
+
+    /**
+     * Tests that the oldest changes are dropped once the history holds more than its budget.
+     *
+     * @throws FengWeiException if task creation fails
+     */
+    @Test
+    public void record_overBudget_dropsOldestChanges() throws FengWeiException {
+        TaskList taskList = new TaskList();
+        UndoHistory history = new UndoHistory(1000);
+        for (int i = 0; i < 100; i++) {
+            Task task = new TodoTask("task " + i);
+            taskList.add(task);
+            history.recordAdd(task);
+        }
+
+        Assertions.assertTrue(history.estimateBytes() <= 1000);
+        int undone = 0;
+        while (history.undo(taskList, IGNORE_CHANGES)) {
+            undone++;
+        }
+        Assertions.assertTrue(undone > 0 && undone < 100);
+        Assertions.assertEquals(100 - undone, taskList.size());
+        Assertions.assertEquals("task 0", taskList.get(0).getDescription());
+    }
+
+    private static TaskList createTaskList(TaskList taskList, int count) throws FengWeiException {
+        for (int i = 0; i < count; i++) {
+            taskList.add(new TodoTask("task " + i));
+        }
+        return taskList;
+    }
+
+    private static List<String> describe(TaskList taskList) {
+        List<String> descriptions = new ArrayList<>();
+        for (int i = 0; i < taskList.size(); i++) {
+            descriptions.add(taskList.get(i).toString());
+        }
+        return descriptions;
+    }
+
+    private static int[] idsOf(TaskList taskList) {
+        int[] ids = new int[taskList.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = taskList.get(i).getId();
+        }
+        return ids;
+    }
+}